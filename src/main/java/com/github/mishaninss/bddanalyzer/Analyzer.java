@@ -1,20 +1,77 @@
 package com.github.mishaninss.bddanalyzer;
 
 
+import com.github.mishaninss.bddanalyzer.daemon.ProjectDaemon;
 import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.shard.ShardCoordinator;
+import com.github.mishaninss.bddanalyzer.shard.ShardWorker;
 
+import java.nio.file.Paths;
+
+/**
+ * Commands:
+ * <pre>
+ * shard &lt;step defs root&gt; &lt;features root&gt; &lt;shard&gt; &lt;shards count&gt; &lt;output dir&gt;  scans one shard
+ * merge &lt;output dir&gt;  merges partial results of all shards and prints statistics
+ * sharded-scan &lt;step defs root&gt; &lt;features root&gt; &lt;shards count&gt; &lt;output dir&gt;  scans shards in local processes and merges them
+ * daemon &lt;step defs root&gt; &lt;features root&gt; &lt;port&gt;  keeps the project up to date and answers queries over HTTP
+ * link-speedup &lt;step defs root&gt; &lt;features root&gt; &lt;parallelism&gt;  compares serial and parallel linking of steps
+ * </pre>
+ * Without arguments the project of the default roots is scanned
+ */
 public class Analyzer {
 
     private static final String STEP_DEF_ROOT = "";
     private static final String FEATURES_ROOT = "";
 
-    public static void main(String[] args){
-        ArmaProject project = new ArmaProject(STEP_DEF_ROOT, FEATURES_ROOT);
-        project.scan();
-        project.printStatistics();
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0){
+            ArmaProject project = new ArmaProject(STEP_DEF_ROOT, FEATURES_ROOT);
+            project.scan();
+            project.printStatistics();
+
+            project.getNotImplementedSteps().forEach(System.out::println);
+            return;
+        }
 
-        project.getNotImplementedSteps().forEach(System.out::println);
+        switch (args[0]){
+            case "shard":
+                checkArguments(args, 6);
+                new ShardWorker(args[1], args[2]).scan(Integer.parseInt(args[3]), Integer.parseInt(args[4]), Paths.get(args[5]));
+                break;
+            case "merge":
+                checkArguments(args, 2);
+                merge(new ShardCoordinator(Paths.get(args[1])));
+                break;
+            case "sharded-scan":
+                checkArguments(args, 5);
+                ShardCoordinator coordinator = new ShardCoordinator(Paths.get(args[4]));
+                coordinator.runWorkers(args[1], args[2], Integer.parseInt(args[3]));
+                merge(coordinator);
+                break;
+            case "daemon":
+                checkArguments(args, 4);
+                new ProjectDaemon(args[1], args[2]).start(Integer.parseInt(args[3]), Runtime.getRuntime().availableProcessors());
+                break;
+            case "link-speedup":
+                checkArguments(args, 4);
+                ArmaProject project = new ArmaProject(args[1], args[2]);
+                project.scan();
+                project.printLinkSpeedup(Integer.parseInt(args[3]));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown command [" + args[0] + "]");
+        }
     }
 
+    private static void merge(ShardCoordinator coordinator) throws Exception {
+        System.out.println(coordinator.mergeStats());
+        coordinator.mergeProject().printStatistics();
+    }
 
+    private static void checkArguments(String[] args, int count){
+        if (args.length != count){
+            throw new IllegalArgumentException("command [" + args[0] + "] takes " + (count - 1) + " arguments");
+        }
+    }
 }
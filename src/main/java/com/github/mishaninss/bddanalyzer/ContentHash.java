@@ -0,0 +1,78 @@
+package com.github.mishaninss.bddanalyzer;
+
+import java.io.Writer;
+
+/**
+ * 64-bit FNV-1a hashes of file contents and rendered texts, used to detect changed files.
+ * Not intended for security purposes.
+ */
+public final class ContentHash {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ContentHash(){
+
+    }
+
+    public static long of(byte[] bytes){
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b: bytes){
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public static long of(CharSequence text){
+        HashingWriter writer = new HashingWriter();
+        writer.append(text);
+        return writer.getHash();
+    }
+
+    /**
+     * Writer which doesn't keep the written text, only its hash
+     */
+    public static class HashingWriter extends Writer {
+        private long hash = FNV_OFFSET_BASIS;
+
+        @Override
+        public void write(int c){
+            hash = (hash ^ (char) c) * FNV_PRIME;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length){
+            for (int i = offset; i < offset + length; i++){
+                hash = (hash ^ buffer[i]) * FNV_PRIME;
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length){
+            for (int i = offset; i < offset + length; i++){
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+        }
+
+        @Override
+        public Writer append(CharSequence text){
+            for (int i = 0; i < text.length(); i++){
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+            return this;
+        }
+
+        public long getHash(){
+            return hash;
+        }
+
+        @Override
+        public void flush(){
+
+        }
+
+        @Override
+        public void close(){
+
+        }
+    }
+}
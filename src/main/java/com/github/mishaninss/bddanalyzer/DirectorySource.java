@@ -0,0 +1,48 @@
+package com.github.mishaninss.bddanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Files of a directory and its subdirectories
+ */
+public class DirectorySource implements ScanSource {
+    private final File root;
+
+    public DirectorySource(File root){
+        this.root = root;
+    }
+
+    @Override
+    public boolean exists(){
+        return root.exists();
+    }
+
+    @Override
+    public List<String> list(String extension) throws IOException {
+        String suffix = "." + extension;
+        try (Stream<Path> files = Files.walk(root.toPath())){
+            return files.filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(path -> path.endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public byte[] read(String path) throws IOException {
+        return Files.readAllBytes(Paths.get(path));
+    }
+
+    @Override
+    public String toString(){
+        return root.getPath();
+    }
+}
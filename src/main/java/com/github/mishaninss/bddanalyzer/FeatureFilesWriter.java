@@ -0,0 +1,170 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeatureSource;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Writes changed features back to their feature files.
+ * Features are rendered by {@link GherkinWriter} in parallel. A file is written only when the rendered content differs
+ * from the rendering of the feature right after scanning, so untouched features keep their original formatting.
+ * Files are written to a temporary file in the same directory first and then atomically moved over the original,
+ * so an interrupted write never leaves a truncated feature file.
+ * Original encoding, BOM and line endings are preserved.
+ */
+public class FeatureFilesWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(FeatureFilesWriter.class);
+    private static final String BOM = "\uFEFF";
+
+    private final ForkJoinPool pool;
+    private boolean dropComments;
+
+    public enum Status {
+        WRITTEN,
+        UNCHANGED,
+        /** The file was changed on disk after it had been scanned */
+        CONFLICT,
+        /** The file contains comments, which are not kept in the model */
+        SKIPPED,
+        FAILED
+    }
+
+    @Data
+    public static class Result {
+        private final String file;
+        private final Status status;
+        private final String message;
+    }
+
+    public FeatureFilesWriter(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FeatureFilesWriter(ForkJoinPool pool){
+        this.pool = pool;
+    }
+
+    /**
+     * Allows rewriting of files with comments. Comments are not kept in the model and are lost on rewrite
+     */
+    public FeatureFilesWriter withDropComments(boolean dropComments){
+        this.dropComments = dropComments;
+        return this;
+    }
+
+    public List<Result> write(Collection<ArmaFeature> features){
+        List<Result> results;
+        try {
+            results = pool.submit(() -> features.parallelStream()
+                    .map(this::write)
+                    .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Writing of feature files was interrupted", ex);
+        } catch (ExecutionException ex){
+            throw new IllegalStateException("Writing of feature files failed", ex.getCause());
+        }
+        LOG.info("{} of {} feature files written", results.stream().filter(result -> result.getStatus() == Status.WRITTEN).count(), results.size());
+        return results;
+    }
+
+    public Result write(ArmaFeature feature){
+        String file = feature.getLocation() == null ? null : feature.getLocation().getFile();
+        if (file == null){
+            return new Result(null, Status.FAILED, "feature [" + feature.getName() + "] has no file location");
+        }
+        try {
+            ArmaFeatureSource source = feature.getSource() != null ? feature.getSource() : new ArmaFeatureSource();
+            StringWriter rendered = new StringWriter();
+            new GherkinWriter(rendered, source.getLineSeparator()).write(feature);
+            long renderedHash = ContentHash.of(rendered.getBuffer());
+            if (feature.getSource() != null && renderedHash == source.getRenderedHash()){
+                return new Result(file, Status.UNCHANGED, null);
+            }
+            if (source.getCommentsCount() > 0 && !dropComments){
+                return new Result(file, Status.SKIPPED, source.getCommentsCount() + " comments would be lost");
+            }
+
+            byte[] content = encode(rendered, source);
+            Path path = Paths.get(file);
+            if (Files.exists(path)){
+                long currentHash = ContentHash.of(Files.readAllBytes(path));
+                if (feature.getSource() != null && currentHash != source.getContentHash()){
+                    return new Result(file, Status.CONFLICT, "file was changed after scanning");
+                }
+            }
+            writeAtomically(path, content);
+
+            source.setContentHash(ContentHash.of(content));
+            source.setRenderedHash(renderedHash);
+            feature.setSource(source);
+            LOG.info("Feature file {} written", file);
+            return new Result(file, Status.WRITTEN, null);
+        } catch (Exception ex){
+            LOG.error("Couldn't write [" + file + "] feature file", ex);
+            return new Result(file, Status.FAILED, ex.getMessage());
+        }
+    }
+
+    private static byte[] encode(StringWriter rendered, ArmaFeatureSource source){
+        String text = rendered.toString();
+        if (!source.isFinalNewline() && text.endsWith(source.getLineSeparator())){
+            text = text.substring(0, text.length() - source.getLineSeparator().length());
+        }
+        Charset charset = Charset.forName(source.getEncoding());
+        byte[] bytes = text.getBytes(charset);
+        if (!source.isBom()){
+            return bytes;
+        }
+        byte[] bom = BOM.getBytes(charset);
+        byte[] content = new byte[bom.length + bytes.length];
+        System.arraycopy(bom, 0, content, 0, bom.length);
+        System.arraycopy(bytes, 0, content, bom.length, bytes.length);
+        return content;
+    }
+
+    private static void writeAtomically(Path path, byte[] content) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tempFile = Files.createTempFile(dir, "." + path.getFileName(), ".tmp");
+        try {
+            Files.write(tempFile, content);
+            copyPermissions(path, tempFile);
+            try {
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex){
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        if (!Files.exists(from)){
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+        } catch (UnsupportedOperationException ex){
+            LOG.debug("File permissions are not supported for {}", from);
+        }
+    }
+}
@@ -1,60 +1,192 @@
 package com.github.mishaninss.bddanalyzer;
 
 import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeatureSource;
 import gherkin.AstBuilder;
 import gherkin.Parser;
 import gherkin.ast.GherkinDocument;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.Collection;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
- * Provides methods to parse feature files and build a data model
+ * Provides methods to parse feature files and build a data model.
+ * Feature files are read from a {@link ScanSource} and parsed in parallel
  * Created by Sergey_Mishanin on 9/29/17.
  */
 public class GherkinScanner {
     private static final Logger LOG = LoggerFactory.getLogger(GherkinScanner.class);
     private final String featuresRoot;
+    private final ScanSource source;
+    private ParseCache parseCache;
     private static final String FEATURE_FILE_EXTENSION = "feature";
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] UTF16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    private static final byte[] UTF16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+    private static final ThreadLocal<Parser<GherkinDocument>> PARSER = ThreadLocal.withInitial(() -> new Parser<>(new AstBuilder()));
 
+    /**
+     * @param featuresRoot directory or archive, see {@link ScanSource#of(String)}
+     */
     public GherkinScanner(String featuresRoot){
         this.featuresRoot = featuresRoot;
+        this.source = null;
+    }
+
+    public GherkinScanner(ScanSource source){
+        this.featuresRoot = source.toString();
+        this.source = source;
+    }
+
+    /**
+     * Parsed features are taken from the cache by contents of feature files, cached features are copied
+     */
+    public GherkinScanner withParseCache(ParseCache parseCache){
+        this.parseCache = parseCache;
+        return this;
     }
 
     public List<ArmaFeature> collectFeatures(){
         if (StringUtils.isBlank(featuresRoot)){
             throw new IllegalArgumentException("feature files root directory is not defined");
         }
-        File featuresRootDir = new File(featuresRoot);
-        if (!featuresRootDir.exists()){
+        if (source != null){
+            return collectFeatures(source);
+        }
+        try (ScanSource rootSource = ScanSource.of(featuresRoot)){
+            return collectFeatures(rootSource);
+        } catch (IOException ex){
+            throw new UncheckedIOException("Couldn't read feature files root [" + featuresRoot + "]", ex);
+        }
+    }
+
+    private List<ArmaFeature> collectFeatures(ScanSource featuresSource){
+        if (!featuresSource.exists()){
             throw new IllegalArgumentException("feature files root directory [" + featuresRoot + "] doesn't exist");
         }
-        Collection<File> featureFiles = FileUtils.listFiles(featuresRootDir, new String[] {FEATURE_FILE_EXTENSION}, true);
+        List<String> featureFiles;
+        try {
+            featureFiles = featuresSource.list(FEATURE_FILE_EXTENSION);
+        } catch (IOException ex){
+            throw new UncheckedIOException("Couldn't list feature files of [" + featuresRoot + "]", ex);
+        }
         if (CollectionUtils.isEmpty(featureFiles)){
             throw new IllegalArgumentException("feature files root directory [" + featuresRoot + "] doesn't contain files with [" + FEATURE_FILE_EXTENSION + "] extension");
         }
 
-        List<ArmaFeature> features = new LinkedList<>();
-        Parser<GherkinDocument> parser = new Parser<>(new AstBuilder());
-        featureFiles.forEach(featureFile ->
-        {
-            try {
+        return featureFiles.parallelStream()
+                .map(featureFile -> parseFeatureFile(featuresSource, featureFile))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedList::new));
+    }
+
+    private ArmaFeature parseFeatureFile(ScanSource featuresSource, String featureFile){
+        try {
+            byte[] content = featuresSource.read(featureFile);
+            ArmaFeature feature;
+            if (parseCache == null){
                 LOG.info("Parsing feature file {}", featureFile);
-                GherkinDocument gherkinDocument = parser.parse(FileUtils.readFileToString(featureFile));
-                ArmaFeature feature = new ArmaFeature(gherkinDocument.getFeature());
-                feature.setLocation(featureFile);
-                features.add(feature);
-            } catch (Exception e) {
-                LOG.error("Couldn't parse [" + featureFile + "] feature file", e);
+                feature = parseFeature(content);
+            } else {
+                ArmaFeature cached = parseCache.getFeature(ParseCache.blobId(content), featureFile, content);
+                feature = cached == null ? null : new ArmaFeature(cached);
             }
-        });
-        return features;
+            if (feature != null){
+                feature.setLocation(new File(featureFile));
+            }
+            return feature;
+        } catch (Exception e) {
+            LOG.error("Couldn't parse [" + featureFile + "] feature file", e);
+            return null;
+        }
+    }
+
+    /**
+     * Parses feature file content with a parser of the current thread
+     */
+    public static ArmaFeature parseFeature(byte[] content) throws IOException {
+        return parseFeature(PARSER.get(), content);
+    }
+
+    /**
+     * Parses feature file content. Encoding, line endings and content hashes of the file
+     * are kept in the {@link ArmaFeatureSource} of the feature.
+     */
+    public static ArmaFeature parseFeature(Parser<GherkinDocument> parser, byte[] content) throws IOException {
+        ArmaFeatureSource source = new ArmaFeatureSource();
+        source.setContentHash(ContentHash.of(content));
+        String text = decode(content, source);
+        int newLineIndex = text.indexOf('\n');
+        source.setLineSeparator(newLineIndex > 0 && text.charAt(newLineIndex - 1) == '\r' ? "\r\n" : "\n");
+        source.setFinalNewline(text.endsWith("\n"));
+
+        GherkinDocument gherkinDocument = parser.parse(text);
+        source.setCommentsCount(CollectionUtils.size(gherkinDocument.getComments()));
+        ArmaFeature feature = new ArmaFeature(gherkinDocument.getFeature());
+        ContentHash.HashingWriter hashingWriter = new ContentHash.HashingWriter();
+        new GherkinWriter(hashingWriter, source.getLineSeparator()).write(feature);
+        source.setRenderedHash(hashingWriter.getHash());
+        feature.setSource(source);
+        return feature;
+    }
+
+    /**
+     * Decodes file content. Encoding is detected by BOM, files without BOM are decoded as UTF-8
+     * if they are valid UTF-8, otherwise the platform default encoding is used.
+     */
+    private static String decode(byte[] content, ArmaFeatureSource source){
+        Charset charset;
+        int offset = 0;
+        if (startsWith(content, UTF8_BOM)){
+            charset = StandardCharsets.UTF_8;
+            offset = UTF8_BOM.length;
+        } else if (startsWith(content, UTF16BE_BOM)){
+            charset = StandardCharsets.UTF_16BE;
+            offset = UTF16BE_BOM.length;
+        } else if (startsWith(content, UTF16LE_BOM)){
+            charset = StandardCharsets.UTF_16LE;
+            offset = UTF16LE_BOM.length;
+        } else {
+            try {
+                String text = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(content))
+                        .toString();
+                source.setEncoding(StandardCharsets.UTF_8.name());
+                return text;
+            } catch (CharacterCodingException ex){
+                charset = Charset.defaultCharset();
+            }
+        }
+        source.setEncoding(charset.name());
+        source.setBom(offset > 0);
+        return new String(content, offset, content.length - offset, charset);
+    }
+
+    private static boolean startsWith(byte[] content, byte[] prefix){
+        if (content.length < prefix.length){
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++){
+            if (content[i] != prefix[i]){
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,385 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Streams Gherkin model objects directly to a {@link Writer}.
+ * Nested nodes are written line by line with the current indentation taken from an indentation stack,
+ * no intermediate strings are built for nested nodes. Column widths of tables are precomputed once per table.
+ * The output can be parsed back by the Gherkin parser, so the writer is used both for printing
+ * and for writing feature files to disk.
+ */
+public class GherkinWriter implements Flushable {
+    private static final String DEFAULT_LINE_SEPARATOR = "\n";
+    private static final String INDENT = "  ";
+    private static final String DOC_STRING_SEPARATOR = "\"\"\"";
+    private static final String ALTERNATIVE_DOC_STRING_SEPARATOR = "```";
+    private static final String ESCAPED_DOC_STRING_SEPARATOR = "\\\"\\\"\\\"";
+    private static final String CELL_SEPARATOR = "|";
+
+    private final Writer out;
+    private final String lineSeparator;
+    private String[] indents = new String[]{"", INDENT, INDENT + INDENT, INDENT + INDENT + INDENT};
+    private int depth;
+    private boolean stepDefInfo;
+
+    public GherkinWriter(Writer out){
+        this(out, DEFAULT_LINE_SEPARATOR);
+    }
+
+    public GherkinWriter(Writer out, String lineSeparator){
+        this.out = out;
+        this.lineSeparator = lineSeparator == null ? DEFAULT_LINE_SEPARATOR : lineSeparator;
+    }
+
+    /**
+     * Adds a comment with the step definition location (or NOT IMPLEMENTED mark) after each step
+     */
+    public GherkinWriter withStepDefInfo(boolean stepDefInfo){
+        this.stepDefInfo = stepDefInfo;
+        return this;
+    }
+
+    public void write(ArmaFeature feature) throws IOException {
+        writeTags(feature.getTags());
+        writeHeader(feature.getKeyword(), "Feature", feature.getName());
+        push();
+        writeDescription(feature.getDescription());
+        if (feature.hasBackground()){
+            newLine();
+            write(feature.getBackground());
+        }
+        if (feature.getScenarios() != null){
+            for (ArmaScenario scenario: feature.getScenarios()){
+                newLine();
+                write(scenario);
+            }
+        }
+        pop();
+    }
+
+    public void write(ArmaScenario scenario) throws IOException {
+        if (scenario instanceof ArmaBackground){
+            writeHeader(scenario.getKeyword(), "Background", scenario.getName());
+        } else if (scenario instanceof ArmaScenarioOutline){
+            writeTags(scenario.getTags());
+            writeHeader(scenario.getKeyword(), "Scenario Outline", scenario.getName());
+        } else {
+            writeTags(scenario.getTags());
+            writeHeader(scenario.getKeyword(), "Scenario", scenario.getName());
+        }
+        push();
+        writeDescription(scenario.getDescription());
+        if (scenario.getSteps() != null){
+            for (ArmaStep step: scenario.getSteps()){
+                write(step);
+            }
+        }
+        if (scenario instanceof ArmaScenarioOutline && ((ArmaScenarioOutline) scenario).getExamples() != null){
+            for (ArmaExamples examples: ((ArmaScenarioOutline) scenario).getExamples()){
+                newLine();
+                write(examples);
+            }
+        }
+        pop();
+    }
+
+    public void write(ArmaStep step) throws IOException {
+        indent();
+        out.write(StringUtils.defaultString(step.getKeyword()));
+        out.write(' ');
+        out.write(StringUtils.defaultString(step.getText()));
+        if (stepDefInfo){
+            if (step.getStepDef() == null){
+                out.write(" # NOT IMPLEMENTED");
+            } else {
+                out.write(" # IMPLEMENTED IN ");
+                out.write(String.valueOf(step.getStepDef().getLocation()));
+            }
+        }
+        out.write(lineSeparator);
+
+        Object argument = step.getArgument();
+        if (argument instanceof ArmaDataTable){
+            push();
+            write((ArmaDataTable) argument);
+            pop();
+        } else if (argument instanceof ArmaDocString){
+            push();
+            write((ArmaDocString) argument);
+            pop();
+        }
+    }
+
+    public void write(ArmaExamples examples) throws IOException {
+        writeTags(examples.getTags());
+        writeHeader(examples.getKeyword(), "Examples", examples.getName());
+        push();
+        writeDescription(examples.getDescription());
+        ArmaTable table = examples.getTable();
+        if (table.getColumnCount() > 0){
+            int[] width = calculateColumnsWidth(table, true);
+            writeRow(table, -1, width);
+            for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+                writeRow(table, rowIndex, width);
+            }
+        }
+        pop();
+    }
+
+    public void write(ArmaDataTable dataTable) throws IOException {
+        ArmaTable table = dataTable.getTable();
+        int[] width = calculateColumnsWidth(table, false);
+        for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+            writeRow(table, rowIndex, width);
+        }
+    }
+
+    /**
+     * Writes the doc string between {@code """}. Content containing {@code """} is written between {@code ```},
+     * or with escaped {@code \"\"\"} if it contains both separators, so the doc string isn't closed early
+     */
+    public void write(ArmaDocString docString) throws IOException {
+        String content = docString.getContent();
+        String separator = DOC_STRING_SEPARATOR;
+        if (content != null && content.contains(DOC_STRING_SEPARATOR)){
+            if (content.contains(ALTERNATIVE_DOC_STRING_SEPARATOR)){
+                content = content.replace(DOC_STRING_SEPARATOR, ESCAPED_DOC_STRING_SEPARATOR);
+            } else {
+                separator = ALTERNATIVE_DOC_STRING_SEPARATOR;
+            }
+        }
+        indent();
+        out.write(separator);
+        out.write(StringUtils.defaultString(docString.getContentType()));
+        out.write(lineSeparator);
+        writeLines(content, false);
+        line(separator);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public static String toString(ArmaFeature feature){
+        StringWriter writer = new StringWriter();
+        try {
+            new GherkinWriter(writer).write(feature);
+        } catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return StringUtils.stripEnd(writer.toString(), null);
+    }
+
+    public static String toString(ArmaScenario scenario){
+        StringWriter writer = new StringWriter();
+        try {
+            new GherkinWriter(writer).write(scenario);
+        } catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return StringUtils.stripEnd(writer.toString(), null);
+    }
+
+    public static String toString(ArmaStep step, boolean stepDefInfo){
+        StringWriter writer = new StringWriter();
+        try {
+            new GherkinWriter(writer).withStepDefInfo(stepDefInfo).write(step);
+        } catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return StringUtils.stripEnd(writer.toString(), null);
+    }
+
+    public static String toString(ArmaExamples examples){
+        StringWriter writer = new StringWriter();
+        try {
+            new GherkinWriter(writer).write(examples);
+        } catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return StringUtils.stripEnd(writer.toString(), null);
+    }
+
+    public static String toString(ArmaDocString docString){
+        StringWriter writer = new StringWriter();
+        try {
+            new GherkinWriter(writer).write(docString);
+        } catch (IOException ex){
+            throw new UncheckedIOException(ex);
+        }
+        return StringUtils.stripEnd(writer.toString(), null);
+    }
+
+    private void writeTags(Collection<ArmaTag> tags) throws IOException {
+        if (tags == null || tags.isEmpty()){
+            return;
+        }
+        indent();
+        boolean first = true;
+        for (ArmaTag tag: tags){
+            if (!first){
+                out.write(' ');
+            }
+            out.write(tag.getName());
+            first = false;
+        }
+        out.write(lineSeparator);
+    }
+
+    /**
+     * Model nodes keep keywords capitalized ("Scenario outline"), which is not a valid Gherkin keyword,
+     * so known keywords are written in their canonical form
+     */
+    private void writeHeader(String keyword, String defaultKeyword, String name) throws IOException {
+        indent();
+        if (StringUtils.isBlank(keyword) || defaultKeyword.equalsIgnoreCase(keyword)){
+            out.write(defaultKeyword);
+        } else {
+            out.write(keyword);
+        }
+        out.write(':');
+        if (StringUtils.isNotBlank(name)){
+            out.write(' ');
+            out.write(name);
+        }
+        out.write(lineSeparator);
+    }
+
+    private void writeDescription(String description) throws IOException {
+        if (StringUtils.isNotBlank(description)){
+            writeLines(description, true);
+        }
+    }
+
+    private void writeLines(String text, boolean stripLines) throws IOException {
+        if (text == null){
+            return;
+        }
+        int start = 0;
+        while (start <= text.length()){
+            int end = text.indexOf('\n', start);
+            if (end < 0){
+                end = text.length();
+            }
+            int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            String line = text.substring(start, lineEnd);
+            if (stripLines){
+                line = StringUtils.strip(line);
+            }
+            if (line.isEmpty()){
+                out.write(lineSeparator);
+            } else {
+                line(line);
+            }
+            start = end + 1;
+        }
+    }
+
+    private void writeRow(ArmaTable table, int rowIndex, int[] width) throws IOException {
+        indent();
+        out.write(CELL_SEPARATOR);
+        for (int colIndex = 0; colIndex < width.length; colIndex++){
+            String value = rowIndex < 0 ? table.getName(colIndex) : table.getValue(colIndex, rowIndex);
+            out.write(' ');
+            int length = writeEscaped(value);
+            pad(width[colIndex] - length + 1);
+            out.write(CELL_SEPARATOR);
+        }
+        out.write(lineSeparator);
+    }
+
+    private int writeEscaped(String value) throws IOException {
+        if (value == null){
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if (c == '|' || c == '\\'){
+                out.write('\\');
+                out.write(c);
+                length += 2;
+            } else if (c == '\n'){
+                out.write("\\n");
+                length += 2;
+            } else {
+                out.write(c);
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private static int escapedLength(String value){
+        if (value == null){
+            return 0;
+        }
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if (c == '|' || c == '\\' || c == '\n'){
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private static int[] calculateColumnsWidth(ArmaTable table, boolean includeNames){
+        int[] width = new int[table.getColumnCount()];
+        for (int colIndex = 0; colIndex < width.length; colIndex++){
+            int maxLength = includeNames ? escapedLength(table.getName(colIndex)) : 0;
+            for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+                maxLength = Math.max(maxLength, escapedLength(table.getValue(colIndex, rowIndex)));
+            }
+            width[colIndex] = maxLength;
+        }
+        return width;
+    }
+
+    private void pad(int count) throws IOException {
+        for (int i = 0; i < count; i++){
+            out.write(' ');
+        }
+    }
+
+    private void line(String text) throws IOException {
+        indent();
+        out.write(text);
+        out.write(lineSeparator);
+    }
+
+    private void newLine() throws IOException {
+        out.write(lineSeparator);
+    }
+
+    private void indent() throws IOException {
+        out.write(indents[depth]);
+    }
+
+    private void push(){
+        depth++;
+        if (depth >= indents.length){
+            indents = Arrays.copyOf(indents, depth * 2);
+            for (int i = 0; i < indents.length; i++){
+                if (indents[i] == null){
+                    indents[i] = indents[i - 1] + INDENT;
+                }
+            }
+        }
+    }
+
+    private void pop(){
+        depth--;
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed feature files and step definition files keyed by ids of their contents, so equal contents are parsed once.
+ * Ids are git blob ids, contents read from a git object database are looked up by their object ids without hashing,
+ * contents read from other sources are hashed by {@link #blobId(byte[])}.
+ * Cached features are shared, callers copy a feature before changing it. Files which can't be parsed are cached as null
+ * features and empty step definition lists. The cache is thread-safe.
+ */
+public class ParseCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ParseCache.class);
+    private static final Object NOT_PARSED = new Object();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Map<String, Object> features = new ConcurrentHashMap<>();
+    private final Map<String, List<ArmaStepDef>> stepDefs = new ConcurrentHashMap<>();
+
+    /**
+     * @param path used for logging only
+     * @return parsed feature, or null if the content can't be parsed
+     */
+    public ArmaFeature getFeature(String blobId, String path, byte[] content){
+        Object feature = features.computeIfAbsent(blobId, id -> {
+            try {
+                LOG.info("Parsing feature file {}", path);
+                return GherkinScanner.parseFeature(content);
+            } catch (Exception ex){
+                LOG.error("Couldn't parse [" + path + "] feature file", ex);
+                return NOT_PARSED;
+            }
+        });
+        return feature == NOT_PARSED ? null : (ArmaFeature) feature;
+    }
+
+    /**
+     * @param path written to locations of the step definitions parsed first, locations of cached definitions are kept
+     */
+    public List<ArmaStepDef> getStepDefinitions(String blobId, String path, byte[] content){
+        return stepDefs.computeIfAbsent(blobId, id -> {
+            try {
+                LOG.info("Parsing step definition file {}", path);
+                return Collections.unmodifiableList(StepDefinitionsScanner.parseStepDefinitions(path, new ByteArrayInputStream(content)));
+            } catch (Exception ex){
+                LOG.error("Couldn't parse [" + path + "] step definition file", ex);
+                return Collections.emptyList();
+            }
+        });
+    }
+
+    /**
+     * @return parsed feature, or null if the content is not parsed yet or can't be parsed
+     */
+    public ArmaFeature getFeature(String blobId){
+        Object feature = features.get(blobId);
+        return feature == NOT_PARSED ? null : (ArmaFeature) feature;
+    }
+
+    /**
+     * @return parsed step definitions, or an empty list if the content is not parsed yet or can't be parsed
+     */
+    public List<ArmaStepDef> getStepDefinitions(String blobId){
+        return stepDefs.getOrDefault(blobId, Collections.emptyList());
+    }
+
+    public boolean containsFeature(String blobId){
+        return features.containsKey(blobId);
+    }
+
+    public boolean containsStepDefinitions(String blobId){
+        return stepDefs.containsKey(blobId);
+    }
+
+    public int size(){
+        return features.size() + stepDefs.size();
+    }
+
+    public void clear(){
+        features.clear();
+        stepDefs.clear();
+    }
+
+    /**
+     * Git blob id of the content: SHA-1 of the {@code blob <length>\0} header followed by the content
+     */
+    public static String blobId(byte[] content){
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            byte[] hash = digest.digest(content);
+            char[] hex = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++){
+                hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException ex){
+            throw new IllegalStateException(ex);
+        }
+    }
+}
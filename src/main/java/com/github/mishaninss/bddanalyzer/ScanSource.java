@@ -0,0 +1,42 @@
+package com.github.mishaninss.bddanalyzer;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Files scanned by {@link GherkinScanner} and {@link StepDefinitionsScanner}: a directory or entries of a zip/jar archive.
+ * Files are identified by their paths, which become file names in locations of the parsed features and step definitions.
+ * Files are read concurrently.
+ */
+public interface ScanSource extends Closeable {
+    String ARCHIVE_SEPARATOR = "!/";
+
+    boolean exists();
+
+    /**
+     * @return paths of files with the extension, sorted
+     */
+    List<String> list(String extension) throws IOException;
+
+    byte[] read(String path) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Source of the root: a directory, an archive with a {@code .zip} or {@code .jar} extension,
+     * or a directory within an archive written as {@code archive.jar!/directory}
+     */
+    static ScanSource of(String root){
+        String archive = StringUtils.substringBefore(root, ARCHIVE_SEPARATOR);
+        if (root.contains(ARCHIVE_SEPARATOR) || new File(archive).isFile() && ZipSource.isArchive(archive)){
+            return new ZipSource(new File(archive), StringUtils.substringAfter(root, ARCHIVE_SEPARATOR));
+        }
+        return new DirectorySource(new File(root));
+    }
+}
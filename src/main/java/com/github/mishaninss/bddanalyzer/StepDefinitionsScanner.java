@@ -14,27 +14,31 @@ import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
 import com.github.mishaninss.bddanalyzer.model.ArmaStepDefLocation;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
+ * Parses step definitions of Java files read from a {@link ScanSource}, files are parsed in parallel
  * Created by Sergey_Mishanin on 9/29/17.
  */
 public class StepDefinitionsScanner {
     private static final Logger LOG = LoggerFactory.getLogger(StepDefinitionsScanner.class);
     private final String stepDefsRoot;
+    private final ScanSource source;
+    private ParseCache parseCache;
     private static final String STEP_DEF_FILE_EXTENSION = "java";
     private static final Set<String> STEP_ANNOTATIONS = new HashSet<>();
 
@@ -46,42 +50,101 @@ public class StepDefinitionsScanner {
         STEP_ANNOTATIONS.add("but");
     }
 
+    /**
+     * @param stepDefsRoot directory or archive, see {@link ScanSource#of(String)}
+     */
     public StepDefinitionsScanner(String stepDefsRoot) {
         this.stepDefsRoot = stepDefsRoot;
+        this.source = null;
+    }
+
+    public StepDefinitionsScanner(ScanSource source) {
+        this.stepDefsRoot = source.toString();
+        this.source = source;
+    }
+
+    /**
+     * Parsed step definitions are taken from the cache by contents of files, cached step definitions are copied
+     */
+    public StepDefinitionsScanner withParseCache(ParseCache parseCache) {
+        this.parseCache = parseCache;
+        return this;
     }
 
     public List<ArmaStepDef> collectStepDefinitions() {
         if (StringUtils.isBlank(stepDefsRoot)) {
             throw new IllegalArgumentException("step definition files root directory is not defined");
         }
-        File stepDefDir = new File(stepDefsRoot);
-        if (!stepDefDir.exists()) {
+        if (source != null) {
+            return collectStepDefinitions(source);
+        }
+        try (ScanSource rootSource = ScanSource.of(stepDefsRoot)) {
+            return collectStepDefinitions(rootSource);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Couldn't read step definition files root [" + stepDefsRoot + "]", ex);
+        }
+    }
+
+    private List<ArmaStepDef> collectStepDefinitions(ScanSource stepDefsSource) {
+        if (!stepDefsSource.exists()) {
             throw new IllegalArgumentException("step definition files root directory [" + stepDefsRoot + "] doesn't exist");
         }
-        Collection<File> stepDefFiles = FileUtils.listFiles(stepDefDir, new String[]{STEP_DEF_FILE_EXTENSION}, true);
+        List<String> stepDefFiles;
+        try {
+            stepDefFiles = stepDefsSource.list(STEP_DEF_FILE_EXTENSION);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Couldn't list step definition files of [" + stepDefsRoot + "]", ex);
+        }
         if (CollectionUtils.isEmpty(stepDefFiles)) {
             throw new IllegalArgumentException("step definition files root directory [" + stepDefsRoot + "] doesn't contain files with [" + STEP_DEF_FILE_EXTENSION + "] extension");
         }
-        List<ArmaStepDef> stepDefs = new LinkedList<>();
-
-        stepDefFiles.forEach(file -> {
-            LOG.info("Parsing step definition file {}", file);
-            try {
-                stepDefs.addAll(scanStepDefFile(file));
-            } catch (Exception ex) {
-                LOG.error("Couldn't parse [" + file + "] step definition file", ex);
-            }
-        });
-        return stepDefs;
+
+        return stepDefFiles.parallelStream()
+                .map(file -> scanStepDefFile(stepDefsSource, file))
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(LinkedList::new));
     }
 
-    private static List<ArmaStepDef> scanStepDefFile(File file) throws IOException, ParseException {
-        List<ArmaStepDef> steps = new ArrayList<>();
+    private List<ArmaStepDef> scanStepDefFile(ScanSource stepDefsSource, String file) {
+        try {
+            byte[] content = stepDefsSource.read(file);
+            if (parseCache == null) {
+                LOG.info("Parsing step definition file {}", file);
+                return parseStepDefinitions(file, new ByteArrayInputStream(content));
+            }
+            return parseCache.getStepDefinitions(ParseCache.blobId(content), file, content).stream()
+                    .map(stepDef -> copy(stepDef, file))
+                    .collect(Collectors.toList());
+        } catch (Exception ex) {
+            LOG.error("Couldn't parse [" + file + "] step definition file", ex);
+            return Collections.emptyList();
+        }
+    }
 
-        CompilationUnit cu;
-        try (FileInputStream in = new FileInputStream(file)) {
-            cu = JavaParser.parse(in);
+    private static ArmaStepDef copy(ArmaStepDef stepDef, String file) {
+        ArmaStepDef copy = new ArmaStepDef();
+        copy.setText(stepDef.getText());
+        copy.setDescription(stepDef.getDescription());
+        copy.setImplemented(stepDef.isImplemented());
+        if (stepDef.getLocation() != null) {
+            ArmaStepDefLocation location = new ArmaStepDefLocation();
+            location.setFile(file);
+            location.setMethodName(stepDef.getLocation().getMethodName());
+            location.setDeclaration(stepDef.getLocation().getDeclaration());
+            location.setLine(stepDef.getLocation().getLine());
+            location.setColumn(stepDef.getLocation().getColumn());
+            copy.setLocation(location);
         }
+        return copy;
+    }
+
+    /**
+     * Parses step definitions of a Java source
+     * @param path path of the source written to locations of the step definitions
+     */
+    public static List<ArmaStepDef> parseStepDefinitions(String path, InputStream in) throws ParseException {
+        List<ArmaStepDef> steps = new ArrayList<>();
+        CompilationUnit cu = JavaParser.parse(in);
 
         NodeList<TypeDeclaration<?>> types = cu.getTypes();
         types.forEach(type -> {
@@ -92,7 +155,6 @@ public class StepDefinitionsScanner {
                     ArmaStepDef step = createStepDef(method);
                     if (step != null) {
                         ArmaStepDefLocation location = new ArmaStepDefLocation();
-                        String path = file.getPath();
                         location.setFile(path);
                         location.setMethodName(method.getName().asString());
                         location.setDeclaration(method.getDeclarationAsString());
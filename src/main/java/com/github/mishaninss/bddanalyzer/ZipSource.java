@@ -0,0 +1,86 @@
+package com.github.mishaninss.bddanalyzer;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Entries of a zip or jar archive read without extracting them to disk. Paths of entries are written
+ * as {@code archive!/entry}. The archive is opened on first access and stays open until {@link #close()}
+ */
+public class ZipSource implements ScanSource {
+    private final File archive;
+    private final String prefix;
+    private ZipFile zipFile;
+
+    /**
+     * @param directory directory within the archive, empty for the whole archive
+     */
+    public ZipSource(File archive, String directory){
+        this.archive = archive;
+        String path = StringUtils.strip(StringUtils.defaultString(directory).replace('\\', '/'), "/");
+        this.prefix = path.isEmpty() ? "" : path + "/";
+    }
+
+    static boolean isArchive(String path){
+        String lowerCase = path.toLowerCase();
+        return lowerCase.endsWith(".zip") || lowerCase.endsWith(".jar");
+    }
+
+    @Override
+    public boolean exists(){
+        return archive.isFile();
+    }
+
+    @Override
+    public List<String> list(String extension) throws IOException {
+        String suffix = "." + extension;
+        return Collections.list(getZipFile().entries()).stream()
+                .filter(entry -> !entry.isDirectory() && entry.getName().startsWith(prefix) && entry.getName().endsWith(suffix))
+                .map(entry -> archive.getPath() + ARCHIVE_SEPARATOR + entry.getName())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public byte[] read(String path) throws IOException {
+        String name = StringUtils.substringAfter(path, ARCHIVE_SEPARATOR);
+        ZipFile file = getZipFile();
+        ZipEntry entry = file.getEntry(name);
+        if (entry == null){
+            throw new FileNotFoundException(path);
+        }
+        try (InputStream in = file.getInputStream(entry)){
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (zipFile != null){
+            zipFile.close();
+            zipFile = null;
+        }
+    }
+
+    private synchronized ZipFile getZipFile() throws IOException {
+        if (zipFile == null){
+            zipFile = new ZipFile(archive);
+        }
+        return zipFile;
+    }
+
+    @Override
+    public String toString(){
+        return archive.getPath() + (prefix.isEmpty() ? "" : ARCHIVE_SEPARATOR + prefix);
+    }
+}
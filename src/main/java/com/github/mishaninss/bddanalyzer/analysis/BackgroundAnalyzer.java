@@ -0,0 +1,196 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+/**
+ * Suggests moving common first steps of scenarios to a Background.
+ * Scenarios of a feature are put into a trie of their steps, steps are keys by their text and argument,
+ * so only exactly equal steps are shared. Every trie node counts scenarios passing it, the deepest node passed by
+ * enough scenarios with the most saved steps gives the suggestion. Steps with outline parameters end the prefix,
+ * they can't be moved to a Background. Prefixes shared by all scenarios of a feature are put into a second trie
+ * to find features starting with the same steps. Every step is visited a constant number of times.
+ */
+public class BackgroundAnalyzer {
+    private double minShare = 0.8;
+    private int minSteps = 2;
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final Node parent;
+        private final ArmaStep step;
+        private final int depth;
+        private int count;
+        private final List<ArmaFeature> features = new ArrayList<>();
+
+        private Node(Node parent, ArmaStep step){
+            this.parent = parent;
+            this.step = step;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        private Node child(String key, ArmaStep step){
+            return children.computeIfAbsent(key, k -> new Node(this, step));
+        }
+
+        private List<ArmaStep> getSteps(){
+            LinkedList<ArmaStep> steps = new LinkedList<>();
+            for (Node node = this; node.parent != null; node = node.parent){
+                steps.addFirst(node.step);
+            }
+            return steps;
+        }
+    }
+
+    /**
+     * Minimal share of scenarios of a feature which have to start with the common steps
+     */
+    public BackgroundAnalyzer withMinShare(double minShare){
+        this.minShare = minShare;
+        return this;
+    }
+
+    /**
+     * Minimal number of common steps worth a suggestion
+     */
+    public BackgroundAnalyzer withMinSteps(int minSteps){
+        this.minSteps = minSteps;
+        return this;
+    }
+
+    /**
+     * @return suggestions for single features followed by cross-feature suggestions, each ordered by saved steps
+     */
+    public List<BackgroundSuggestion> analyze(ArmaProject project){
+        List<BackgroundSuggestion> suggestions = new ArrayList<>();
+        Node sharedRoot = new Node(null, null);
+        for (ArmaFeature feature: project.getFeatures()){
+            List<ArmaScenario> scenarios = feature.getScenarios();
+            if (scenarios == null || scenarios.size() < 2){
+                continue;
+            }
+            List<List<String>> keys = new ArrayList<>(scenarios.size());
+            Node root = new Node(null, null);
+            for (ArmaScenario scenario: scenarios){
+                List<String> scenarioKeys = getPrefixKeys(scenario);
+                keys.add(scenarioKeys);
+                Node node = root;
+                for (int i = 0; i < scenarioKeys.size(); i++){
+                    node = node.child(scenarioKeys.get(i), scenario.getSteps().get(i));
+                    node.count++;
+                }
+            }
+
+            Node best = findBest(root, Math.max(2, (int) Math.ceil(minShare * scenarios.size())));
+            if (best != null){
+                suggestions.add(toSuggestion(feature, scenarios, keys, best));
+            }
+
+            Node common = root;
+            while (common.children.size() == 1 && common.children.values().iterator().next().count == scenarios.size()){
+                common = common.children.values().iterator().next();
+            }
+            Node shared = sharedRoot;
+            for (ArmaStep step: common.getSteps()){
+                shared = shared.child(key(step), step);
+                shared.count += scenarios.size();
+                shared.features.add(feature);
+            }
+        }
+        suggestions.sort(Comparator.comparingInt(BackgroundSuggestion::getSavedSteps).reversed());
+
+        List<BackgroundSuggestion> crossFeature = new ArrayList<>();
+        collectShared(sharedRoot, crossFeature);
+        crossFeature.sort(Comparator.comparingInt(BackgroundSuggestion::getSavedSteps).reversed());
+        suggestions.addAll(crossFeature);
+        return suggestions;
+    }
+
+    /**
+     * Keys of the first steps of the scenario up to the first step with outline parameters
+     */
+    private static List<String> getPrefixKeys(ArmaScenario scenario){
+        List<String> keys = new ArrayList<>();
+        if (scenario.getSteps() == null){
+            return keys;
+        }
+        for (ArmaStep step: scenario.getSteps()){
+            String key = key(step);
+            if (scenario instanceof ArmaScenarioOutline && key.contains("<") && key.contains(">")){
+                break;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static String key(ArmaStep step){
+        String text = StringUtils.defaultString(step.getText());
+        return step.getArgument() == null ? text : text + "\n" + step.getArgument();
+    }
+
+    /**
+     * Finds the node with the most saved steps among nodes deep enough and passed by enough scenarios
+     */
+    private Node findBest(Node root, int minCount){
+        Node best = null;
+        Deque<Node> stack = new ArrayDeque<>(root.children.values());
+        while (!stack.isEmpty()){
+            Node node = stack.pop();
+            if (node.count < minCount){
+                continue;
+            }
+            if (node.depth >= minSteps && (best == null || saved(node) > saved(best)
+                    || saved(node) == saved(best) && node.count > best.count)){
+                best = node;
+            }
+            stack.addAll(node.children.values());
+        }
+        return best;
+    }
+
+    private static int saved(Node node){
+        return node.depth * (node.count - 1);
+    }
+
+    private static BackgroundSuggestion toSuggestion(ArmaFeature feature, List<ArmaScenario> scenarios,
+                                                     List<List<String>> keys, Node node){
+        BackgroundSuggestion suggestion = new BackgroundSuggestion();
+        suggestion.getFeatures().add(feature);
+        suggestion.getSteps().addAll(node.getSteps());
+        List<String> prefix = new ArrayList<>();
+        for (ArmaStep step: suggestion.getSteps()){
+            prefix.add(key(step));
+        }
+        for (int i = 0; i < scenarios.size(); i++){
+            List<String> scenarioKeys = keys.get(i);
+            boolean starts = scenarioKeys.size() >= prefix.size() && scenarioKeys.subList(0, prefix.size()).equals(prefix);
+            (starts ? suggestion.getScenarios() : suggestion.getExcludedScenarios()).add(scenarios.get(i));
+        }
+        return suggestion;
+    }
+
+    /**
+     * Collects the deepest prefixes shared by at least two features
+     */
+    private void collectShared(Node root, List<BackgroundSuggestion> suggestions){
+        Deque<Node> stack = new ArrayDeque<>(root.children.values());
+        while (!stack.isEmpty()){
+            Node node = stack.pop();
+            if (node.features.size() < 2){
+                continue;
+            }
+            boolean extended = node.children.values().stream().anyMatch(child -> child.features.size() == node.features.size());
+            if (!extended && node.depth >= minSteps){
+                BackgroundSuggestion suggestion = new BackgroundSuggestion();
+                suggestion.getFeatures().addAll(node.features);
+                suggestion.getSteps().addAll(node.getSteps());
+                node.features.forEach(feature -> suggestion.getScenarios().addAll(feature.getScenarios()));
+                suggestions.add(suggestion);
+            }
+            stack.addAll(node.children.values());
+        }
+    }
+}
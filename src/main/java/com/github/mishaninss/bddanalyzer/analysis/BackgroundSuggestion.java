@@ -0,0 +1,59 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaBackground;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Common first steps of scenarios which can be moved to a Background.
+ * A suggestion for a single feature lists the scenarios starting with the steps and the scenarios which do not,
+ * a cross-feature suggestion lists features whose scenarios all start with the steps
+ */
+@Data
+public class BackgroundSuggestion {
+    private final List<ArmaFeature> features = new ArrayList<>();
+    private final List<ArmaStep> steps = new ArrayList<>();
+    private final List<ArmaScenario> scenarios = new ArrayList<>();
+    private final List<ArmaScenario> excludedScenarios = new ArrayList<>();
+
+    public boolean isCrossFeature(){
+        return features.size() > 1;
+    }
+
+    /**
+     * Number of step lines removed from scenarios: the steps are written once instead of once per scenario
+     */
+    public int getSavedSteps(){
+        return steps.size() * (scenarios.size() - features.size());
+    }
+
+    /**
+     * Returns the background of the feature with the suggested steps appended to the existing background steps
+     */
+    public ArmaBackground toBackground(ArmaFeature feature){
+        ArmaBackground background = feature.hasBackground() ? new ArmaBackground(feature.getBackground()) : new ArmaBackground();
+        steps.forEach(step -> background.addStep(new ArmaStep(step)));
+        return background;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        if (isCrossFeature()){
+            sb.append(String.format("%d features start with %d common steps, saved steps %d",
+                    features.size(), steps.size(), getSavedSteps()));
+        } else {
+            sb.append(String.format("%s: %d of %d scenarios start with %d common steps, saved steps %d",
+                    features.get(0).getName(), scenarios.size(), scenarios.size() + excludedScenarios.size(),
+                    steps.size(), getSavedSteps()));
+        }
+        steps.forEach(step -> sb.append(System.lineSeparator()).append("  ").append(step));
+        excludedScenarios.forEach(scenario -> sb.append(System.lineSeparator()).append("  excluded: ").append(scenario.getName()));
+        return sb.toString();
+    }
+}
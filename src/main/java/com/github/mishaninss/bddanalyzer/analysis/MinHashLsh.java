@@ -0,0 +1,234 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * MinHash signatures with locality-sensitive hashing (banding) to find candidate pairs of similar sets.
+ * Items are sets of int shingles. Every item gets a signature of {@code bands * rows} min-hashes,
+ * items whose signatures are equal in at least one band become candidates, so all similar pairs are found
+ * without comparing every pair. The probability of a pair with Jaccard similarity {@code s} to become a candidate
+ * is {@code 1 - (1 - s^rows)^bands}. Exact similarity of candidates is computed on the stored shingle sets.
+ */
+public class MinHashLsh {
+    private static final int MAX_FULL_BUCKET = 64;
+    private static final int BUCKET_WINDOW = 8;
+
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] increments;
+    private final List<int[]> shingles = new ArrayList<>();
+    private final List<int[]> signatures = new ArrayList<>();
+
+    public MinHashLsh(){
+        this(32, 4, 42);
+    }
+
+    public MinHashLsh(int bands, int rows, long seed){
+        this.bands = bands;
+        this.rows = rows;
+        Random random = new Random(seed);
+        multipliers = new long[bands * rows];
+        increments = new long[bands * rows];
+        for (int i = 0; i < multipliers.length; i++){
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Adds an item represented by a set of shingles
+     * @return id of the item
+     */
+    public int add(int[] itemShingles){
+        int[] distinct = Arrays.stream(itemShingles).distinct().sorted().toArray();
+        shingles.add(distinct);
+        signatures.add(signature(distinct));
+        return shingles.size() - 1;
+    }
+
+    /**
+     * Adds items computing their signatures in parallel
+     * @return id of the first added item, ids of the rest follow in order
+     */
+    public int addAll(List<int[]> items){
+        int firstId = shingles.size();
+        List<int[]> distinct = items.parallelStream()
+                .map(item -> Arrays.stream(item).distinct().sorted().toArray())
+                .collect(Collectors.toList());
+        shingles.addAll(distinct);
+        signatures.addAll(distinct.parallelStream().map(this::signature).collect(Collectors.toList()));
+        return firstId;
+    }
+
+    public int size(){
+        return shingles.size();
+    }
+
+    /**
+     * Every shingle is mixed once, the hash functions are multiply-shift hashes of the mixed value
+     */
+    public int[] signature(int[] itemShingles){
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle: itemShingles){
+            long mixed = mix(shingle);
+            for (int i = 0; i < multipliers.length; i++){
+                int hash = (int) ((multipliers[i] * mixed + increments[i]) >>> 32);
+                if (hash < signature[i]){
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Returns pairs of items which share at least one band of their signatures. Items without shingles are ignored.
+     * Items of every band are sorted by the band hash, so buckets are runs of equal hashes.
+     * Items of a bucket larger than {@value #MAX_FULL_BUCKET} are paired only with their {@value #BUCKET_WINDOW}
+     * nearest neighbours in the bucket, so a huge group of near-equal items gives a linear number of pairs,
+     * which is still enough to connect the group into one cluster
+     * @return pairs {@code [first id, second id]} with the first id less than the second
+     */
+    public List<int[]> getCandidatePairs(){
+        long[] pairKeys = new long[16];
+        int pairsCount = 0;
+        long[] keys = new long[signatures.size()];
+        for (int band = 0; band < bands; band++){
+            int count = 0;
+            for (int id = 0; id < signatures.size(); id++){
+                if (shingles.get(id).length > 0){
+                    keys[count++] = (bandHash(signatures.get(id), band) & 0xFFFFFFFF00000000L) | id;
+                }
+            }
+            Arrays.sort(keys, 0, count);
+            int start = 0;
+            while (start < count){
+                int end = start + 1;
+                while (end < count && (keys[end] >>> 32) == (keys[start] >>> 32)){
+                    end++;
+                }
+                int window = end - start > MAX_FULL_BUCKET ? BUCKET_WINDOW : end - start;
+                for (int i = start; i < end; i++){
+                    for (int j = i + 1; j < end && j <= i + window; j++){
+                        if (pairsCount == pairKeys.length){
+                            pairKeys = Arrays.copyOf(pairKeys, pairsCount * 2);
+                        }
+                        pairKeys[pairsCount++] = (keys[i] << 32) | (keys[j] & 0xFFFFFFFFL);
+                    }
+                }
+                start = end;
+            }
+        }
+
+        Arrays.sort(pairKeys, 0, pairsCount);
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < pairsCount; i++){
+            if (i == 0 || pairKeys[i] != pairKeys[i - 1]){
+                pairs.add(new int[]{(int) (pairKeys[i] >>> 32), (int) pairKeys[i]});
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Exact Jaccard similarity of shingle sets of two items
+     */
+    public double similarity(int first, int second){
+        return jaccard(shingles.get(first), shingles.get(second));
+    }
+
+    /**
+     * Similarity estimated by the share of equal min-hashes of signatures
+     */
+    public double estimateSimilarity(int first, int second){
+        int[] a = signatures.get(first);
+        int[] b = signatures.get(second);
+        int equal = 0;
+        for (int i = 0; i < a.length; i++){
+            if (a[i] == b[i]){
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    /**
+     * Jaccard similarity of two sorted sets without duplicates
+     */
+    public static double jaccard(int[] a, int[] b){
+        if (a.length == 0 && b.length == 0){
+            return 1.0;
+        }
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length){
+            if (a[i] < b[j]){
+                i++;
+            } else if (a[i] > b[j]){
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    /**
+     * Hashes of all character k-grams of the text. Texts shorter than k give a single shingle
+     */
+    public static int[] charShingles(String text, int k){
+        if (text.isEmpty()){
+            return new int[0];
+        }
+        if (text.length() <= k){
+            return new int[]{text.hashCode()};
+        }
+        int[] result = new int[text.length() - k + 1];
+        for (int i = 0; i < result.length; i++){
+            result[i] = text.substring(i, i + k).hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Hashes of all k-grams of the sequence of symbols. Sequences shorter than k give a single shingle
+     */
+    public static int[] sequenceShingles(int[] symbols, int k){
+        if (symbols.length == 0){
+            return new int[0];
+        }
+        int count = Math.max(1, symbols.length - k + 1);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++){
+            int hash = 1;
+            for (int j = i; j < Math.min(i + k, symbols.length); j++){
+                hash = 31 * hash + symbols[j];
+            }
+            result[i] = hash;
+        }
+        return result;
+    }
+
+    private long bandHash(int[] signature, int band){
+        long hash = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++){
+            hash = hash * 0x100000001B3L + signature[i];
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value){
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenarioOutline;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Group of scenarios sharing most of their step definitions.
+ * If some of them have the same sequence of step definitions, the cluster suggests a Scenario Outline replacing them
+ */
+@Data
+public class ScenarioCluster {
+    private final List<ArmaScenario> scenarios = new ArrayList<>();
+    private double minSimilarity = 1.0;
+    private double maxSimilarity;
+    /**
+     * Scenarios which can be replaced with the suggested outline
+     */
+    private final List<ArmaScenario> outlineSources = new ArrayList<>();
+    private ArmaScenarioOutline suggestedOutline;
+
+    /**
+     * Number of steps removed from feature files if the sources are replaced with the suggested outline
+     */
+    public int getSavedSteps(){
+        if (suggestedOutline == null){
+            return 0;
+        }
+        return (outlineSources.size() - 1) * suggestedOutline.getSteps().size();
+    }
+
+    void addSimilarity(double similarity){
+        minSimilarity = Math.min(minSimilarity, similarity);
+        maxSimilarity = Math.max(maxSimilarity, similarity);
+    }
+
+    @Override
+    public String toString(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("SCENARIO", "LOCATION", "OUTLINE SOURCE");
+        scenarios.forEach(scenario -> table.addRow(scenario.getName(),
+                scenario.getLocation() == null ? "" : scenario.getLocation().toShortString(),
+                outlineSources.contains(scenario) ? "yes" : ""));
+        StringBuilder sb = new StringBuilder(String.format("similarity %.2f-%.2f, saved steps %d%n%s",
+                minSimilarity, maxSimilarity, getSavedSteps(), table));
+        if (suggestedOutline != null){
+            sb.append(System.lineSeparator()).append(suggestedOutline);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.index.StepDefUsageIndex;
+import com.github.mishaninss.bddanalyzer.model.*;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds clusters of scenarios which share most of their step definitions, candidates for conversion into outlines.
+ * A scenario is represented by its sequence of step definition ids (not implemented steps are represented by their texts),
+ * its shingles are single ids and pairs of adjacent ids, so both the set of step definitions and their order count.
+ * Candidate pairs are taken from {@link MinHashLsh}, pairs with Jaccard similarity not less than the threshold
+ * are joined into clusters. Shingling, signatures, verification of candidates and outline suggestions run in parallel.
+ * <p>
+ * The largest group of plain scenarios of a cluster with the same step definitions and step arguments is turned into
+ * a suggested outline: values of capture groups of the step definitions which differ between the scenarios become
+ * parameters, the scenarios become rows of the Examples table.
+ */
+public class ScenarioSimilarityAnalyzer {
+    private static final int BANDS = 32;
+    private static final int ROWS = 4;
+    private static final long SEED = 42;
+    private static final int MIN_STEPS = 2;
+    private static final String DEFAULT_PARAMETER = "param";
+
+    private final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+    private double threshold = 0.7;
+
+    public ScenarioSimilarityAnalyzer withThreshold(double threshold){
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * @return clusters ordered by the number of saved steps, then by size and similarity
+     */
+    public List<ScenarioCluster> analyze(ArmaProject project){
+        StepDefUsageIndex usageIndex = project.getStepDefIndex();
+        List<ArmaScenario> scenarios = project.getScenarios().stream()
+                .filter(scenario -> scenario.getSteps() != null && scenario.getSteps().size() >= MIN_STEPS)
+                .collect(Collectors.toList());
+
+        List<int[]> items = scenarios.parallelStream()
+                .map(scenario -> shingle(scenario, usageIndex))
+                .collect(Collectors.toList());
+        MinHashLsh lsh = new MinHashLsh(BANDS, ROWS, SEED);
+        lsh.addAll(items);
+
+        List<int[]> candidates = lsh.getCandidatePairs();
+        double[] similarities = new double[candidates.size()];
+        IntStream.range(0, candidates.size()).parallel()
+                .forEach(i -> similarities[i] = lsh.similarity(candidates.get(i)[0], candidates.get(i)[1]));
+
+        UnionFind sets = new UnionFind(scenarios.size());
+        for (int i = 0; i < candidates.size(); i++){
+            if (similarities[i] >= threshold){
+                sets.union(candidates.get(i)[0], candidates.get(i)[1]);
+            }
+        }
+
+        Map<Integer, ScenarioCluster> clusters = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++){
+            if (similarities[i] >= threshold){
+                clusters.computeIfAbsent(sets.find(candidates.get(i)[0]), root -> new ScenarioCluster())
+                        .addSimilarity(similarities[i]);
+            }
+        }
+        for (int id = 0; id < scenarios.size(); id++){
+            ScenarioCluster cluster = clusters.get(sets.find(id));
+            if (cluster != null){
+                cluster.getScenarios().add(scenarios.get(id));
+            }
+        }
+
+        List<ScenarioCluster> result = new ArrayList<>(clusters.values());
+        result.parallelStream().forEach(this::suggestOutline);
+        result.sort(Comparator.comparingInt(ScenarioCluster::getSavedSteps).reversed()
+                .thenComparing(Comparator.comparingInt((ScenarioCluster cluster) -> cluster.getScenarios().size()).reversed())
+                .thenComparing(Comparator.comparingDouble(ScenarioCluster::getMaxSimilarity).reversed()));
+        return result;
+    }
+
+    private static int[] shingle(ArmaScenario scenario, StepDefUsageIndex usageIndex){
+        int[] symbols = new int[scenario.getSteps().size()];
+        int i = 0;
+        for (ArmaStep step: scenario.getSteps()){
+            int stepDefId = step.isImplemented() ? usageIndex.getStepDefId(step.getStepDef()) : -1;
+            symbols[i++] = stepDefId >= 0 ? stepDefId : -1 - (StringUtils.defaultString(step.getText()).hashCode() & Integer.MAX_VALUE);
+        }
+        int[] unigrams = MinHashLsh.sequenceShingles(symbols, 1);
+        int[] bigrams = MinHashLsh.sequenceShingles(symbols, 2);
+        int[] result = Arrays.copyOf(unigrams, unigrams.length + bigrams.length);
+        for (int j = 0; j < bigrams.length; j++){
+            result[unigrams.length + j] = ~bigrams[j];
+        }
+        return result;
+    }
+
+    void suggestOutline(ScenarioCluster cluster){
+        Map<List<Object>, List<ArmaScenario>> groups = new LinkedHashMap<>();
+        for (ArmaScenario scenario: cluster.getScenarios()){
+            if (!(scenario instanceof ArmaScenarioOutline) && !(scenario instanceof ArmaBackground) && scenario.isImplemented()){
+                List<Object> key = new ArrayList<>();
+                for (ArmaStep step: scenario.getSteps()){
+                    key.add(step.getStepDef());
+                    key.add(step.getArgument());
+                }
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(scenario);
+            }
+        }
+        List<ArmaScenario> sources = groups.values().stream()
+                .max(Comparator.comparingInt(List::size))
+                .orElse(Collections.emptyList());
+        if (sources.size() < 2){
+            return;
+        }
+        ArmaScenarioOutline outline = buildOutline(sources);
+        if (outline != null){
+            cluster.getOutlineSources().addAll(sources);
+            cluster.setSuggestedOutline(outline);
+        }
+    }
+
+    /**
+     * @return outline for scenarios with the same step definitions, or null if the scenarios have no differences
+     */
+    private ArmaScenarioOutline buildOutline(List<ArmaScenario> sources){
+        ArmaScenario first = sources.get(0);
+        List<String> names = new ArrayList<>();
+        List<List<String>> rows = new ArrayList<>();
+        sources.forEach(source -> rows.add(new ArrayList<>()));
+        List<ArmaStep> steps = new ArrayList<>();
+
+        for (int stepIndex = 0; stepIndex < first.getSteps().size(); stepIndex++){
+            ArmaStep firstStep = first.getSteps().get(stepIndex);
+            List<String> texts = new ArrayList<>();
+            List<Matcher> matchers = new ArrayList<>();
+            for (ArmaScenario source: sources){
+                String sourceText = source.getSteps().get(stepIndex).getText();
+                Matcher matcher = getPattern(firstStep.getStepDef()).matcher(sourceText);
+                texts.add(sourceText);
+                matchers.add(matcher.matches() ? matcher : null);
+            }
+
+            List<String> parameterNames = getParameterNames(firstStep.getStepDef());
+            StringBuilder text = new StringBuilder(firstStep.getText());
+            if (matchers.contains(null)){
+                if (texts.stream().distinct().count() > 1){
+                    text = new StringBuilder(addParameter(names, rows, DEFAULT_PARAMETER, texts));
+                }
+            } else {
+                Matcher firstMatcher = matchers.get(0);
+                int replacedStart = text.length();
+                for (int group = firstMatcher.groupCount(); group > 0; group--){
+                    if (firstMatcher.start(group) < 0 || firstMatcher.end(group) > replacedStart){
+                        continue;
+                    }
+                    int groupIndex = group;
+                    List<String> values = matchers.stream()
+                            .map(matcher -> StringUtils.defaultString(matcher.group(groupIndex)))
+                            .collect(Collectors.toList());
+                    if (values.stream().distinct().count() > 1){
+                        String name = group <= parameterNames.size() ? parameterNames.get(group - 1) : DEFAULT_PARAMETER;
+                        text.replace(firstMatcher.start(group), firstMatcher.end(group), addParameter(names, rows, name, values));
+                        replacedStart = firstMatcher.start(group);
+                    }
+                }
+            }
+
+            ArmaStep step = new ArmaStep(firstStep);
+            step.setText(text.toString());
+            steps.add(step);
+        }
+
+        if (names.isEmpty()){
+            return null;
+        }
+
+        ArmaScenarioOutline outline = new ArmaScenarioOutline();
+        outline.setName(first.getName());
+        outline.setDescription(first.getDescription());
+        outline.setLocation(first.getLocation());
+        Set<ArmaTag> tags = new LinkedHashSet<>(first.getTags());
+        sources.forEach(source -> tags.retainAll(source.getTags()));
+        tags.forEach(tag -> outline.addTag(new ArmaTag(tag)));
+        outline.setSteps(steps);
+
+        ArmaExamples examples = new ArmaExamples();
+        examples.setTableHeader(new ArmaTableRow(names));
+        rows.forEach(row -> examples.addBodyRow(new ArmaTableRow(row)));
+        examples.removeDuplicatedRows();
+        outline.setExamples(new ArrayList<>(Collections.singletonList(examples)));
+        return outline;
+    }
+
+    /**
+     * Adds a column with a unique name to the examples
+     * @return placeholder of the parameter
+     */
+    private static String addParameter(List<String> names, List<List<String>> rows, String name, List<String> values){
+        String uniqueName = name;
+        for (int i = 2; names.contains(uniqueName); i++){
+            uniqueName = name + i;
+        }
+        names.add(uniqueName);
+        for (int i = 0; i < rows.size(); i++){
+            rows.get(i).add(values.get(i));
+        }
+        return "<" + uniqueName + ">";
+    }
+
+    private Pattern getPattern(ArmaStepDef stepDef){
+        return patterns.computeIfAbsent(stepDef.getText(), Pattern::compile);
+    }
+
+    /**
+     * Takes parameter names from the declaration of the step definition method
+     */
+    private static List<String> getParameterNames(ArmaStepDef stepDef){
+        List<String> names = new ArrayList<>();
+        String declaration = stepDef.getLocation() == null ? null : stepDef.getLocation().getDeclaration();
+        String parameters = StringUtils.substringBetween(declaration, "(", ")");
+        if (StringUtils.isBlank(parameters)){
+            return names;
+        }
+        for (String parameter: parameters.split(",")){
+            String[] parts = StringUtils.split(parameter.trim());
+            if (parts.length > 0){
+                names.add(parts[parts.length - 1]);
+            }
+        }
+        return names;
+    }
+}
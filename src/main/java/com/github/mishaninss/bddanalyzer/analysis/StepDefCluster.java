@@ -0,0 +1,43 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Group of near-duplicate step definitions connected by pairs of similar definitions
+ */
+@Data
+public class StepDefCluster {
+    private final List<ArmaStepDef> stepDefs = new ArrayList<>();
+    private final List<StepDefPair> pairs = new ArrayList<>();
+    private final Map<ArmaStepDef, Integer> usage = new LinkedHashMap<>();
+
+    public int getTotalUsage(){
+        return usage.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public double getMaxSimilarity(){
+        return pairs.stream().mapToDouble(StepDefPair::getSimilarity).max().orElse(0);
+    }
+
+    public double getMinSimilarity(){
+        return pairs.stream().mapToDouble(StepDefPair::getSimilarity).min().orElse(0);
+    }
+
+    @Override
+    public String toString(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("STEP DEFINITION", "LOCATION", "USAGE");
+        stepDefs.forEach(stepDef -> table.addRow(stepDef.getText(),
+                stepDef.getLocation() == null ? "" : stepDef.getLocation().toShortString(),
+                String.valueOf(usage.getOrDefault(stepDef, 0))));
+        return String.format("similarity %.2f-%.2f, total usage %d%n%s",
+                getMinSimilarity(), getMaxSimilarity(), getTotalUsage(), table);
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import lombok.Data;
+
+/**
+ * Two similar step definitions with Jaccard similarity of their shingles
+ */
+@Data
+public class StepDefPair {
+    private final ArmaStepDef first;
+    private final ArmaStepDef second;
+    private final double similarity;
+}
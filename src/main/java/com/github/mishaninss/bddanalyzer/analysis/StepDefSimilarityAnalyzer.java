@@ -0,0 +1,119 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.index.StepDefUsageIndex;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Finds near-duplicate step definitions.
+ * Every step definition is represented by character shingles of its normalized pattern
+ * and of normalized texts of the steps linked to it. Candidate pairs are taken from {@link MinHashLsh},
+ * pairs with Jaccard similarity not less than the threshold are joined into clusters.
+ */
+public class StepDefSimilarityAnalyzer {
+    private static final int SHINGLE_SIZE = 3;
+    private static final int MAX_STEP_TEXTS = 10;
+    // 32 bands of 5 rows find 93% of pairs with similarity 0.6 and 99.9% of pairs with similarity 0.8
+    private static final int BANDS = 32;
+    private static final int ROWS = 5;
+    private static final long SEED = 42;
+    private static final String PARAMETER = "{}";
+    private static final Pattern CAPTURE_GROUP = Pattern.compile("\\((?:[^()\\\\]|\\\\.)*\\)");
+    private static final Pattern ESCAPE = Pattern.compile("\\\\(.)");
+    private static final Pattern QUOTED = Pattern.compile("\"[^\"]*\"|'[^']*'");
+    private static final Pattern OUTLINE_PARAMETER = Pattern.compile("<[^>]*>");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private double threshold = 0.6;
+
+    public StepDefSimilarityAnalyzer withThreshold(double threshold){
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * @return clusters ordered by the highest similarity, then by the total usage
+     */
+    public List<StepDefCluster> analyze(ArmaProject project){
+        List<ArmaStepDef> stepDefs = new ArrayList<>(project.getStepDefinitions());
+        StepDefUsageIndex usageIndex = project.getStepDefIndex();
+
+        List<int[]> items = new ArrayList<>(stepDefs.size());
+        for (ArmaStepDef stepDef: stepDefs){
+            items.add(shingle(stepDef, usageIndex.getSteps(stepDef)));
+        }
+        MinHashLsh lsh = new MinHashLsh(BANDS, ROWS, SEED);
+        lsh.addAll(items);
+
+        UnionFind sets = new UnionFind(stepDefs.size());
+        List<StepDefPair> pairs = new ArrayList<>();
+        List<int[]> pairIds = new ArrayList<>();
+        for (int[] candidate: lsh.getCandidatePairs()){
+            double similarity = lsh.similarity(candidate[0], candidate[1]);
+            if (similarity >= threshold){
+                pairs.add(new StepDefPair(stepDefs.get(candidate[0]), stepDefs.get(candidate[1]), similarity));
+                pairIds.add(candidate);
+                sets.union(candidate[0], candidate[1]);
+            }
+        }
+
+        Map<Integer, StepDefCluster> clusters = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.size(); i++){
+            StepDefCluster cluster = clusters.computeIfAbsent(sets.find(pairIds.get(i)[0]), root -> new StepDefCluster());
+            cluster.getPairs().add(pairs.get(i));
+        }
+        for (int id = 0; id < stepDefs.size(); id++){
+            StepDefCluster cluster = clusters.get(sets.find(id));
+            if (cluster != null){
+                ArmaStepDef stepDef = stepDefs.get(id);
+                cluster.getStepDefs().add(stepDef);
+                cluster.getUsage().put(stepDef, usageIndex.countUsage(stepDef));
+            }
+        }
+
+        List<StepDefCluster> result = new ArrayList<>(clusters.values());
+        result.sort(Comparator.comparingDouble(StepDefCluster::getMaxSimilarity).reversed()
+                .thenComparing(Comparator.comparingInt(StepDefCluster::getTotalUsage).reversed()));
+        return result;
+    }
+
+    static int[] shingle(ArmaStepDef stepDef, List<ArmaStep> steps){
+        List<int[]> parts = new ArrayList<>();
+        parts.add(MinHashLsh.charShingles(normalizePattern(stepDef.getText()), SHINGLE_SIZE));
+        steps.stream()
+                .map(ArmaStep::getText)
+                .map(StepDefSimilarityAnalyzer::normalizeStepText)
+                .distinct()
+                .limit(MAX_STEP_TEXTS)
+                .forEach(text -> parts.add(MinHashLsh.charShingles(text, SHINGLE_SIZE)));
+        return parts.stream().flatMapToInt(Arrays::stream).toArray();
+    }
+
+    /**
+     * Drops anchors and escapes, replaces capture groups with a placeholder
+     */
+    static String normalizePattern(String pattern){
+        String normalized = StringUtils.defaultString(pattern);
+        normalized = StringUtils.removeStart(normalized, "^");
+        normalized = StringUtils.removeEnd(normalized, "$");
+        normalized = CAPTURE_GROUP.matcher(normalized).replaceAll(PARAMETER);
+        normalized = ESCAPE.matcher(normalized).replaceAll("$1");
+        return StringUtils.normalizeSpace(normalized.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Replaces quoted strings, outline parameters and numbers with a placeholder
+     */
+    static String normalizeStepText(String text){
+        String normalized = StringUtils.defaultString(text);
+        normalized = QUOTED.matcher(normalized).replaceAll("\"" + PARAMETER + "\"");
+        normalized = OUTLINE_PARAMETER.matcher(normalized).replaceAll(PARAMETER);
+        normalized = NUMBER.matcher(normalized).replaceAll(PARAMETER);
+        return StringUtils.normalizeSpace(normalized.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+/**
+ * Disjoint sets of int ids with path halving. The smallest id of a set is its root
+ */
+class UnionFind {
+    private final int[] parent;
+
+    UnionFind(int size){
+        parent = new int[size];
+        for (int i = 0; i < size; i++){
+            parent[i] = i;
+        }
+    }
+
+    int find(int id){
+        while (parent[id] != id){
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    void union(int first, int second){
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot != secondRoot){
+            parent[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+}
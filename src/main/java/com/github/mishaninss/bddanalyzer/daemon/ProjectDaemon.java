@@ -0,0 +1,255 @@
+package com.github.mishaninss.bddanalyzer.daemon;
+
+import com.github.mishaninss.bddanalyzer.ParseCache;
+import com.github.mishaninss.bddanalyzer.frozen.FrozenProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps a scanned and linked project in memory and answers queries over HTTP on the loopback interface.
+ * Directory roots are watched, changes are collected until the roots are quiet for {@value #QUIET_MILLIS} ms,
+ * then the project is scanned again with a {@link ParseCache}, so only changed files are parsed.
+ * A new project is built aside, frozen into an immutable {@link FrozenProject} and published by a swap of a reference,
+ * every request reads the project published when it started, so requests are answered concurrently without locks
+ * and never see a partial update.
+ * <p>
+ * Endpoints: {@code /stats}, {@code /steps/not-implemented}, {@code /stepdefs/usage[?notUsed=true]},
+ * {@code /scenarios?tags=@a,@b&tags=~@c}, {@code /status}
+ */
+public class ProjectDaemon implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectDaemon.class);
+    private static final long QUIET_MILLIS = 300;
+    private static final int MAX_CACHED_PER_FILE = 4;
+
+    private final String stepDefsRoot;
+    private final String featuresRoot;
+    private final ParseCache parseCache = new ParseCache();
+    private final AtomicReference<Published> published = new AtomicReference<>();
+    private HttpServer server;
+    private ExecutorService executor;
+    private WatchService watchService;
+    private Thread watcher;
+
+    private static class Published {
+        private final FrozenProject project;
+        private final long version;
+        private final long scanMillis;
+        private final long time = System.currentTimeMillis();
+
+        private Published(FrozenProject project, long version, long scanMillis){
+            this.project = project;
+            this.version = version;
+            this.scanMillis = scanMillis;
+        }
+    }
+
+    public ProjectDaemon(String stepDefsRoot, String featuresRoot){
+        this.stepDefsRoot = stepDefsRoot;
+        this.featuresRoot = featuresRoot;
+    }
+
+    /**
+     * Scans the project, starts watching the roots and serving requests
+     * @param port port on the loopback interface, 0 for any free port
+     */
+    public ProjectDaemon start(int port, int threads) throws IOException {
+        refresh();
+        watchService = FileSystems.getDefault().newWatchService();
+        for (String root: Arrays.asList(stepDefsRoot, featuresRoot)){
+            if (new File(root).isDirectory()){
+                registerTree(Paths.get(root));
+            } else {
+                LOG.warn("Root [{}] is not a directory, it isn't watched for changes", root);
+            }
+        }
+        watcher = new Thread(this::watch, "project-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/stats", exchange -> handle(exchange, (project, parameters) -> ProjectQueries.statistics(project)));
+        server.createContext("/steps/not-implemented", exchange -> handle(exchange,
+                (project, parameters) -> ProjectQueries.notImplementedSteps(project)));
+        server.createContext("/stepdefs/usage", exchange -> handle(exchange,
+                (project, parameters) -> ProjectQueries.stepDefsUsage(project, Boolean.parseBoolean(parameter(parameters, "notUsed")))));
+        server.createContext("/scenarios", exchange -> handle(exchange, (project, parameters) ->
+                ProjectQueries.scenariosByTags(project, parameters.getOrDefault("tags", Collections.emptyList()).toArray(new String[0]))));
+        server.createContext("/status", exchange -> handle(exchange, (project, parameters) -> status()));
+        server.start();
+        LOG.info("Serving project [{}] [{}] on {}", stepDefsRoot, featuresRoot, server.getAddress());
+        return this;
+    }
+
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the currently published project
+     */
+    public FrozenProject getProject(){
+        return published.get().project;
+    }
+
+    /**
+     * Scans the project and publishes it. Scans are made by one thread at a time
+     */
+    public synchronized void refresh(){
+        long start = System.currentTimeMillis();
+        ArmaProject project = new ArmaProject(stepDefsRoot, featuresRoot);
+        project.scan(parseCache);
+        FrozenProject frozen = project.freeze();
+        long files = project.getFeatures().size() + project.getStepDefinitions().stream()
+                .map(stepDef -> stepDef.getLocation() == null ? null : stepDef.getLocation().getFile())
+                .distinct()
+                .count();
+        if (parseCache.size() > MAX_CACHED_PER_FILE * files){
+            parseCache.clear();
+        }
+        Published previous = published.get();
+        published.set(new Published(frozen, previous == null ? 1 : previous.version + 1, System.currentTimeMillis() - start));
+        LOG.info("Project version {} published", published.get().version);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null){
+            server.stop(0);
+            executor.shutdown();
+        }
+        if (watcher != null){
+            watcher.interrupt();
+        }
+        if (watchService != null){
+            watchService.close();
+        }
+    }
+
+    private Map<String, Object> status(){
+        Published current = published.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("version", current.version);
+        status.put("publishedAt", Instant.ofEpochMilli(current.time).toString());
+        status.put("scanMillis", current.scanMillis);
+        status.put("cachedFiles", parseCache.size());
+        return status;
+    }
+
+    private void watch(){
+        try {
+            while (!Thread.currentThread().isInterrupted()){
+                WatchKey key = watchService.take();
+                do {
+                    collectEvents(key);
+                    key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                try {
+                    refresh();
+                } catch (Exception ex){
+                    LOG.error("Couldn't scan the changed project, the previous version is kept", ex);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex){
+            LOG.info("Watching of project [{}] [{}] is stopped", stepDefsRoot, featuresRoot);
+        }
+    }
+
+    private void collectEvents(WatchKey key){
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event: key.pollEvents()){
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE){
+                Path path = dir.resolve((Path) event.context());
+                if (Files.isDirectory(path)){
+                    try {
+                        registerTree(path);
+                    } catch (IOException ex){
+                        LOG.error("Couldn't watch directory [" + path + "]", ex);
+                    }
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void registerTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>(){
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void handle(HttpExchange exchange, BiFunction<FrozenProject, Map<String, List<String>>, Object> query) throws IOException {
+        int status = 200;
+        Object result;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())){
+                status = 405;
+                result = Collections.singletonMap("error", "only GET requests are supported");
+            } else {
+                result = query.apply(published.get().project, parseQuery(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (IllegalArgumentException ex){
+            status = 400;
+            result = Collections.singletonMap("error", ex.getMessage());
+        } catch (Exception ex){
+            LOG.error("Couldn't answer " + exchange.getRequestURI(), ex);
+            status = 500;
+            result = Collections.singletonMap("error", String.valueOf(ex));
+        }
+        byte[] body = ArmaProject.GSON.toJson(result).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()){
+            out.write(body);
+        }
+    }
+
+    private static Map<String, List<String>> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (query == null){
+            return parameters;
+        }
+        for (String pair: query.split("&")){
+            if (!pair.isEmpty()){
+                int separator = pair.indexOf('=');
+                String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), "UTF-8");
+                String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), "UTF-8");
+                parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+        }
+        return parameters;
+    }
+
+    private static String parameter(Map<String, List<String>> parameters, String name){
+        List<String> values = parameters.get(name);
+        return values == null ? null : values.get(0);
+    }
+}
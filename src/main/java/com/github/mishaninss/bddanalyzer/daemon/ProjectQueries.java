@@ -0,0 +1,93 @@
+package com.github.mishaninss.bddanalyzer.daemon;
+
+import com.github.mishaninss.bddanalyzer.frozen.FrozenFeature;
+import com.github.mishaninss.bddanalyzer.frozen.FrozenProject;
+import com.github.mishaninss.bddanalyzer.frozen.FrozenScenario;
+
+import java.util.*;
+
+/**
+ * Queries answered by {@link ProjectDaemon}. Results are maps and lists ready for JSON serialization.
+ * Queries read an immutable project, so they run concurrently without locks
+ */
+public final class ProjectQueries {
+
+    private ProjectQueries(){
+
+    }
+
+    public static Map<String, Object> statistics(FrozenProject project){
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("features", project.getFeatures().size());
+        stats.put("scenarios", project.getScenarios().size());
+        stats.put("scenarioOutlines", project.getScenarioOutlines().size());
+        stats.put("backgrounds", project.getBackgrounds().size());
+        stats.put("steps", project.getSteps().size());
+        stats.put("implementedSteps", project.getImplementedSteps().size());
+        stats.put("notImplementedSteps", project.getNotImplementedSteps().size());
+        stats.put("stepDefinitions", project.getStepDefinitions().size());
+        stats.put("notUsedStepDefinitions", project.getNotUsedStepDefinitions().size());
+        stats.put("tags", project.getTags().size());
+        stats.put("tests", project.countTests());
+        return stats;
+    }
+
+    public static List<Map<String, Object>> notImplementedSteps(FrozenProject project){
+        List<Map<String, Object>> result = new ArrayList<>();
+        project.getFeatures().forEach(feature -> {
+            if (feature.hasBackground()){
+                addNotImplementedSteps(result, feature, feature.getBackground());
+            }
+            feature.getScenarios().forEach(scenario -> addNotImplementedSteps(result, feature, scenario));
+        });
+        return result;
+    }
+
+    /**
+     * @param notUsedOnly return only step definitions without usages
+     */
+    public static List<Map<String, Object>> stepDefsUsage(FrozenProject project, boolean notUsedOnly){
+        List<Map<String, Object>> result = new ArrayList<>();
+        project.getStepDefinitions().stream()
+                .filter(stepDef -> !notUsedOnly || !stepDef.isUsed())
+                .forEach(stepDef -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("pattern", stepDef.getPattern());
+                    item.put("method", stepDef.getMethodName());
+                    item.put("location", stepDef.getFile() + ":" + stepDef.getLine());
+                    item.put("usages", stepDef.getUsages());
+                    result.add(item);
+                });
+        return result;
+    }
+
+    /**
+     * Scenarios accepted by all the tag filters, tags of features are inherited by their scenarios
+     * @see FrozenProject#applyTagFilters(String...)
+     */
+    public static List<Map<String, Object>> scenariosByTags(FrozenProject project, String... tagFilters){
+        List<Map<String, Object>> result = new ArrayList<>();
+        project.applyTagFilters(tagFilters).forEach(feature -> feature.getScenarios().forEach(scenario -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("feature", feature.getName());
+            item.put("scenario", scenario.getName());
+            item.put("location", feature.getFile() + ":" + scenario.getLine());
+            item.put("tests", scenario.getTests());
+            result.add(item);
+        }));
+        return result;
+    }
+
+    private static void addNotImplementedSteps(List<Map<String, Object>> result, FrozenFeature feature, FrozenScenario scenario){
+        scenario.getSteps().stream()
+                .filter(step -> !step.isImplemented())
+                .forEach(step -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("step", step.toString());
+                    item.put("argument", step.getArgument());
+                    item.put("scenario", scenario.getName());
+                    item.put("location", feature.getFile() + ":" + step.getLine());
+                    result.add(item);
+                });
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.mishaninss.bddanalyzer.diff;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Merkle-style 64-bit hashes of model nodes: the hash of a feature is computed from hashes of its scenarios,
+ * the hash of a scenario from hashes of its steps, so equal hashes of two nodes mean equal subtrees.
+ * A step hash covers the keyword, the text, the argument and the pattern of the linked step definition.
+ * Locations are not hashed, moving a scenario within a file doesn't change it.
+ * Not intended for security purposes.
+ */
+public final class MerkleHash {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = 0x10001L;
+    private static final long SEPARATOR = 0x10000L;
+
+    private long hash = FNV_OFFSET_BASIS;
+
+    private MerkleHash(){
+
+    }
+
+    public static long of(ArmaFeature feature){
+        MerkleHash hash = new MerkleHash().add(feature);
+        hash.add(feature.getTags());
+        hash.add(feature.hasBackground() ? of(feature.getBackground()) : NULL_MARKER);
+        List<ArmaScenario> scenarios = feature.getScenarios();
+        hash.add(scenarios == null ? 0 : scenarios.size());
+        if (scenarios != null){
+            scenarios.forEach(scenario -> hash.add(of(scenario)));
+        }
+        return hash.hash;
+    }
+
+    public static long of(ArmaScenario scenario){
+        MerkleHash hash = new MerkleHash().add(scenario);
+        hash.add(scenario instanceof ArmaScenarioOutline ? 1 : 0);
+        hash.add(scenario.getTags());
+        List<ArmaStep> steps = scenario.getSteps();
+        hash.add(steps == null ? 0 : steps.size());
+        if (steps != null){
+            steps.forEach(step -> hash.add(of(step)));
+        }
+        if (scenario instanceof ArmaScenarioOutline && ((ArmaScenarioOutline) scenario).getExamples() != null){
+            for (ArmaExamples examples: ((ArmaScenarioOutline) scenario).getExamples()){
+                hash.add(examples.getKeyword()).add(examples.getName()).add(examples.getDescription());
+                hash.add(examples.getTags());
+                hash.add(examples.getTable());
+            }
+        }
+        return hash.hash;
+    }
+
+    public static long of(ArmaStep step){
+        MerkleHash hash = new MerkleHash().add(step.getKeyword()).add(step.getText());
+        hash.add(step.getStepDef() == null ? null : step.getStepDef().getText());
+        Object argument = step.getArgument();
+        if (argument instanceof ArmaDataTable){
+            hash.add(((ArmaDataTable) argument).getTable());
+        } else if (argument instanceof ArmaDocString){
+            hash.add(((ArmaDocString) argument).getContentType()).add(((ArmaDocString) argument).getContent());
+        } else {
+            hash.add(NULL_MARKER);
+        }
+        return hash.hash;
+    }
+
+    private MerkleHash add(ArmaNode node){
+        return add(node.getKeyword()).add(node.getName()).add(node.getDescription());
+    }
+
+    private MerkleHash add(Set<ArmaTag> tags){
+        add(tags == null ? 0 : tags.size());
+        if (tags != null){
+            tags.forEach(tag -> add(tag.getName()));
+        }
+        return this;
+    }
+
+    private MerkleHash add(ArmaTable table){
+        add(table.getColumnCount()).add(table.getRowCount());
+        for (int colIndex = 0; colIndex < table.getColumnCount(); colIndex++){
+            add(table.getName(colIndex));
+            for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+                add(table.getValue(colIndex, rowIndex));
+            }
+        }
+        return this;
+    }
+
+    private MerkleHash add(String value){
+        if (value == null){
+            return add(NULL_MARKER);
+        }
+        for (int i = 0; i < value.length(); i++){
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        hash = (hash ^ SEPARATOR) * FNV_PRIME;
+        return this;
+    }
+
+    private MerkleHash add(long value){
+        for (int shift = 0; shift < 64; shift += 16){
+            hash = (hash ^ ((value >>> shift) & 0xFFFF)) * FNV_PRIME;
+        }
+        return this;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.mishaninss.bddanalyzer.diff;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Structural differences between a base and a head project found by {@link ProjectDiffer}
+ */
+@Data
+public class ProjectDiff {
+    private final List<String> addedFeatures = new ArrayList<>();
+    private final List<String> removedFeatures = new ArrayList<>();
+    private final List<String> modifiedFeatures = new ArrayList<>();
+    private int unchangedFeatures;
+    private final List<ScenarioChange> scenarioChanges = new ArrayList<>();
+    private final List<ArmaStepDef> newlyUnusedStepDefs = new ArrayList<>();
+
+    public List<ScenarioChange> getScenarioChanges(ScenarioChange.Type type){
+        return scenarioChanges.stream().filter(change -> change.getType() == type).collect(Collectors.toList());
+    }
+
+    public List<ArmaStep> getNewlyUnimplementedSteps(){
+        return scenarioChanges.stream()
+                .flatMap(change -> change.getNewlyUnimplementedSteps().stream())
+                .collect(Collectors.toList());
+    }
+
+    public boolean isEmpty(){
+        return addedFeatures.isEmpty() && removedFeatures.isEmpty() && modifiedFeatures.isEmpty()
+                && scenarioChanges.isEmpty() && newlyUnusedStepDefs.isEmpty();
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("features: %d added, %d removed, %d modified, %d unchanged%n",
+                addedFeatures.size(), removedFeatures.size(), modifiedFeatures.size(), unchangedFeatures));
+        sb.append(String.format("scenarios: %d added, %d removed, %d modified%n",
+                getScenarioChanges(ScenarioChange.Type.ADDED).size(),
+                getScenarioChanges(ScenarioChange.Type.REMOVED).size(),
+                getScenarioChanges(ScenarioChange.Type.MODIFIED).size()));
+        sb.append(String.format("newly not implemented steps: %d, newly unused step definitions: %d%n",
+                getNewlyUnimplementedSteps().size(), newlyUnusedStepDefs.size()));
+        scenarioChanges.forEach(change -> sb.append(change).append(System.lineSeparator()));
+        newlyUnusedStepDefs.forEach(stepDef -> sb.append("UNUSED ").append(stepDef.getText())
+                .append(stepDef.getLocation() == null ? "" : " (" + stepDef.getLocation().toShortString() + ")")
+                .append(System.lineSeparator()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.mishaninss.bddanalyzer.diff;
+
+import com.github.mishaninss.bddanalyzer.index.StepDefUsageIndex;
+import com.github.mishaninss.bddanalyzer.model.*;
+import com.github.mishaninss.bddanalyzer.snapshot.ProjectSnapshot;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Finds structural differences between a base and a head version of a project.
+ * Features are matched by their paths relative to the features root, scenarios by their names within a feature.
+ * Every feature is compared by its {@link MerkleHash} first, so an unchanged feature is skipped in O(1)
+ * without visiting its scenarios; scenarios and steps of changed features are compared by their hashes as well.
+ * Snapshots store hashes of features and usage of step definitions, so only changed features of snapshots are decoded.
+ */
+public class ProjectDiffer {
+    private static final String BACKGROUND_KEY = "\u0000Background";
+
+    private static class FeatureEntry {
+        private final long hash;
+        private final Supplier<ArmaFeature> feature;
+
+        private FeatureEntry(long hash, Supplier<ArmaFeature> feature){
+            this.hash = hash;
+            this.feature = feature;
+        }
+    }
+
+    private static class Version {
+        private final Map<String, FeatureEntry> features = new LinkedHashMap<>();
+        private final List<ArmaStepDef> stepDefs = new ArrayList<>();
+        private final List<Integer> usage = new ArrayList<>();
+
+        private void addFeature(String key, FeatureEntry entry){
+            String uniqueKey = key;
+            for (int i = 2; features.containsKey(uniqueKey); i++){
+                uniqueKey = key + "#" + i;
+            }
+            features.put(uniqueKey, entry);
+        }
+    }
+
+    public ProjectDiff diff(ArmaProject base, ArmaProject head){
+        return diff(version(base), version(head));
+    }
+
+    public ProjectDiff diff(ProjectSnapshot base, ProjectSnapshot head){
+        return diff(version(base), version(head));
+    }
+
+    private static Version version(ArmaProject project){
+        Version version = new Version();
+        List<ArmaFeature> features = new ArrayList<>(project.getFeatures());
+        long[] hashes = features.parallelStream().mapToLong(MerkleHash::of).toArray();
+        for (int i = 0; i < features.size(); i++){
+            ArmaFeature feature = features.get(i);
+            version.addFeature(featureKey(project.getFeaturesRoot(), getFile(feature), feature.getName()),
+                    new FeatureEntry(hashes[i], () -> feature));
+        }
+        StepDefUsageIndex index = project.getStepDefIndex();
+        for (ArmaStepDef stepDef: project.getStepDefinitions()){
+            version.stepDefs.add(stepDef);
+            version.usage.add(index.countUsage(stepDef));
+        }
+        return version;
+    }
+
+    private static Version version(ProjectSnapshot snapshot){
+        Version version = new Version();
+        for (int i = 0; i < snapshot.getFeaturesCount(); i++){
+            int featureIndex = i;
+            version.addFeature(featureKey(snapshot.getFeaturesRoot(), snapshot.getFeatureFile(i), "#" + i),
+                    new FeatureEntry(snapshot.getFeatureHash(i), () -> snapshot.getFeature(featureIndex)));
+        }
+        for (int i = 0; i < snapshot.getStepDefinitions().size(); i++){
+            version.stepDefs.add(snapshot.getStepDefinitions().get(i));
+            version.usage.add(snapshot.getStepDefUsage(i));
+        }
+        return version;
+    }
+
+    private ProjectDiff diff(Version base, Version head){
+        ProjectDiff diff = new ProjectDiff();
+        head.features.forEach((key, headEntry) -> {
+            FeatureEntry baseEntry = base.features.get(key);
+            if (baseEntry == null){
+                diff.getAddedFeatures().add(key);
+                diffScenarios(diff, key, null, headEntry.feature.get());
+            } else if (baseEntry.hash == headEntry.hash){
+                diff.setUnchangedFeatures(diff.getUnchangedFeatures() + 1);
+            } else {
+                diff.getModifiedFeatures().add(key);
+                diffScenarios(diff, key, baseEntry.feature.get(), headEntry.feature.get());
+            }
+        });
+        base.features.forEach((key, baseEntry) -> {
+            if (!head.features.containsKey(key)){
+                diff.getRemovedFeatures().add(key);
+                diffScenarios(diff, key, baseEntry.feature.get(), null);
+            }
+        });
+
+        Map<String, Integer> baseUsage = new HashMap<>();
+        for (int i = 0; i < base.stepDefs.size(); i++){
+            baseUsage.merge(StringUtils.defaultString(base.stepDefs.get(i).getText()), base.usage.get(i), Integer::sum);
+        }
+        for (int i = 0; i < head.stepDefs.size(); i++){
+            Integer usage = baseUsage.get(StringUtils.defaultString(head.stepDefs.get(i).getText()));
+            if (head.usage.get(i) == 0 && (usage == null || usage > 0)){
+                diff.getNewlyUnusedStepDefs().add(head.stepDefs.get(i));
+            }
+        }
+        return diff;
+    }
+
+    private static void diffScenarios(ProjectDiff diff, String featureKey, ArmaFeature baseFeature, ArmaFeature headFeature){
+        Map<String, ArmaScenario> baseScenarios = scenarios(baseFeature);
+        Map<String, ArmaScenario> headScenarios = scenarios(headFeature);
+        headScenarios.forEach((key, head) -> {
+            ArmaScenario base = baseScenarios.get(key);
+            if (base == null || MerkleHash.of(base) != MerkleHash.of(head)){
+                diff.getScenarioChanges().add(diffScenario(featureKey, base, head));
+            }
+        });
+        baseScenarios.forEach((key, base) -> {
+            if (!headScenarios.containsKey(key)){
+                diff.getScenarioChanges().add(new ScenarioChange(featureKey, base, null));
+            }
+        });
+    }
+
+    private static ScenarioChange diffScenario(String featureKey, ArmaScenario base, ArmaScenario head){
+        ScenarioChange change = new ScenarioChange(featureKey, base, head);
+        List<ArmaStep> headSteps = steps(head);
+        List<ArmaStep> baseSteps = steps(base);
+        Map<String, Integer> unimplemented = new HashMap<>();
+        baseSteps.stream().filter(step -> !step.isImplemented())
+                .forEach(step -> unimplemented.merge(StringUtils.defaultString(step.getText()), 1, Integer::sum));
+        for (ArmaStep step: headSteps){
+            if (!step.isImplemented()){
+                Integer count = unimplemented.computeIfPresent(StringUtils.defaultString(step.getText()), (text, value) -> value - 1);
+                if (count == null || count < 0){
+                    change.getNewlyUnimplementedSteps().add(step);
+                }
+            }
+        }
+        if (base == null){
+            return change;
+        }
+
+        change.getAddedTags().addAll(head.getTags());
+        change.getAddedTags().removeAll(base.getTags());
+        change.getRemovedTags().addAll(base.getTags());
+        change.getRemovedTags().removeAll(head.getTags());
+        for (int i = 0; i < headSteps.size(); i++){
+            ArmaStep headStep = headSteps.get(i);
+            ArmaStep baseStep = i < baseSteps.size() ? baseSteps.get(i) : null;
+            if (baseStep == null || MerkleHash.of(baseStep) != MerkleHash.of(headStep)){
+                change.getChangedSteps().add(i);
+                if (baseStep != null && Objects.equals(baseStep.getText(), headStep.getText())
+                        && !Objects.equals(stepDefText(baseStep), stepDefText(headStep))){
+                    change.getRelinkedSteps().add(headStep);
+                }
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Scenarios of the feature keyed by their names, duplicated names get numbers of occurrences
+     */
+    private static Map<String, ArmaScenario> scenarios(ArmaFeature feature){
+        Map<String, ArmaScenario> scenarios = new LinkedHashMap<>();
+        if (feature == null){
+            return scenarios;
+        }
+        if (feature.hasBackground()){
+            scenarios.put(BACKGROUND_KEY, feature.getBackground());
+        }
+        if (feature.getScenarios() != null){
+            for (ArmaScenario scenario: feature.getScenarios()){
+                String name = StringUtils.defaultString(scenario.getName());
+                String key = name;
+                for (int i = 2; scenarios.containsKey(key); i++){
+                    key = name + "#" + i;
+                }
+                scenarios.put(key, scenario);
+            }
+        }
+        return scenarios;
+    }
+
+    private static List<ArmaStep> steps(ArmaScenario scenario){
+        return scenario == null || scenario.getSteps() == null ? Collections.emptyList() : new ArrayList<>(scenario.getSteps());
+    }
+
+    private static String stepDefText(ArmaStep step){
+        return step.getStepDef() == null ? null : step.getStepDef().getText();
+    }
+
+    private static String getFile(ArmaFeature feature){
+        return feature.getLocation() == null ? null : feature.getLocation().getFile();
+    }
+
+    /**
+     * Path of the feature file relative to the features root, so versions scanned from different directories match
+     */
+    static String featureKey(String featuresRoot, String file, String fallback){
+        if (file == null){
+            return StringUtils.defaultString(fallback);
+        }
+        if (StringUtils.isNotEmpty(featuresRoot) && file.length() > featuresRoot.length() && file.startsWith(featuresRoot)
+                && (featuresRoot.endsWith("/") || featuresRoot.endsWith("\\")
+                    || file.charAt(featuresRoot.length()) == '/' || file.charAt(featuresRoot.length()) == '\\')){
+            return StringUtils.stripStart(file.substring(featuresRoot.length()).replace('\\', '/'), "/");
+        }
+        Path path = Paths.get(file).toAbsolutePath().normalize();
+        if (StringUtils.isNotBlank(featuresRoot)){
+            Path root = Paths.get(featuresRoot).toAbsolutePath().normalize();
+            if (path.startsWith(root)){
+                path = root.relativize(path);
+            }
+        }
+        return path.toString().replace('\\', '/');
+    }
+}
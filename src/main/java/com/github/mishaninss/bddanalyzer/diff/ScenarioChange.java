@@ -0,0 +1,64 @@
+package com.github.mishaninss.bddanalyzer.diff;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaTag;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Added, removed or modified scenario (or Background) found by {@link ProjectDiffer}
+ */
+@Data
+public class ScenarioChange {
+    public enum Type {ADDED, REMOVED, MODIFIED}
+
+    private final String feature;
+    private final ArmaScenario base;
+    private final ArmaScenario head;
+    private final Set<ArmaTag> addedTags = new LinkedHashSet<>();
+    private final Set<ArmaTag> removedTags = new LinkedHashSet<>();
+    /**
+     * Indexes of head steps which differ from the base steps at the same positions
+     */
+    private final List<Integer> changedSteps = new ArrayList<>();
+    /**
+     * Head steps with the same text as the base steps at the same positions but linked to other step definitions
+     */
+    private final List<ArmaStep> relinkedSteps = new ArrayList<>();
+    /**
+     * Not implemented head steps which are not among not implemented steps of the base scenario
+     */
+    private final List<ArmaStep> newlyUnimplementedSteps = new ArrayList<>();
+
+    public Type getType(){
+        return base == null ? Type.ADDED : head == null ? Type.REMOVED : Type.MODIFIED;
+    }
+
+    public String getName(){
+        return head != null ? head.getName() : base.getName();
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder().append(getType()).append(" ").append(feature).append(": ").append(getName());
+        if (!addedTags.isEmpty()){
+            sb.append(", added tags ").append(addedTags);
+        }
+        if (!removedTags.isEmpty()){
+            sb.append(", removed tags ").append(removedTags);
+        }
+        if (!changedSteps.isEmpty()){
+            sb.append(", changed steps ").append(changedSteps);
+        }
+        if (!relinkedSteps.isEmpty()){
+            sb.append(", relinked steps ").append(relinkedSteps.size());
+        }
+        newlyUnimplementedSteps.forEach(step -> sb.append("\n    not implemented: ").append(step.getText()));
+        return sb.toString();
+    }
+}
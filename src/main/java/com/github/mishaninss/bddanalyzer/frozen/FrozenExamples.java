@@ -0,0 +1,20 @@
+package com.github.mishaninss.bddanalyzer.frozen;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable examples table of an outline of a {@link FrozenProject}
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FrozenExamples {
+    String name;
+    Set<String> tags;
+    List<String> header;
+    List<List<String>> rows;
+}
@@ -0,0 +1,29 @@
+package com.github.mishaninss.bddanalyzer.frozen;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable feature of a {@link FrozenProject}
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FrozenFeature {
+    String name;
+    String file;
+    int line;
+    Set<String> tags;
+    /**
+     * Background of the feature, or null
+     */
+    FrozenScenario background;
+    List<FrozenScenario> scenarios;
+
+    public boolean hasBackground(){
+        return background != null;
+    }
+}
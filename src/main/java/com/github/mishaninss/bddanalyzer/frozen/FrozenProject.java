@@ -0,0 +1,259 @@
+package com.github.mishaninss.bddanalyzer.frozen;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of a scanned and linked {@link ArmaProject}. All fields are final and all collections
+ * are unmodifiable, derived lists and usage counts are computed once on creation, so the project is read
+ * by any number of threads without locks and is published safely by a reference swap
+ */
+public final class FrozenProject {
+    private final String stepDefsRoot;
+    private final String featuresRoot;
+    private final List<FrozenFeature> features;
+    private final List<FrozenStepDef> stepDefinitions;
+    private final List<FrozenScenario> backgrounds;
+    private final List<FrozenScenario> scenarios;
+    private final List<FrozenStep> steps;
+    private final Set<String> tags;
+    private final long tests;
+
+    private FrozenProject(String stepDefsRoot, String featuresRoot, List<FrozenFeature> features, List<FrozenStepDef> stepDefinitions){
+        this.stepDefsRoot = stepDefsRoot;
+        this.featuresRoot = featuresRoot;
+        this.features = features;
+        this.stepDefinitions = stepDefinitions;
+        List<FrozenScenario> allBackgrounds = new ArrayList<>();
+        List<FrozenScenario> allScenarios = new ArrayList<>();
+        List<FrozenStep> allSteps = new ArrayList<>();
+        Set<String> allTags = new LinkedHashSet<>();
+        long allTests = 0;
+        for (FrozenFeature feature: features){
+            allTags.addAll(feature.getTags());
+            if (feature.hasBackground()){
+                allBackgrounds.add(feature.getBackground());
+                allSteps.addAll(feature.getBackground().getSteps());
+                allTags.addAll(feature.getBackground().getTags());
+            }
+            for (FrozenScenario scenario: feature.getScenarios()){
+                allScenarios.add(scenario);
+                allTags.addAll(scenario.getTags());
+                scenario.getExamples().forEach(examples -> allTags.addAll(examples.getTags()));
+                allTests += scenario.getTests();
+            }
+        }
+        allScenarios.forEach(scenario -> allSteps.addAll(scenario.getSteps()));
+        backgrounds = Collections.unmodifiableList(allBackgrounds);
+        scenarios = Collections.unmodifiableList(allScenarios);
+        steps = Collections.unmodifiableList(allSteps);
+        tags = Collections.unmodifiableSet(allTags);
+        tests = allTests;
+    }
+
+    /**
+     * Copies the project. Steps have to be linked, the project isn't changed
+     */
+    public static FrozenProject of(ArmaProject project){
+        Map<ArmaStepDef, Integer> usage = project.getStepDefsUsage();
+        Map<ArmaStepDef, FrozenStepDef> stepDefs = new IdentityHashMap<>();
+        List<FrozenStepDef> stepDefinitions = new ArrayList<>();
+        for (ArmaStepDef stepDef: project.getStepDefinitions()){
+            ArmaStepDefLocation location = stepDef.getLocation();
+            FrozenStepDef frozen = new FrozenStepDef(stepDefinitions.size(), stepDef.getText(),
+                    location == null ? null : location.getFile(),
+                    location == null ? 0 : location.getLine(),
+                    location == null ? null : location.getMethodName(),
+                    location == null ? null : location.getDeclaration(),
+                    usage.getOrDefault(stepDef, 0));
+            stepDefinitions.add(frozen);
+            stepDefs.putIfAbsent(stepDef, frozen);
+        }
+        List<FrozenFeature> features = project.getFeatures().stream()
+                .map(feature -> freeze(feature, stepDefs::get))
+                .collect(Collectors.toList());
+        return new FrozenProject(project.getStepDefsRoot(), project.getFeaturesRoot(),
+                Collections.unmodifiableList(features), Collections.unmodifiableList(stepDefinitions));
+    }
+
+    public String getStepDefsRoot(){
+        return stepDefsRoot;
+    }
+
+    public String getFeaturesRoot(){
+        return featuresRoot;
+    }
+
+    public List<FrozenFeature> getFeatures(){
+        return features;
+    }
+
+    public List<FrozenStepDef> getStepDefinitions(){
+        return stepDefinitions;
+    }
+
+    public List<FrozenScenario> getBackgrounds(){
+        return backgrounds;
+    }
+
+    /**
+     * Scenarios and outlines of all features without backgrounds
+     */
+    public List<FrozenScenario> getScenarios(){
+        return scenarios;
+    }
+
+    public List<FrozenScenario> getScenarioOutlines(){
+        return scenarios.stream()
+                .filter(scenario -> scenario.getKind() == FrozenScenario.Kind.OUTLINE)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Steps of backgrounds followed by steps of scenarios
+     */
+    public List<FrozenStep> getSteps(){
+        return steps;
+    }
+
+    public List<FrozenStep> getImplementedSteps(){
+        return steps.stream().filter(FrozenStep::isImplemented).collect(Collectors.toList());
+    }
+
+    public List<FrozenStep> getNotImplementedSteps(){
+        return steps.stream().filter(step -> !step.isImplemented()).collect(Collectors.toList());
+    }
+
+    public List<FrozenStepDef> getUsedStepDefinitions(){
+        return stepDefinitions.stream().filter(FrozenStepDef::isUsed).collect(Collectors.toList());
+    }
+
+    public List<FrozenStepDef> getNotUsedStepDefinitions(){
+        return stepDefinitions.stream().filter(stepDef -> !stepDef.isUsed()).collect(Collectors.toList());
+    }
+
+    public Set<String> getTags(){
+        return tags;
+    }
+
+    public long countTests(){
+        return tests;
+    }
+
+    /**
+     * Features with backgrounds and scenarios accepted by all the tag filters, features without accepted scenarios
+     * are skipped. Tags of features are inherited by their backgrounds and scenarios as in
+     * {@link ArmaProject#applyTagFilters(String...)}
+     */
+    public List<FrozenFeature> applyTagFilters(String... tagFilters){
+        List<FrozenFeature> result = new ArrayList<>();
+        for (FrozenFeature feature: features){
+            List<FrozenScenario> accepted = feature.getScenarios().stream()
+                    .filter(scenario -> scenario.acceptTagFilters(tagFilters))
+                    .collect(Collectors.toList());
+            if (!accepted.isEmpty()){
+                FrozenScenario background = feature.hasBackground() && feature.getBackground().acceptTagFilters(tagFilters)
+                        ? feature.getBackground() : null;
+                result.add(new FrozenFeature(feature.getName(), feature.getFile(), feature.getLine(), feature.getTags(),
+                        background, Collections.unmodifiableList(accepted)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A filter is a comma separated list of tags, any of them has to be present, tags starting with {@code ~}
+     * have to be absent
+     */
+    static boolean acceptTagFilters(Set<String> tags, String... tagFilters){
+        for (String tagFilter: tagFilters){
+            if (StringUtils.isBlank(tagFilter)){
+                continue;
+            }
+            boolean accepted = false;
+            for (String tag: StringUtils.stripAll(tagFilter.split(","))){
+                accepted = accepted || (tag.startsWith("~") ? !tags.contains(tagName(tag.substring(1))) : tags.contains(tagName(tag)));
+            }
+            if (!accepted){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String tagName(String tag){
+        return new ArmaTag(tag).getName();
+    }
+
+    private static FrozenFeature freeze(ArmaFeature feature, Function<ArmaStepDef, FrozenStepDef> stepDefs){
+        Set<String> featureTags = tagNames(feature.getTags());
+        FrozenScenario background = feature.hasBackground()
+                ? freeze(feature.getBackground(), featureTags, stepDefs) : null;
+        List<FrozenScenario> scenarios = new ArrayList<>();
+        if (feature.hasScenarios()){
+            feature.getScenarios().forEach(scenario -> scenarios.add(freeze(scenario, featureTags, stepDefs)));
+        }
+        return new FrozenFeature(feature.getName(), feature.getLocation() == null ? null : feature.getLocation().getFile(),
+                feature.getLocation() == null ? 0 : feature.getLocation().getLine(), featureTags,
+                background, Collections.unmodifiableList(scenarios));
+    }
+
+    private static FrozenScenario freeze(ArmaScenario scenario, Set<String> featureTags, Function<ArmaStepDef, FrozenStepDef> stepDefs){
+        FrozenScenario.Kind kind = scenario instanceof ArmaBackground ? FrozenScenario.Kind.BACKGROUND
+                : scenario instanceof ArmaScenarioOutline ? FrozenScenario.Kind.OUTLINE : FrozenScenario.Kind.SCENARIO;
+        Set<String> scenarioTags = tagNames(scenario.getTags());
+        Set<String> effectiveTags = new LinkedHashSet<>(featureTags);
+        effectiveTags.addAll(scenarioTags);
+
+        List<FrozenStep> steps = new ArrayList<>();
+        if (scenario.hasSteps()){
+            scenario.getSteps().forEach(step -> steps.add(new FrozenStep(step.getKeyword(), step.getText(),
+                    step.getLocation() == null ? 0 : step.getLocation().getLine(),
+                    step.getArgument() == null ? null : step.getArgument().toString(),
+                    step.isImplemented() ? stepDefs.apply(step.getStepDef()) : null)));
+        }
+
+        List<FrozenExamples> examples = new ArrayList<>();
+        int tests = kind == FrozenScenario.Kind.SCENARIO ? 1 : 0;
+        if (kind == FrozenScenario.Kind.OUTLINE){
+            ArmaScenarioOutline outline = (ArmaScenarioOutline) scenario;
+            if (outline.getExamples() != null){
+                outline.getExamples().forEach(example -> examples.add(freeze(example)));
+            }
+            tests = outline.countTests();
+        }
+        return new FrozenScenario(kind, scenario.getName(), scenario.getLocation() == null ? 0 : scenario.getLocation().getLine(),
+                scenarioTags, Collections.unmodifiableSet(effectiveTags), Collections.unmodifiableList(steps),
+                Collections.unmodifiableList(examples), tests);
+    }
+
+    private static FrozenExamples freeze(ArmaExamples examples){
+        List<String> header = new ArrayList<>();
+        for (int column = 0; column < examples.getColumnCount(); column++){
+            header.add(examples.getParamName(column));
+        }
+        List<List<String>> rows = new ArrayList<>();
+        for (int row = 0; row < examples.getRowCount(); row++){
+            List<String> values = new ArrayList<>();
+            for (int column = 0; column < examples.getColumnCount(); column++){
+                values.add(examples.getValue(column, row));
+            }
+            rows.add(Collections.unmodifiableList(values));
+        }
+        return new FrozenExamples(examples.getName(), tagNames(examples.getTags()),
+                Collections.unmodifiableList(header), Collections.unmodifiableList(rows));
+    }
+
+    private static Set<String> tagNames(Set<ArmaTag> tags){
+        if (tags == null || tags.isEmpty()){
+            return Collections.emptySet();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        tags.forEach(tag -> names.add(tag.getName()));
+        return Collections.unmodifiableSet(names);
+    }
+}
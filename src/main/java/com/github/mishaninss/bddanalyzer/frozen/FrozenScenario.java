@@ -0,0 +1,43 @@
+package com.github.mishaninss.bddanalyzer.frozen;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable background, scenario or outline of a {@link FrozenProject}
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FrozenScenario {
+    public enum Kind {BACKGROUND, SCENARIO, OUTLINE}
+
+    Kind kind;
+    String name;
+    int line;
+    Set<String> tags;
+    /**
+     * Own tags and tags of the feature
+     */
+    Set<String> effectiveTags;
+    List<FrozenStep> steps;
+    List<FrozenExamples> examples;
+    /**
+     * Number of tests: rows of examples of an outline, one for a scenario, none for a background
+     */
+    int tests;
+
+    public boolean isImplemented(){
+        return steps.stream().allMatch(FrozenStep::isImplemented);
+    }
+
+    /**
+     * Checks effective tags against filters as {@link com.github.mishaninss.bddanalyzer.model.HasTags#acceptTagFilters(String...)}
+     */
+    public boolean acceptTagFilters(String... tagFilters){
+        return FrozenProject.acceptTagFilters(effectiveTags, tagFilters);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.mishaninss.bddanalyzer.frozen;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Immutable step of a {@link FrozenProject}
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FrozenStep {
+    String keyword;
+    String text;
+    int line;
+    /**
+     * Data table or doc string of the step written as Gherkin, or null
+     */
+    String argument;
+    /**
+     * Linked step definition, or null if the step is not implemented
+     */
+    FrozenStepDef stepDef;
+
+    public boolean isImplemented(){
+        return stepDef != null;
+    }
+
+    @Override
+    public String toString(){
+        return keyword + " " + text;
+    }
+}
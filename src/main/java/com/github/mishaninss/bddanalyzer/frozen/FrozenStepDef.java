@@ -0,0 +1,24 @@
+package com.github.mishaninss.bddanalyzer.frozen;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Immutable step definition of a {@link FrozenProject} with the number of steps linked to it
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FrozenStepDef {
+    int id;
+    String pattern;
+    String file;
+    int line;
+    String methodName;
+    String declaration;
+    int usages;
+
+    public boolean isUsed(){
+        return usages > 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.mishaninss.bddanalyzer.history;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Statistics of features and step definitions of a commit computed by {@link HistoryScanner}
+ */
+@Data
+public class CommitStats {
+    private final String commit;
+    private final long time;
+    private int features;
+    private int scenarios;
+    private int scenarioOutlines;
+    private int steps;
+    private int implementedSteps;
+    private long tests;
+    private int stepDefinitions;
+    private int notUsedStepDefinitions;
+    /**
+     * Number of files parsed for this commit, files unchanged since the previous commits are taken from the cache
+     */
+    private int parsedFiles;
+
+    public double getImplementedRatio(){
+        return steps == 0 ? 1.0 : (double) implementedSteps / steps;
+    }
+
+    public static String toString(List<CommitStats> history){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("COMMIT", "DATE", "FEATURES", "SCENARIOS", "TESTS", "STEPS", "IMPLEMENTED %", "STEP DEFS", "NOT USED", "PARSED");
+        history.forEach(stats -> table.addRow(stats.getCommit().substring(0, Math.min(10, stats.getCommit().length())),
+                Instant.ofEpochSecond(stats.getTime()).toString(),
+                String.valueOf(stats.getFeatures()),
+                String.valueOf(stats.getScenarios()),
+                String.valueOf(stats.getTests()),
+                String.valueOf(stats.getSteps()),
+                String.format("%.1f", 100 * stats.getImplementedRatio()),
+                String.valueOf(stats.getStepDefinitions()),
+                String.valueOf(stats.getNotUsedStepDefinitions()),
+                String.valueOf(stats.getParsedFiles())));
+        return table.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package com.github.mishaninss.bddanalyzer.history;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads commits, trees and blobs of a local git repository through the git command line without a checkout.
+ * Blobs are read by a single {@code git cat-file --batch} process started on first use and stopped by {@link #close()}.
+ */
+public class GitRepository implements Closeable {
+    private final File directory;
+    private Process catFile;
+    private OutputStream catFileInput;
+    private InputStream catFileOutput;
+
+    public GitRepository(File directory){
+        this.directory = directory;
+    }
+
+    /**
+     * Commits of the first-parent history of the revision, the oldest first
+     * @return pairs {@code [commit id, commit time in seconds]}
+     */
+    public List<String[]> getCommits(String revision, int maxCount) throws IOException {
+        String output = new String(run(null, "rev-list", "--first-parent", "--timestamp", "-n", String.valueOf(maxCount), revision),
+                StandardCharsets.UTF_8);
+        List<String[]> commits = new ArrayList<>();
+        for (String line: StringUtils.split(output, '\n')){
+            String[] parts = StringUtils.split(line.trim(), ' ');
+            commits.add(new String[]{parts[1], parts[0]});
+        }
+        Collections.reverse(commits);
+        return commits;
+    }
+
+    /**
+     * Blobs of the commit tree
+     * @return blob ids by paths relative to the repository root
+     */
+    public Map<String, String> getTree(String commit) throws IOException {
+        Map<String, String> tree = new LinkedHashMap<>();
+        String[] entries = split(run(null, "ls-tree", "-r", "-z", "--full-tree", commit));
+        for (String entry: entries){
+            int tab = entry.indexOf('\t');
+            String[] meta = StringUtils.split(entry.substring(0, tab), ' ');
+            if ("blob".equals(meta[1])){
+                tree.put(entry.substring(tab + 1), meta[2]);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Changes of blobs between every commit and the previous one, computed by one {@code git diff-tree --stdin} process
+     * @param commits commits in order, the first commit is the base of the second one and has no changes
+     * @return changes of commits starting from the second one: new blob ids, or null for deleted files, by paths
+     */
+    public Map<String, Map<String, String>> getChanges(List<String> commits) throws IOException {
+        Map<String, Map<String, String>> changes = new HashMap<>();
+        if (commits.size() < 2){
+            return changes;
+        }
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i < commits.size(); i++){
+            input.append(commits.get(i)).append(' ').append(commits.get(i - 1)).append('\n');
+            changes.put(commits.get(i), new LinkedHashMap<>());
+        }
+        String[] tokens = split(run(input.toString().getBytes(StandardCharsets.UTF_8), "diff-tree", "--stdin", "-r", "-z", "--no-renames"));
+        Map<String, String> current = null;
+        for (int i = 0; i < tokens.length; i++){
+            String token = tokens[i];
+            if (token.startsWith(":")){
+                String[] meta = StringUtils.split(token.substring(1), ' ');
+                String path = tokens[++i];
+                if (current != null && !meta[1].equals("160000")){
+                    current.put(path, meta[4].startsWith("D") ? null : meta[3]);
+                }
+            } else {
+                current = changes.get(token.trim());
+            }
+        }
+        return changes;
+    }
+
+    public synchronized byte[] readBlob(String blobId) throws IOException {
+        if (catFile == null){
+            catFile = new ProcessBuilder("git", "cat-file", "--batch").directory(directory).start();
+            catFileInput = new BufferedOutputStream(catFile.getOutputStream());
+            catFileOutput = new BufferedInputStream(catFile.getInputStream());
+        }
+        catFileInput.write((blobId + "\n").getBytes(StandardCharsets.US_ASCII));
+        catFileInput.flush();
+        String header = readLine(catFileOutput);
+        if (header.endsWith(" missing")){
+            throw new IOException("Object " + blobId + " is missing in " + directory);
+        }
+        byte[] content = new byte[Integer.parseInt(StringUtils.substringAfterLast(header, " "))];
+        int read = 0;
+        while (read < content.length){
+            int count = catFileOutput.read(content, read, content.length - read);
+            if (count < 0){
+                throw new EOFException("Unexpected end of git cat-file output");
+            }
+            read += count;
+        }
+        catFileOutput.read();
+        return content;
+    }
+
+    @Override
+    public synchronized void close(){
+        if (catFile != null){
+            catFile.destroy();
+            catFile = null;
+        }
+    }
+
+    /**
+     * Runs a git command, the input is written by a separate thread, so a large output doesn't block the input
+     */
+    private byte[] run(byte[] input, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(directory).start();
+        Thread writer = new Thread(() -> {
+            try (OutputStream out = process.getOutputStream()){
+                if (input != null){
+                    out.write(input);
+                }
+            } catch (IOException ex){
+                // the process exited before reading the input, its exit code tells the reason
+            }
+        });
+        writer.start();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        Thread errorReader = new Thread(() -> copy(process.getErrorStream(), errors));
+        errorReader.start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        copy(process.getInputStream(), output);
+        try {
+            writer.join();
+            errorReader.join();
+            if (process.waitFor() != 0){
+                throw new IOException("git " + String.join(" ", args) + " failed: " + new String(errors.toByteArray(), StandardCharsets.UTF_8).trim());
+            }
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("git " + String.join(" ", args) + " was interrupted");
+        }
+        return output.toByteArray();
+    }
+
+    private static void copy(InputStream in, ByteArrayOutputStream out){
+        byte[] buffer = new byte[8192];
+        try {
+            for (int count = in.read(buffer); count >= 0; count = in.read(buffer)){
+                out.write(buffer, 0, count);
+            }
+        } catch (IOException ex){
+            // the stream is closed when the process exits
+        }
+    }
+
+    private static String[] split(byte[] output){
+        return StringUtils.split(new String(output, StandardCharsets.UTF_8), '\0');
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != '\n'; b = in.read()){
+            if (b < 0){
+                throw new EOFException("Unexpected end of git cat-file output");
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,284 @@
+package com.github.mishaninss.bddanalyzer.history;
+
+import com.github.mishaninss.bddanalyzer.ParseCache;
+import com.github.mishaninss.bddanalyzer.matching.StepDefMatcher;
+import com.github.mishaninss.bddanalyzer.model.*;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Computes statistics of every commit of a git history range without checking the commits out.
+ * Feature and step definition files are read from the git object database and parsed by a {@link ParseCache}
+ * keyed by blob ids, so a file unchanged across the range is parsed once. Only the first commit is listed fully,
+ * later commits are applied as deltas of changed files: statistics of a changed feature are subtracted and the
+ * statistics of its new version are added. When step definitions change, the steps of all features are linked again,
+ * matches of step texts are cached until the next change of step definitions.
+ */
+public class HistoryScanner {
+    private static final String FEATURE_EXTENSION = ".feature";
+    private static final String STEP_DEF_EXTENSION = ".java";
+
+    private final File repository;
+    private final String featuresRoot;
+    private final String stepDefsRoot;
+    private final ParseCache parseCache;
+
+    /**
+     * Statistics of a feature linked to the current step definitions
+     */
+    private static class FeatureStats {
+        private boolean parsed;
+        private int scenarios;
+        private int scenarioOutlines;
+        private int steps;
+        private long tests;
+        private int[] usedStepDefs = new int[0];
+    }
+
+    /**
+     * @param featuresRoot directory of feature files relative to the repository root, empty for the whole repository
+     * @param stepDefsRoot directory of step definition files relative to the repository root, empty for the whole repository
+     */
+    public HistoryScanner(File repository, String featuresRoot, String stepDefsRoot){
+        this(repository, featuresRoot, stepDefsRoot, new ParseCache());
+    }
+
+    public HistoryScanner(File repository, String featuresRoot, String stepDefsRoot, ParseCache parseCache){
+        this.repository = repository;
+        this.featuresRoot = normalize(featuresRoot);
+        this.stepDefsRoot = normalize(stepDefsRoot);
+        this.parseCache = parseCache;
+    }
+
+    /**
+     * @param revision last commit of the range, e.g. {@code HEAD}
+     * @param maxCommits number of first-parent commits up to the revision
+     * @return statistics of the commits, the oldest first
+     */
+    public List<CommitStats> scan(String revision, int maxCommits) throws IOException {
+        try (GitRepository git = new GitRepository(repository)){
+            List<String[]> commits = git.getCommits(revision, maxCommits);
+            List<CommitStats> history = new ArrayList<>();
+            if (commits.isEmpty()){
+                return history;
+            }
+            Map<String, Map<String, String>> changes = git.getChanges(commits.stream().map(commit -> commit[0]).collect(Collectors.toList()));
+            State state = new State(git);
+            for (int i = 0; i < commits.size(); i++){
+                String commit = commits.get(i)[0];
+                Map<String, String> commitChanges = i == 0 ? git.getTree(commit) : changes.get(commit);
+                history.add(state.apply(commit, Long.parseLong(commits.get(i)[1]), commitChanges));
+            }
+            return history;
+        }
+    }
+
+    private class State {
+        private final GitRepository git;
+        private final Map<String, String> featureBlobs = new HashMap<>();
+        private final TreeMap<String, String> stepDefBlobs = new TreeMap<>();
+        private final Map<String, FeatureStats> featureStats = new HashMap<>();
+        private final Map<String, Integer> matches = new ConcurrentHashMap<>();
+        private List<ArmaStepDef> stepDefs = Collections.emptyList();
+        private StepDefMatcher matcher = new StepDefMatcher(stepDefs);
+        private int[] usage = new int[0];
+        private int notUsed;
+        private final CommitStats totals = new CommitStats("", 0);
+
+        private State(GitRepository git){
+            this.git = git;
+        }
+
+        private CommitStats apply(String commit, long time, Map<String, String> changes) throws IOException {
+            Map<String, String> changedFeatures = new LinkedHashMap<>();
+            boolean stepDefsChanged = false;
+            for (Map.Entry<String, String> change: changes.entrySet()){
+                if (isFeature(change.getKey())){
+                    changedFeatures.put(change.getKey(), change.getValue());
+                } else if (isStepDef(change.getKey())){
+                    stepDefsChanged = true;
+                    if (change.getValue() == null){
+                        stepDefBlobs.remove(change.getKey());
+                    } else {
+                        stepDefBlobs.put(change.getKey(), change.getValue());
+                    }
+                }
+            }
+            int parsedFiles = parse(changedFeatures, stepDefsChanged);
+
+            if (stepDefsChanged){
+                changedFeatures.forEach((path, blob) -> {
+                    if (blob == null){
+                        featureBlobs.remove(path);
+                    } else {
+                        featureBlobs.put(path, blob);
+                    }
+                });
+                relink();
+                featureBlobs.forEach((path, blob) -> add(getStats(blob)));
+            } else {
+                changedFeatures.forEach((path, blob) -> {
+                    String oldBlob = blob == null ? featureBlobs.remove(path) : featureBlobs.put(path, blob);
+                    if (oldBlob != null){
+                        subtract(featureStats.get(oldBlob));
+                    }
+                    if (blob != null){
+                        add(getStats(blob));
+                    }
+                });
+            }
+
+            CommitStats stats = new CommitStats(commit, time);
+            stats.setFeatures(totals.getFeatures());
+            stats.setScenarios(totals.getScenarios());
+            stats.setScenarioOutlines(totals.getScenarioOutlines());
+            stats.setSteps(totals.getSteps());
+            stats.setImplementedSteps(totals.getImplementedSteps());
+            stats.setTests(totals.getTests());
+            stats.setStepDefinitions(stepDefs.size());
+            stats.setNotUsedStepDefinitions(notUsed);
+            stats.setParsedFiles(parsedFiles);
+            return stats;
+        }
+
+        /**
+         * Reads blobs which are not parsed yet and parses them in parallel
+         * @return number of parsed files
+         */
+        private int parse(Map<String, String> changedFeatures, boolean stepDefsChanged) throws IOException {
+            Map<String, byte[]> featureContents = new LinkedHashMap<>();
+            for (Map.Entry<String, String> change: changedFeatures.entrySet()){
+                if (change.getValue() != null && !parseCache.containsFeature(change.getValue()) && !featureContents.containsKey(change.getValue())){
+                    featureContents.put(change.getValue(), git.readBlob(change.getValue()));
+                }
+            }
+            Map<String, byte[]> stepDefContents = new LinkedHashMap<>();
+            if (stepDefsChanged){
+                for (String blob: stepDefBlobs.values()){
+                    if (!parseCache.containsStepDefinitions(blob) && !stepDefContents.containsKey(blob)){
+                        stepDefContents.put(blob, git.readBlob(blob));
+                    }
+                }
+            }
+            Map<String, String> paths = new HashMap<>();
+            changedFeatures.forEach((path, blob) -> paths.put(blob, path));
+            stepDefBlobs.forEach((path, blob) -> paths.put(blob, path));
+            featureContents.entrySet().parallelStream()
+                    .forEach(entry -> parseCache.getFeature(entry.getKey(), paths.get(entry.getKey()), entry.getValue()));
+            stepDefContents.entrySet().parallelStream()
+                    .forEach(entry -> parseCache.getStepDefinitions(entry.getKey(), paths.get(entry.getKey()), entry.getValue()));
+            return featureContents.size() + stepDefContents.size();
+        }
+
+        private void relink(){
+            List<ArmaStepDef> newStepDefs = new ArrayList<>();
+            stepDefBlobs.values().forEach(blob -> newStepDefs.addAll(parseCache.getStepDefinitions(blob)));
+            stepDefs = newStepDefs;
+            matcher = new StepDefMatcher(stepDefs);
+            matches.clear();
+            featureStats.clear();
+            usage = new int[stepDefs.size()];
+            notUsed = stepDefs.size();
+            totals.setFeatures(0);
+            totals.setScenarios(0);
+            totals.setScenarioOutlines(0);
+            totals.setSteps(0);
+            totals.setImplementedSteps(0);
+            totals.setTests(0);
+        }
+
+        private FeatureStats getStats(String blob){
+            return featureStats.computeIfAbsent(blob, key -> link(parseCache.getFeature(key)));
+        }
+
+        private FeatureStats link(ArmaFeature feature){
+            FeatureStats stats = new FeatureStats();
+            if (feature == null){
+                return stats;
+            }
+            stats.parsed = true;
+            List<Integer> used = new ArrayList<>();
+            if (feature.hasBackground()){
+                linkSteps(stats, feature.getBackground().getSteps(), null, used);
+            }
+            for (ArmaScenario scenario: feature.getScenarios()){
+                stats.scenarios++;
+                ArmaExamples examples = null;
+                if (scenario instanceof ArmaScenarioOutline){
+                    ArmaScenarioOutline outline = (ArmaScenarioOutline) scenario;
+                    stats.scenarioOutlines++;
+                    stats.tests += outline.countTests();
+                    if (CollectionUtils.isNotEmpty(outline.getExamples())){
+                        examples = outline.getExamples().get(0);
+                    }
+                } else {
+                    stats.tests++;
+                }
+                linkSteps(stats, scenario.getSteps(), examples, used);
+            }
+            stats.usedStepDefs = used.stream().mapToInt(Integer::intValue).toArray();
+            return stats;
+        }
+
+        private void linkSteps(FeatureStats stats, List<ArmaStep> steps, ArmaExamples examples, List<Integer> used){
+            if (steps == null){
+                return;
+            }
+            for (ArmaStep step: steps){
+                stats.steps++;
+                String text = examples == null ? step.getText() : ArmaStep.applyExample(step, examples, 0).getText();
+                int stepDefId = matches.computeIfAbsent(StringUtils.defaultString(text), matcher::find);
+                if (stepDefId >= 0 && stepDefs.get(stepDefId).isImplemented()){
+                    used.add(stepDefId);
+                }
+            }
+        }
+
+        private void add(FeatureStats stats){
+            update(stats, 1);
+        }
+
+        private void subtract(FeatureStats stats){
+            if (stats != null){
+                update(stats, -1);
+            }
+        }
+
+        private void update(FeatureStats stats, int sign){
+            totals.setFeatures(totals.getFeatures() + (stats.parsed ? sign : 0));
+            totals.setScenarios(totals.getScenarios() + sign * stats.scenarios);
+            totals.setScenarioOutlines(totals.getScenarioOutlines() + sign * stats.scenarioOutlines);
+            totals.setSteps(totals.getSteps() + sign * stats.steps);
+            totals.setImplementedSteps(totals.getImplementedSteps() + sign * stats.usedStepDefs.length);
+            totals.setTests(totals.getTests() + sign * stats.tests);
+            for (int stepDefId: stats.usedStepDefs){
+                if (usage[stepDefId] == 0){
+                    notUsed--;
+                }
+                usage[stepDefId] += sign;
+                if (usage[stepDefId] == 0){
+                    notUsed++;
+                }
+            }
+        }
+    }
+
+    private boolean isFeature(String path){
+        return path.endsWith(FEATURE_EXTENSION) && path.startsWith(featuresRoot);
+    }
+
+    private boolean isStepDef(String path){
+        return path.endsWith(STEP_DEF_EXTENSION) && path.startsWith(stepDefsRoot);
+    }
+
+    private static String normalize(String root){
+        String path = StringUtils.strip(StringUtils.defaultString(root).replace('\\', '/'), "/");
+        return path.isEmpty() ? "" : path + "/";
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.mishaninss.bddanalyzer.index;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import lombok.Data;
+
+/**
+ * Single result of a {@link SearchIndex} query.
+ * Depending on the type, the hit refers to a step (with its scenario and feature), a scenario or a step definition
+ */
+@Data
+public class SearchHit {
+    public enum Type {STEP, SCENARIO, STEP_DEF}
+
+    private final Type type;
+    private final String text;
+    private final double score;
+    private final ArmaFeature feature;
+    private final ArmaScenario scenario;
+    private final ArmaStep step;
+    private final ArmaStepDef stepDef;
+
+    @Override
+    public String toString(){
+        return String.format("%.3f %s %s", score, type, text);
+    }
+}
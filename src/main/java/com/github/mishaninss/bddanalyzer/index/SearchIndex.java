@@ -0,0 +1,519 @@
+package com.github.mishaninss.bddanalyzer.index;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+/**
+ * In-memory full-text index over step texts, scenario names and step definition patterns with their descriptions.
+ * Every indexed text is a document with an int id. Documents are split into lower-cased alphanumeric tokens
+ * and into character trigrams, both kept in inverted lists of ascending document ids.
+ * The sorted token dictionary answers prefix queries, trigram lists narrow substring queries down to a few candidates,
+ * and trigrams of dictionary tokens give candidates for fuzzy (edit distance) matching of query tokens.
+ * <p>
+ * Features are indexed incrementally: {@link #update(ArmaFeature)} drops documents of the previous version of the feature
+ * and indexes the new one. Dropped documents stay in the lists as tombstones until the index is compacted.
+ * The index is not thread-safe.
+ */
+public class SearchIndex {
+    public enum Mode {PREFIX, SUBSTRING, FUZZY}
+
+    private static final int GRAM = 3;
+
+    private final List<Document> docs = new ArrayList<>();
+    private final Map<ArmaFeature, IntList> featureDocs = new IdentityHashMap<>();
+    private final IntList stepDefDocs = new IntList();
+    private final TreeMap<String, Integer> termIds = new TreeMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<IntList> termPostings = new ArrayList<>();
+    private final Map<String, IntList> gramPostings = new HashMap<>();
+    private final Map<String, IntList> termGrams = new HashMap<>();
+    private int removedCount;
+    private int[] levels = new int[0];
+    private double[] scores = new double[0];
+    private double[] tokenScores = new double[0];
+
+    private static class Document {
+        private final SearchHit.Type type;
+        private final String text;
+        private final String searchText;
+        private final int tokensCount;
+        private final ArmaFeature feature;
+        private final ArmaScenario scenario;
+        private final ArmaStep step;
+        private final ArmaStepDef stepDef;
+
+        private Document(SearchHit.Type type, String text, String searchText, int tokensCount,
+                         ArmaFeature feature, ArmaScenario scenario, ArmaStep step, ArmaStepDef stepDef){
+            this.type = type;
+            this.text = text;
+            this.searchText = searchText;
+            this.tokensCount = tokensCount;
+            this.feature = feature;
+            this.scenario = scenario;
+            this.step = step;
+            this.stepDef = stepDef;
+        }
+    }
+
+    public SearchIndex(){
+    }
+
+    public SearchIndex(ArmaProject project){
+        project.getFeatures().forEach(this::update);
+        setStepDefs(project.getStepDefinitions());
+    }
+
+    /**
+     * Indexes the feature replacing documents of its previous version, if the feature was indexed before
+     */
+    public void update(ArmaFeature feature){
+        remove(feature);
+        IntList ids = new IntList();
+        if (feature.hasBackground()){
+            addSteps(feature, feature.getBackground(), ids);
+        }
+        for (ArmaScenario scenario: feature.getScenarios()){
+            if (StringUtils.isNotBlank(scenario.getName())){
+                ids.add(addDocument(SearchHit.Type.SCENARIO, scenario.getName(), null, feature, scenario, null, null));
+            }
+            addSteps(feature, scenario, ids);
+        }
+        featureDocs.put(feature, ids);
+    }
+
+    public void remove(ArmaFeature feature){
+        IntList ids = featureDocs.remove(feature);
+        if (ids != null){
+            removeDocuments(ids);
+        }
+    }
+
+    /**
+     * Replaces indexed step definitions
+     */
+    public void setStepDefs(Collection<ArmaStepDef> stepDefs){
+        IntList oldIds = new IntList();
+        oldIds.addAll(stepDefDocs);
+        stepDefDocs.clear();
+        removeDocuments(oldIds);
+        for (ArmaStepDef stepDef: stepDefs){
+            if (StringUtils.isNotBlank(stepDef.getText())){
+                stepDefDocs.add(addDocument(SearchHit.Type.STEP_DEF, stepDef.getText(), stepDef.getDescription(),
+                        null, null, null, stepDef));
+            }
+        }
+    }
+
+    public int size(){
+        return docs.size() - removedCount;
+    }
+
+    public int getTermsCount(){
+        return terms.size();
+    }
+
+    public List<SearchHit> search(String query, Mode mode, int limit){
+        if (StringUtils.isBlank(query) || limit <= 0){
+            return new ArrayList<>();
+        }
+        switch (mode){
+            case SUBSTRING:
+                return searchSubstring(query.toLowerCase(Locale.ROOT), limit);
+            case FUZZY:
+                return searchTerms(tokenize(query), true, limit);
+            default:
+                return searchTerms(tokenize(query), false, limit);
+        }
+    }
+
+    /**
+     * Rebuilds the inverted lists without removed documents
+     */
+    public void compact(){
+        Map<ArmaFeature, IntList> oldFeatureDocs = new IdentityHashMap<>(featureDocs);
+        IntList oldStepDefDocs = new IntList();
+        oldStepDefDocs.addAll(stepDefDocs);
+        List<Document> oldDocs = new ArrayList<>(docs);
+
+        docs.clear();
+        featureDocs.clear();
+        stepDefDocs.clear();
+        termIds.clear();
+        terms.clear();
+        termPostings.clear();
+        gramPostings.clear();
+        termGrams.clear();
+        removedCount = 0;
+
+        oldFeatureDocs.forEach((feature, ids) -> featureDocs.put(feature, readd(oldDocs, ids)));
+        stepDefDocs.addAll(readd(oldDocs, oldStepDefDocs));
+    }
+
+    private IntList readd(List<Document> oldDocs, IntList ids){
+        IntList newIds = new IntList();
+        for (int i = 0; i < ids.size(); i++){
+            newIds.add(index(oldDocs.get(ids.get(i))));
+        }
+        return newIds;
+    }
+
+    private void addSteps(ArmaFeature feature, ArmaScenario scenario, IntList ids){
+        if (scenario.getSteps() == null){
+            return;
+        }
+        for (ArmaStep step: scenario.getSteps()){
+            if (StringUtils.isNotBlank(step.getText())){
+                ids.add(addDocument(SearchHit.Type.STEP, step.getText(), null, feature, scenario, step, null));
+            }
+        }
+    }
+
+    private int addDocument(SearchHit.Type type, String text, String extraText, ArmaFeature feature,
+                            ArmaScenario scenario, ArmaStep step, ArmaStepDef stepDef){
+        String searchText = StringUtils.isBlank(extraText) ? text : text + "\n" + extraText;
+        searchText = searchText.toLowerCase(Locale.ROOT);
+        return index(new Document(type, text, searchText, tokenize(searchText).size(), feature, scenario, step, stepDef));
+    }
+
+    private int index(Document doc){
+        int docId = docs.size();
+        docs.add(doc);
+        for (String token: new LinkedHashSet<>(tokenize(doc.searchText))){
+            Integer termId = termIds.get(token);
+            if (termId == null){
+                termId = terms.size();
+                terms.add(token);
+                termPostings.add(new IntList());
+                termIds.put(token, termId);
+                for (String gram: grams(" " + token + " ")){
+                    termGrams.computeIfAbsent(gram, key -> new IntList()).add(termId);
+                }
+            }
+            termPostings.get(termId).add(docId);
+        }
+        for (String gram: grams(doc.searchText)){
+            gramPostings.computeIfAbsent(gram, key -> new IntList()).add(docId);
+        }
+        return docId;
+    }
+
+    private void removeDocuments(IntList ids){
+        for (int i = 0; i < ids.size(); i++){
+            if (docs.get(ids.get(i)) != null){
+                docs.set(ids.get(i), null);
+                removedCount++;
+            }
+        }
+        if (removedCount > 1024 && removedCount > docs.size() / 2){
+            compact();
+        }
+    }
+
+    /**
+     * Every query token has to match a document term: as a prefix or within the allowed edit distance.
+     * Scores are sums of idf of the best matching terms weighted by similarity and normalized by the document length
+     */
+    private List<SearchHit> searchTerms(List<String> tokens, boolean fuzzy, int limit){
+        if (tokens.isEmpty()){
+            return new ArrayList<>();
+        }
+        if (levels.length < docs.size()){
+            levels = new int[docs.size()];
+            scores = new double[docs.size()];
+            tokenScores = new double[docs.size()];
+        }
+        int[] level = levels;
+        IntList candidates = new IntList();
+
+        for (int tokenIndex = 0; tokenIndex < tokens.size(); tokenIndex++){
+            String token = tokens.get(tokenIndex);
+            Map<Integer, Double> matchedTerms = fuzzy ? findSimilarTerms(token) : findPrefixTerms(token);
+            for (Map.Entry<Integer, Double> entry: matchedTerms.entrySet()){
+                IntList postings = termPostings.get(entry.getKey());
+                double weight = entry.getValue() * idf(postings.size());
+                for (int i = 0; i < postings.size(); i++){
+                    int docId = postings.get(i);
+                    if (level[docId] == tokenIndex){
+                        level[docId] = tokenIndex + 1;
+                        tokenScores[docId] = weight;
+                        if (tokenIndex == 0){
+                            candidates.add(docId);
+                        }
+                    } else if (level[docId] == tokenIndex + 1 && tokenScores[docId] < weight){
+                        tokenScores[docId] = weight;
+                    }
+                }
+            }
+            for (int i = 0; i < candidates.size(); i++){
+                int docId = candidates.get(i);
+                if (level[docId] == tokenIndex + 1){
+                    scores[docId] += tokenScores[docId];
+                }
+            }
+        }
+
+        PriorityQueue<ScoredDoc> found = new PriorityQueue<>(limit + 1, this::compareHits);
+        for (int i = 0; i < candidates.size(); i++){
+            int docId = candidates.get(i);
+            Document doc = docs.get(docId);
+            if (doc != null && level[docId] == tokens.size()){
+                offer(found, docId, scores[docId] / Math.sqrt(Math.max(1, doc.tokensCount)), limit);
+            }
+            level[docId] = 0;
+            scores[docId] = 0;
+            tokenScores[docId] = 0;
+        }
+        return toHits(found);
+    }
+
+    private Map<Integer, Double> findPrefixTerms(String prefix){
+        Map<Integer, Double> matched = new HashMap<>();
+        for (Map.Entry<String, Integer> entry: termIds.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()){
+            matched.put(entry.getValue(), (double) prefix.length() / entry.getKey().length());
+        }
+        return matched;
+    }
+
+    /**
+     * Finds dictionary terms within edit distance 1 (tokens up to 4 chars) or 2 from the token.
+     * Candidates are terms sharing at least one padded trigram with the token
+     */
+    private Map<Integer, Double> findSimilarTerms(String token){
+        int maxDistance = token.length() <= 4 ? 1 : 2;
+        Set<Integer> candidates = new HashSet<>();
+        for (String gram: grams(" " + token + " ")){
+            IntList termList = termGrams.get(gram);
+            if (termList != null){
+                for (int i = 0; i < termList.size(); i++){
+                    candidates.add(termList.get(i));
+                }
+            }
+        }
+        Map<Integer, Double> matched = new HashMap<>();
+        for (int termId: candidates){
+            String term = terms.get(termId);
+            if (Math.abs(term.length() - token.length()) > maxDistance){
+                continue;
+            }
+            int distance = levenshteinDistance(token, term, maxDistance);
+            if (distance >= 0){
+                matched.put(termId, 1.0 - (double) distance / (Math.max(token.length(), term.length()) + 1));
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Edit distance of two strings computed row by row, stops as soon as every value of a row exceeds the threshold
+     * @return the distance, or -1 if it is greater than the threshold
+     */
+    static int levenshteinDistance(String left, String right, int threshold){
+        if (Math.abs(left.length() - right.length()) > threshold){
+            return -1;
+        }
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++){
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++){
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= right.length(); j++){
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > threshold){
+                return -1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()] > threshold ? -1 : previous[right.length()];
+    }
+
+    /**
+     * Candidates are intersection of trigram lists of the query (or terms containing a short query),
+     * every candidate is verified against the document text
+     */
+    private List<SearchHit> searchSubstring(String query, int limit){
+        IntList candidates;
+        if (query.length() < GRAM){
+            Set<Integer> docIds = new TreeSet<>();
+            for (int termId = 0; termId < terms.size(); termId++){
+                if (terms.get(termId).contains(query)){
+                    IntList postings = termPostings.get(termId);
+                    for (int i = 0; i < postings.size(); i++){
+                        docIds.add(postings.get(i));
+                    }
+                }
+            }
+            candidates = new IntList();
+            docIds.forEach(candidates::add);
+        } else {
+            List<IntList> lists = new ArrayList<>();
+            for (String gram: new HashSet<>(grams(query))){
+                IntList postings = gramPostings.get(gram);
+                if (postings == null){
+                    return new ArrayList<>();
+                }
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(IntList::size));
+            candidates = lists.get(0);
+            for (int i = 1; i < lists.size() && candidates.size() > 0; i++){
+                candidates = candidates.intersect(lists.get(i));
+            }
+        }
+
+        PriorityQueue<ScoredDoc> found = new PriorityQueue<>(limit + 1, this::compareHits);
+        for (int i = 0; i < candidates.size(); i++){
+            int docId = candidates.get(i);
+            Document doc = docs.get(docId);
+            if (doc == null){
+                continue;
+            }
+            int position = doc.searchText.indexOf(query);
+            if (position >= 0){
+                double score = (double) query.length() / doc.searchText.length();
+                if (position == 0 || !Character.isLetterOrDigit(doc.searchText.charAt(position - 1))){
+                    score += 0.5;
+                }
+                offer(found, docId, score, limit);
+            }
+        }
+        return toHits(found);
+    }
+
+    /**
+     * Keeps the best {@code limit} documents, the worst of them is the head of the queue
+     */
+    private void offer(PriorityQueue<ScoredDoc> found, int docId, double score, int limit){
+        if (found.size() < limit){
+            found.add(new ScoredDoc(docId, score));
+        } else if (score >= found.peek().score){
+            ScoredDoc scoredDoc = new ScoredDoc(docId, score);
+            if (compareHits(scoredDoc, found.peek()) > 0){
+                found.poll();
+                found.add(scoredDoc);
+            }
+        }
+    }
+
+    /**
+     * Higher score, then shorter text, then earlier indexed document is better
+     */
+    private int compareHits(ScoredDoc a, ScoredDoc b){
+        int result = Double.compare(a.score, b.score);
+        if (result == 0){
+            result = Integer.compare(docs.get(b.docId).text.length(), docs.get(a.docId).text.length());
+        }
+        return result == 0 ? Integer.compare(b.docId, a.docId) : result;
+    }
+
+    private List<SearchHit> toHits(PriorityQueue<ScoredDoc> found){
+        LinkedList<SearchHit> hits = new LinkedList<>();
+        while (!found.isEmpty()){
+            ScoredDoc scoredDoc = found.poll();
+            Document doc = docs.get(scoredDoc.docId);
+            hits.addFirst(new SearchHit(doc.type, doc.text, scoredDoc.score, doc.feature, doc.scenario, doc.step, doc.stepDef));
+        }
+        return new ArrayList<>(hits);
+    }
+
+    private double idf(int docsWithTerm){
+        return Math.log(1.0 + (double) size() / Math.max(1, docsWithTerm));
+    }
+
+    static List<String> tokenize(String text){
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++){
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0){
+                start = i;
+            } else if (!tokenChar && start >= 0){
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> grams(String text){
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++){
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class ScoredDoc {
+        private final int docId;
+        private final double score;
+
+        private ScoredDoc(int docId, double score){
+            this.docId = docId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Growable list of ascending ints
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value){
+            if (size == values.length){
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList list){
+            for (int i = 0; i < list.size; i++){
+                add(list.values[i]);
+            }
+        }
+
+        int get(int index){
+            return values[index];
+        }
+
+        int size(){
+            return size;
+        }
+
+        void clear(){
+            size = 0;
+        }
+
+        IntList intersect(IntList another){
+            IntList result = new IntList();
+            int i = 0;
+            int j = 0;
+            while (i < size && j < another.size){
+                if (values[i] < another.values[j]){
+                    i++;
+                } else if (values[i] > another.values[j]){
+                    j++;
+                } else {
+                    result.add(values[i]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
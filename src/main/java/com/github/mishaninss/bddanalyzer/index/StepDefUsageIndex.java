@@ -0,0 +1,264 @@
+package com.github.mishaninss.bddanalyzer.index;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaBackground;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+
+import java.util.*;
+
+/**
+ * Reverse index from step definitions to the steps which use them.
+ * Step definitions and scenarios (including backgrounds) get int ids, every step definition has a posting list
+ * of (scenario id, step index) pairs, so usage lookups cost O(result size).
+ * The index reflects the links at the moment it was built and is not updated when the model is changed.
+ * A changed feature is reindexed by {@link #updateFeature(ArmaFeature)}, its scenarios get new ids,
+ * so their usages follow usages of the other scenarios.
+ */
+public class StepDefUsageIndex {
+    private static final int[] EMPTY_POSTINGS = new int[0];
+
+    private final List<ArmaStepDef> stepDefs;
+    private final Map<ArmaStepDef, Integer> stepDefIds;
+    private final List<ArmaScenario> scenarios = new ArrayList<>();
+    private final List<BitSet> scenarioStepDefIds = new ArrayList<>();
+    private final Map<ArmaFeature, int[]> featureScenarioIds = new IdentityHashMap<>();
+    private int[][] postings;
+    private int[] postingSizes;
+
+    public StepDefUsageIndex(List<ArmaStepDef> stepDefs){
+        this.stepDefs = new ArrayList<>(stepDefs);
+        stepDefIds = new HashMap<>(stepDefs.size() * 2);
+        for (int id = 0; id < this.stepDefs.size(); id++){
+            stepDefIds.putIfAbsent(this.stepDefs.get(id), id);
+        }
+        postings = new int[this.stepDefs.size()][];
+        postingSizes = new int[this.stepDefs.size()];
+    }
+
+    public int addScenario(ArmaScenario scenario){
+        scenarios.add(scenario);
+        scenarioStepDefIds.add(new BitSet());
+        return scenarios.size() - 1;
+    }
+
+    /**
+     * Adds the background and scenarios of the feature with postings for all their implemented steps
+     */
+    public void addFeature(ArmaFeature feature){
+        List<ArmaScenario> featureScenarios = feature.getScenarios();
+        int[] ids = new int[(feature.hasBackground() ? 1 : 0) + (featureScenarios == null ? 0 : featureScenarios.size())];
+        int i = 0;
+        if (feature.hasBackground()){
+            ids[i++] = addScenarioSteps(feature.getBackground());
+        }
+        if (featureScenarios != null){
+            for (ArmaScenario scenario: featureScenarios){
+                ids[i++] = addScenarioSteps(scenario);
+            }
+        }
+        featureScenarioIds.put(feature, ids);
+    }
+
+    /**
+     * Removes postings of the feature added by {@link #addFeature(ArmaFeature)}.
+     * Only posting lists of step definitions used by the feature are changed, ids of removed scenarios are not reused
+     */
+    public void removeFeature(ArmaFeature feature){
+        int[] ids = featureScenarioIds.remove(feature);
+        if (ids == null){
+            return;
+        }
+        BitSet removed = new BitSet();
+        BitSet affected = new BitSet();
+        for (int id: ids){
+            removed.set(id);
+            affected.or(scenarioStepDefIds.get(id));
+            scenarios.set(id, null);
+            scenarioStepDefIds.set(id, null);
+        }
+        for (int stepDefId = affected.nextSetBit(0); stepDefId >= 0; stepDefId = affected.nextSetBit(stepDefId + 1)){
+            int[] list = postings[stepDefId];
+            int size = 0;
+            for (int i = 0; i < postingSizes[stepDefId]; i += 2){
+                if (!removed.get(list[i])){
+                    list[size] = list[i];
+                    list[size + 1] = list[i + 1];
+                    size += 2;
+                }
+            }
+            postingSizes[stepDefId] = size;
+        }
+    }
+
+    /**
+     * Replaces postings of the feature with postings of its current steps, a feature unknown to the index is added
+     */
+    public void updateFeature(ArmaFeature feature){
+        removeFeature(feature);
+        addFeature(feature);
+    }
+
+    /**
+     * Adds a posting for an implemented step. Steps linked to unknown step definitions are ignored
+     */
+    public void addUsage(int scenarioId, int stepIndex, ArmaStep step){
+        if (!step.isImplemented()){
+            return;
+        }
+        int stepDefId = getStepDefId(step.getStepDef());
+        if (stepDefId < 0){
+            return;
+        }
+        int[] list = postings[stepDefId];
+        int size = postingSizes[stepDefId];
+        if (list == null){
+            list = new int[4];
+        } else if (size + 2 > list.length){
+            list = Arrays.copyOf(list, list.length * 2);
+        }
+        list[size] = scenarioId;
+        list[size + 1] = stepIndex;
+        scenarioStepDefIds.get(scenarioId).set(stepDefId);
+        postings[stepDefId] = list;
+        postingSizes[stepDefId] = size + 2;
+    }
+
+    /**
+     * Adds a scenario and postings for all its implemented steps
+     */
+    public int addScenarioSteps(ArmaScenario scenario){
+        int scenarioId = addScenario(scenario);
+        List<ArmaStep> steps = scenario.getSteps();
+        if (steps != null){
+            int stepIndex = 0;
+            for (ArmaStep step: steps){
+                addUsage(scenarioId, stepIndex++, step);
+            }
+        }
+        return scenarioId;
+    }
+
+    public int getStepDefId(ArmaStepDef stepDef){
+        Integer id = stepDefIds.get(stepDef);
+        return id == null ? -1 : id;
+    }
+
+    public ArmaStepDef getStepDef(int stepDefId){
+        return stepDefs.get(stepDefId);
+    }
+
+    /**
+     * @return the scenario, or null if its feature was removed
+     */
+    public ArmaScenario getScenario(int scenarioId){
+        return scenarios.get(scenarioId);
+    }
+
+    public int getStepDefsCount(){
+        return stepDefs.size();
+    }
+
+    /**
+     * @return number of scenario ids including ids of removed scenarios
+     */
+    public int getScenariosCount(){
+        return scenarios.size();
+    }
+
+    /**
+     * Returns a copy of the posting list of the step definition: pairs of scenario id and step index
+     */
+    public int[] getPostings(ArmaStepDef stepDef){
+        int stepDefId = getStepDefId(stepDef);
+        if (stepDefId < 0 || postings[stepDefId] == null){
+            return EMPTY_POSTINGS;
+        }
+        return Arrays.copyOf(postings[stepDefId], postingSizes[stepDefId]);
+    }
+
+    public int countUsage(ArmaStepDef stepDef){
+        int stepDefId = getStepDefId(stepDef);
+        return stepDefId < 0 ? 0 : countUsage(stepDefId);
+    }
+
+    public int countUsage(int stepDefId){
+        return postingSizes[stepDefId] / 2;
+    }
+
+    public boolean isUsed(ArmaStepDef stepDef){
+        return countUsage(stepDef) > 0;
+    }
+
+    /**
+     * Returns steps linked to the step definition in order of linking
+     */
+    public List<ArmaStep> getSteps(ArmaStepDef stepDef){
+        int stepDefId = getStepDefId(stepDef);
+        if (stepDefId < 0){
+            return new ArrayList<>();
+        }
+        int[] list = postings[stepDefId];
+        int size = postingSizes[stepDefId];
+        List<ArmaStep> steps = new ArrayList<>(size / 2);
+        for (int i = 0; i < size; i += 2){
+            steps.add(scenarios.get(list[i]).getSteps().get(list[i + 1]));
+        }
+        return steps;
+    }
+
+    /**
+     * Returns scenarios which use the step definition with the number of usages in each of them.
+     * Backgrounds are not included
+     */
+    public Map<ArmaScenario, Integer> getScenarioUsage(ArmaStepDef stepDef){
+        Map<ArmaScenario, Integer> usage = new LinkedHashMap<>();
+        int stepDefId = getStepDefId(stepDef);
+        if (stepDefId < 0){
+            return usage;
+        }
+        int[] list = postings[stepDefId];
+        int size = postingSizes[stepDefId];
+        for (int i = 0; i < size; i += 2){
+            ArmaScenario scenario = scenarios.get(list[i]);
+            if (!(scenario instanceof ArmaBackground)){
+                usage.merge(scenario, 1, Integer::sum);
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Returns usage counts of all used step definitions
+     */
+    public Map<ArmaStepDef, Integer> getUsageCounts(){
+        Map<ArmaStepDef, Integer> usage = new LinkedHashMap<>();
+        for (int id = 0; id < stepDefs.size(); id++){
+            if (postingSizes[id] > 0){
+                usage.put(stepDefs.get(id), countUsage(id));
+            }
+        }
+        return usage;
+    }
+
+    public List<ArmaStepDef> getUsedStepDefs(){
+        List<ArmaStepDef> used = new ArrayList<>();
+        for (int id = 0; id < stepDefs.size(); id++){
+            if (postingSizes[id] > 0){
+                used.add(stepDefs.get(id));
+            }
+        }
+        return used;
+    }
+
+    public List<ArmaStepDef> getNotUsedStepDefs(){
+        List<ArmaStepDef> notUsed = new ArrayList<>();
+        for (int id = 0; id < stepDefs.size(); id++){
+            if (postingSizes[id] == 0){
+                notUsed.add(stepDefs.get(id));
+            }
+        }
+        return notUsed;
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.mishaninss.bddanalyzer.index;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+
+import java.util.*;
+
+/**
+ * Multi-pattern search of step definition sequences in scenarios (Aho-Corasick automaton).
+ * Every step definition of the searched sequences gets an int symbol, sequences are put into a trie
+ * with failure and output links, so all occurrences of all sequences are found in a single pass over
+ * the steps of each scenario. Occurrences may overlap. Not implemented steps and step definitions
+ * which are not a part of any sequence reset the automaton.
+ */
+public class StepSequenceMatcher {
+    private static final int ROOT = 0;
+    private static final int[] NO_PATTERNS = new int[0];
+
+    private final List<List<ArmaStepDef>> sequences;
+    private final Map<ArmaStepDef, Integer> symbols = new HashMap<>();
+    private final Map<Long, Integer> transitions = new HashMap<>();
+    private int[] fail;
+    private int[] outputLink;
+    private int[][] patterns;
+    private int statesCount = 1;
+
+    /**
+     * Receives occurrences found by {@link #search(List, MatchListener)}
+     */
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param sequenceId index of the found sequence in the list the matcher was created with
+         * @param start index of the first step of the occurrence
+         */
+        void onMatch(int sequenceId, int start);
+    }
+
+    /**
+     * Builds the automaton. Empty sequences and sequences with nulls never match
+     */
+    public StepSequenceMatcher(Collection<? extends List<ArmaStepDef>> sequences){
+        this.sequences = new ArrayList<>(sequences);
+        int capacity = 1;
+        for (List<ArmaStepDef> sequence: this.sequences){
+            capacity += sequence.size();
+        }
+        fail = new int[capacity];
+        outputLink = new int[capacity];
+        patterns = new int[capacity][];
+        for (int sequenceId = 0; sequenceId < this.sequences.size(); sequenceId++){
+            addSequence(sequenceId, this.sequences.get(sequenceId));
+        }
+        buildLinks();
+    }
+
+    public int getSequencesCount(){
+        return sequences.size();
+    }
+
+    public List<ArmaStepDef> getSequence(int sequenceId){
+        return sequences.get(sequenceId);
+    }
+
+    /**
+     * Reports all occurrences of all sequences in the list of step definitions
+     */
+    public void search(List<ArmaStepDef> stepDefs, MatchListener listener){
+        int state = ROOT;
+        int index = 0;
+        for (ArmaStepDef stepDef: stepDefs){
+            Integer symbol = stepDef == null ? null : symbols.get(stepDef);
+            if (symbol == null){
+                state = ROOT;
+            } else {
+                state = next(state, symbol);
+                for (int output = state; output != ROOT; output = outputLink[output]){
+                    for (int sequenceId: patterns[output]){
+                        listener.onMatch(sequenceId, index - sequences.get(sequenceId).size() + 1);
+                    }
+                }
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Counts occurrences of every sequence in steps of the scenarios
+     * @return occurrences count indexed by sequence id
+     */
+    public int[] count(Iterable<? extends ArmaScenario> scenarios){
+        int[] counts = new int[sequences.size()];
+        for (ArmaScenario scenario: scenarios){
+            search(getStepDefs(scenario), (sequenceId, start) -> counts[sequenceId]++);
+        }
+        return counts;
+    }
+
+    /**
+     * Finds scenarios containing every sequence.
+     * A scenario is listed once per occurrence of the sequence in it
+     * @return lists of scenarios indexed by sequence id
+     */
+    public List<List<ArmaScenario>> locate(Iterable<? extends ArmaScenario> scenarios){
+        List<List<ArmaScenario>> found = new ArrayList<>(sequences.size());
+        for (int i = 0; i < sequences.size(); i++){
+            found.add(new ArrayList<>());
+        }
+        for (ArmaScenario scenario: scenarios){
+            search(getStepDefs(scenario), (sequenceId, start) -> found.get(sequenceId).add(scenario));
+        }
+        return found;
+    }
+
+    private static List<ArmaStepDef> getStepDefs(ArmaScenario scenario){
+        List<ArmaStep> steps = scenario.getSteps();
+        if (steps == null){
+            return Collections.emptyList();
+        }
+        List<ArmaStepDef> stepDefs = new ArrayList<>(steps.size());
+        for (ArmaStep step: steps){
+            stepDefs.add(step.getStepDef());
+        }
+        return stepDefs;
+    }
+
+    private void addSequence(int sequenceId, List<ArmaStepDef> sequence){
+        if (sequence == null || sequence.isEmpty() || sequence.contains(null)){
+            return;
+        }
+        int state = ROOT;
+        for (ArmaStepDef stepDef: sequence){
+            Integer symbol = symbols.get(stepDef);
+            if (symbol == null){
+                symbol = symbols.size();
+                symbols.put(stepDef, symbol);
+            }
+            Integer target = transitions.get(key(state, symbol));
+            if (target == null){
+                target = statesCount++;
+                transitions.put(key(state, symbol), target);
+            }
+            state = target;
+        }
+        int[] statePatterns = patterns[state];
+        if (statePatterns == null){
+            patterns[state] = new int[]{sequenceId};
+        } else {
+            statePatterns = Arrays.copyOf(statePatterns, statePatterns.length + 1);
+            statePatterns[statePatterns.length - 1] = sequenceId;
+            patterns[state] = statePatterns;
+        }
+    }
+
+    /**
+     * Computes failure and output links breadth-first, so links of shorter prefixes are ready
+     * before they are used by longer ones
+     */
+    private void buildLinks(){
+        List<List<int[]>> children = new ArrayList<>(statesCount);
+        for (int i = 0; i < statesCount; i++){
+            children.add(new ArrayList<>());
+        }
+        transitions.forEach((key, target) -> children.get((int) (key >>> 32)).add(new int[]{(int) (long) key, target}));
+
+        for (int state = 0; state < statesCount; state++){
+            if (patterns[state] == null){
+                patterns[state] = NO_PATTERNS;
+            }
+        }
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(ROOT);
+        while (!queue.isEmpty()){
+            int state = queue.poll();
+            for (int[] child: children.get(state)){
+                int symbol = child[0];
+                int target = child[1];
+                int link = ROOT;
+                if (state != ROOT){
+                    link = fail[state];
+                    while (link != ROOT && !transitions.containsKey(key(link, symbol))){
+                        link = fail[link];
+                    }
+                    Integer linkTarget = transitions.get(key(link, symbol));
+                    link = linkTarget == null ? ROOT : linkTarget;
+                }
+                fail[target] = link;
+                outputLink[target] = patterns[link].length > 0 ? link : outputLink[link];
+                queue.add(target);
+            }
+        }
+    }
+
+    private int next(int state, int symbol){
+        while (true){
+            Integer target = transitions.get(key(state, symbol));
+            if (target != null){
+                return target;
+            }
+            if (state == ROOT){
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static long key(int state, int symbol){
+        return ((long) state << 32) | (symbol & 0xFFFFFFFFL);
+    }
+}
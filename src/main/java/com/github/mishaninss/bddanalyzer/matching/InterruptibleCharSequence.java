@@ -0,0 +1,58 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+/**
+ * Char sequence which limits the work of a regular expression matcher reading it.
+ * The regex engine reads the input only through {@link #charAt(int)}, so every read is counted,
+ * and, if a time limit is set, the clock is checked every {@value #TIME_CHECK_INTERVAL} reads.
+ * A match exceeding the number of reads or the time is interrupted with {@link MatchBudgetExceededException}.
+ * An instance is meant for a single match in a single thread.
+ */
+public class InterruptibleCharSequence implements CharSequence {
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    private final CharSequence text;
+    private final long maxReads;
+    private final long deadline;
+    private long reads;
+
+    /**
+     * @param maxReads maximal number of character reads, 0 for no limit
+     * @param maxNanos maximal duration of the match in nanoseconds, 0 for no limit
+     */
+    public InterruptibleCharSequence(CharSequence text, long maxReads, long maxNanos){
+        this.text = text;
+        this.maxReads = maxReads > 0 ? maxReads : Long.MAX_VALUE;
+        this.deadline = maxNanos > 0 ? System.nanoTime() + maxNanos : Long.MAX_VALUE;
+    }
+
+    @Override
+    public char charAt(int index){
+        reads++;
+        if (reads > maxReads){
+            throw new MatchBudgetExceededException("Match exceeded " + maxReads + " character reads");
+        }
+        if (reads % TIME_CHECK_INTERVAL == 0 && deadline != Long.MAX_VALUE && System.nanoTime() > deadline){
+            throw new MatchBudgetExceededException("Match exceeded the time limit after " + reads + " character reads");
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public int length(){
+        return text.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end){
+        return text.subSequence(start, end);
+    }
+
+    public long getReads(){
+        return reads;
+    }
+
+    @Override
+    public String toString(){
+        return text.toString();
+    }
+}
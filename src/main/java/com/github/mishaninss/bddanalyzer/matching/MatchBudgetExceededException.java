@@ -0,0 +1,13 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+/**
+ * Thrown from {@link InterruptibleCharSequence} when a regular expression match takes more character reads
+ * or more time than allowed
+ */
+public class MatchBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MatchBudgetExceededException(String message){
+        super(message);
+    }
+}
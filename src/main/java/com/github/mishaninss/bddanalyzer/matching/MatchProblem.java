@@ -0,0 +1,20 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import lombok.Data;
+
+/**
+ * Step definition which could not be matched against a step text: invalid pattern or exceeded match budget
+ */
+@Data
+public class MatchProblem {
+    private final ArmaStepDef stepDef;
+    private final String text;
+    private final String message;
+
+    @Override
+    public String toString(){
+        String location = stepDef == null || stepDef.getLocation() == null ? "" : " (" + stepDef.getLocation().toShortString() + ")";
+        return message + ": " + (stepDef == null ? null : stepDef.getText()) + location + (text == null ? "" : " <- " + text);
+    }
+}
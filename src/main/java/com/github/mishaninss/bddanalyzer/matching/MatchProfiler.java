@@ -0,0 +1,104 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts match attempts, successes, cumulative and maximal match time of every step definition of a {@link StepDefMatcher}.
+ * Counters are atomic, so the profiler can be shared by threads matching in parallel
+ */
+public class MatchProfiler {
+    private final List<ArmaStepDef> stepDefs;
+    private final AtomicLongArray attempts;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray totalNanos;
+    private final AtomicLongArray maxNanos;
+
+    MatchProfiler(List<ArmaStepDef> stepDefs){
+        this.stepDefs = stepDefs;
+        attempts = new AtomicLongArray(stepDefs.size());
+        successes = new AtomicLongArray(stepDefs.size());
+        totalNanos = new AtomicLongArray(stepDefs.size());
+        maxNanos = new AtomicLongArray(stepDefs.size());
+    }
+
+    void record(int stepDefId, boolean matched, long nanos){
+        attempts.incrementAndGet(stepDefId);
+        if (matched){
+            successes.incrementAndGet(stepDefId);
+        }
+        totalNanos.addAndGet(stepDefId, nanos);
+        long max = maxNanos.get(stepDefId);
+        while (nanos > max && !maxNanos.compareAndSet(stepDefId, max, nanos)){
+            max = maxNanos.get(stepDefId);
+        }
+    }
+
+    /**
+     * @return stats of step definitions with at least one attempt, the most expensive first
+     */
+    public List<StepDefMatchStats> getStats(){
+        List<StepDefMatchStats> stats = new ArrayList<>();
+        for (int id = 0; id < stepDefs.size(); id++){
+            if (attempts.get(id) > 0){
+                stats.add(new StepDefMatchStats(stepDefs.get(id), attempts.get(id), successes.get(id),
+                        totalNanos.get(id), maxNanos.get(id)));
+            }
+        }
+        stats.sort(Comparator.comparingLong(StepDefMatchStats::getTotalNanos).reversed()
+                .thenComparing(Comparator.comparingLong(StepDefMatchStats::getMaxNanos).reversed()));
+        return stats;
+    }
+
+    public long getTotalNanos(){
+        long total = 0;
+        for (int id = 0; id < stepDefs.size(); id++){
+            total += totalNanos.get(id);
+        }
+        return total;
+    }
+
+    public void reset(){
+        for (int id = 0; id < stepDefs.size(); id++){
+            attempts.set(id, 0);
+            successes.set(id, 0);
+            totalNanos.set(id, 0);
+            maxNanos.set(id, 0);
+        }
+    }
+
+    /**
+     * Ranked report of the step definitions
+     * @param limit maximal number of rows, 0 for all
+     */
+    public String toString(int limit){
+        List<StepDefMatchStats> stats = getStats();
+        long total = Math.max(1, getTotalNanos());
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("#", "STEP DEF", "LOCATION", "ATTEMPTS", "SUCCESSES", "TOTAL MS", "SHARE %", "AVG US", "MAX US");
+        for (int i = 0; i < stats.size() && (limit <= 0 || i < limit); i++){
+            StepDefMatchStats stat = stats.get(i);
+            ArmaStepDef stepDef = stat.getStepDef();
+            table.addRow(String.valueOf(i + 1),
+                    stepDef.getText(),
+                    stepDef.getLocation() == null ? "" : stepDef.getLocation().toShortString(),
+                    String.valueOf(stat.getAttempts()),
+                    String.valueOf(stat.getSuccesses()),
+                    String.format("%.3f", stat.getTotalNanos() / 1e6),
+                    String.format("%.1f", 100.0 * stat.getTotalNanos() / total),
+                    String.format("%.2f", stat.getAverageNanos() / 1e3),
+                    String.format("%.2f", stat.getMaxNanos() / 1e3));
+        }
+        return String.format("total match time %.3f ms%n%s", getTotalNanos() / 1e6, table);
+    }
+
+    @Override
+    public String toString(){
+        return toString(0);
+    }
+}
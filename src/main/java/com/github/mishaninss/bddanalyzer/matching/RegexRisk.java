@@ -0,0 +1,34 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backtracking risk of a regular expression found by {@link RegexRiskAnalyzer}
+ */
+@Data
+public class RegexRisk {
+    public enum Level {SAFE, POLYNOMIAL, EXPONENTIAL}
+
+    private final String regex;
+    private Level level = Level.SAFE;
+    private final List<String> reasons = new ArrayList<>();
+
+    public boolean isSafe(){
+        return level == Level.SAFE;
+    }
+
+    void add(Level level, String reason){
+        if (level.compareTo(this.level) > 0){
+            this.level = level;
+        }
+        reasons.add(reason);
+    }
+
+    @Override
+    public String toString(){
+        return level + (reasons.isEmpty() ? "" : " " + reasons) + ": " + regex;
+    }
+}
@@ -0,0 +1,566 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Static analysis of regular expressions for catastrophic backtracking.
+ * The expression is parsed into a small syntax tree where every character matcher is approximated by a set of chars
+ * (ASCII chars exactly, all other chars as one element). The tree is checked for
+ * <ul>
+ *     <li>exponential risk: a repeated group whose last element is an unbounded quantifier which can also start
+ *     the next repetition, like {@code (a+)+} or {@code (\w+\s?)*}, or a repeated alternation with branches
+ *     starting with the same chars, like {@code (a|ab)*};</li>
+ *     <li>polynomial risk: unbounded quantifiers following each other (possibly through optional elements)
+ *     over overlapping chars, like {@code .*\s*.*}.</li>
+ * </ul>
+ * Possessive quantifiers, atomic groups and lookarounds can't be backtracked into and are not reported.
+ * Backreferences and unicode classes are approximated by any char. The analysis is a heuristic filter for patterns
+ * worth a look, the match budget of {@link StepDefMatcher} is the actual guard.
+ */
+public class RegexRiskAnalyzer {
+    private static final int UNBOUNDED = -1;
+    private static final int LARGE_REPEAT = 16;
+
+    private final String regex;
+    private int pos;
+    private final RegexRisk risk;
+
+    private RegexRiskAnalyzer(String regex){
+        this.regex = regex;
+        this.risk = new RegexRisk(regex);
+    }
+
+    public static RegexRisk analyze(String regex){
+        RegexRiskAnalyzer analyzer = new RegexRiskAnalyzer(regex);
+        try {
+            Node root = analyzer.parseAlternation();
+            analyzer.check(root);
+        } catch (RuntimeException ex){
+            analyzer.risk.getReasons().add("not analyzed: " + ex.getMessage());
+        }
+        return analyzer.risk;
+    }
+
+    /**
+     * Approximate set of chars: exact for ASCII, all other chars are one element
+     */
+    static final class CharSet {
+        private final BitSet ascii = new BitSet(128);
+        private boolean other;
+
+        static CharSet any(){
+            CharSet set = new CharSet();
+            set.ascii.set(0, 128);
+            set.other = true;
+            return set;
+        }
+
+        static CharSet of(char c){
+            CharSet set = new CharSet();
+            set.add(c);
+            return set;
+        }
+
+        void add(char c){
+            if (c < 128){
+                ascii.set(c);
+            } else {
+                other = true;
+            }
+        }
+
+        void addRange(char from, char to){
+            for (int c = from; c <= to && c < 128; c++){
+                ascii.set(c);
+            }
+            if (to >= 128){
+                other = true;
+            }
+        }
+
+        void addAll(CharSet set){
+            ascii.or(set.ascii);
+            other |= set.other;
+        }
+
+        CharSet complement(){
+            CharSet set = new CharSet();
+            set.ascii.set(0, 128);
+            set.ascii.andNot(ascii);
+            set.other = true;
+            return set;
+        }
+
+        boolean intersects(CharSet set){
+            return ascii.intersects(set.ascii) || other && set.other;
+        }
+
+        boolean isEmpty(){
+            return ascii.isEmpty() && !other;
+        }
+    }
+
+    private abstract static class Node {
+        final int start;
+
+        Node(int start){
+            this.start = start;
+        }
+
+        abstract boolean nullable();
+
+        abstract CharSet first();
+
+        abstract CharSet chars();
+    }
+
+    private static class Atom extends Node {
+        private final CharSet set;
+
+        Atom(int start, CharSet set){
+            super(start);
+            this.set = set;
+        }
+
+        boolean nullable(){
+            return set.isEmpty();
+        }
+
+        CharSet first(){
+            return set;
+        }
+
+        CharSet chars(){
+            return set;
+        }
+    }
+
+    /**
+     * Node which can't be backtracked into: atomic group or lookaround
+     */
+    private static class Opaque extends Atom {
+        private final boolean zeroWidth;
+
+        Opaque(int start, CharSet set, boolean zeroWidth){
+            super(start, set);
+            this.zeroWidth = zeroWidth;
+        }
+
+        @Override
+        boolean nullable(){
+            return zeroWidth || super.nullable();
+        }
+
+        @Override
+        CharSet first(){
+            return zeroWidth ? new CharSet() : super.first();
+        }
+    }
+
+    private static class Seq extends Node {
+        private final List<Node> items = new ArrayList<>();
+
+        Seq(int start){
+            super(start);
+        }
+
+        boolean nullable(){
+            return items.stream().allMatch(Node::nullable);
+        }
+
+        CharSet first(){
+            CharSet set = new CharSet();
+            for (Node item: items){
+                set.addAll(item.first());
+                if (!item.nullable()){
+                    break;
+                }
+            }
+            return set;
+        }
+
+        CharSet chars(){
+            CharSet set = new CharSet();
+            items.forEach(item -> set.addAll(item.chars()));
+            return set;
+        }
+    }
+
+    private static class Alt extends Node {
+        private final List<Node> branches = new ArrayList<>();
+
+        Alt(int start){
+            super(start);
+        }
+
+        boolean nullable(){
+            return branches.stream().anyMatch(Node::nullable);
+        }
+
+        CharSet first(){
+            CharSet set = new CharSet();
+            branches.forEach(branch -> set.addAll(branch.first()));
+            return set;
+        }
+
+        CharSet chars(){
+            CharSet set = new CharSet();
+            branches.forEach(branch -> set.addAll(branch.chars()));
+            return set;
+        }
+    }
+
+    private static class Quant extends Node {
+        private final Node body;
+        private final int min;
+        private final int max;
+        private final boolean possessive;
+
+        Quant(int start, Node body, int min, int max, boolean possessive){
+            super(start);
+            this.body = body;
+            this.min = min;
+            this.max = max;
+            this.possessive = possessive;
+        }
+
+        boolean unbounded(){
+            return !possessive && (max == UNBOUNDED || max > LARGE_REPEAT);
+        }
+
+        boolean nullable(){
+            return min == 0 || body.nullable();
+        }
+
+        CharSet first(){
+            return body.first();
+        }
+
+        CharSet chars(){
+            return body.chars();
+        }
+    }
+
+    private void check(Node node){
+        if (node instanceof Quant){
+            Quant quant = (Quant) node;
+            if (quant.unbounded()){
+                CharSet first = quant.body.first();
+                List<Quant> tails = new ArrayList<>();
+                collectTailQuants(quant.body, tails);
+                for (Quant tail: tails){
+                    if (tail.chars().intersects(first)){
+                        risk.add(RegexRisk.Level.EXPONENTIAL, "nested quantifier at " + tail.start
+                                + " can start the next repetition of the quantifier at " + quant.start);
+                    }
+                }
+                Node body = quant.body;
+                if (body instanceof Alt && hasOverlappingBranches((Alt) body)){
+                    risk.add(RegexRisk.Level.EXPONENTIAL, "repeated alternation at " + body.start + " with overlapping branches");
+                }
+            }
+            check(quant.body);
+        } else if (node instanceof Seq){
+            List<Node> items = ((Seq) node).items;
+            for (int i = 0; i < items.size(); i++){
+                Node item = items.get(i);
+                if (item instanceof Quant && ((Quant) item).unbounded()){
+                    for (int j = i + 1; j < items.size(); j++){
+                        Node next = items.get(j);
+                        if (next instanceof Quant && ((Quant) next).unbounded() && next.chars().intersects(item.chars())){
+                            risk.add(RegexRisk.Level.POLYNOMIAL, "quantifiers at " + item.start + " and " + next.start
+                                    + " match the same chars");
+                            break;
+                        }
+                        if (!next.nullable()){
+                            break;
+                        }
+                    }
+                }
+                check(item);
+            }
+        } else if (node instanceof Alt){
+            ((Alt) node).branches.forEach(this::check);
+        }
+    }
+
+    /**
+     * Unbounded quantifiers which can end a match of the node
+     */
+    private static void collectTailQuants(Node node, List<Quant> tails){
+        if (node instanceof Quant){
+            Quant quant = (Quant) node;
+            if (quant.unbounded()){
+                tails.add(quant);
+            }
+            collectTailQuants(quant.body, tails);
+        } else if (node instanceof Seq){
+            List<Node> items = ((Seq) node).items;
+            for (int i = items.size() - 1; i >= 0; i--){
+                collectTailQuants(items.get(i), tails);
+                if (!items.get(i).nullable()){
+                    break;
+                }
+            }
+        } else if (node instanceof Alt){
+            ((Alt) node).branches.forEach(branch -> collectTailQuants(branch, tails));
+        }
+    }
+
+    private static boolean hasOverlappingBranches(Alt alt){
+        CharSet seen = new CharSet();
+        for (Node branch: alt.branches){
+            CharSet first = branch.first();
+            if (first.intersects(seen)){
+                return true;
+            }
+            seen.addAll(first);
+        }
+        return false;
+    }
+
+    private Node parseAlternation(){
+        int start = pos;
+        Node first = parseSequence();
+        if (!peek('|')){
+            return first;
+        }
+        Alt alt = new Alt(start);
+        alt.branches.add(first);
+        while (peek('|')){
+            pos++;
+            alt.branches.add(parseSequence());
+        }
+        return alt;
+    }
+
+    private Node parseSequence(){
+        Seq seq = new Seq(pos);
+        while (pos < regex.length() && !peek('|') && !peek(')')){
+            Node atom = parseAtom();
+            seq.items.add(parseQuantifier(atom));
+        }
+        return seq.items.size() == 1 ? seq.items.get(0) : seq;
+    }
+
+    private Node parseQuantifier(Node atom){
+        while (pos < regex.length()){
+            int start = pos;
+            char c = regex.charAt(pos);
+            int min;
+            int max;
+            if (c == '*'){
+                min = 0;
+                max = UNBOUNDED;
+                pos++;
+            } else if (c == '+'){
+                min = 1;
+                max = UNBOUNDED;
+                pos++;
+            } else if (c == '?'){
+                min = 0;
+                max = 1;
+                pos++;
+            } else if (c == '{' && regex.indexOf('}', pos) > 0 && regex.substring(pos + 1, regex.indexOf('}', pos)).matches("\\d+(,\\d*)?")){
+                String[] bounds = regex.substring(pos + 1, regex.indexOf('}', pos)).split(",", -1);
+                min = Integer.parseInt(bounds[0]);
+                max = bounds.length == 1 ? min : bounds[1].isEmpty() ? UNBOUNDED : Integer.parseInt(bounds[1]);
+                pos = regex.indexOf('}', pos) + 1;
+            } else {
+                return atom;
+            }
+            boolean possessive = false;
+            if (peek('?')){
+                pos++;
+            } else if (peek('+')){
+                possessive = true;
+                pos++;
+            }
+            atom = new Quant(start, atom, min, max, possessive);
+        }
+        return atom;
+    }
+
+    private Node parseAtom(){
+        int start = pos;
+        char c = regex.charAt(pos++);
+        switch (c){
+            case '(':
+                return parseGroup(start);
+            case '[':
+                return new Atom(start, parseClass());
+            case '.':
+                return new Atom(start, CharSet.any());
+            case '^':
+            case '$':
+                return new Atom(start, new CharSet());
+            case '\\':
+                return new Atom(start, parseEscape());
+            default:
+                return new Atom(start, CharSet.of(c));
+        }
+    }
+
+    private Node parseGroup(int start){
+        boolean opaque = false;
+        boolean zeroWidth = false;
+        if (peek('?')){
+            pos++;
+            char kind = regex.charAt(pos);
+            if (kind == ':'){
+                pos++;
+            } else if (kind == '>'){
+                pos++;
+                opaque = true;
+            } else if (kind == '=' || kind == '!'){
+                pos++;
+                opaque = true;
+                zeroWidth = true;
+            } else if (kind == '<' && (regex.charAt(pos + 1) == '=' || regex.charAt(pos + 1) == '!')){
+                pos += 2;
+                opaque = true;
+                zeroWidth = true;
+            } else if (kind == '<'){
+                pos = regex.indexOf('>', pos) + 1;
+            } else {
+                // inline flags: (?i) or (?i:...)
+                while (pos < regex.length() && regex.charAt(pos) != ')' && regex.charAt(pos) != ':'){
+                    pos++;
+                }
+                if (peek(')')){
+                    pos++;
+                    return new Atom(start, new CharSet());
+                }
+                pos++;
+            }
+        }
+        Node body = parseAlternation();
+        expect(')');
+        if (opaque){
+            check(body);
+            return new Opaque(start, zeroWidth ? new CharSet() : body.chars(), zeroWidth);
+        }
+        return body;
+    }
+
+    private CharSet parseClass(){
+        CharSet set = new CharSet();
+        boolean negated = peek('^');
+        if (negated){
+            pos++;
+        }
+        boolean first = true;
+        while (pos < regex.length() && (first || regex.charAt(pos) != ']')){
+            first = false;
+            char c = regex.charAt(pos++);
+            if (c == '['){
+                set.addAll(parseClass());
+            } else if (c == '&' && peek('&')){
+                pos++;
+            } else if (c == '\\'){
+                set.addAll(parseEscape());
+            } else if (peek('-') && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']'){
+                pos++;
+                char to = regex.charAt(pos++);
+                if (to == '\\'){
+                    to = regex.charAt(pos++);
+                }
+                set.addRange(c, to);
+            } else {
+                set.add(c);
+            }
+        }
+        expect(']');
+        return negated ? set.complement() : set;
+    }
+
+    private CharSet parseEscape(){
+        char c = regex.charAt(pos++);
+        CharSet set = new CharSet();
+        switch (c){
+            case 'd':
+                set.addRange('0', '9');
+                return set;
+            case 'D':
+                set.addRange('0', '9');
+                return set.complement();
+            case 'w':
+                set.addRange('a', 'z');
+                set.addRange('A', 'Z');
+                set.addRange('0', '9');
+                set.add('_');
+                return set;
+            case 'W':
+                set.addRange('a', 'z');
+                set.addRange('A', 'Z');
+                set.addRange('0', '9');
+                set.add('_');
+                return set.complement();
+            case 's':
+                set.add(' ');
+                set.addRange('\t', '\r');
+                return set;
+            case 'S':
+                set.add(' ');
+                set.addRange('\t', '\r');
+                return set.complement();
+            case 'b':
+            case 'B':
+            case 'A':
+            case 'z':
+            case 'Z':
+            case 'G':
+                return set;
+            case 't':
+                return CharSet.of('\t');
+            case 'n':
+                return CharSet.of('\n');
+            case 'r':
+                return CharSet.of('\r');
+            case 'f':
+                return CharSet.of('\f');
+            case 'Q':
+                int end = regex.indexOf("\\E", pos);
+                end = end < 0 ? regex.length() : end;
+                for (int i = pos; i < end; i++){
+                    set.add(regex.charAt(i));
+                }
+                pos = Math.min(regex.length(), end + 2);
+                return set;
+            case 'x':
+                pos += peek('{') ? regex.indexOf('}', pos) - pos + 1 : 2;
+                return CharSet.any();
+            case 'u':
+                pos += 4;
+                return CharSet.any();
+            case 'p':
+            case 'P':
+                pos += peek('{') ? regex.indexOf('}', pos) - pos + 1 : 1;
+                return CharSet.any();
+            case 'k':
+                pos = regex.indexOf('>', pos) + 1;
+                return CharSet.any();
+            case 'c':
+                pos++;
+                return CharSet.any();
+            default:
+                if (Character.isDigit(c)){
+                    return CharSet.any();
+                }
+                return CharSet.of(c);
+        }
+    }
+
+    private boolean peek(char c){
+        return pos < regex.length() && regex.charAt(pos) == c;
+    }
+
+    private void expect(char c){
+        if (!peek(c)){
+            throw new IllegalArgumentException("'" + c + "' expected at " + pos);
+        }
+        pos++;
+    }
+}
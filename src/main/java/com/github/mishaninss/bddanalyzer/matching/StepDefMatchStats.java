@@ -0,0 +1,27 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import lombok.Data;
+
+/**
+ * Match cost of a step definition collected by {@link MatchProfiler}
+ */
+@Data
+public class StepDefMatchStats {
+    private final ArmaStepDef stepDef;
+    private final long attempts;
+    private final long successes;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    public long getAverageNanos(){
+        return attempts == 0 ? 0 : totalNanos / attempts;
+    }
+
+    /**
+     * Share of failed attempts, a costly step definition with a high miss rate is worth moving down the list
+     */
+    public double getMissRate(){
+        return attempts == 0 ? 0 : (double) (attempts - successes) / attempts;
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Finds the step definition of a step text. Patterns are compiled once and checked by {@link RegexRiskAnalyzer}.
+ * Step definitions at risk of exponential backtracking are disabled before any match, so they never stall
+ * linking and the set of disabled step definitions doesn't depend on the order of matches.
+ * Every match reads the text through an {@link InterruptibleCharSequence}, so a match of another pattern
+ * exceeding the budget of character reads is interrupted, reported and treated as not matched for that text.
+ * Links in parallel are the same as links made serially.
+ * The read budget doesn't depend on the machine, so links are reproducible. A time limit depends on load and GC
+ * pauses, it is off by default and can be enabled by {@link #withBudget(long, long)}.
+ * With profiling enabled every match attempt is timed by a {@link MatchProfiler}, when it is disabled
+ * the only cost is a check of a field.
+ * The matcher is thread-safe.
+ */
+public class StepDefMatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(StepDefMatcher.class);
+    public static final long DEFAULT_MAX_READS = 1_000_000;
+    /**
+     * No time limit by default
+     */
+    public static final long DEFAULT_MAX_NANOS = 0;
+
+    private final List<ArmaStepDef> stepDefs;
+    private final Pattern[] patterns;
+    private final RegexRisk[] risks;
+    private final boolean[] disabled;
+    private final Queue<MatchProblem> problems = new ConcurrentLinkedQueue<>();
+    private volatile long maxReads = DEFAULT_MAX_READS;
+    private volatile long maxNanos = DEFAULT_MAX_NANOS;
+    private volatile MatchProfiler profiler;
+
+    public StepDefMatcher(List<ArmaStepDef> stepDefs){
+        this.stepDefs = new ArrayList<>(stepDefs);
+        patterns = new Pattern[this.stepDefs.size()];
+        risks = new RegexRisk[this.stepDefs.size()];
+        disabled = new boolean[this.stepDefs.size()];
+        for (int id = 0; id < this.stepDefs.size(); id++){
+            ArmaStepDef stepDef = this.stepDefs.get(id);
+            if (stepDef == null){
+                report(null, null, "WARNING step def is null");
+            } else if (stepDef.getText() == null){
+                report(stepDef, null, "WARNING step def text is null");
+            } else {
+                try {
+                    patterns[id] = Pattern.compile(stepDef.getText());
+                    risks[id] = RegexRiskAnalyzer.analyze(stepDef.getText());
+                } catch (PatternSyntaxException ex){
+                    report(stepDef, null, "WARNING invalid step def pattern " + ex.getDescription());
+                }
+            }
+            if (patterns[id] == null){
+                disabled[id] = true;
+            } else if (risks[id].getLevel() == RegexRisk.Level.EXPONENTIAL){
+                disabled[id] = true;
+                report(stepDef, null, "WARNING step def disabled, " + risks[id].getLevel() + " backtracking risk " + risks[id].getReasons());
+            }
+        }
+    }
+
+    /**
+     * Sets the budget of a single match
+     * @param maxReads maximal number of character reads, 0 for no limit
+     * @param maxNanos maximal duration in nanoseconds, 0 for no limit
+     */
+    public StepDefMatcher withBudget(long maxReads, long maxNanos){
+        this.maxReads = maxReads;
+        this.maxNanos = maxNanos;
+        return this;
+    }
+
+    /**
+     * Enables or disables profiling of match attempts. Enabling starts a new profile
+     */
+    public StepDefMatcher withProfiling(boolean enabled){
+        profiler = enabled ? new MatchProfiler(stepDefs) : null;
+        return this;
+    }
+
+    /**
+     * @return profile of match attempts, or null if profiling is disabled
+     */
+    public MatchProfiler getProfiler(){
+        return profiler;
+    }
+
+    /**
+     * @return the first step definition matching the whole text, or null
+     */
+    public ArmaStepDef match(String text){
+        int stepDefId = find(text);
+        return stepDefId < 0 ? null : stepDefs.get(stepDefId);
+    }
+
+    /**
+     * @return id of the first step definition matching the whole text, or -1
+     */
+    public int find(String text){
+        if (text == null){
+            return -1;
+        }
+        for (int id = 0; id < patterns.length; id++){
+            if (matches(id, text)){
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param visible ids of step definitions to try
+     * @return id of the first visible step definition matching the whole text, or -1
+     */
+    public int find(String text, BitSet visible){
+        if (text == null){
+            return -1;
+        }
+        for (int id = visible.nextSetBit(0); id >= 0 && id < patterns.length; id = visible.nextSetBit(id + 1)){
+            if (matches(id, text)){
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public boolean matches(int stepDefId, String text){
+        if (disabled[stepDefId]){
+            return false;
+        }
+        Pattern pattern = patterns[stepDefId];
+        MatchProfiler currentProfiler = profiler;
+        if (currentProfiler != null){
+            long start = System.nanoTime();
+            boolean matched = matches(stepDefId, pattern, text);
+            currentProfiler.record(stepDefId, matched, System.nanoTime() - start);
+            return matched;
+        }
+        return matches(stepDefId, pattern, text);
+    }
+
+    private boolean matches(int stepDefId, Pattern pattern, String text){
+        try {
+            return pattern.matcher(new InterruptibleCharSequence(text, maxReads, maxNanos)).matches();
+        } catch (MatchBudgetExceededException | StackOverflowError ex){
+            String message = ex instanceof StackOverflowError ? "Match overflowed the stack" : ex.getMessage();
+            MatchProblem problem = new MatchProblem(stepDefs.get(stepDefId), text, message);
+            problems.add(problem);
+            LOG.debug("{}", problem);
+            return false;
+        }
+    }
+
+    public int size(){
+        return stepDefs.size();
+    }
+
+    public ArmaStepDef getStepDef(int stepDefId){
+        return stepDefs.get(stepDefId);
+    }
+
+    /**
+     * @return true if the step definition has no valid pattern or is at risk of exponential backtracking,
+     * such step definitions never match
+     */
+    public boolean isDisabled(int stepDefId){
+        return disabled[stepDefId];
+    }
+
+    /**
+     * Returns step definitions with patterns at risk of catastrophic backtracking
+     */
+    public Map<ArmaStepDef, RegexRisk> getRisks(){
+        Map<ArmaStepDef, RegexRisk> result = new LinkedHashMap<>();
+        for (int id = 0; id < risks.length; id++){
+            if (risks[id] != null && !risks[id].isSafe()){
+                result.put(stepDefs.get(id), risks[id]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns invalid patterns and exceeded match budgets in order of occurrence.
+     * Problems of matches in parallel are in the order they were reported by the threads
+     */
+    public List<MatchProblem> getProblems(){
+        return new ArrayList<>(problems);
+    }
+
+    private void report(ArmaStepDef stepDef, String text, String message){
+        MatchProblem problem = new MatchProblem(stepDef, text, message);
+        problems.add(problem);
+        LOG.warn("{}", problem);
+    }
+}
@@ -5,7 +5,6 @@ import lombok.Data;
 import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Objective representation of a Gherkin Data Table
@@ -14,7 +13,7 @@ import java.util.stream.Collectors;
  */
 @Data
 public class ArmaDataTable {
-    private List<ArmaTableRow> rows;
+    private ArmaTable table = new ArmaTable();
 
     public ArmaDataTable(){
 
@@ -24,45 +23,55 @@ public class ArmaDataTable {
         if (dataTable == null){
             return;
         }
-        rows = new ArrayList<>();
-        List<ArmaTableRow> originRows = dataTable.getRows();
-        if (CollectionUtils.isNotEmpty(originRows)){
-            originRows.forEach(originRow -> rows.add(new ArmaTableRow(originRow)));
-        }
+        table = new ArmaTable(dataTable.getTable());
     }
 
     public ArmaDataTable(DataTable gherkinDataTable){
         if (gherkinDataTable == null || CollectionUtils.isEmpty(gherkinDataTable.getRows())){
             return;
         }
-        rows = gherkinDataTable.getRows().stream().map(ArmaTableRow::new).collect(Collectors.toList());
+        gherkinDataTable.getRows().forEach(gherkinRow -> addRow(new ArmaTableRow(gherkinRow)));
     }
 
     public void addRow(ArmaTableRow row){
-        if (rows == null){
-            rows = new ArrayList<>();
-        }
-        rows.add(row);
+        table.addRow(row.getValues());
     }
 
+    /**
+     * Returns a row-oriented view of the table.
+     * Rows can be added, replaced and removed through the view, changes of the returned rows are written to the table.
+     * @see ArmaTable#getRowsView()
+     */
     public List<ArmaTableRow> getRows(){
-        if (rows == null){
-            rows = new ArrayList<>();
+        return table.getRowsView();
+    }
+
+    public void setRows(List<ArmaTableRow> rows){
+        table.clearRows();
+        if (rows != null){
+            rows.forEach(this::addRow);
         }
-        return rows;
     }
 
     public Map<String, Integer> getParametersUsage(){
-        return ArmaScenarioOutline.mergeParametersUsage(rows.stream()
-                .map(ArmaTableRow::getParametersUsage)
-                .collect(Collectors.toList()));
+        ParametersUsage usage = new ParametersUsage();
+        collectParametersUsage(usage);
+        return usage.toMap();
+    }
+
+    public void collectParametersUsage(ParametersUsage usage){
+        for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+            for (int colIndex = 0; colIndex < table.getColumnCount(); colIndex++){
+                usage.scan(table.getValue(colIndex, rowIndex));
+            }
+        }
     }
 
     public void applyParameter(String paramName, String value){
-        if (CollectionUtils.isEmpty(getRows())){
+        if (table.isEmpty()){
             return;
         }
-        getRows().forEach(row -> row.applyParameter(paramName, value));
+        table.replace("<" + paramName + ">", value);
     }
 
     public static ArmaDataTable applyParameter(ArmaDataTable dataTable, String paramName, String value){
@@ -76,11 +85,11 @@ public class ArmaDataTable {
     }
 
     public void addRow(String... values){
-        addRow(new ArmaTableRow(values));
+        table.addRow(values);
     }
 
     public boolean isEmpty(){
-        return CollectionUtils.isEmpty(rows);
+        return table.isEmpty();
     }
 
     @Override
@@ -91,9 +100,9 @@ public class ArmaDataTable {
     public String toString(String separator){
         StringBuilder sb = new StringBuilder();
 
-        if (CollectionUtils.isNotEmpty(rows)){
-            List<Integer> width = calculateColumnsWidth(rows);
-            rows.forEach(row ->
+        if (!table.isEmpty()){
+            List<Integer> width = calculateColumnsWidth(table);
+            getRows().forEach(row ->
             {
                 sb.append("\n")
                         .append(row.toString(width, separator));
@@ -102,25 +111,10 @@ public class ArmaDataTable {
         return sb.toString().trim();
     }
 
-    private static List<Integer> calculateColumnsWidth(List<ArmaTableRow> rows){
-        int cellCount = 0;
-        if (CollectionUtils.isNotEmpty(rows)){
-            if (CollectionUtils.isNotEmpty(rows.get(0).getCells())){
-                cellCount = rows.get(0).getCells().size();
-            }
-        }
-        List<Integer> width = new ArrayList<>(cellCount);
-        for (int i=0; i<cellCount; i++){
-            int maxLength = 0;
-            if (CollectionUtils.isNotEmpty(rows)) {
-                for (ArmaTableRow row : rows) {
-                    String value = row.getCells().get(i).getValue();
-                    if (value != null && value.length() > maxLength) {
-                        maxLength = value.length();
-                    }
-                }
-            }
-            width.add(maxLength);
+    private static List<Integer> calculateColumnsWidth(ArmaTable table){
+        List<Integer> width = new ArrayList<>(table.getColumnCount());
+        for (int columnWidth: table.calculateColumnsWidth(false)){
+            width.add(columnWidth);
         }
         return width;
     }
@@ -130,11 +124,11 @@ public class ArmaDataTable {
         if (this == o) return true;
         if (!(o instanceof ArmaDataTable)) return false;
         ArmaDataTable that = (ArmaDataTable) o;
-        return Objects.equals(rows, that.rows);
+        return Objects.equals(table, that.table);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(rows);
+        return Objects.hash(table);
     }
 }
@@ -1,5 +1,6 @@
 package com.github.mishaninss.bddanalyzer.model;
 
+import com.github.mishaninss.bddanalyzer.GherkinWriter;
 import gherkin.ast.DocString;
 import lombok.Data;
 
@@ -35,12 +36,6 @@ public class ArmaDocString {
 
     @Override
     public String toString(){
-        StringBuilder sb = new StringBuilder();
-        sb.append("\"\"\"");
-        if (contentType != null){
-            sb.append(contentType);
-        }
-        sb.append("\n").append(content).append("\n").append("\"\"\"");
-        return sb.toString();
+        return GherkinWriter.toString(this);
     }
 }
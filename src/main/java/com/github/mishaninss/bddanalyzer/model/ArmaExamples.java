@@ -1,5 +1,6 @@
 package com.github.mishaninss.bddanalyzer.model;
 
+import com.github.mishaninss.bddanalyzer.GherkinWriter;
 import gherkin.ast.Examples;
 import gherkin.ast.TableRow;
 import gherkin.ast.Tag;
@@ -22,8 +23,7 @@ public class ArmaExamples implements HasTags{
     private String keyword = "Examples";
     private String name = "";
     private String description;
-    private ArmaTableRow tableHeader;
-    private List<ArmaTableRow> tableBody;
+    private ArmaTable table = new ArmaTable();
 
     public ArmaExamples(){
     }
@@ -36,8 +36,7 @@ public class ArmaExamples implements HasTags{
         setName(originExamples.getName());
         setDescription(originExamples.getDescription());
         setTags(originExamples.getTags().stream().map(ArmaTag::new).collect(Collectors.toList()));
-        setTableHeader(new ArmaTableRow(originExamples.getTableHeader()));
-        setTableBody(originExamples.getTableBody().stream().map(ArmaTableRow::new).collect(Collectors.toList()));
+        setTable(new ArmaTable(originExamples.getTable()));
     }
 
     public ArmaExamples(Examples gherkinExamples){
@@ -49,18 +48,40 @@ public class ArmaExamples implements HasTags{
         setGherkinTableBody(gherkinExamples.getTableBody());
     }
 
+    /**
+     * Returns a live view of the table header, changes of its cells rename the columns
+     * @see ArmaTable#getHeaderView()
+     */
+    public ArmaTableRow getTableHeader(){
+        return table.getHeaderView();
+    }
+
+    /**
+     * Returns a row-oriented view of the table body.
+     * Rows can be added, replaced and removed through the view, changes of the returned rows are written to the table.
+     * @see ArmaTable#getRowsView()
+     */
     public List<ArmaTableRow> getTableBody(){
-        if (tableBody == null){
-            tableBody = new ArrayList<>();
+        return table.getRowsView();
+    }
+
+    public void setTableBody(List<ArmaTableRow> tableBody){
+        table.clearRows();
+        if (tableBody != null){
+            tableBody.forEach(this::addBodyRow);
         }
-        return tableBody;
+    }
+
+    public int getRowCount(){
+        return table.getRowCount();
+    }
+
+    public int getColumnCount(){
+        return table.getColumnCount();
     }
 
     public void removeColumn(int colIndex){
-        tableHeader.removeCell(colIndex);
-        if (CollectionUtils.isNotEmpty(tableBody)){
-            tableBody.forEach(bodyRow -> bodyRow.removeCell(colIndex));
-        }
+        table.removeColumn(colIndex);
     }
 
     public void removeColumns(int... colIndexes){
@@ -88,33 +109,23 @@ public class ArmaExamples implements HasTags{
         }
     }
 
-    public void removeDuplicatedRows(){
-        if (CollectionUtils.isEmpty(tableBody) || tableBody.size() == 1){
-            return;
-        }
-        Set<ArmaTableRow> rowSet = new LinkedHashSet<>(tableBody);
-        tableBody.clear();
-        tableBody.addAll(rowSet);
+    /**
+     * Removes duplicated body rows keeping the first occurrence of each row
+     * @return number of removed rows
+     */
+    public int removeDuplicatedRows(){
+        return table.removeDuplicatedRows();
     }
 
     public int getColumnIndex(String paramName){
-        if (StringUtils.isBlank(paramName) || tableHeader == null || CollectionUtils.isEmpty(tableHeader.getCells())){
+        if (StringUtils.isBlank(paramName)){
             return -1;
         }
-        List<ArmaTableCell> headerCells = tableHeader.getCells();
-        for (int i=0; i<headerCells.size(); i++){
-            if (paramName.equals(headerCells.get(i).getValue())){
-                return i;
-            }
-        }
-        return -1;
+        return table.getColumnIndex(paramName);
     }
 
     public String getParamName(int colIndex){
-        if (colIndex < 0 || CollectionUtils.size(tableHeader.getCells()) <= colIndex){
-            return null;
-        }
-        return tableHeader.getValue(colIndex);
+        return table.getName(colIndex);
     }
 
     public List<String> getParamNames(Iterable<Integer> colIndexes){
@@ -137,20 +148,8 @@ public class ArmaExamples implements HasTags{
 
     public List<Integer> findConstantColumns(){
         List<Integer> colIndexes = new LinkedList<>();
-        if (CollectionUtils.isEmpty(tableBody)){
-            return colIndexes;
-        }
-        int colCount = CollectionUtils.size(tableBody.get(0).getCells());
-        for (int i=0; i<colCount; i++){
-            boolean constant = true;
-            String value = tableBody.get(0).getValue(i);
-            for (int j=1; j<tableBody.size(); j++){
-                if (!value.equals(tableBody.get(j).getValue(i))) {
-                    constant = false;
-                    break;
-                }
-            }
-            if (constant){
+        for (int i=0; i<table.getColumnCount(); i++){
+            if (table.isConstantColumn(i)){
                 colIndexes.add(i);
             }
         }
@@ -160,22 +159,17 @@ public class ArmaExamples implements HasTags{
     public int addColumn(String paramName, String value){
         int colIndex = getColumnIndex(paramName);
         if (colIndex == -1){
-            ArmaTableRow header = getTableHeader();
-            colIndex = header.addCell(paramName);
-            List<ArmaTableRow> body = getTableBody();
-            if (CollectionUtils.isNotEmpty(body)){
-                body.forEach(row -> row.addCell(value));
-            } else {
-                ArmaTableRow row = new ArmaTableRow(header.getSize());
-                row.setValue(colIndex, value);
-                body.add(row);
+            colIndex = table.addColumn(paramName, value);
+            if (table.isEmpty()){
+                int rowIndex = table.addRow();
+                table.setValue(colIndex, rowIndex, value);
             }
         }
         return colIndex;
     }
 
     public void addBodyRow(ArmaTableRow row){
-        getTableBody().add(new ArmaTableRow(row));
+        table.addRow(row.getValues());
     }
 
     public void addBodyRows(List<ArmaTableRow> rows){
@@ -183,7 +177,7 @@ public class ArmaExamples implements HasTags{
     }
 
     public String getValue(String paramName, int rowIndex){
-        if (StringUtils.isBlank(paramName) || CollectionUtils.size(tableBody) <= rowIndex){
+        if (StringUtils.isBlank(paramName) || table.getRowCount() <= rowIndex){
             return null;
         } else {
             int colIndex = getColumnIndex(paramName);
@@ -192,52 +186,23 @@ public class ArmaExamples implements HasTags{
     }
 
     public String getValue(int colIndex, int rowIndex){
-        if (colIndex < 0 || rowIndex < 0 || colIndex >= getTableHeader().getSize() || getTableBody().size() <= rowIndex){
-            return null;
-        } else {
-            return getTableBody().get(rowIndex).getValue(colIndex);
-        }
+        return table.getValue(colIndex, rowIndex);
+    }
+
+    public void setValue(int colIndex, int rowIndex, String value){
+        table.setValue(colIndex, rowIndex, value);
     }
 
     public ArmaExamples mergeTo(ArmaExamples anotherExamples){
         ArmaExamples newExamples = new ArmaExamples(this);
-        newExamples.setTableHeader(newExamples.getTableHeader().mergeValues(anotherExamples.getTableHeader()));
-        if (newExamples.getTableHeader().equals(anotherExamples.getTableHeader())){
-            newExamples.getTableBody().addAll(anotherExamples.getTableBody());
-        } else {
-            anotherExamples.getTableBody().forEach(row -> {
-                ArmaTableRow newRow = new ArmaTableRow(newExamples.getTableHeader().getSize());
-                for (int i=0; i<row.getSize(); i++){
-                    String paramName = anotherExamples.getParamName(i);
-                    String value = row.getValue(i);
-                    int newColIndex = newExamples.getColumnIndex(paramName);
-                    newRow.setValue(newColIndex, value);
-                }
-            });
-        }
+        newExamples.getTable().appendRows(anotherExamples.getTable());
         newExamples.removeDuplicatedRows();
         return newExamples;
     }
 
     public ArmaExamples joinWith(ArmaExamples anotherExamples){
-        setTableHeader(getTableHeader().mergeValues(anotherExamples.getTableHeader()));
-        if (getTableHeader().equals(anotherExamples.getTableHeader())){
-            addBodyRows(anotherExamples.getTableBody());
-        } else {
-            anotherExamples.getTableBody().forEach(row -> {
-                ArmaTableRow newRow = new ArmaTableRow(getTableHeader().getSize());
-                for (int i=0; i<row.getSize(); i++){
-                    String paramName = anotherExamples.getParamName(i);
-                    if (StringUtils.isNoneBlank(paramName)) {
-                        String value = row.getValue(i);
-                        int newColIndex = getColumnIndex(paramName);
-                        newRow.setValue(newColIndex, value);
-                    }
-                }
-            });
-        }
+        table.appendRows(anotherExamples.getTable());
         removeDuplicatedRows();
-        adjustTableSize();
         addTags(anotherExamples.getTags());
         return this;
     }
@@ -261,44 +226,62 @@ public class ArmaExamples implements HasTags{
             return new ArmaExamples(examples.iterator().next());
         } else {
             Iterator<ArmaExamples> iterator = examples.iterator();
-            ArmaExamples to = iterator.next();
+            ArmaExamples to = new ArmaExamples(iterator.next());
             while (iterator.hasNext()){
                 ArmaExamples from = iterator.next();
-                to = join(to, from);
+                to.getTable().appendRows(from.getTable());
+                to.addTags(from.getTags());
             }
+            to.removeDuplicatedRows();
             return to;
         }
     }
 
     public Map<String, String> toMap(int rowIndex){
         Map<String, String> values = new LinkedHashMap<>();
-        if (rowIndex >= CollectionUtils.size(tableBody)){
+        if (rowIndex >= table.getRowCount()){
             return values;
         }
-        ArmaTableRow row = tableBody.get(rowIndex);
-        for (int i=0; i<tableHeader.getSize(); i++){
-            values.put(tableHeader.getValue(i), row.getValue(i));
+        for (int i=0; i<table.getColumnCount(); i++){
+            values.put(table.getName(i), table.getValue(i, rowIndex));
         }
         return values;
     }
 
     public Map<String, String> toMap(int rowIndex, Iterable<String> paramNames){
         Map<String, String> values = new LinkedHashMap<>();
-        if (rowIndex >= CollectionUtils.size(tableBody)){
+        if (rowIndex >= table.getRowCount()){
             return values;
         }
-        ArmaTableRow row = tableBody.get(rowIndex);
         Map<String, Integer> columnIndexes = getColumnIndexes(paramNames);
-        columnIndexes.forEach((paramName, columnIndex) -> values.put(paramName, row.getValue(columnIndex)));
+        columnIndexes.forEach((paramName, columnIndex) -> values.put(paramName, table.getValue(columnIndex, rowIndex)));
         return values;
     }
 
     public boolean hasTheSameScopeWith(ArmaExamples anoterExamples){
-        return CollectionUtils.isEqualCollection(getTags(), anoterExamples.getTags());
+        return getScopeKey().equals(anoterExamples.getScopeKey());
     }
 
+    /**
+     * Returns a canonical key of the examples tag set: sorted distinct tag names separated by spaces.
+     * Examples with equal keys have the same scope
+     */
+    public String getScopeKey(){
+        if (CollectionUtils.isEmpty(tags)){
+            return "";
+        }
+        return tags.stream()
+                .map(ArmaTag::getName)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Columns of the columnar table are always of the same size, nothing to adjust.
+     * Kept for compatibility
+     */
     public void adjustTableSize(){
-        getTableBody().forEach(row -> row.adjustSize(getTableHeader().getSize()));
     }
 
     public void setKeyword(String keyword){
@@ -321,97 +304,33 @@ public class ArmaExamples implements HasTags{
     }
 
     public void setTableHeader(TableRow gherkinTableHeader){
-        this.tableHeader = new ArmaTableRow(gherkinTableHeader);
+        setTableHeader(new ArmaTableRow(gherkinTableHeader));
     }
 
     public void setTableHeader(ArmaTableRow tableHeader){
-        this.tableHeader = tableHeader;
+        table.setNames(tableHeader == null ? null : tableHeader.getValues());
     }
 
     public void setGherkinTableBody(List<TableRow> gherkinTableBody){
         if (CollectionUtils.isEmpty(gherkinTableBody)){
             return;
         }
-        this.tableBody = gherkinTableBody.stream().map(ArmaTableRow::new).collect(Collectors.toList());
-        adjustBodyColumns();
+        gherkinTableBody.forEach(gherkinRow -> addBodyRow(new ArmaTableRow(gherkinRow)));
     }
 
+    /**
+     * Body rows of the columnar table always have the same number of cells, nothing to adjust.
+     * Kept for compatibility
+     */
     public void adjustBodyColumns(){
-        if (CollectionUtils.size(tableBody) <= 1){
-            return;
-        }
-
-        int maxColumnCount = getMaxBodyColumnsCount();
-        tableBody.forEach(row -> {
-            int delta = maxColumnCount - row.getSize();
-            for (int i=0; i<delta; i++){
-                row.addCell("");
-            }
-        });
     }
 
     public int getMaxBodyColumnsCount(){
-        if (CollectionUtils.isEmpty(tableBody)){
-            return 0;
-        }
-        return tableBody.stream()
-                .map(ArmaTableRow::getSize)
-                .collect(Collectors.summarizingInt(Integer::valueOf)).getMax();
+        return table.isEmpty() ? 0 : table.getColumnCount();
     }
 
     @Override
     public String toString(){
-        StringBuilder sb = new StringBuilder();
-        if (tags != null) {
-            sb.append(StringUtils.join(tags, " ")).append("\n");
-        }
-        sb.append(keyword).append(": ").append(name);
-        if (StringUtils.isNoneBlank(description)){
-            sb.append("\n")
-                    .append(ArmaFeature.addPad(description));
-        }
-
-        List<Integer> width = calculateColumnsWidth(tableHeader, tableBody);
-        if (tableHeader != null){
-            sb.append("\n")
-                .append(ArmaFeature.addPad(tableHeader.toString(width)));
-        }
-        if (tableBody != null){
-            tableBody.forEach(row ->
-            {
-                sb.append("\n")
-                    .append(ArmaFeature.addPad(row.toString(width)));
-            });
-        }
-        return sb.toString();
-    }
-
-    private static List<Integer> calculateColumnsWidth(ArmaTableRow headers, List<ArmaTableRow> tableBody){
-        int cellCount = 0;
-        if (CollectionUtils.isNotEmpty(headers.getCells())){
-            cellCount = headers.getCells().size();
-        } else if (CollectionUtils.isNotEmpty(tableBody)){
-            if (CollectionUtils.isNotEmpty(tableBody.get(0).getCells())){
-                cellCount = tableBody.get(0).getCells().size();
-            }
-        }
-        List<Integer> width = new ArrayList<>(cellCount);
-        for (int i=0; i<cellCount; i++){
-            int maxLength = 0;
-            if (CollectionUtils.isNotEmpty(headers.getCells())) {
-                maxLength = headers.getCells().get(i).getValue().length();
-            }
-            if (CollectionUtils.isNotEmpty(tableBody)) {
-                for (ArmaTableRow row : tableBody) {
-                    String value = row.getValue(i);
-                    if (value != null && value.length() > maxLength) {
-                        maxLength = value.length();
-                    }
-                }
-            }
-
-            width.add(maxLength);
-        }
-        return width;
+        return GherkinWriter.toString(this);
     }
 }
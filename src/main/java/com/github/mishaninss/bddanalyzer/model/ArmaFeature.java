@@ -1,14 +1,14 @@
 package com.github.mishaninss.bddanalyzer.model;
 
+import com.github.mishaninss.bddanalyzer.GherkinWriter;
 import gherkin.ast.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -18,11 +18,14 @@ import java.util.stream.Collectors;
  * @see Feature
  */
 @Data
+@EqualsAndHashCode(callSuper = true, exclude = "source")
 public class ArmaFeature extends ArmaNode implements HasTags{
+    private static final Pattern LINE_START = Pattern.compile("(?m)(^)");
     private ArmaLocation location;
     private Set<ArmaTag> tags = new LinkedHashSet<>();
     private ArmaBackground background;
     private List<ArmaScenario> scenarios = new LinkedList<>();
+    private ArmaFeatureSource source;
 
     public ArmaFeature(){
         setKeyword("Feature");
@@ -42,6 +45,9 @@ public class ArmaFeature extends ArmaNode implements HasTags{
         setName(feature.getName());
         setDescription(feature.getDescription());
         setLocation(new ArmaLocation(feature.getLocation()));
+        if (feature.getSource() != null){
+            setSource(new ArmaFeatureSource(feature.getSource()));
+        }
 
         if (feature.hasTags()){
             feature.getTags().forEach(originTag -> addTag(new ArmaTag(originTag)));
@@ -103,12 +109,7 @@ public class ArmaFeature extends ArmaNode implements HasTags{
     }
 
     public static String addPad(String string){
-        StringBuilder outter = new StringBuilder();
-
-        Pattern pattern = Pattern.compile("(?m)(^)");
-        Matcher matcher = pattern.matcher(string);
-        outter.append(matcher.replaceAll("  "));
-        return outter.toString();
+        return LINE_START.matcher(string).replaceAll("  ");
     }
 
     public void pullTags(){
@@ -143,30 +144,7 @@ public class ArmaFeature extends ArmaNode implements HasTags{
 
     @Override
     public String toString(){
-        StringBuilder sb = new StringBuilder();
-        if (tags != null) {
-            sb.append(StringUtils.join(tags, " ")).append("\n");
-        }
-        sb.append(keyword).append(": ").append(name);
-        if (StringUtils.isNoneBlank(description)){
-            sb.append("\n")
-                .append(addPad(description));
-        }
-
-        if (background != null){
-            sb.append("\n\n")
-                .append(addPad(background.toString()));
-        }
-
-        if (scenarios != null) {
-            scenarios.forEach(scenario ->
-            {
-                String scenarioText = scenario.toString();
-                sb.append("\n\n")
-                        .append(addPad(scenarioText));
-            });
-        }
-        return sb.toString();
+        return GherkinWriter.toString(this);
     }
 
     public boolean hasBackground(){
@@ -0,0 +1,41 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import lombok.Data;
+
+/**
+ * Properties of the feature file a feature was parsed from.
+ * Used to write a changed feature back to disk with the original encoding and line endings.
+ */
+@Data
+public class ArmaFeatureSource {
+    private String encoding = "UTF-8";
+    private boolean bom;
+    private String lineSeparator = "\n";
+    private boolean finalNewline = true;
+    private int commentsCount;
+    /**
+     * Hash of the file bytes at the moment of scanning
+     */
+    private long contentHash;
+    /**
+     * Hash of the feature rendered by {@link com.github.mishaninss.bddanalyzer.GherkinWriter} right after parsing
+     */
+    private long renderedHash;
+
+    public ArmaFeatureSource(){
+
+    }
+
+    public ArmaFeatureSource(ArmaFeatureSource source){
+        if (source == null){
+            return;
+        }
+        encoding = source.getEncoding();
+        bom = source.isBom();
+        lineSeparator = source.getLineSeparator();
+        finalNewline = source.isFinalNewline();
+        commentsCount = source.getCommentsCount();
+        contentHash = source.getContentHash();
+        renderedHash = source.getRenderedHash();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Module of a {@link ArmaMultiModuleProject} with its own feature and step definition roots.
+ * Steps of the module are linked to step definitions of its roots and of the modules it depends on
+ */
+@Data
+@EqualsAndHashCode(exclude = "project")
+@ToString(exclude = "project")
+public class ArmaModule {
+    private final String name;
+    private final List<String> featuresRoots = new ArrayList<>();
+    private final List<String> stepDefsRoots = new ArrayList<>();
+    /**
+     * Names of modules whose step definitions are visible to this module, dependencies are transitive
+     */
+    private final List<String> dependencies = new ArrayList<>();
+    /**
+     * Features and visible step definitions of the module, available after scan
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private ArmaProject project;
+
+    public ArmaModule withFeaturesRoots(String... roots){
+        featuresRoots.addAll(Arrays.asList(roots));
+        return this;
+    }
+
+    public ArmaModule withStepDefsRoots(String... roots){
+        stepDefsRoots.addAll(Arrays.asList(roots));
+        return this;
+    }
+
+    public ArmaModule withDependencies(String... modules){
+        dependencies.addAll(Arrays.asList(modules));
+        return this;
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import com.github.mishaninss.bddanalyzer.GherkinScanner;
+import com.github.mishaninss.bddanalyzer.ParseCache;
+import com.github.mishaninss.bddanalyzer.StepDefinitionsScanner;
+import com.github.mishaninss.bddanalyzer.matching.StepDefMatcher;
+import lombok.NonNull;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Project of several modules sharing step definitions.
+ * Every feature and step definition root is scanned once, roots are scanned in parallel with a shared {@link ParseCache},
+ * so equal files of different roots are parsed once too. Step definitions of all roots form one pool without duplicates,
+ * patterns of the pool are compiled once into a {@link StepDefMatcher}. Steps of a module are linked to the first
+ * matching step definition of its visible set, in order of the pool; modules are linked in parallel.
+ * Every module gets its own {@link ArmaProject} for per-module statistics, {@link #getProject()} aggregates all modules.
+ * Modules sharing a features root get their own copies of its features, the aggregate contains every feature file once,
+ * linked as in the first module scanning it
+ */
+public class ArmaMultiModuleProject {
+    private final Map<String, ArmaModule> modules = new LinkedHashMap<>();
+    private final ParseCache parseCache;
+    private List<ArmaStepDef> stepDefinitions = new ArrayList<>();
+    private StepDefMatcher stepDefMatcher;
+    private ArmaProject project;
+
+    public ArmaMultiModuleProject(){
+        this(new ParseCache());
+    }
+
+    public ArmaMultiModuleProject(@NonNull ParseCache parseCache){
+        this.parseCache = parseCache;
+    }
+
+    public ArmaMultiModuleProject addModule(@NonNull ArmaModule module){
+        if (modules.putIfAbsent(module.getName(), module) != null){
+            throw new IllegalArgumentException("module [" + module.getName() + "] is already added");
+        }
+        return this;
+    }
+
+    public List<ArmaModule> getModules(){
+        return new ArrayList<>(modules.values());
+    }
+
+    public ArmaModule getModule(String name){
+        return modules.get(name);
+    }
+
+    /**
+     * Returns the pool of step definitions of all modules
+     */
+    public List<ArmaStepDef> getStepDefinitions(){
+        return Collections.unmodifiableList(stepDefinitions);
+    }
+
+    public StepDefMatcher getStepDefMatcher(){
+        return stepDefMatcher;
+    }
+
+    /**
+     * Returns the project with features of all features roots and the whole pool of step definitions, available after scan.
+     * Feature files of roots shared by several modules or nested in each other are counted once
+     */
+    public ArmaProject getProject(){
+        return project;
+    }
+
+    public void scan(){
+        List<String> stepDefsRoots = modules.values().stream()
+                .flatMap(module -> module.getStepDefsRoots().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        List<String> featuresRoots = modules.values().stream()
+                .flatMap(module -> module.getFeaturesRoots().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, BitSet> visible = getVisibleRoots(stepDefsRoots);
+        Map<String, List<ArmaStepDef>> scannedStepDefs = stepDefsRoots.parallelStream()
+                .collect(Collectors.toMap(Function.identity(),
+                        root -> new StepDefinitionsScanner(root).withParseCache(parseCache).collectStepDefinitions()));
+        Map<String, List<ArmaFeature>> scannedFeatures = featuresRoots.parallelStream()
+                .collect(Collectors.toMap(Function.identity(),
+                        root -> new GherkinScanner(root).withParseCache(parseCache).collectFeatures()));
+
+        Map<String, Integer> pool = new LinkedHashMap<>();
+        List<ArmaStepDef> poolStepDefs = new ArrayList<>();
+        Map<String, BitSet> rootStepDefs = new HashMap<>();
+        for (String root: stepDefsRoots){
+            BitSet ids = new BitSet();
+            for (ArmaStepDef stepDef: scannedStepDefs.get(root)){
+                ids.set(pool.computeIfAbsent(poolKey(stepDef), key -> {
+                    poolStepDefs.add(stepDef);
+                    return poolStepDefs.size() - 1;
+                }));
+            }
+            rootStepDefs.put(root, ids);
+        }
+        stepDefinitions = poolStepDefs;
+        StepDefMatcher matcher = new StepDefMatcher(poolStepDefs);
+        stepDefMatcher = matcher;
+
+        Set<String> usedFeaturesRoots = new HashSet<>();
+        Map<ArmaModule, BitSet> moduleStepDefs = new LinkedHashMap<>();
+        for (ArmaModule module: modules.values()){
+            List<ArmaFeature> features = new LinkedList<>();
+            for (String root: module.getFeaturesRoots()){
+                boolean shared = !usedFeaturesRoots.add(root);
+                scannedFeatures.get(root).forEach(feature -> features.add(shared ? new ArmaFeature(feature) : feature));
+            }
+            BitSet ids = new BitSet();
+            visible.get(module.getName()).stream()
+                    .mapToObj(stepDefsRoots::get)
+                    .forEach(root -> ids.or(rootStepDefs.get(root)));
+            List<ArmaStepDef> moduleStepDefinitions = new LinkedList<>();
+            ids.stream().forEach(id -> moduleStepDefinitions.add(poolStepDefs.get(id)));
+
+            ArmaProject moduleProject = new ArmaProject(String.join(File.pathSeparator, module.getStepDefsRoots()),
+                    String.join(File.pathSeparator, module.getFeaturesRoots()));
+            moduleProject.setFeatures(features);
+            moduleProject.setStepDefinitions(moduleStepDefinitions);
+            module.setProject(moduleProject);
+            moduleStepDefs.put(module, ids);
+        }
+
+        moduleStepDefs.entrySet().parallelStream().forEach(entry -> entry.getKey().getProject().linkSteps(text -> {
+            int stepDefId = matcher.find(text, entry.getValue());
+            return stepDefId < 0 ? null : matcher.getStepDef(stepDefId);
+        }));
+
+        ArmaProject aggregate = new ArmaProject(String.join(File.pathSeparator, stepDefsRoots),
+                String.join(File.pathSeparator, featuresRoots));
+        List<ArmaFeature> allFeatures = new LinkedList<>();
+        Set<String> aggregatedFiles = new HashSet<>();
+        featuresRoots.forEach(root -> scannedFeatures.get(root).forEach(feature -> {
+            String file = feature.getLocation() == null ? null : feature.getLocation().getFile();
+            if (file == null || aggregatedFiles.add(file)){
+                allFeatures.add(feature);
+            }
+        }));
+        aggregate.setFeatures(allFeatures);
+        aggregate.setStepDefinitions(new LinkedList<>(poolStepDefs));
+        project = aggregate;
+    }
+
+    /**
+     * Statistics of every module and of the whole project
+     */
+    public String printModuleStatistics(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("MODULE", "FEATURES", "SCENARIOS", "TESTS", "STEPS", "NOT IMPLEMENTED", "STEP DEFS", "USED STEP DEFS");
+        modules.values().forEach(module -> addStatistics(table, module.getName(), module.getProject()));
+        addStatistics(table, "TOTAL", project);
+        System.out.println(table);
+        return table.toString();
+    }
+
+    public String printStatistics(){
+        return project.printStatistics();
+    }
+
+    private static void addStatistics(ArmaDataTable table, String name, ArmaProject project){
+        table.addRow(name,
+                String.valueOf(project.getFeatures().size()),
+                String.valueOf(project.getScenarios().size()),
+                String.valueOf(project.countTests()),
+                String.valueOf(project.getSteps().size()),
+                String.valueOf(project.getNotImplementedSteps().size()),
+                String.valueOf(project.getStepDefinitions().size()),
+                String.valueOf(project.getUsedStepDefinitions().size()));
+    }
+
+    /**
+     * Collects ids of step definition roots visible to every module through its transitive dependencies
+     */
+    private Map<String, BitSet> getVisibleRoots(List<String> roots){
+        Map<String, BitSet> visible = new HashMap<>();
+        for (ArmaModule module: modules.values()){
+            BitSet rootIds = new BitSet();
+            Set<String> visited = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>(Collections.singleton(module.getName()));
+            while (!queue.isEmpty()){
+                String name = queue.poll();
+                if (!visited.add(name)){
+                    continue;
+                }
+                ArmaModule dependency = modules.get(name);
+                if (dependency == null){
+                    throw new IllegalArgumentException("module [" + module.getName() + "] depends on unknown module [" + name + "]");
+                }
+                dependency.getStepDefsRoots().forEach(root -> rootIds.set(roots.indexOf(root)));
+                queue.addAll(dependency.getDependencies());
+            }
+            visible.put(module.getName(), rootIds);
+        }
+        return visible;
+    }
+
+    /**
+     * Step definitions of overlapping roots are the same if they are declared at the same place with the same pattern
+     */
+    private static String poolKey(ArmaStepDef stepDef){
+        ArmaStepDefLocation location = stepDef.getLocation();
+        return location == null ? "\n" + stepDef.getText()
+                : location.getFile() + ":" + location.getLine() + ":" + location.getColumn() + "\n" + stepDef.getText();
+    }
+}
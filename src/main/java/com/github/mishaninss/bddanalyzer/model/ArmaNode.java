@@ -26,7 +26,7 @@ public class ArmaNode {
     }
 
     public void setDescription(String description){
-        this.description = StringUtils.capitalize(StringUtils.lowerCase(StringUtils.trim(description)));
+        this.description = StringUtils.trim(description);
     }
 
     @Override
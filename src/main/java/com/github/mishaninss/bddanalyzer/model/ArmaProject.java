@@ -1,17 +1,48 @@
 package com.github.mishaninss.bddanalyzer.model;
 
 import com.github.mishaninss.bddanalyzer.GherkinScanner;
+import com.github.mishaninss.bddanalyzer.ParseCache;
 import com.github.mishaninss.bddanalyzer.StepDefinitionsScanner;
+import com.github.mishaninss.bddanalyzer.analysis.BackgroundAnalyzer;
+import com.github.mishaninss.bddanalyzer.analysis.BackgroundSuggestion;
+import com.github.mishaninss.bddanalyzer.analysis.ScenarioCluster;
+import com.github.mishaninss.bddanalyzer.analysis.ScenarioSimilarityAnalyzer;
+import com.github.mishaninss.bddanalyzer.analysis.StepDefCluster;
+import com.github.mishaninss.bddanalyzer.analysis.StepDefSimilarityAnalyzer;
+import com.github.mishaninss.bddanalyzer.diff.ProjectDiff;
+import com.github.mishaninss.bddanalyzer.diff.ProjectDiffer;
+import com.github.mishaninss.bddanalyzer.frozen.FrozenProject;
+import com.github.mishaninss.bddanalyzer.index.SearchIndex;
+import com.github.mishaninss.bddanalyzer.index.StepDefUsageIndex;
+import com.github.mishaninss.bddanalyzer.index.StepSequenceMatcher;
+import com.github.mishaninss.bddanalyzer.matching.MatchProblem;
+import com.github.mishaninss.bddanalyzer.matching.MatchProfiler;
+import com.github.mishaninss.bddanalyzer.matching.RegexRisk;
+import com.github.mishaninss.bddanalyzer.matching.StepDefMatcher;
+import com.github.mishaninss.bddanalyzer.report.ProjectReport;
+import com.github.mishaninss.bddanalyzer.report.ReportEngine;
+import com.github.mishaninss.bddanalyzer.report.ReportResults;
+import com.github.mishaninss.bddanalyzer.report.Reports;
+import com.github.mishaninss.bddanalyzer.snapshot.ProjectSnapshot;
+import com.github.mishaninss.bddanalyzer.traversal.ArmaTraversal;
+import com.github.mishaninss.bddanalyzer.traversal.ArmaVisitor;
+import com.github.mishaninss.bddanalyzer.traversal.TraversalContext;
 import gherkin.deps.com.google.gson.Gson;
 import gherkin.deps.com.google.gson.GsonBuilder;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
+import lombok.ToString;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.ListUtils;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -19,12 +50,39 @@ import java.util.stream.Stream;
  * Created by Sergey_Mishanin on 9/29/17.
  */
 @Data
-public class ArmaProject {
+@EqualsAndHashCode(exclude = {"stepDefIndex", "searchIndex", "stepDefMatcher", "matchProfiling", "linkParallelism", "linkMillis", "linkPool"})
+@ToString(exclude = {"stepDefIndex", "searchIndex", "stepDefMatcher", "matchProfiling", "linkParallelism", "linkMillis", "linkPool"})
+public class ArmaProject implements AutoCloseable {
     public static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private final String stepDefsRoot;
     private final String featuresRoot;
     private List<ArmaFeature> features;
     private List<ArmaStepDef> stepDefinitions;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private StepDefUsageIndex stepDefIndex;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private StepDefMatcher stepDefMatcher;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SearchIndex searchIndex;
+    private boolean matchProfiling;
+    /**
+     * Number of threads linking steps to step definitions, 1 for linking in the calling thread
+     */
+    private int linkParallelism = 1;
+    /**
+     * Duration of the last linking of steps
+     */
+    @Setter(AccessLevel.NONE)
+    private long linkMillis;
+    /**
+     * Pool of the link parallelism, created on first parallel linking and reused by later linkings
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ForkJoinPool linkPool;
 
     public ArmaProject(String stepDefsRoot, String featuresRoot) {
         this.stepDefsRoot = stepDefsRoot;
@@ -34,11 +92,72 @@ public class ArmaProject {
     }
 
     public void scan(){
-        features.addAll(new GherkinScanner(featuresRoot).collectFeatures());
-        stepDefinitions.addAll(new StepDefinitionsScanner(stepDefsRoot).collectStepDefinitions());
+        scan(null);
+    }
+
+    /**
+     * Scans the project taking files with already parsed contents from the cache, roots can be directories or archives
+     * @see com.github.mishaninss.bddanalyzer.ScanSource#of(String) for supported roots
+     */
+    public void scan(ParseCache parseCache){
+        features.addAll(new GherkinScanner(featuresRoot).withParseCache(parseCache).collectFeatures());
+        stepDefinitions.addAll(new StepDefinitionsScanner(stepDefsRoot).withParseCache(parseCache).collectStepDefinitions());
+        mergeStepsAndStepDefs();
+    }
+
+    /**
+     * Computes the reports in one pass over features of the project
+     * @see Reports for reports of the project
+     */
+    public ReportResults runReports(ProjectReport<?>... reports){
+        return new ReportEngine().add(reports).run(this);
+    }
+
+    /**
+     * Walks features of the project with the visitor without collecting scenarios or steps
+     * @return false if the traversal was stopped by the visitor
+     */
+    public boolean traverse(ArmaVisitor visitor){
+        return ArmaTraversal.of(features).traverse(visitor);
+    }
+
+    /**
+     * Creates an immutable copy of the linked project for concurrent reading
+     */
+    public FrozenProject freeze(){
+        return FrozenProject.of(this);
+    }
+
+    /**
+     * Links steps to step definitions of a project assembled without a scan, e.g. from parts scanned separately
+     */
+    public void link(){
         mergeStepsAndStepDefs();
     }
 
+    /**
+     * Writes the scanned and linked project into a binary snapshot
+     * @see ProjectSnapshot
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        ProjectSnapshot.write(this, path);
+    }
+
+    /**
+     * Reads a project from a binary snapshot instead of scanning and linking
+     * @see ProjectSnapshot#open(Path, boolean) for lazy decoding of features
+     */
+    public static ArmaProject loadSnapshot(Path path) throws IOException {
+        return ProjectSnapshot.load(path);
+    }
+
+    /**
+     * Finds scenarios, steps, step definition links and tags changed since the base version of the project
+     */
+    public ProjectDiff diffFrom(ArmaProject base){
+        return new ProjectDiffer().diff(base, this);
+    }
+
     public List<ArmaScenario> getScenarios(){
         return getFeatures().stream()
                 .flatMap(feature -> feature.getScenarios().stream())
@@ -80,52 +199,157 @@ public class ArmaProject {
 
     public Set<ArmaTag> getTags(){
         Set<ArmaTag> allTags = new HashSet<>();
-        features.forEach(feature -> allTags.addAll(feature.getTags()));
+        traverse(new ArmaVisitor() {
+            @Override
+            public boolean enterFeature(ArmaFeature feature, TraversalContext context){
+                allTags.addAll(feature.getTags());
+                return true;
+            }
 
-        getBackgrounds().forEach(background -> allTags.addAll(background.getTags()));
+            @Override
+            public boolean enterBackground(ArmaBackground background, TraversalContext context){
+                allTags.addAll(background.getTags());
+                return false;
+            }
 
-        getScenarios().forEach(scenario -> {
-            allTags.addAll(scenario.getTags());
+            @Override
+            public boolean enterScenario(ArmaScenario scenario, TraversalContext context){
+                allTags.addAll(scenario.getTags());
+                return scenario instanceof ArmaScenarioOutline;
+            }
 
-            if (scenario instanceof ArmaScenarioOutline){
-                List<ArmaExamples> examples = ((ArmaScenarioOutline) scenario).getExamples();
-                if (CollectionUtils.isNotEmpty(examples)){
-                    examples.forEach(example -> allTags.addAll(example.getTags()));
-                }
+            @Override
+            public boolean enterExamples(ArmaExamples examples, TraversalContext context){
+                allTags.addAll(examples.getTags());
+                return false;
             }
         });
-
         return allTags;
     }
 
     public List<ArmaStepDef> getUsedStepDefinitions(){
-        return getSteps().stream()
-                .filter(ArmaStep::isImplemented)
-                .map(ArmaStep::getStepDef)
-                .distinct()
-                .collect(Collectors.toList());
+        return getStepDefIndex().getUsedStepDefs();
     }
 
     public List<ArmaStepDef> getNotUsedStepDefinitions(){
-        return ListUtils.subtract(stepDefinitions, getUsedStepDefinitions());
+        return getStepDefIndex().getNotUsedStepDefs();
     }
 
-    public long countTests(){
-        long testsCount = 0;
-        for (ArmaScenario scenario: getScenarios()){
-            if (scenario instanceof ArmaScenarioOutline){
-                for (ArmaExamples examples: ((ArmaScenarioOutline) scenario).getExamples()){
-                    if (examples.getTableBody() != null){
-                        testsCount += examples.getTableBody().size();
-                    } else {
-                        testsCount++;
-                    }
-                }
+    /**
+     * Returns the matcher of step texts with compiled patterns of the step definitions.
+     * The matcher is created on linking of steps or on first use
+     */
+    public StepDefMatcher getStepDefMatcher(){
+        StepDefMatcher matcher = stepDefMatcher;
+        if (matcher == null){
+            matcher = new StepDefMatcher(stepDefinitions).withProfiling(matchProfiling);
+            stepDefMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    /**
+     * Returns match cost of step definitions collected during linking of steps.
+     * Profiling has to be enabled by {@link #setMatchProfiling(boolean)} before scan
+     * @return profile of the matcher, or null if profiling is disabled
+     */
+    public MatchProfiler getMatchProfile(){
+        return getStepDefMatcher().getProfiler();
+    }
+
+    public void printMatchProfile(){
+        MatchProfiler profiler = getMatchProfile();
+        System.out.println(profiler == null ? "Match profiling is disabled" : profiler);
+    }
+
+    public Map<ArmaStepDef, RegexRisk> getRiskyStepDefinitions(){
+        return getStepDefMatcher().getRisks();
+    }
+
+    /**
+     * Returns invalid step definition patterns and matches interrupted by the match budget
+     */
+    public List<MatchProblem> getMatchProblems(){
+        return getStepDefMatcher().getProblems();
+    }
+
+    /**
+     * Returns the reverse index from step definitions to steps, built during linking.
+     * The index is not updated when features are changed, use {@link #reindex()} after changes
+     */
+    public StepDefUsageIndex getStepDefIndex(){
+        StepDefUsageIndex index = stepDefIndex;
+        if (index == null){
+            index = buildStepDefIndex();
+            stepDefIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Rebuilds the step definitions usage index from the current links of steps
+     */
+    public void reindex(){
+        stepDefIndex = buildStepDefIndex();
+        searchIndex = null;
+    }
+
+    /**
+     * Updates indexes after the feature was changed, added or removed. Only postings of the feature are replaced
+     * in the usage index, the full-text index is updated incrementally too
+     */
+    public void reindex(ArmaFeature feature){
+        boolean present = features.stream().anyMatch(f -> f == feature);
+        StepDefUsageIndex index = stepDefIndex;
+        if (index != null){
+            if (present){
+                index.updateFeature(feature);
             } else {
-                testsCount++;
+                index.removeFeature(feature);
             }
         }
-        return testsCount;
+        if (searchIndex != null){
+            if (present){
+                searchIndex.update(feature);
+            } else {
+                searchIndex.remove(feature);
+            }
+        }
+    }
+
+    /**
+     * Returns the full-text index over step texts, scenario names and step definitions. The index is built on first use
+     */
+    public SearchIndex getSearchIndex(){
+        SearchIndex index = searchIndex;
+        if (index == null){
+            index = new SearchIndex(this);
+            searchIndex = index;
+        }
+        return index;
+    }
+
+    private StepDefUsageIndex buildStepDefIndex(){
+        StepDefUsageIndex index = new StepDefUsageIndex(stepDefinitions);
+        features.forEach(index::addFeature);
+        return index;
+    }
+
+    public long countTests(){
+        long[] testsCount = new long[1];
+        traverse(new ArmaVisitor() {
+            @Override
+            public boolean enterBackground(ArmaBackground background, TraversalContext context){
+                return false;
+            }
+
+            @Override
+            public boolean enterScenario(ArmaScenario scenario, TraversalContext context){
+                testsCount[0] += scenario instanceof ArmaScenarioOutline ? ((ArmaScenarioOutline) scenario).countTests() : 1;
+                return false;
+            }
+        });
+        return testsCount[0];
     }
 
     public String printStatistics(){
@@ -147,29 +371,137 @@ public class ArmaProject {
 
     private void mergeStepsAndStepDefs(){
         if (CollectionUtils.isEmpty(features) || CollectionUtils.isEmpty(stepDefinitions)){
+            stepDefIndex = new StepDefUsageIndex(stepDefinitions);
             return;
         }
+        StepDefMatcher matcher = new StepDefMatcher(stepDefinitions).withProfiling(matchProfiling);
+        stepDefMatcher = matcher;
+        linkSteps(matcher::match);
+    }
+
+    /**
+     * Links steps of the features to step definitions found by their texts and rebuilds the usage index.
+     * Steps of outlines are matched with values of the first examples row.
+     * With {@link #setLinkParallelism(int)} above 1 features are split across a fork-join pool. Every step is still
+     * linked to the first matching step definition, so links don't depend on the parallelism
+     * @param finder returns the step definition of a step text, or null
+     */
+    void linkSteps(Function<String, ArmaStepDef> finder){
+        long start = System.currentTimeMillis();
+        if (linkParallelism > 1 && features.size() > 1){
+            List<ArmaFeature> featuresList = new ArrayList<>(features);
+            int threshold = Math.max(1, featuresList.size() / (linkParallelism * 4));
+            getLinkPool().invoke(new StepLinkTask(featuresList, 0, featuresList.size(), threshold, finder));
+        } else {
+            features.forEach(feature -> linkFeature(feature, finder));
+        }
+        stepDefIndex = buildStepDefIndex();
+        linkMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Returns the pool of the current link parallelism, a pool of another parallelism is shut down and replaced
+     */
+    private synchronized ForkJoinPool getLinkPool(){
+        if (linkPool == null || linkPool.getParallelism() != linkParallelism){
+            if (linkPool != null){
+                linkPool.shutdown();
+            }
+            linkPool = new ForkJoinPool(linkParallelism);
+        }
+        return linkPool;
+    }
+
+    /**
+     * Shuts down the pool of parallel linking. The project stays usable, the next parallel linking creates a new pool
+     */
+    @Override
+    public synchronized void close(){
+        if (linkPool != null){
+            linkPool.shutdown();
+            linkPool = null;
+        }
+    }
 
-        features.forEach(feature ->
+    static void linkFeature(ArmaFeature feature, Function<String, ArmaStepDef> finder){
+        if (feature.hasBackground()){
+            feature.getBackground().getSteps().forEach(step -> applyStepDef(finder, step, step.getText()));
+        }
+        feature.getScenarios().forEach(scenario ->
         {
-            if (feature.hasBackground()){
-                feature.getBackground().getSteps().forEach(step -> applyStepDef(stepDefinitions, step, step.getText()));
+            ArmaExamples examples = null;
+            if (scenario instanceof ArmaScenarioOutline){
+                ArmaScenarioOutline aso = (ArmaScenarioOutline) scenario;
+                if (CollectionUtils.isNotEmpty(aso.getExamples())) {
+                    examples = aso.getExamples().get(0);
+                }
             }
-            feature.getScenarios().forEach(scenario ->
-            {
-                if (scenario instanceof ArmaScenarioOutline){
-                    ArmaScenarioOutline aso = (ArmaScenarioOutline) scenario;
-                    if (CollectionUtils.isNotEmpty(aso.getExamples())) {
-                        scenario.getSteps().forEach(step ->
-                            applyStepDef(stepDefinitions, step, ArmaStep.applyExample(step, aso.getExamples().get(0), 0).getText()));
-                    } else {
-                        scenario.getSteps().forEach(step -> applyStepDef(stepDefinitions, step, step.getText()));
-                    }
-                } else {
-                    scenario.getSteps().forEach(step -> applyStepDef(stepDefinitions, step, step.getText()));
+            for (ArmaStep step: scenario.getSteps()){
+                String text = examples == null ? step.getText() : ArmaStep.applyExample(step, examples, 0).getText();
+                applyStepDef(finder, step, text);
+            }
+        });
+    }
+
+    /**
+     * Links steps of copies of the features serially and with the given parallelism, compares the links
+     * and prints durations and the speedup. Links of the project are not changed
+     */
+    public String printLinkSpeedup(int parallelism){
+        ArmaProject serial = copyForLinking(1);
+        serial.linkSteps(serial.getStepDefMatcher()::match);
+        ArmaProject parallel = copyForLinking(parallelism);
+        try {
+            parallel.linkSteps(parallel.getStepDefMatcher()::match);
+        } finally {
+            parallel.close();
+        }
+
+        List<ArmaStepDef> serialLinks = new ArrayList<>();
+        serial.traverse(new ArmaVisitor() {
+            @Override
+            public void visitStep(ArmaStep step, TraversalContext context){
+                serialLinks.add(step.getStepDef());
+            }
+        });
+        int[] differences = new int[2];
+        parallel.traverse(new ArmaVisitor() {
+            @Override
+            public void visitStep(ArmaStep step, TraversalContext context){
+                if (serialLinks.get(differences[1]++) != step.getStepDef()){
+                    differences[0]++;
                 }
-            });
+            }
+        });
+
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("Steps", String.valueOf(serialLinks.size()));
+        table.addRow("Parallelism", String.valueOf(parallelism));
+        table.addRow("Serial linking ms", String.valueOf(serial.getLinkMillis()));
+        table.addRow("Parallel linking ms", String.valueOf(parallel.getLinkMillis()));
+        table.addRow("Speedup", String.format(Locale.ROOT, "%.2f",
+                (double) serial.getLinkMillis() / Math.max(1, parallel.getLinkMillis())));
+        table.addRow("Different links", String.valueOf(differences[0]));
+        System.out.println(table);
+        return table.toString();
+    }
+
+    /**
+     * Returns a project with unlinked copies of the features, the same step definitions and a new matcher
+     */
+    private ArmaProject copyForLinking(int parallelism){
+        ArmaProject copy = new ArmaProject(stepDefsRoot, featuresRoot);
+        features.forEach(feature -> copy.features.add(new ArmaFeature(feature)));
+        copy.stepDefinitions.addAll(stepDefinitions);
+        copy.matchProfiling = matchProfiling;
+        copy.linkParallelism = parallelism;
+        copy.traverse(new ArmaVisitor() {
+            @Override
+            public void visitStep(ArmaStep step, TraversalContext context){
+                step.setStepDef(null);
+            }
         });
+        return copy;
     }
 
     public Map<ArmaTag, int[]> getTagsUsage(){
@@ -250,13 +582,11 @@ public class ArmaProject {
     }
 
     public Map<ArmaStepDef, Integer> getStepDefsUsage(){
-        Map<ArmaStepDef, Integer> usage = new LinkedHashMap<>();
-        getSteps().forEach(step -> {
-            if (step.isImplemented()){
-                usage.put(step.getStepDef(), usage.getOrDefault(step.getStepDef(), 0) + 1);
-            }
-        });
-        return usage;
+        return getStepDefIndex().getUsageCounts();
+    }
+
+    public int countStepDefUsage(ArmaStepDef stepDef){
+        return getStepDefIndex().countUsage(stepDef);
     }
 
     public void printStepDefsUsage(){
@@ -314,6 +644,39 @@ public class ArmaProject {
         System.out.println(table);
     }
 
+    public List<StepDefCluster> findSimilarStepDefinitions(){
+        return new StepDefSimilarityAnalyzer().analyze(this);
+    }
+
+    public void printSimilarStepDefinitions(){
+        findSimilarStepDefinitions().forEach(System.out::println);
+    }
+
+    public void printRiskyStepDefinitions(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("STEP DEF", "LOCATION", "RISK");
+        getRiskyStepDefinitions().forEach((stepDef, risk) ->
+                table.addRow(stepDef.getText(), stepDef.getLocation() == null ? "" : stepDef.getLocation().toShortString(),
+                        risk.getLevel() + " " + risk.getReasons()));
+        System.out.println(table);
+    }
+
+    public List<ScenarioCluster> findSimilarScenarios(){
+        return new ScenarioSimilarityAnalyzer().analyze(this);
+    }
+
+    public void printSimilarScenarios(){
+        findSimilarScenarios().forEach(System.out::println);
+    }
+
+    public List<BackgroundSuggestion> findBackgroundCandidates(){
+        return new BackgroundAnalyzer().analyze(this);
+    }
+
+    public void printBackgroundCandidates(){
+        findBackgroundCandidates().forEach(System.out::println);
+    }
+
     public List<ArmaFeature> applyTagFilters(String... tagFilters){
         return getFeatures().stream()
             .map(feature -> feature.applyTagFilters(tagFilters))
@@ -321,100 +684,42 @@ public class ArmaProject {
             .collect(Collectors.toList());
     }
 
-    private static void applyStepDef(List<ArmaStepDef> stepDefs, ArmaStep step, String text){
-        for (ArmaStepDef stepDef: stepDefs){
-            if (stepDef == null) {
-                System.out.println("WARNING step def is null " + text);
-                continue;
-            }
-            if (stepDef.getText() == null) {
-                System.out.println("WARNING step def text is null " + text);
-                continue;
-            }
-            Pattern pattern = Pattern.compile(stepDef.getText());
-            Matcher matcher = pattern.matcher(text);
-            if (matcher.matches()){
-                step.setStepDef(stepDef);
-                return;
-            }
+    private static void applyStepDef(Function<String, ArmaStepDef> finder, ArmaStep step, String text){
+        ArmaStepDef stepDef = finder.apply(text);
+        if (stepDef != null){
+            step.setStepDef(stepDef);
         }
     }
 
     public List<ArmaScenario> getSequenceUsage(@NonNull List<ArmaStepDef> sequence){
-        List<ArmaScenario> foundScenarios = new LinkedList<>();
         if (CollectionUtils.isEmpty(sequence)){
-            return foundScenarios;
-        }
-
-        List<ArmaScenario> scenarios = getScenarios();
-        for (ArmaScenario scenario: scenarios){
-            List<ArmaStepDef> stepDefs = scenario.mapStepsToStepDefinitions();
-            if (sequence.size() >= stepDefs.size()){
-                if (sequence.size() == stepDefs.size() && sequence.equals(stepDefs)) {
-                    foundScenarios.add(scenario);
-                }
-                continue;
-            }
-
-            for (int i = 0; i < stepDefs.size() - sequence.size() + 1; i++) {
-                ArmaStepDef stepDef = stepDefs.get(i);
-                if (stepDef.equals(sequence.get(0))) {
-                    boolean found = true;
-                    for (int j = 1; j < sequence.size(); j++) {
-                        stepDef = stepDefs.get(i + j);
-                        if (!stepDef.equals(sequence.get(j))) {
-                            found = false;
-                            break;
-                        }
-                    }
-                    if (found){
-                        foundScenarios.add(scenario);
-                    }
-                }
-            }
+            return new LinkedList<>();
         }
-        return foundScenarios;
+        return new StepSequenceMatcher(Collections.singletonList(sequence)).locate(getScenarios()).get(0);
     }
 
     public int countSequenceUsage(@NonNull List<ArmaStepDef> sequence){
-        int usage = 0;
         if (CollectionUtils.isEmpty(sequence)){
-            return usage;
+            return 0;
         }
+        return new StepSequenceMatcher(Collections.singletonList(sequence)).count(getScenarios())[0];
+    }
 
-        List<ArmaScenario> scenarios = getScenarios();
-        for (ArmaScenario scenario: scenarios){
-            List<ArmaStepDef> stepDefs = scenario.mapStepsToStepDefinitions();
-            if (sequence.size() >= stepDefs.size()){
-                if (sequence.size() == stepDefs.size() && sequence.equals(stepDefs)) {
-                    usage++;
-                }
-                continue;
-            }
-
-            for (int i = 0; i < stepDefs.size() - sequence.size() + 1; i++) {
-                ArmaStepDef stepDef = stepDefs.get(i);
-                if (stepDef.equals(sequence.get(0))) {
-                    usage++;
-                    for (int j = 1; j < sequence.size(); j++) {
-                        stepDef = stepDefs.get(i + j);
-                        if (!stepDef.equals(sequence.get(j))) {
-                            usage--;
-                            break;
-                        }
-                    }
-                }
-            }
+    /**
+     * Counts occurrences of all the sequences in a single pass over the project scenarios
+     */
+    public Map<List<ArmaStepDef>, Integer> countSequencesUsage(@NonNull Collection<List<ArmaStepDef>> sequences){
+        StepSequenceMatcher matcher = new StepSequenceMatcher(sequences);
+        int[] counts = matcher.count(getScenarios());
+        Map<List<ArmaStepDef>, Integer> usage = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++){
+            usage.put(matcher.getSequence(i), counts[i]);
         }
         return usage;
     }
 
     public Map<ArmaScenario, Integer> findStepDefUsage(ArmaStepDef stepDef){
-        return getScenarios().stream()
-                .collect(Collectors.toMap(scenario -> scenario, scenario -> scenario.getStepDefUsage(stepDef).size()))
-                .entrySet().stream()
-                .filter(entry -> entry.getValue() > 0)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return getStepDefIndex().getScenarioUsage(stepDef);
     }
 
     public void findRepetedSequences(List<ArmaFeature> features){
@@ -429,8 +734,7 @@ public class ArmaProject {
         });
 
         Set<List<ArmaStepDef>> sequences = detectSequences(stepDefs);
-        Map<List<ArmaStepDef>, Integer> usage = new LinkedHashMap<>();
-        sequences.forEach(sequence -> usage.put(sequence, countSequenceUsage(sequence)));
+        Map<List<ArmaStepDef>, Integer> usage = countSequencesUsage(sequences);
 
         usage.entrySet().stream()
                 .sorted(Comparator.comparing(Map.Entry::getValue))
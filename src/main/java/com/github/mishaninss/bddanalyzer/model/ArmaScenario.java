@@ -1,5 +1,6 @@
 package com.github.mishaninss.bddanalyzer.model;
 
+import com.github.mishaninss.bddanalyzer.GherkinWriter;
 import gherkin.ast.Location;
 import gherkin.ast.Scenario;
 import gherkin.ast.Step;
@@ -7,7 +8,6 @@ import gherkin.ast.Tag;
 import lombok.Data;
 import lombok.NonNull;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.util.*;
@@ -41,7 +41,9 @@ public class ArmaScenario extends ArmaNode implements HasTags{
         setKeyword(scenario.getKeyword());
         setName(scenario.getName());
         setDescription(scenario.getDescription());
-        setLocation(new ArmaLocation(scenario.getLocation()));
+        if (scenario.getLocation() != null){
+            setLocation(new ArmaLocation(scenario.getLocation()));
+        }
 
         if (scenario.hasSteps()){
             scenario.getSteps()
@@ -147,19 +149,7 @@ public class ArmaScenario extends ArmaNode implements HasTags{
 
     @Override
     public String toString(){
-        StringBuilder sb = new StringBuilder();
-        if (tags != null) {
-            sb.append(StringUtils.join(tags, " ")).append("\n");
-        }
-        sb.append(keyword).append(": ").append(name);
-        if (StringUtils.isNoneBlank(description)){
-            sb.append("\n")
-                .append(ArmaFeature.addPad(description));
-        }
-        if (steps != null) {
-            steps.forEach(step -> sb.append("\n").append(ArmaFeature.addPad(step.toString())));
-        }
-        return sb.toString();
+        return GherkinWriter.toString(this);
     }
 
     public boolean hasSteps(){
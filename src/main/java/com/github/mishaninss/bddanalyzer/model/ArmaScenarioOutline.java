@@ -1,12 +1,16 @@
 package com.github.mishaninss.bddanalyzer.model;
 
+import com.github.mishaninss.bddanalyzer.GherkinWriter;
 import gherkin.ast.Examples;
 import gherkin.ast.ScenarioOutline;
+import gherkin.ast.Step;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.lang3.StringUtils;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,6 +24,19 @@ import java.util.stream.Collectors;
 public class ArmaScenarioOutline extends ArmaScenario {
 
     private List<ArmaExamples> examples;
+    /**
+     * Cached parameters usage of the steps and the name
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient ParametersUsage parametersUsage;
+    /**
+     * Texts the cached parameters usage was computed from. Strings are immutable, so the cache is valid
+     * while the outline refers to the same string instances, however steps were changed
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient String[] parametersUsageSources;
 
     public ArmaScenarioOutline(){
         this.keyword = "Scenario Outline";
@@ -32,12 +49,14 @@ public class ArmaScenarioOutline extends ArmaScenario {
         setGherkinSteps(gherkinScenarioOutline.getSteps());
         setGherkinTags(gherkinScenarioOutline.getTags());
         setGherkinExamples(gherkinScenarioOutline.getExamples());
+        setLocation(gherkinScenarioOutline.getLocation());
     }
 
     public ArmaScenarioOutline(@NonNull ArmaScenarioOutline scenarioOutline){
         super(scenarioOutline);
 
         if (scenarioOutline.hasExamples()){
+            examples = new ArrayList<>();
             scenarioOutline.getExamples()
                     .forEach(originExample -> examples.add(new ArmaExamples(originExample)));
         }
@@ -50,133 +69,220 @@ public class ArmaScenarioOutline extends ArmaScenario {
         examples = gherkinExamples.stream().map(ArmaExamples::new).collect(Collectors.toList());
     }
 
-    public void optimizeExamples(){
+    /**
+     * Optimizes examples of a copy of this outline: removes empty examples, joins examples of the same scope,
+     * drops not used columns, inlines constant parameters used only once and removes duplicated rows.
+     * This outline is not changed.
+     * @return the optimized copy together with the list of applied changes
+     */
+    public OutlineRewrite optimizeExamples(){
         ArmaScenarioOutline newOutline = new ArmaScenarioOutline(this);
+        OutlineRewrite rewrite = new OutlineRewrite(this, newOutline);
         if (CollectionUtils.isNotEmpty(newOutline.examples)){
             newOutline.removeEmptyExamples();
-
             newOutline.joinExamplesOfTheSameScope();
-            System.out.println(newOutline);
-
-            newOutline.removeNotUsedColumns();
-            System.out.println(newOutline);
-
-            newOutline.replaceNeedlessParameters();
+            rewrite.getDroppedColumns().addAll(newOutline.removeNotUsedColumns());
+            rewrite.getInlinedParameters().putAll(newOutline.replaceNeedlessParameters());
+            rewrite.getDroppedColumns().addAll(newOutline.removeNotUsedColumns());
             newOutline.removeEmptyExamples();
-            System.out.println(newOutline);
         }
+        rewrite.complete();
+        return rewrite;
     }
 
-    public void moveParametersToExamples(){
-        ArmaScenarioOutline newOutline = new ArmaScenarioOutline(this);
-        if (CollectionUtils.isNotEmpty(newOutline.examples)){
-            newOutline.removeEmptyExamples();
-
-            newOutline.joinExamplesOfTheSameScope();
-            System.out.println(newOutline);
-
-            newOutline.removeNotUsedColumns();
-            System.out.println(newOutline);
-
-            newOutline.replaceNeedlessParameters();
-            newOutline.removeEmptyExamples();
-            System.out.println(newOutline);
-        }
+    /**
+     * @see #optimizeExamples()
+     */
+    public OutlineRewrite moveParametersToExamples(){
+        return optimizeExamples();
     }
 
-    private void removeNotUsedColumns(){
+    /**
+     * Removes columns of parameters which are not used in the steps and the name
+     * @return names of removed columns
+     */
+    private Set<String> removeNotUsedColumns(){
+        Set<String> notUsedParams = new LinkedHashSet<>();
         if (CollectionUtils.isNotEmpty(examples)) {
-            ArmaTableRow mergedParams = new ArmaTableRow(examples.get(0).getTableHeader());
-            for (int i = 1; i < examples.size(); i++) {
-                mergedParams = mergedParams.mergeValues(examples.get(i).getTableHeader());
-            }
-
-            List<String> notUsedParams =
-                    ListUtils.removeAll(mergedParams.getValues(), getParametersUsage().keySet());
+            examples.forEach(example -> example.getTable().getNames().stream()
+                    .filter(paramName -> !isParameterUsed(paramName))
+                    .forEach(notUsedParams::add));
 
             examples.forEach(example -> example.removeColumns(notUsedParams));
             examples.forEach(ArmaExamples::removeDuplicatedRows);
         }
+        return notUsedParams;
     }
 
     private void removeEmptyExamples(){
         if (CollectionUtils.isNotEmpty(examples)) {
-            examples.removeIf(examples -> CollectionUtils.isEmpty(examples.getTableBody()));
+            examples.removeIf(examples -> examples.getRowCount() == 0);
         }
     }
 
-    private void joinExamplesOfTheSameScope(){
+    /**
+     * Joins examples with the same set of tags into a single examples table and removes duplicated rows
+     */
+    public void joinExamplesOfTheSameScope(){
         if (CollectionUtils.size(examples) > 1){
             List<List<ArmaExamples>> groups = groupExamplesByScope();
             List<ArmaExamples> newExamples = new ArrayList<>();
             groups.forEach(group -> newExamples.add(ArmaExamples.join(group)));
             setExamples(newExamples);
         }
+        if (examples != null){
+            examples.forEach(ArmaExamples::removeDuplicatedRows);
+        }
     }
 
-    private void replaceNeedlessParameters(){
+    /**
+     * Inlines values of constant parameters which are used only once
+     * @return inlined parameters with their values
+     */
+    private Map<String, String> replaceNeedlessParameters(){
         ArmaExamples newExamples = ArmaExamples.join(getExamples());
-        List<String> onceUsedParams = getParametersUsage().entrySet().stream()
-                .filter(entry -> entry.getValue() == 1)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+        ParametersUsage usage = getParametersUsageIndex();
+        List<String> onceUsedParams = new ArrayList<>();
+        for (int id = 0; id < usage.size(); id++){
+            if (usage.getCount(id) == 1){
+                onceUsedParams.add(usage.getName(id));
+            }
+        }
         List<String> constantColumnNames = newExamples.getParamNames(newExamples.findConstantColumns());
         List<String> paramsToReplace = ListUtils.intersection(onceUsedParams, constantColumnNames);
+        Map<String, String> values = new LinkedHashMap<>();
         if (CollectionUtils.isNotEmpty(paramsToReplace)) {
-            Map<String, String> values = newExamples.toMap(0, paramsToReplace);
+            values.putAll(newExamples.toMap(0, paramsToReplace));
             getSteps().forEach(step -> step.applyParameters(values));
+            invalidateParametersUsage();
         }
-        removeNotUsedColumns();
+        return values;
     }
 
     public List<List<ArmaExamples>> groupExamplesByScope(){
-        List<List<ArmaExamples>> groups = new ArrayList<>();
-        List<ArmaExamples> examplesCopy = new ArrayList<>(examples);
-        Iterator<ArmaExamples> iterator = examplesCopy.iterator();
-        while (iterator.hasNext()){
-            List<ArmaExamples> group = new ArrayList<>();
-            groups.add(group);
-            ArmaExamples thisExample = iterator.next();
-            group.add(thisExample);
-            iterator.remove();
-            Iterator<ArmaExamples> innerIterator = examplesCopy.iterator();
-            while (innerIterator.hasNext()){
-                ArmaExamples thatExample = innerIterator.next();
-                if (thisExample.hasTheSameScopeWith(thatExample)){
-                    group.add(thatExample);
-                    innerIterator.remove();
-                }
+        Map<String, List<ArmaExamples>> groups = new LinkedHashMap<>();
+        if (examples != null){
+            examples.forEach(example ->
+                    groups.computeIfAbsent(example.getScopeKey(), key -> new ArrayList<>()).add(example));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Counts tests generated by this outline: one test per row of every examples table
+     */
+    public int countTests(){
+        int testsCount = 0;
+        if (examples != null){
+            for (ArmaExamples example: examples){
+                testsCount += example.getRowCount();
             }
         }
-        return groups;
+        return testsCount;
     }
 
     public Map<String, Integer> getParametersUsage(){
-        List<Map<String, Integer>> paramsData = new LinkedList<>();
-        paramsData.add(mergeParametersUsage(steps.stream()
-            .map(ArmaStep::getParametersUsage)
-            .collect(Collectors.toList())));
+        return getParametersUsageIndex().toMap();
+    }
 
-        paramsData.add(ArmaScenarioOutline.getParametersUsage(name));
+    /**
+     * Returns parameters usage of the steps and the name, computed in a single pass and cached.
+     * The cache is checked by references of the step texts, data table values and the name,
+     * so it is recomputed after any change of them, including changes made through {@link #getSteps()}
+     */
+    public ParametersUsage getParametersUsageIndex(){
+        String[] sources = collectParametersUsageSources();
+        ParametersUsage usage = parametersUsage;
+        if (usage == null || !isSameSources(sources, parametersUsageSources)){
+            usage = new ParametersUsage();
+            if (steps != null){
+                for (ArmaStep step: steps){
+                    step.collectParametersUsage(usage);
+                }
+            }
+            usage.scan(name);
+            parametersUsage = usage;
+            parametersUsageSources = sources;
+        }
+        return usage;
+    }
 
-        return mergeParametersUsage(paramsData);
+    private String[] collectParametersUsageSources(){
+        List<String> sources = new ArrayList<>();
+        sources.add(name);
+        if (steps != null){
+            for (ArmaStep step: steps){
+                sources.add(step.getText());
+                if (step.getArgument() instanceof ArmaDataTable){
+                    ArmaTable table = ((ArmaDataTable) step.getArgument()).getTable();
+                    for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+                        for (int colIndex = 0; colIndex < table.getColumnCount(); colIndex++){
+                            sources.add(table.getValue(colIndex, rowIndex));
+                        }
+                    }
+                }
+            }
+        }
+        return sources.toArray(new String[0]);
+    }
+
+    private static boolean isSameSources(String[] sources, String[] cachedSources){
+        if (cachedSources == null || sources.length != cachedSources.length){
+            return false;
+        }
+        for (int i = 0; i < sources.length; i++){
+            if (sources[i] != cachedSources[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops the cached parameters usage, it is recomputed on next use
+     */
+    public void invalidateParametersUsage(){
+        parametersUsage = null;
+        parametersUsageSources = null;
     }
 
     public boolean isParameterUsed(String paramName){
-        return getParametersUsage().get(paramName) != null;
+        return getParametersUsageIndex().isUsed(paramName);
     }
 
     @Override
-    public String toString(){
-        StringBuilder sb = new StringBuilder();
-        sb.append(super.toString());
-        if (examples != null){
-            examples.forEach(example ->
-                    sb.append("\n\n")
-                        .append(example.toString()));
-        }
+    public void setSteps(List<ArmaStep> steps){
+        super.setSteps(steps);
+        invalidateParametersUsage();
+    }
+
+    @Override
+    public void setGherkinSteps(List<Step> gherkinSteps){
+        super.setGherkinSteps(gherkinSteps);
+        invalidateParametersUsage();
+    }
 
-        return sb.toString();
+    @Override
+    public void addStep(ArmaStep step){
+        super.addStep(step);
+        invalidateParametersUsage();
+    }
+
+    @Override
+    public void replaceStep(ArmaStep oldStep, ArmaStep newStep){
+        super.replaceStep(oldStep, newStep);
+        invalidateParametersUsage();
+    }
+
+    @Override
+    public void setName(String name){
+        super.setName(name);
+        invalidateParametersUsage();
+    }
+
+    @Override
+    public String toString(){
+        return GherkinWriter.toString(this);
     }
 
     public boolean hasExamples(){
@@ -184,26 +290,11 @@ public class ArmaScenarioOutline extends ArmaScenario {
     }
 
     public static Map<String, Integer> getParametersUsage(String text){
-        Map<String, Integer> paramsUsage = new LinkedHashMap<>();
-        if (StringUtils.isBlank(text)){
-            return paramsUsage;
-        }
-        String[] paramNames = StringUtils.substringsBetween(text, "<", ">");
-        if (paramNames != null) {
-            for (String paramName : paramNames) {
-                int count = StringUtils.countMatches(text, "<" + paramName + ">");
-                paramsUsage.put(paramName, count);
-            }
-        }
-        return paramsUsage;
+        return ParametersUsage.of(text).toMap();
     }
 
     public static Map<String, Integer> getParametersUsage(String... values){
-        List<Map<String,Integer>> paramsData = new LinkedList<>();
-        for(String value: values){
-            paramsData.add(getParametersUsage(value));
-        }
-        return mergeParametersUsage(paramsData);
+        return new ParametersUsage().scan(values).toMap();
     }
 
     public static Map<String, Integer> mergeParametersUsage(Iterable<Map<String, Integer>> paramsData){
@@ -1,5 +1,6 @@
 package com.github.mishaninss.bddanalyzer.model;
 
+import com.github.mishaninss.bddanalyzer.GherkinWriter;
 import gherkin.ast.DataTable;
 import gherkin.ast.DocString;
 import gherkin.ast.Step;
@@ -7,8 +8,6 @@ import lombok.Data;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.regex.Matcher;
@@ -133,14 +132,18 @@ public class ArmaStep {
     }
 
     public Map<String, Integer> getParametersUsage(){
-        List<Map<String, Integer>> paramsData = new LinkedList<>();
+        ParametersUsage usage = new ParametersUsage();
+        collectParametersUsage(usage);
+        return usage.toMap();
+    }
+
+    public void collectParametersUsage(ParametersUsage usage){
         if (StringUtils.isNoneBlank(text)){
-            paramsData.add(ArmaScenarioOutline.getParametersUsage(text));
+            usage.scan(text);
         }
         if (argument != null && argument instanceof ArmaDataTable){
-            paramsData.add(((ArmaDataTable)argument).getParametersUsage());
+            ((ArmaDataTable)argument).collectParametersUsage(usage);
         }
-        return ArmaScenarioOutline.mergeParametersUsage(paramsData);
     }
 
     @Override
@@ -149,26 +152,7 @@ public class ArmaStep {
     }
 
     public String toString(boolean fullInfo){
-        StringBuilder sb = new StringBuilder();
-        sb.append(keyword).append(" ").append(text);
-        if (fullInfo) {
-            if (stepDef == null) {
-                sb.append(" # NOT IMPLEMENTED");
-            } else {
-                sb.append(" # IMPLEMENTED IN ").append(stepDef.getLocation());
-            }
-        }
-
-        if (argument != null){
-            if (argument instanceof ArmaDataTable){
-                sb.append("\n")
-                        .append(ArmaFeature.addPad(argument.toString()));
-            } else if (argument instanceof ArmaDocString){
-                sb.append("\n")
-                        .append(ArmaFeature.addPad(argument.toString()));
-            }
-        }
-        return sb.toString();
+        return GherkinWriter.toString(this, fullInfo);
     }
 
     @Override
@@ -0,0 +1,606 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.*;
+
+/**
+ * Column-oriented storage of Gherkin table cells.
+ * Every column is kept in its own contiguous array, header names are indexed by a hash map,
+ * so column lookups don't scan the header and column removal doesn't touch the rows.
+ * Removal of a column shifts only references of the later columns, not their cells.
+ * All columns always have the same number of rows, missing cells are filled with empty strings.
+ * @see ArmaExamples
+ * @see ArmaDataTable
+ */
+public class ArmaTable {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long CELL_SEPARATOR = 0x10000L;
+    private static final long NULL_MARKER = 0x10001L;
+    private static final int HEADER = -1;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String[]> columns = new ArrayList<>();
+    private Map<String, Integer> nameIndex;
+    private int rowCount;
+    private int capacity = INITIAL_CAPACITY;
+
+    public ArmaTable(){
+
+    }
+
+    public ArmaTable(ArmaTable table){
+        if (table == null){
+            return;
+        }
+        names.addAll(table.names);
+        capacity = Math.max(table.rowCount, INITIAL_CAPACITY);
+        table.columns.forEach(column -> columns.add(Arrays.copyOf(column, capacity)));
+        rowCount = table.rowCount;
+    }
+
+    public int getColumnCount(){
+        return columns.size();
+    }
+
+    public int getRowCount(){
+        return rowCount;
+    }
+
+    public boolean isEmpty(){
+        return rowCount == 0;
+    }
+
+    public List<String> getNames(){
+        return Collections.unmodifiableList(names);
+    }
+
+    public String getName(int colIndex){
+        if (colIndex < 0 || colIndex >= names.size()){
+            return null;
+        }
+        return names.get(colIndex);
+    }
+
+    /**
+     * Replaces header names. Columns are extended to fit the new header,
+     * extra columns which are not covered by the new header get empty names
+     */
+    public void setNames(Collection<String> newNames){
+        names.clear();
+        if (newNames != null){
+            names.addAll(newNames);
+        }
+        while (columns.size() < names.size()){
+            columns.add(newColumn(""));
+        }
+        while (names.size() < columns.size()){
+            names.add("");
+        }
+        nameIndex = null;
+    }
+
+    /**
+     * Renames a column, the name index is rebuilt on next lookup
+     */
+    public void setName(int colIndex, String name){
+        names.set(colIndex, name);
+        nameIndex = null;
+    }
+
+    public int getColumnIndex(String name){
+        Integer colIndex = getNameIndex().get(name);
+        return colIndex == null ? -1 : colIndex;
+    }
+
+    public boolean hasColumn(String name){
+        return getNameIndex().containsKey(name);
+    }
+
+    public int addColumn(String name, String value){
+        columns.add(newColumn(value));
+        names.add(name);
+        if (nameIndex != null){
+            nameIndex.putIfAbsent(name, names.size() - 1);
+        }
+        return columns.size() - 1;
+    }
+
+    public void removeColumn(int colIndex){
+        if (colIndex < 0 || colIndex >= columns.size()){
+            return;
+        }
+        columns.remove(colIndex);
+        names.remove(colIndex);
+        nameIndex = null;
+    }
+
+    /**
+     * Returns a copy of the column values
+     */
+    public String[] getColumn(int colIndex){
+        return Arrays.copyOf(columns.get(colIndex), rowCount);
+    }
+
+    public String getValue(int colIndex, int rowIndex){
+        if (colIndex < 0 || rowIndex < 0 || colIndex >= columns.size() || rowIndex >= rowCount){
+            return null;
+        }
+        return columns.get(colIndex)[rowIndex];
+    }
+
+    public void setValue(int colIndex, int rowIndex, String value){
+        if (colIndex < 0 || rowIndex < 0 || rowIndex >= rowCount){
+            return;
+        }
+        ensureColumnCount(colIndex + 1);
+        columns.get(colIndex)[rowIndex] = value;
+    }
+
+    public List<String> getRow(int rowIndex){
+        List<String> values = new ArrayList<>(columns.size());
+        for (String[] column: columns){
+            values.add(column[rowIndex]);
+        }
+        return values;
+    }
+
+    public int addRow(List<String> values){
+        ensureCapacity(rowCount + 1);
+        rowCount++;
+        setRow(rowCount - 1, values);
+        return rowCount - 1;
+    }
+
+    public int addRow(String... values){
+        return addRow(Arrays.asList(values));
+    }
+
+    public void insertRow(int rowIndex, List<String> values){
+        ensureCapacity(rowCount + 1);
+        for (String[] column: columns){
+            System.arraycopy(column, rowIndex, column, rowIndex + 1, rowCount - rowIndex);
+        }
+        rowCount++;
+        setRow(rowIndex, values);
+    }
+
+    public void setRow(int rowIndex, List<String> values){
+        int size = CollectionUtils.size(values);
+        ensureColumnCount(size);
+        for (int i = 0; i < columns.size(); i++){
+            columns.get(i)[rowIndex] = i < size ? values.get(i) : "";
+        }
+    }
+
+    public void removeRow(int rowIndex){
+        for (String[] column: columns){
+            System.arraycopy(column, rowIndex + 1, column, rowIndex, rowCount - rowIndex - 1);
+            column[rowCount - 1] = null;
+        }
+        rowCount--;
+    }
+
+    public void clearRows(){
+        for (String[] column: columns){
+            Arrays.fill(column, 0, rowCount, null);
+        }
+        rowCount = 0;
+    }
+
+    /**
+     * Appends rows of another table. Columns are matched by header names, columns missing in this table are added.
+     * Columns of another table with blank names are skipped, unless both tables have exactly the same header,
+     * in which case rows are appended as is.
+     */
+    public void appendRows(ArmaTable anotherTable){
+        if (anotherTable == null || anotherTable.rowCount == 0){
+            return;
+        }
+        int[] mapping = new int[anotherTable.columns.size()];
+        if (names.equals(anotherTable.names)){
+            for (int i = 0; i < mapping.length; i++){
+                mapping[i] = i;
+            }
+        } else {
+            for (int i = 0; i < mapping.length; i++){
+                String name = anotherTable.names.get(i);
+                if (name == null || name.trim().isEmpty()){
+                    mapping[i] = -1;
+                } else {
+                    int colIndex = getColumnIndex(name);
+                    mapping[i] = colIndex >= 0 ? colIndex : addColumn(name, "");
+                }
+            }
+        }
+
+        int offset = rowCount;
+        ensureCapacity(rowCount + anotherTable.rowCount);
+        rowCount += anotherTable.rowCount;
+        for (String[] column: columns){
+            Arrays.fill(column, offset, rowCount, "");
+        }
+        for (int i = 0; i < mapping.length; i++){
+            if (mapping[i] >= 0){
+                System.arraycopy(anotherTable.columns.get(i), 0, columns.get(mapping[i]), offset, anotherTable.rowCount);
+            }
+        }
+    }
+
+    public boolean isConstantColumn(int colIndex){
+        if (rowCount == 0){
+            return false;
+        }
+        String[] column = columns.get(colIndex);
+        String value = column[0];
+        for (int i = 1; i < rowCount; i++){
+            if (!Objects.equals(value, column[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes duplicated rows keeping the first occurrence of each row.
+     * Rows are compared by their 64-bit fingerprints in an open addressing hash table,
+     * cell values are compared only when fingerprints are equal.
+     * @return number of removed rows
+     */
+    public int removeDuplicatedRows(){
+        if (rowCount <= 1){
+            return 0;
+        }
+        int slotsCount = Integer.highestOneBit(rowCount * 2 - 1) << 1;
+        int mask = slotsCount - 1;
+        long[] fingerprints = new long[slotsCount];
+        int[] slots = new int[slotsCount];
+        Arrays.fill(slots, -1);
+
+        int[] keptRows = new int[rowCount];
+        int keptCount = 0;
+        for (int i = 0; i < rowCount; i++){
+            long fingerprint = getRowFingerprint(i);
+            int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+            boolean duplicate = false;
+            while (slots[slot] >= 0){
+                if (fingerprints[slot] == fingerprint && rowsEqual(slots[slot], i)){
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate){
+                fingerprints[slot] = fingerprint;
+                slots[slot] = i;
+                keptRows[keptCount++] = i;
+            }
+        }
+        int removedCount = rowCount - keptCount;
+        if (removedCount > 0){
+            retainRows(keptRows, keptCount);
+        }
+        return removedCount;
+    }
+
+    /**
+     * Calculates 64-bit FNV-1a hash of the row values in the column order
+     */
+    public long getRowFingerprint(int rowIndex){
+        long hash = FNV_OFFSET_BASIS;
+        for (String[] column: columns){
+            String value = column[rowIndex];
+            if (value == null){
+                hash = (hash ^ NULL_MARKER) * FNV_PRIME;
+            } else {
+                for (int i = 0; i < value.length(); i++){
+                    hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+                }
+            }
+            hash = (hash ^ CELL_SEPARATOR) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public boolean rowsEqual(int rowIndex, int anotherRowIndex){
+        for (String[] column: columns){
+            if (!Objects.equals(column[rowIndex], column[anotherRowIndex])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps only rows with the given ascending indexes
+     */
+    public void retainRows(int[] rowIndexes, int count){
+        for (String[] column: columns){
+            for (int i = 0; i < count; i++){
+                column[i] = column[rowIndexes[i]];
+            }
+            Arrays.fill(column, count, rowCount, null);
+        }
+        rowCount = count;
+    }
+
+    /**
+     * Replaces every occurrence of the target string in all cells
+     */
+    public void replace(String target, String replacement){
+        for (String[] column: columns){
+            for (int i = 0; i < rowCount; i++){
+                String value = column[i];
+                if (value != null && !value.trim().isEmpty()){
+                    column[i] = value.replace(target, replacement);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates max length of values in every column, header names are taken into account if requested
+     */
+    public int[] calculateColumnsWidth(boolean includeNames){
+        int[] width = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++){
+            int maxLength = 0;
+            if (includeNames && names.get(i) != null){
+                maxLength = names.get(i).length();
+            }
+            String[] column = columns.get(i);
+            for (int j = 0; j < rowCount; j++){
+                if (column[j] != null && column[j].length() > maxLength){
+                    maxLength = column[j].length();
+                }
+            }
+            width[i] = maxLength;
+        }
+        return width;
+    }
+
+    /**
+     * Returns a live row-oriented view of the table body.
+     * Rows can be added, replaced and removed through the view. The returned rows are views as well,
+     * see {@link #getRowView(int)}
+     */
+    public List<ArmaTableRow> getRowsView(){
+        return new RowsView();
+    }
+
+    /**
+     * Returns a live view of a body row. Changes of cell values are written to the table.
+     * Adding a cell adds a column and removing a cell removes the column, since all rows have the same size.
+     * The view keeps the row index, so it refers to another row after rows above it are inserted or removed
+     */
+    public ArmaTableRow getRowView(int rowIndex){
+        return new RowView(rowIndex);
+    }
+
+    /**
+     * Returns a live view of the header names, the same way as {@link #getRowView(int)} does for body rows
+     */
+    public ArmaTableRow getHeaderView(){
+        return new RowView(HEADER);
+    }
+
+    private Map<String, Integer> getNameIndex(){
+        if (nameIndex == null){
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < names.size(); i++){
+                index.putIfAbsent(names.get(i), i);
+            }
+            nameIndex = index;
+        }
+        return nameIndex;
+    }
+
+    private String[] newColumn(String value){
+        String[] column = new String[capacity];
+        Arrays.fill(column, 0, rowCount, value);
+        return column;
+    }
+
+    private void ensureColumnCount(int count){
+        while (columns.size() < count){
+            addColumn("", "");
+        }
+    }
+
+    private void ensureCapacity(int newCapacity){
+        if (newCapacity <= capacity){
+            return;
+        }
+        capacity = Math.max(newCapacity, capacity * 2);
+        columns.replaceAll(column -> Arrays.copyOf(column, capacity));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArmaTable)) return false;
+        ArmaTable that = (ArmaTable) o;
+        if (rowCount != that.rowCount || !names.equals(that.names)){
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++){
+            String[] column = columns.get(i);
+            String[] thatColumn = that.columns.get(i);
+            for (int j = 0; j < rowCount; j++){
+                if (!Objects.equals(column[j], thatColumn[j])){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = names.hashCode();
+        for (String[] column: columns){
+            for (int j = 0; j < rowCount; j++){
+                result = 31 * result + Objects.hashCode(column[j]);
+            }
+        }
+        return 31 * result + rowCount;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder();
+        sb.append(new ArmaTableRow(names));
+        for (int i = 0; i < rowCount; i++){
+            sb.append("\n").append(new ArmaTableRow(getRow(i)));
+        }
+        return sb.toString();
+    }
+
+    private class RowsView extends AbstractList<ArmaTableRow> {
+        @Override
+        public ArmaTableRow get(int index){
+            checkIndex(index, rowCount);
+            return new RowView(index);
+        }
+
+        @Override
+        public ArmaTableRow set(int index, ArmaTableRow row){
+            checkIndex(index, rowCount);
+            ArmaTableRow oldRow = new ArmaTableRow(getRow(index));
+            setRow(index, row.getValues());
+            return oldRow;
+        }
+
+        @Override
+        public void add(int index, ArmaTableRow row){
+            checkIndex(index, rowCount + 1);
+            if (index == rowCount){
+                addRow(row.getValues());
+            } else {
+                insertRow(index, row.getValues());
+            }
+        }
+
+        @Override
+        public ArmaTableRow remove(int index){
+            checkIndex(index, rowCount);
+            ArmaTableRow oldRow = new ArmaTableRow(getRow(index));
+            removeRow(index);
+            return oldRow;
+        }
+
+        @Override
+        public void clear(){
+            clearRows();
+        }
+
+        @Override
+        public int size(){
+            return rowCount;
+        }
+
+        private void checkIndex(int index, int size){
+            if (index < 0 || index >= size){
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+    }
+
+    /**
+     * Row of live cells, reads and writes go to the column arrays or to the header names
+     */
+    private class RowView extends ArmaTableRow {
+        private final int rowIndex;
+
+        private RowView(int rowIndex){
+            this.rowIndex = rowIndex;
+            super.setCells(new CellsView(rowIndex));
+        }
+
+        @Override
+        public void setCells(List<ArmaTableCell> cells){
+            List<String> values = new ArrayList<>();
+            if (cells != null){
+                cells.forEach(cell -> values.add(cell.getValue()));
+            }
+            if (rowIndex == HEADER){
+                setNames(values);
+            } else {
+                setRow(rowIndex, values);
+            }
+        }
+    }
+
+    private class CellsView extends AbstractList<ArmaTableCell> {
+        private final int rowIndex;
+
+        private CellsView(int rowIndex){
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public ArmaTableCell get(int colIndex){
+            if (colIndex < 0 || colIndex >= columns.size()){
+                throw new IndexOutOfBoundsException("Index: " + colIndex + ", Size: " + columns.size());
+            }
+            return new CellView(colIndex, rowIndex);
+        }
+
+        @Override
+        public ArmaTableCell set(int colIndex, ArmaTableCell cell){
+            ArmaTableCell oldCell = new ArmaTableCell(get(colIndex));
+            get(colIndex).setValue(cell.getValue());
+            return oldCell;
+        }
+
+        @Override
+        public void add(int colIndex, ArmaTableCell cell){
+            if (colIndex != columns.size()){
+                throw new UnsupportedOperationException("cells can be added only after the last column");
+            }
+            if (rowIndex == HEADER){
+                addColumn(cell.getValue(), "");
+            } else {
+                setValue(addColumn("", ""), rowIndex, cell.getValue());
+            }
+        }
+
+        @Override
+        public ArmaTableCell remove(int colIndex){
+            ArmaTableCell oldCell = new ArmaTableCell(get(colIndex));
+            removeColumn(colIndex);
+            return oldCell;
+        }
+
+        @Override
+        public int size(){
+            return columns.size();
+        }
+    }
+
+    private class CellView extends ArmaTableCell {
+        private final int colIndex;
+        private final int rowIndex;
+
+        private CellView(int colIndex, int rowIndex){
+            this.colIndex = colIndex;
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public String getValue(){
+            return rowIndex == HEADER ? names.get(colIndex) : columns.get(colIndex)[rowIndex];
+        }
+
+        @Override
+        public void setValue(String value){
+            if (rowIndex == HEADER){
+                setName(colIndex, value);
+            } else {
+                columns.get(colIndex)[rowIndex] = value;
+            }
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class ArmaTableCell {
     }
 
     public Map<String, Integer> getParametersUsage() {
-        return ArmaScenarioOutline.getParametersUsage(value);
+        return ParametersUsage.of(value).toMap();
     }
 
     public void applyParameter(String paramName, String value) {
@@ -63,11 +63,11 @@ public class ArmaTableCell {
         if (this == o) return true;
         if (!(o instanceof ArmaTableCell)) return false;
         ArmaTableCell that = (ArmaTableCell) o;
-        return Objects.equals(value, that.value);
+        return Objects.equals(getValue(), that.getValue());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return Objects.hash(getValue());
     }
 }
@@ -50,6 +50,13 @@ public class ArmaTableRow {
         }
     }
 
+    public ArmaTableRow(Collection<String> values){
+        if (values == null){
+            return;
+        }
+        values.forEach(this::addCell);
+    }
+
     public ArmaTableRow(int size){
         for (int i=0; i<size; i++){
             addCell("");
@@ -83,9 +90,15 @@ public class ArmaTableRow {
     }
 
     public Map<String, Integer> getParametersUsage(){
-        return ArmaScenarioOutline.mergeParametersUsage(cells.stream()
-                .map(ArmaTableCell::getParametersUsage)
-                .collect(Collectors.toList()));
+        ParametersUsage usage = new ParametersUsage();
+        collectParametersUsage(usage);
+        return usage.toMap();
+    }
+
+    public void collectParametersUsage(ParametersUsage usage){
+        if (CollectionUtils.isNotEmpty(cells)){
+            cells.forEach(cell -> usage.scan(cell.getValue()));
+        }
     }
 
     public void applyParameter(String paramName, String value){
@@ -98,7 +98,7 @@ public interface HasTags {
         boolean accepted = false;
         for (String tag: tags){
             if (tag.startsWith("~")){
-                accepted = accepted || !hasTag(tag);
+                accepted = accepted || !hasTag(tag.substring(1));
             } else {
                 accepted = accepted || hasTag(tag);
             }
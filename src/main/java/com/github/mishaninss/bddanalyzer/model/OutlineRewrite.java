@@ -0,0 +1,70 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import lombok.Data;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of the examples optimization of a Scenario Outline: the optimized copy and the list of applied changes
+ * @see ArmaScenarioOutline#optimizeExamples()
+ */
+@Data
+public class OutlineRewrite {
+    private final ArmaScenarioOutline origin;
+    private final ArmaScenarioOutline optimized;
+    private final Set<String> droppedColumns = new LinkedHashSet<>();
+    private final Map<String, String> inlinedParameters = new LinkedHashMap<>();
+    private final int examplesBefore;
+    private final int testsBefore;
+    private int examplesAfter;
+    private int testsAfter;
+
+    public OutlineRewrite(ArmaScenarioOutline origin, ArmaScenarioOutline optimized){
+        this.origin = origin;
+        this.optimized = optimized;
+        examplesBefore = CollectionUtils.size(origin.getExamples());
+        testsBefore = origin.countTests();
+    }
+
+    void complete(){
+        examplesAfter = CollectionUtils.size(optimized.getExamples());
+        testsAfter = optimized.countTests();
+    }
+
+    /**
+     * Duplicated example rows are the only source of removed tests
+     */
+    public int getDedupedRows(){
+        return testsBefore - testsAfter;
+    }
+
+    public boolean isChanged(){
+        return examplesBefore != examplesAfter
+                || testsBefore != testsAfter
+                || !droppedColumns.isEmpty()
+                || !inlinedParameters.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString(){
+        return origin.getName() + ": dropped columns " + droppedColumns
+                + ", inlined parameters " + inlinedParameters
+                + ", deduped rows " + getDedupedRows()
+                + ", examples " + examplesBefore + " -> " + examplesAfter
+                + ", tests " + testsBefore + " -> " + testsAfter;
+    }
+}
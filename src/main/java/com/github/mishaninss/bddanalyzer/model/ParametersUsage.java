@@ -0,0 +1,126 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact usage index of Scenario Outline parameters ({@code <name>} placeholders).
+ * Every distinct parameter name gets an int id in order of its first occurrence,
+ * usage counts are kept in a plain array indexed by that id.
+ * Texts are tokenized in a single pass, placeholders are not searched once per name.
+ */
+public class ParametersUsage {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public static ParametersUsage of(String text){
+        return new ParametersUsage().scan(text);
+    }
+
+    /**
+     * Tokenizes the text and counts every {@code <name>} placeholder found in it.
+     * Placeholders are matched the same way as {@code StringUtils.substringsBetween(text, "<", ">")} does.
+     */
+    public ParametersUsage scan(String text){
+        if (text == null){
+            return this;
+        }
+        int length = text.length();
+        int pos = 0;
+        while (pos < length - 1){
+            int start = text.indexOf('<', pos);
+            if (start < 0){
+                break;
+            }
+            int end = text.indexOf('>', start + 1);
+            if (end < 0){
+                break;
+            }
+            add(text.substring(start + 1, end), 1);
+            pos = end + 1;
+        }
+        return this;
+    }
+
+    public ParametersUsage scan(String... texts){
+        for (String text: texts){
+            scan(text);
+        }
+        return this;
+    }
+
+    public void add(String name, int count){
+        Integer id = ids.get(name);
+        if (id == null){
+            id = size;
+            ensureCapacity(size + 1);
+            names[size] = name;
+            size++;
+            ids.put(name, id);
+        }
+        counts[id] += count;
+    }
+
+    public void addAll(ParametersUsage anotherUsage){
+        for (int id = 0; id < anotherUsage.size; id++){
+            add(anotherUsage.names[id], anotherUsage.counts[id]);
+        }
+    }
+
+    public int getId(String name){
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String getName(int id){
+        return names[id];
+    }
+
+    public int getCount(int id){
+        return counts[id];
+    }
+
+    public int getCount(String name){
+        int id = getId(name);
+        return id < 0 ? 0 : counts[id];
+    }
+
+    public boolean isUsed(String name){
+        return ids.containsKey(name);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public Map<String, Integer> toMap(){
+        Map<String, Integer> paramsUsage = new LinkedHashMap<>();
+        for (int id = 0; id < size; id++){
+            paramsUsage.put(names[id], counts[id]);
+        }
+        return paramsUsage;
+    }
+
+    private void ensureCapacity(int capacity){
+        if (capacity > names.length){
+            int newCapacity = Math.max(capacity, names.length * 2);
+            names = Arrays.copyOf(names, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+        }
+    }
+
+    @Override
+    public String toString(){
+        return toMap().toString();
+    }
+}
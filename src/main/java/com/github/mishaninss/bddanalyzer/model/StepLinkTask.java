@@ -0,0 +1,40 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Links steps of a range of features, ranges are split in halves until they are small enough.
+ * Every step belongs to one feature, so links are written by one task without locks, the finder has to be thread-safe
+ */
+class StepLinkTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<ArmaFeature> features;
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final Function<String, ArmaStepDef> finder;
+
+    StepLinkTask(List<ArmaFeature> features, int from, int to, int threshold, Function<String, ArmaStepDef> finder){
+        this.features = features;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+        this.finder = finder;
+    }
+
+    @Override
+    protected void compute(){
+        if (to - from <= threshold){
+            for (int i = from; i < to; i++){
+                ArmaProject.linkFeature(features.get(i), finder);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new StepLinkTask(features, from, middle, threshold, finder),
+                new StepLinkTask(features, middle, to, threshold, finder));
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.mishaninss.bddanalyzer.optimizer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import lombok.Data;
+
+/**
+ * Summary of a project-wide examples optimization
+ * @see ExamplesOptimizer
+ */
+@Data
+public class ExamplesOptimizationReport {
+    private int outlinesCount;
+    private int changedOutlinesCount;
+    private int examplesBefore;
+    private int examplesAfter;
+    private long testsBefore;
+    private long testsAfter;
+
+    public long getRemovedTests(){
+        return testsBefore - testsAfter;
+    }
+
+    ExamplesOptimizationReport add(ExamplesOptimizationReport anotherReport){
+        outlinesCount += anotherReport.outlinesCount;
+        changedOutlinesCount += anotherReport.changedOutlinesCount;
+        examplesBefore += anotherReport.examplesBefore;
+        examplesAfter += anotherReport.examplesAfter;
+        testsBefore += anotherReport.testsBefore;
+        testsAfter += anotherReport.testsAfter;
+        return this;
+    }
+
+    @Override
+    public String toString(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("Scenario Outlines", String.valueOf(outlinesCount));
+        table.addRow("Changed Scenario Outlines", String.valueOf(changedOutlinesCount));
+        table.addRow("Examples before", String.valueOf(examplesBefore));
+        table.addRow("Examples after", String.valueOf(examplesAfter));
+        table.addRow("Tests before", String.valueOf(testsBefore));
+        table.addRow("Tests after", String.valueOf(testsAfter));
+        table.addRow("Removed redundant tests", String.valueOf(getRemovedTests()));
+        return table.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.mishaninss.bddanalyzer.optimizer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenarioOutline;
+import org.apache.commons.collections4.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * Joins examples of the same scope and removes duplicated example rows in all scenario outlines of a project.
+ * Examples are grouped by the canonical key of their tag set, rows are deduplicated by 64-bit fingerprints
+ * of the column-aligned values. Outlines are independent of each other and are processed in parallel.
+ * Outlines are changed in place.
+ */
+public class ExamplesOptimizer {
+    private static final Logger LOG = LoggerFactory.getLogger(ExamplesOptimizer.class);
+
+    public ExamplesOptimizationReport optimize(ArmaProject project){
+        return optimize(project.getScenarioOutlines());
+    }
+
+    public ExamplesOptimizationReport optimize(Collection<ArmaScenarioOutline> outlines){
+        ExamplesOptimizationReport report = outlines.parallelStream()
+                .map(ExamplesOptimizer::optimize)
+                .collect(ExamplesOptimizationReport::new, ExamplesOptimizationReport::add, ExamplesOptimizationReport::add);
+        LOG.info("Examples optimization removed {} of {} tests", report.getRemovedTests(), report.getTestsBefore());
+        return report;
+    }
+
+    private static ExamplesOptimizationReport optimize(ArmaScenarioOutline outline){
+        ExamplesOptimizationReport report = new ExamplesOptimizationReport();
+        report.setOutlinesCount(1);
+        report.setExamplesBefore(CollectionUtils.size(outline.getExamples()));
+        report.setTestsBefore(outline.countTests());
+
+        outline.joinExamplesOfTheSameScope();
+
+        report.setExamplesAfter(CollectionUtils.size(outline.getExamples()));
+        report.setTestsAfter(outline.countTests());
+        if (report.getExamplesAfter() != report.getExamplesBefore() || report.getTestsAfter() != report.getTestsBefore()){
+            report.setChangedOutlinesCount(1);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.mishaninss.bddanalyzer.optimizer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.OutlineRewrite;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Planned rewrites of scenario outlines of a single feature file
+ * @see RewritePlan
+ */
+@Data
+public class FileRewritePlan {
+    private final ArmaFeature feature;
+    private final List<OutlineRewrite> rewrites = new ArrayList<>();
+
+    public String getFile(){
+        return feature.getLocation() == null ? null : feature.getLocation().getFile();
+    }
+
+    public int getTestsBefore(){
+        return rewrites.stream().mapToInt(OutlineRewrite::getTestsBefore).sum();
+    }
+
+    public int getTestsAfter(){
+        return rewrites.stream().mapToInt(OutlineRewrite::getTestsAfter).sum();
+    }
+
+    public int getTestsReduction(){
+        return getTestsBefore() - getTestsAfter();
+    }
+
+    /**
+     * Replaces the original outlines of the feature with their optimized copies
+     */
+    public void apply(){
+        rewrites.forEach(rewrite -> feature.getScenarios().replaceAll(scenario ->
+                scenario == rewrite.getOrigin() ? rewrite.getOptimized() : scenario));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString(){
+        return getFile() + ": " + rewrites.size() + " outlines, tests " + getTestsBefore() + " -> " + getTestsAfter();
+    }
+}
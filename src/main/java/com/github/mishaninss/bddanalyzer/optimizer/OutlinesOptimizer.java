@@ -0,0 +1,68 @@
+package com.github.mishaninss.bddanalyzer.optimizer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenarioOutline;
+import com.github.mishaninss.bddanalyzer.model.OutlineRewrite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link ArmaScenarioOutline#optimizeExamples()} over every scenario outline of a project on a fork-join pool
+ * and collects the results into a {@link RewritePlan}. The project is not changed until the plan is applied.
+ */
+public class OutlinesOptimizer {
+    private static final Logger LOG = LoggerFactory.getLogger(OutlinesOptimizer.class);
+    private final ForkJoinPool pool;
+
+    public OutlinesOptimizer(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    public OutlinesOptimizer(ForkJoinPool pool){
+        this.pool = pool;
+    }
+
+    public RewritePlan plan(ArmaProject project){
+        return plan(project.getFeatures());
+    }
+
+    public RewritePlan plan(List<ArmaFeature> features){
+        List<FileRewritePlan> filePlans;
+        try {
+            filePlans = pool.submit(() -> features.parallelStream()
+                    .map(OutlinesOptimizer::plan)
+                    .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Examples optimization was interrupted", ex);
+        } catch (ExecutionException ex){
+            throw new IllegalStateException("Examples optimization failed", ex.getCause());
+        }
+
+        RewritePlan plan = new RewritePlan();
+        plan.setOutlinesCount(features.stream().mapToInt(feature -> feature.getScenarioOutlines().size()).sum());
+        filePlans.stream()
+                .filter(filePlan -> !filePlan.getRewrites().isEmpty())
+                .forEach(plan.getFiles()::add);
+        LOG.info("Examples optimization planned for {} of {} outlines, tests {} -> {}",
+                plan.getChangedOutlinesCount(), plan.getOutlinesCount(), plan.getTestsBefore(), plan.getTestsAfter());
+        return plan;
+    }
+
+    private static FileRewritePlan plan(ArmaFeature feature){
+        FileRewritePlan filePlan = new FileRewritePlan(feature);
+        feature.getScenarioOutlines().parallelStream()
+                .map(ArmaScenarioOutline::optimizeExamples)
+                .filter(OutlineRewrite::isChanged)
+                .collect(Collectors.toList())
+                .forEach(filePlan.getRewrites()::add);
+        return filePlan;
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.mishaninss.bddanalyzer.optimizer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Structured result of the project-level examples optimization: planned outline rewrites grouped by feature files.
+ * Nothing is changed in the project until the plan is applied.
+ * @see OutlinesOptimizer
+ */
+@Data
+public class RewritePlan {
+    private final List<FileRewritePlan> files = new ArrayList<>();
+    private int outlinesCount;
+
+    public int getChangedOutlinesCount(){
+        return files.stream().mapToInt(file -> file.getRewrites().size()).sum();
+    }
+
+    public long getTestsBefore(){
+        return files.stream().mapToLong(FileRewritePlan::getTestsBefore).sum();
+    }
+
+    public long getTestsAfter(){
+        return files.stream().mapToLong(FileRewritePlan::getTestsAfter).sum();
+    }
+
+    public long getTestsReduction(){
+        return getTestsBefore() - getTestsAfter();
+    }
+
+    public boolean isEmpty(){
+        return files.isEmpty();
+    }
+
+    /**
+     * Replaces original outlines in all features with their optimized copies
+     */
+    public void apply(){
+        files.forEach(FileRewritePlan::apply);
+    }
+
+    @Override
+    public String toString(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("FILE", "OUTLINE", "DROPPED COLUMNS", "INLINED PARAMETERS", "DEDUPED ROWS", "TESTS");
+        files.forEach(file -> file.getRewrites().forEach(rewrite ->
+                table.addRow(file.getFile(),
+                        rewrite.getOrigin().getName(),
+                        StringUtils.join(rewrite.getDroppedColumns(), ", "),
+                        StringUtils.join(rewrite.getInlinedParameters().keySet(), ", "),
+                        String.valueOf(rewrite.getDedupedRows()),
+                        rewrite.getTestsBefore() + " -> " + rewrite.getTestsAfter())));
+        table.addRow("TOTAL", getChangedOutlinesCount() + " of " + outlinesCount, "", "", "",
+                getTestsBefore() + " -> " + getTestsAfter());
+        return table.toString();
+    }
+}
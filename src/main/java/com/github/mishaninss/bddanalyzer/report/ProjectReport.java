@@ -0,0 +1,17 @@
+package com.github.mishaninss.bddanalyzer.report;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+
+import java.util.stream.Collector;
+
+/**
+ * Report computed by {@link ReportEngine} in a single pass over features of a project.
+ * The collector has to be usable in parallel: accumulators of partitions of features are combined in order
+ * of the features, features are only read
+ * @param <R> type of the result
+ */
+@FunctionalInterface
+public interface ProjectReport<R> {
+    Collector<ArmaFeature, ?, R> collector(ArmaProject project);
+}
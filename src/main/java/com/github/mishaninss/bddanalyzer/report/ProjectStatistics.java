@@ -0,0 +1,42 @@
+package com.github.mishaninss.bddanalyzer.report;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import lombok.Data;
+
+/**
+ * Result of {@link Reports#STATISTICS}, the same numbers as {@link com.github.mishaninss.bddanalyzer.model.ArmaProject#printStatistics()}
+ */
+@Data
+public class ProjectStatistics {
+    private int features;
+    private int scenarios;
+    private int scenarioOutlines;
+    private int backgrounds;
+    private int steps;
+    private int implementedSteps;
+    private int stepDefinitions;
+    private int notUsedStepDefinitions;
+    private int tags;
+    private long tests;
+
+    public int getNotImplementedSteps(){
+        return steps - implementedSteps;
+    }
+
+    @Override
+    public String toString(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("Features", String.valueOf(features));
+        table.addRow("Scenarios", String.valueOf(scenarios));
+        table.addRow("Scenario Outlines", String.valueOf(scenarioOutlines));
+        table.addRow("Backgrounds", String.valueOf(backgrounds));
+        table.addRow("Steps", String.valueOf(steps));
+        table.addRow("Implemented steps", String.valueOf(implementedSteps));
+        table.addRow("Not implemented steps", String.valueOf(getNotImplementedSteps()));
+        table.addRow("Step Definitions", String.valueOf(stepDefinitions));
+        table.addRow("Not used Step Definitions", String.valueOf(notUsedStepDefinitions));
+        table.addRow("Tags", String.valueOf(tags));
+        table.addRow("Tests", String.valueOf(tests));
+        return table.toString();
+    }
+}
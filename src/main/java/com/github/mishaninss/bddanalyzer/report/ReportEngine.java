@@ -0,0 +1,99 @@
+package com.github.mishaninss.bddanalyzer.report;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collector;
+
+/**
+ * Computes several reports in one pass over features of a project. Collectors of the reports are combined
+ * into one collector, features are partitioned across a fork-join pool, every partition is accumulated by all
+ * the reports, then accumulators of partitions are combined
+ */
+public class ReportEngine {
+    private final List<ProjectReport<?>> reports = new ArrayList<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public ReportEngine add(ProjectReport<?>... reports){
+        this.reports.addAll(Arrays.asList(reports));
+        return this;
+    }
+
+    /**
+     * Number of threads of the pass, 1 for a sequential pass in the calling thread
+     */
+    public ReportEngine withParallelism(int parallelism){
+        if (parallelism < 1){
+            throw new IllegalArgumentException("parallelism [" + parallelism + "] has to be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ReportResults run(ArmaProject project){
+        long start = System.currentTimeMillis();
+        List<Collector<ArmaFeature, Object, Object>> collectors = new ArrayList<>();
+        reports.forEach(report -> collectors.add(cast(report.collector(project))));
+        Collector<ArmaFeature, Object[], Object[]> composite = Collector.of(
+                () -> {
+                    Object[] accumulators = new Object[collectors.size()];
+                    for (int i = 0; i < accumulators.length; i++){
+                        accumulators[i] = collectors.get(i).supplier().get();
+                    }
+                    return accumulators;
+                },
+                (accumulators, feature) -> {
+                    for (int i = 0; i < accumulators.length; i++){
+                        collectors.get(i).accumulator().accept(accumulators[i], feature);
+                    }
+                },
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++){
+                        left[i] = collectors.get(i).combiner().apply(left[i], right[i]);
+                    }
+                    return left;
+                },
+                accumulators -> {
+                    Object[] results = new Object[accumulators.length];
+                    for (int i = 0; i < accumulators.length; i++){
+                        results[i] = collectors.get(i).finisher().apply(accumulators[i]);
+                    }
+                    return results;
+                });
+
+        List<ArmaFeature> features = new ArrayList<>(project.getFeatures());
+        Object[] results;
+        if (parallelism == 1){
+            results = features.stream().collect(composite);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                results = pool.submit(() -> features.parallelStream().collect(composite)).get();
+            } catch (InterruptedException ex){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reports computation is interrupted", ex);
+            } catch (ExecutionException ex){
+                if (ex.getCause() instanceof RuntimeException){
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new IllegalStateException(ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        Map<ProjectReport<?>, Object> reportResults = new IdentityHashMap<>();
+        for (int i = 0; i < results.length; i++){
+            reportResults.put(reports.get(i), results[i]);
+        }
+        return new ReportResults(reportResults, System.currentTimeMillis() - start);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collector<ArmaFeature, Object, Object> cast(Collector<ArmaFeature, ?, ?> collector){
+        return (Collector<ArmaFeature, Object, Object>) collector;
+    }
+}
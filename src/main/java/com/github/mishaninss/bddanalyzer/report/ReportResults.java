@@ -0,0 +1,32 @@
+package com.github.mishaninss.bddanalyzer.report;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Results of reports computed by {@link ReportEngine}
+ */
+public class ReportResults {
+    private final Map<ProjectReport<?>, Object> results = new IdentityHashMap<>();
+    private final long millis;
+
+    ReportResults(Map<ProjectReport<?>, Object> results, long millis){
+        this.results.putAll(results);
+        this.millis = millis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R get(ProjectReport<R> report){
+        if (!results.containsKey(report)){
+            throw new IllegalArgumentException("report [" + report + "] wasn't computed");
+        }
+        return (R) results.get(report);
+    }
+
+    /**
+     * Duration of the pass computing all the reports
+     */
+    public long getMillis(){
+        return millis;
+    }
+}
@@ -0,0 +1,253 @@
+package com.github.mishaninss.bddanalyzer.report;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+import com.github.mishaninss.bddanalyzer.traversal.ArmaTraversal;
+import com.github.mishaninss.bddanalyzer.traversal.ArmaVisitor;
+import com.github.mishaninss.bddanalyzer.traversal.TraversalContext;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * Reports of {@link ArmaProject} as collectors for {@link ReportEngine}. Results are the same as results
+ * of the corresponding methods of the project
+ */
+public final class Reports {
+
+    /**
+     * @see ArmaProject#printStatistics()
+     */
+    public static final ProjectReport<ProjectStatistics> STATISTICS = project -> Collector.of(
+            StatisticsAccumulator::new,
+            StatisticsAccumulator::add,
+            StatisticsAccumulator::combine,
+            accumulator -> accumulator.finish(project));
+
+    /**
+     * @see ArmaProject#getTagsUsage()
+     */
+    public static final ProjectReport<Map<ArmaTag, int[]>> TAGS_USAGE = project -> Collector.of(
+            () -> new LinkedHashMap<ArmaTag, int[]>(),
+            Reports::addTagsUsage,
+            (left, right) -> {
+                right.forEach((tag, count) -> {
+                    int[] total = left.computeIfAbsent(tag, key -> new int[4]);
+                    for (int i = 0; i < total.length; i++){
+                        total[i] += count[i];
+                    }
+                });
+                return left;
+            });
+
+    /**
+     * @see ArmaProject#getStepDefsUsage()
+     */
+    public static final ProjectReport<Map<ArmaStepDef, Integer>> STEP_DEFS_USAGE = project -> Collector.of(
+            () -> new IdentityHashMap<ArmaStepDef, int[]>(),
+            (usage, feature) -> forEachStep(feature, step -> {
+                if (step.getStepDef() != null){
+                    usage.computeIfAbsent(step.getStepDef(), stepDef -> new int[1])[0]++;
+                }
+            }),
+            (left, right) -> {
+                right.forEach((stepDef, count) -> left.computeIfAbsent(stepDef, key -> new int[1])[0] += count[0]);
+                return left;
+            },
+            usage -> {
+                Map<ArmaStepDef, Integer> result = new LinkedHashMap<>();
+                project.getStepDefinitions().forEach(stepDef -> {
+                    int[] count = usage.get(stepDef);
+                    if (count != null){
+                        result.put(stepDef, count[0]);
+                    }
+                });
+                return result;
+            });
+
+    /**
+     * Scenarios are grouped by hash keys of their steps instead of comparison of every pair of scenarios
+     * @see ArmaProject#findDuplicatedScenarios()
+     */
+    public static final ProjectReport<List<Map<ArmaScenario, String>>> DUPLICATED_SCENARIOS = project -> Collector.of(
+            () -> new LinkedHashMap<List<String>, List<ArmaScenario>>(),
+            (groups, feature) -> feature.getScenarios().forEach(scenario ->
+                    groups.computeIfAbsent(ignoreParametersKey(scenario), key -> new ArrayList<>()).add(scenario)),
+            (left, right) -> {
+                right.forEach((key, scenarios) -> left.computeIfAbsent(key, k -> new ArrayList<>()).addAll(scenarios));
+                return left;
+            },
+            groups -> {
+                List<Map<ArmaScenario, String>> allDuplicates = new LinkedList<>();
+                groups.values().stream()
+                        .filter(scenarios -> scenarios.size() > 1)
+                        .forEach(scenarios -> {
+                            ArmaScenario origin = scenarios.get(0);
+                            List<String> originTexts = fullKey(origin);
+                            Map<ArmaScenario, String> duplicates = new LinkedHashMap<>();
+                            duplicates.put(origin, "ORIGIN");
+                            scenarios.subList(1, scenarios.size()).forEach(scenario ->
+                                    duplicates.put(scenario, fullKey(scenario).equals(originTexts) ? "FULL" : "IGNORE PARAMETERS"));
+                            allDuplicates.add(duplicates);
+                        });
+                return allDuplicates;
+            });
+
+    /**
+     * @see ArmaProject#findRepetedSequences(List)
+     */
+    public static final ProjectReport<Map<List<ArmaStepDef>, Integer>> REPEATED_SEQUENCES = project -> Collector.of(
+            () -> new ArrayList<ArmaStepDef>(),
+            (stepDefs, feature) -> feature.getScenarios().forEach(scenario -> {
+                scenario.getSteps().forEach(step -> stepDefs.add(step.getStepDef()));
+                stepDefs.add(null);
+            }),
+            (left, right) -> {
+                left.addAll(right);
+                return left;
+            },
+            stepDefs -> project.countSequencesUsage(project.detectSequences(stepDefs)));
+
+    private Reports(){
+
+    }
+
+    private static class StatisticsAccumulator implements ArmaVisitor {
+        private final ProjectStatistics statistics = new ProjectStatistics();
+        private final Set<ArmaTag> tags = new HashSet<>();
+        private final Set<ArmaStepDef> usedStepDefs = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private void add(ArmaFeature feature){
+            ArmaTraversal.of(feature).traverse(this);
+        }
+
+        @Override
+        public boolean enterFeature(ArmaFeature feature, TraversalContext context){
+            statistics.setFeatures(statistics.getFeatures() + 1);
+            tags.addAll(feature.getTags());
+            return true;
+        }
+
+        @Override
+        public boolean enterBackground(ArmaBackground background, TraversalContext context){
+            statistics.setBackgrounds(statistics.getBackgrounds() + 1);
+            tags.addAll(background.getTags());
+            return true;
+        }
+
+        @Override
+        public boolean enterScenario(ArmaScenario scenario, TraversalContext context){
+            statistics.setScenarios(statistics.getScenarios() + 1);
+            tags.addAll(scenario.getTags());
+            if (scenario instanceof ArmaScenarioOutline){
+                statistics.setScenarioOutlines(statistics.getScenarioOutlines() + 1);
+                statistics.setTests(statistics.getTests() + ((ArmaScenarioOutline) scenario).countTests());
+            } else {
+                statistics.setTests(statistics.getTests() + 1);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean enterExamples(ArmaExamples examples, TraversalContext context){
+            tags.addAll(examples.getTags());
+            return false;
+        }
+
+        @Override
+        public void visitStep(ArmaStep step, TraversalContext context){
+            statistics.setSteps(statistics.getSteps() + 1);
+            if (step.isImplemented()){
+                statistics.setImplementedSteps(statistics.getImplementedSteps() + 1);
+                usedStepDefs.add(step.getStepDef());
+            }
+        }
+
+        private StatisticsAccumulator combine(StatisticsAccumulator other){
+            ProjectStatistics stats = other.statistics;
+            statistics.setFeatures(statistics.getFeatures() + stats.getFeatures());
+            statistics.setScenarios(statistics.getScenarios() + stats.getScenarios());
+            statistics.setScenarioOutlines(statistics.getScenarioOutlines() + stats.getScenarioOutlines());
+            statistics.setBackgrounds(statistics.getBackgrounds() + stats.getBackgrounds());
+            statistics.setSteps(statistics.getSteps() + stats.getSteps());
+            statistics.setImplementedSteps(statistics.getImplementedSteps() + stats.getImplementedSteps());
+            statistics.setTests(statistics.getTests() + stats.getTests());
+            tags.addAll(other.tags);
+            usedStepDefs.addAll(other.usedStepDefs);
+            return this;
+        }
+
+        private ProjectStatistics finish(ArmaProject project){
+            statistics.setStepDefinitions(project.getStepDefinitions().size());
+            statistics.setNotUsedStepDefinitions((int) project.getStepDefinitions().stream()
+                    .filter(stepDef -> !usedStepDefs.contains(stepDef))
+                    .count());
+            statistics.setTags(tags.size());
+            return statistics;
+        }
+    }
+
+    /**
+     * Counts tags of features, backgrounds, scenarios and examples, in this order of the counters
+     */
+    private static void addTagsUsage(Map<ArmaTag, int[]> usage, ArmaFeature feature){
+        ArmaTraversal.of(feature).traverse(new ArmaVisitor() {
+            @Override
+            public boolean enterFeature(ArmaFeature feature, TraversalContext context){
+                count(feature.getTags(), 0);
+                return true;
+            }
+
+            @Override
+            public boolean enterBackground(ArmaBackground background, TraversalContext context){
+                count(background.getTags(), 1);
+                return false;
+            }
+
+            @Override
+            public boolean enterScenario(ArmaScenario scenario, TraversalContext context){
+                count(scenario.getTags(), 2);
+                return scenario instanceof ArmaScenarioOutline;
+            }
+
+            @Override
+            public boolean enterExamples(ArmaExamples examples, TraversalContext context){
+                count(examples.getTags(), 3);
+                return false;
+            }
+
+            private void count(Set<ArmaTag> tags, int counter){
+                tags.forEach(tag -> usage.computeIfAbsent(tag, key -> new int[4])[counter]++);
+            }
+        });
+    }
+
+    private static void forEachStep(ArmaFeature feature, Consumer<ArmaStep> action){
+        ArmaTraversal.of(feature).traverse(new ArmaVisitor() {
+            @Override
+            public void visitStep(ArmaStep step, TraversalContext context){
+                action.accept(step);
+            }
+        });
+    }
+
+    /**
+     * Scenarios with equal keys are equal by {@link ArmaScenario#isFullyEqualTo(ArmaScenario)}
+     */
+    private static List<String> fullKey(ArmaScenario scenario){
+        List<String> key = new ArrayList<>(scenario.getSteps().size());
+        scenario.getSteps().forEach(step -> key.add(step.getText()));
+        return key;
+    }
+
+    /**
+     * Scenarios with equal keys are equal by {@link ArmaScenario#isEqualToIgnoreParameters(ArmaScenario)}
+     */
+    private static List<String> ignoreParametersKey(ArmaScenario scenario){
+        List<String> key = new ArrayList<>(scenario.getSteps().size());
+        scenario.getSteps().forEach(step -> key.add(step.getStepDef() == null
+                ? "T" + step.getText() : "D" + StringUtils.defaultString(step.getStepDef().getText())));
+        return key;
+    }
+}
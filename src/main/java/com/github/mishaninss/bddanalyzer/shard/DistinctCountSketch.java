@@ -0,0 +1,58 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import com.github.mishaninss.bddanalyzer.ContentHash;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values in a fixed amount of memory.
+ * Sketches of parts are merged into the sketch of the whole by maximums of registers, so distinct values
+ * of several shards are counted without sharing the values. The standard error is about 1.6%
+ */
+public class DistinctCountSketch {
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    public void add(String value){
+        long hash = mix(ContentHash.of(value));
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]){
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(DistinctCountSketch sketch){
+        for (int i = 0; i < REGISTERS; i++){
+            if (sketch.registers[i] > registers[i]){
+                registers[i] = sketch.registers[i];
+            }
+        }
+    }
+
+    public long estimate(){
+        double sum = 0;
+        int zeros = 0;
+        for (byte register: registers){
+            sum += 1.0 / (1L << register);
+            if (register == 0){
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0){
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    private static long mix(long value){
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
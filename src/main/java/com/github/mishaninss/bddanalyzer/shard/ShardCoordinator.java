@@ -0,0 +1,134 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import com.github.mishaninss.bddanalyzer.Analyzer;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import com.github.mishaninss.bddanalyzer.snapshot.ProjectSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link ShardWorker}s as local processes and merges their partial results without parsing files again.
+ * Statistics are merged from {@link ShardStats} of the shards only. The merged project gets features and step
+ * definitions of all shards in order of a scan of the whole roots, its steps are linked after merge
+ */
+public class ShardCoordinator {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardCoordinator.class);
+    private static final Pattern PART_NAME = Pattern.compile("shard-\\d+-of-\\d+\\.(arma|json)");
+
+    private final Path outputDir;
+
+    public ShardCoordinator(Path outputDir){
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Removes partial results of a previous run and scans every shard in a separate JVM
+     */
+    public void runWorkers(String stepDefsRoot, String featuresRoot, int shardsCount) throws IOException, InterruptedException {
+        Files.createDirectories(outputDir);
+        for (Path part: listParts()){
+            Files.delete(part);
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> workers = new ArrayList<>();
+        for (int shard = 0; shard < shardsCount; shard++){
+            workers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Analyzer.class.getName(),
+                    "shard", stepDefsRoot, featuresRoot, String.valueOf(shard), String.valueOf(shardsCount), outputDir.toString())
+                    .inheritIO()
+                    .start());
+        }
+        List<Integer> failed = new ArrayList<>();
+        for (int shard = 0; shard < shardsCount; shard++){
+            if (workers.get(shard).waitFor() != 0){
+                failed.add(shard);
+            }
+        }
+        if (!failed.isEmpty()){
+            throw new IOException("workers of shards " + failed + " failed");
+        }
+        LOG.info("{} shards scanned into {}", shardsCount, outputDir);
+    }
+
+    public ShardStats mergeStats() throws IOException {
+        ShardStats merged = new ShardStats();
+        for (Path part: listParts(ShardWorker.STATS_EXTENSION)){
+            merged.merge(ArmaProject.GSON.fromJson(new String(Files.readAllBytes(part), StandardCharsets.UTF_8), ShardStats.class));
+        }
+        if (!merged.isComplete()){
+            throw new IllegalArgumentException("partial results in [" + outputDir + "] contain shards " + merged.getShards()
+                    + " of [" + merged.getShardsCount() + "] shards");
+        }
+        return merged;
+    }
+
+    /**
+     * Loads snapshots of all shards and links steps of the merged project
+     */
+    public ArmaProject mergeProject() throws IOException {
+        mergeStats();
+        List<ArmaProject> parts;
+        try {
+            parts = listParts(ShardWorker.SNAPSHOT_EXTENSION).parallelStream()
+                    .map(part -> {
+                        try {
+                            return ProjectSnapshot.load(part);
+                        } catch (IOException ex){
+                            throw new UncheckedIOException(ex);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException ex){
+            throw ex.getCause();
+        }
+
+        ArmaProject project = new ArmaProject(parts.get(0).getStepDefsRoot(), parts.get(0).getFeaturesRoot());
+        parts.stream()
+                .flatMap(part -> part.getFeatures().stream())
+                .sorted(Comparator.comparing(ShardCoordinator::getFile))
+                .forEach(project.getFeatures()::add);
+        parts.stream()
+                .flatMap(part -> part.getStepDefinitions().stream())
+                .sorted(Comparator.comparing(ShardCoordinator::getFile))
+                .forEach(project.getStepDefinitions()::add);
+        project.link();
+        return project;
+    }
+
+    private List<Path> listParts(String extension) throws IOException {
+        return listParts().stream()
+                .filter(part -> part.getFileName().toString().endsWith(extension))
+                .collect(Collectors.toList());
+    }
+
+    private List<Path> listParts() throws IOException {
+        try (Stream<Path> files = Files.list(outputDir)){
+            return files.filter(file -> PART_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Files are compared by their paths as a scan of a directory sorts them
+     */
+    private static String getFile(ArmaFeature feature){
+        return feature.getLocation() == null ? "" : Objects.toString(feature.getLocation().getFile(), "");
+    }
+
+    private static String getFile(ArmaStepDef stepDef){
+        return stepDef.getLocation() == null ? "" : Objects.toString(stepDef.getLocation().getFile(), "");
+    }
+}
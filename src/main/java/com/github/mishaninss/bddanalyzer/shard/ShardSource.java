@@ -0,0 +1,61 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import com.github.mishaninss.bddanalyzer.ContentHash;
+import com.github.mishaninss.bddanalyzer.ScanSource;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Files of a source assigned to one of shards. A file is assigned by the hash of its path relative to the root
+ * of the source, so every file belongs to exactly one shard, and the assignment doesn't depend on other files
+ * or on the machine scanning the shard
+ */
+public class ShardSource implements ScanSource {
+    private final ScanSource source;
+    private final int shard;
+    private final int shards;
+
+    public ShardSource(ScanSource source, int shard, int shards){
+        if (shards < 1 || shard < 0 || shard >= shards){
+            throw new IllegalArgumentException("shard [" + shard + "] is out of range of [" + shards + "] shards");
+        }
+        this.source = source;
+        this.shard = shard;
+        this.shards = shards;
+    }
+
+    public static int shardOf(String relativePath, int shards){
+        return (int) Long.remainderUnsigned(ContentHash.of(relativePath.replace('\\', '/')), shards);
+    }
+
+    @Override
+    public boolean exists(){
+        return source.exists();
+    }
+
+    @Override
+    public List<String> list(String extension) throws IOException {
+        String root = source.toString();
+        return source.list(extension).stream()
+                .filter(path -> shardOf(StringUtils.removeStart(path, root), shards) == shard)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public byte[] read(String path) throws IOException {
+        return source.read(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    @Override
+    public String toString(){
+        return source.toString();
+    }
+}
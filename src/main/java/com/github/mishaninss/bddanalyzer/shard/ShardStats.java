@@ -0,0 +1,107 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDataTable;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import lombok.Data;
+
+import java.util.*;
+
+/**
+ * Statistics of scanned shards which don't need linking of steps. Statistics of shards are merged by sums,
+ * distinct step texts are counted by a {@link DistinctCountSketch}
+ */
+@Data
+public class ShardStats {
+    private int shardsCount;
+    /**
+     * Ids of shards merged into these statistics
+     */
+    private final SortedSet<Integer> shards = new TreeSet<>();
+    private int featureFiles;
+    private int stepDefFiles;
+    private int features;
+    private int scenarios;
+    private int scenarioOutlines;
+    private int backgrounds;
+    private int steps;
+    private long tests;
+    private int stepDefinitions;
+    private final Map<String, int[]> tagsUsage = new TreeMap<>();
+    private final DistinctCountSketch stepTexts = new DistinctCountSketch();
+    private long scanMillis;
+
+    /**
+     * Statistics of features and step definitions of the shard, steps of the project don't have to be linked
+     */
+    public static ShardStats of(ArmaProject project, int shard, int shardsCount){
+        ShardStats stats = new ShardStats();
+        stats.shardsCount = shardsCount;
+        stats.shards.add(shard);
+        stats.features = project.getFeatures().size();
+        stats.scenarios = project.getScenarios().size();
+        stats.scenarioOutlines = project.getScenarioOutlines().size();
+        stats.backgrounds = project.getBackgrounds().size();
+        List<ArmaStep> steps = project.getSteps();
+        stats.steps = steps.size();
+        steps.forEach(step -> stats.stepTexts.add(Objects.toString(step.getText(), "")));
+        stats.tests = project.countTests();
+        stats.stepDefinitions = project.getStepDefinitions().size();
+        project.getTagsUsage().forEach((tag, usage) -> stats.tagsUsage.put(tag.getName(), usage));
+        return stats;
+    }
+
+    /**
+     * Adds statistics of another shard of the same partition
+     */
+    public void merge(ShardStats other){
+        if (shardsCount != 0 && other.shardsCount != shardsCount){
+            throw new IllegalArgumentException("can't merge shards of [" + shardsCount + "] and [" + other.shardsCount + "] shards");
+        }
+        if (!Collections.disjoint(shards, other.shards)){
+            throw new IllegalArgumentException("shards " + other.shards + " are already merged into " + shards);
+        }
+        shardsCount = other.shardsCount;
+        shards.addAll(other.shards);
+        featureFiles += other.featureFiles;
+        stepDefFiles += other.stepDefFiles;
+        features += other.features;
+        scenarios += other.scenarios;
+        scenarioOutlines += other.scenarioOutlines;
+        backgrounds += other.backgrounds;
+        steps += other.steps;
+        tests += other.tests;
+        stepDefinitions += other.stepDefinitions;
+        other.tagsUsage.forEach((tag, usage) -> {
+            int[] total = tagsUsage.computeIfAbsent(tag, key -> new int[usage.length]);
+            for (int i = 0; i < usage.length; i++){
+                total[i] += usage[i];
+            }
+        });
+        stepTexts.merge(other.stepTexts);
+        scanMillis = Math.max(scanMillis, other.scanMillis);
+    }
+
+    public boolean isComplete(){
+        return shardsCount > 0 && shards.size() == shardsCount;
+    }
+
+    @Override
+    public String toString(){
+        ArmaDataTable table = new ArmaDataTable();
+        table.addRow("Shards", shards.size() + " of " + shardsCount);
+        table.addRow("Feature files", String.valueOf(featureFiles));
+        table.addRow("Step definition files", String.valueOf(stepDefFiles));
+        table.addRow("Features", String.valueOf(features));
+        table.addRow("Scenarios", String.valueOf(scenarios));
+        table.addRow("Scenario Outlines", String.valueOf(scenarioOutlines));
+        table.addRow("Backgrounds", String.valueOf(backgrounds));
+        table.addRow("Steps", String.valueOf(steps));
+        table.addRow("Distinct step texts (estimate)", String.valueOf(stepTexts.estimate()));
+        table.addRow("Step Definitions", String.valueOf(stepDefinitions));
+        table.addRow("Tags", String.valueOf(tagsUsage.size()));
+        table.addRow("Tests", String.valueOf(tests));
+        table.addRow("Slowest shard scan, ms", String.valueOf(scanMillis));
+        return table.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import com.github.mishaninss.bddanalyzer.GherkinScanner;
+import com.github.mishaninss.bddanalyzer.ScanSource;
+import com.github.mishaninss.bddanalyzer.StepDefinitionsScanner;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.snapshot.ProjectSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Scans one shard of feature and step definition files and writes its partial result into a directory:
+ * a {@link ProjectSnapshot} of not linked features and step definitions, and {@link ShardStats} as JSON.
+ * Steps are linked by {@link ShardCoordinator} after merge, when all step definitions are known
+ */
+public class ShardWorker {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardWorker.class);
+    static final String SNAPSHOT_EXTENSION = ".arma";
+    static final String STATS_EXTENSION = ".json";
+    private static final String FEATURE_FILE_EXTENSION = "feature";
+    private static final String STEP_DEF_FILE_EXTENSION = "java";
+
+    private final String stepDefsRoot;
+    private final String featuresRoot;
+
+    public ShardWorker(String stepDefsRoot, String featuresRoot){
+        this.stepDefsRoot = stepDefsRoot;
+        this.featuresRoot = featuresRoot;
+    }
+
+    public ShardStats scan(int shard, int shardsCount, Path outputDir) throws IOException {
+        long start = System.currentTimeMillis();
+        ArmaProject project = new ArmaProject(stepDefsRoot, featuresRoot);
+        ShardStats stats;
+        try (ScanSource features = new ShardSource(ScanSource.of(featuresRoot), shard, shardsCount);
+             ScanSource stepDefs = new ShardSource(ScanSource.of(stepDefsRoot), shard, shardsCount)){
+            int featureFiles = features.exists() ? features.list(FEATURE_FILE_EXTENSION).size() : 0;
+            int stepDefFiles = stepDefs.exists() ? stepDefs.list(STEP_DEF_FILE_EXTENSION).size() : 0;
+            if (featureFiles > 0){
+                project.getFeatures().addAll(new GherkinScanner(features).collectFeatures());
+            }
+            if (stepDefFiles > 0){
+                project.getStepDefinitions().addAll(new StepDefinitionsScanner(stepDefs).collectStepDefinitions());
+            }
+            stats = ShardStats.of(project, shard, shardsCount);
+            stats.setFeatureFiles(featureFiles);
+            stats.setStepDefFiles(stepDefFiles);
+        }
+        stats.setScanMillis(System.currentTimeMillis() - start);
+
+        Files.createDirectories(outputDir);
+        String name = partName(shard, shardsCount);
+        ProjectSnapshot.write(project, outputDir.resolve(name + SNAPSHOT_EXTENSION));
+        Path statsFile = outputDir.resolve(name + STATS_EXTENSION);
+        Path tempFile = Files.createTempFile(outputDir, "." + name, STATS_EXTENSION + ".tmp");
+        try {
+            Files.write(tempFile, ArmaProject.GSON.toJson(stats).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, statsFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex){
+                Files.move(tempFile, statsFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        LOG.info("Shard {} of {}: {} feature files, {} step definition files scanned in {} ms",
+                shard, shardsCount, stats.getFeatureFiles(), stats.getStepDefFiles(), stats.getScanMillis());
+        return stats;
+    }
+
+    static String partName(int shard, int shardsCount){
+        return String.format("shard-%05d-of-%05d", shard, shardsCount);
+    }
+}
@@ -0,0 +1,464 @@
+package com.github.mishaninss.bddanalyzer.snapshot;
+
+import com.github.mishaninss.bddanalyzer.diff.MerkleHash;
+import com.github.mishaninss.bddanalyzer.model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary snapshot of a scanned and linked project, loaded without scanning and linking.
+ * <p>
+ * Layout: header (magic, version, offset of the table of contents), pool of strings, step definitions,
+ * a block per feature, table of contents with offsets of the sections and offsets and {@link MerkleHash}es
+ * of every feature block. All strings are stored once in the pool and referenced by ids, steps refer to
+ * step definitions by ids, every step definition is stored with the number of its usages.
+ * <p>
+ * A snapshot is opened eagerly from a byte array or memory-mapped. Only the table of contents and step definitions
+ * are decoded on opening, strings and features are decoded on first access and cached, decoded strings are shared
+ * by all features. An opened snapshot is thread-safe.
+ */
+public class ProjectSnapshot {
+    private static final int MAGIC = 0x41524D53;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    private final int stringsStart;
+    private final AtomicReferenceArray<String> strings;
+    private final String stepDefsRoot;
+    private final String featuresRoot;
+    private final List<ArmaStepDef> stepDefs;
+    private final int[] stepDefUsage;
+    private final long[] featureOffsets;
+    private final int[] featureFiles;
+    private final long[] featureHashes;
+    private final AtomicReferenceArray<ArmaFeature> features;
+
+    private ProjectSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC){
+            throw new IOException("Not a project snapshot");
+        }
+        if (buffer.getInt(4) != VERSION){
+            throw new IOException("Unsupported project snapshot version " + buffer.getInt(4));
+        }
+        ByteBuffer toc = slice(buffer.getLong(8));
+        int stringsOffset = (int) toc.getLong();
+        int stepDefsOffset = (int) toc.getLong();
+        int stringsCount = buffer.getInt(stringsOffset);
+        stringsStart = stringsOffset + 4;
+        strings = new AtomicReferenceArray<>(stringsCount + 1);
+        stepDefsRoot = string(toc.getInt());
+        featuresRoot = string(toc.getInt());
+        int featuresCount = toc.getInt();
+        featureOffsets = new long[featuresCount];
+        featureFiles = new int[featuresCount];
+        featureHashes = new long[featuresCount];
+        for (int i = 0; i < featuresCount; i++){
+            featureOffsets[i] = toc.getLong();
+            featureFiles[i] = toc.getInt();
+            featureHashes[i] = toc.getLong();
+        }
+        features = new AtomicReferenceArray<>(featuresCount);
+        Decoder stepDefsDecoder = new Decoder(slice(stepDefsOffset));
+        stepDefUsage = new int[stepDefsDecoder.readInt()];
+        stepDefs = Collections.unmodifiableList(stepDefsDecoder.readStepDefs(stepDefUsage));
+    }
+
+    /**
+     * Writes the project into a snapshot file. The file is replaced atomically if the file system supports it
+     */
+    public static void write(ArmaProject project, Path path) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<ArmaStepDef> stepDefs = project.getStepDefinitions() == null ? Collections.emptyList() : project.getStepDefinitions();
+        Map<ArmaStepDef, Integer> stepDefIds = new IdentityHashMap<>();
+        int stepDefId = 0;
+        for (ArmaStepDef stepDef: stepDefs){
+            stepDefIds.putIfAbsent(stepDef, stepDefId++);
+        }
+
+        int[] stepDefUsage = new int[stepDefs.size()];
+        List<ArmaFeature> projectFeatures = project.getFeatures() == null ? Collections.emptyList() : project.getFeatures();
+        List<byte[]> featureBlocks = new ArrayList<>(projectFeatures.size());
+        int[] featureFiles = new int[projectFeatures.size()];
+        long[] featureHashes = new long[projectFeatures.size()];
+        for (ArmaFeature feature: projectFeatures){
+            SnapshotEncoder encoder = new SnapshotEncoder(stringIds, stepDefIds, stepDefUsage);
+            encoder.writeFeature(feature);
+            featureFiles[featureBlocks.size()] = stringId(stringIds, feature.getLocation() == null ? null : feature.getLocation().getFile());
+            featureHashes[featureBlocks.size()] = MerkleHash.of(feature);
+            featureBlocks.add(encoder.toByteArray());
+        }
+        SnapshotEncoder stepDefsEncoder = new SnapshotEncoder(stringIds, stepDefIds, stepDefUsage);
+        stepDefsEncoder.writeStepDefs(stepDefs);
+        int stepDefsRootId = stringId(stringIds, project.getStepDefsRoot());
+        int featuresRootId = stringId(stringIds, project.getFeaturesRoot());
+        byte[] stringsBlock = SnapshotEncoder.encodeStrings(stringIds);
+        byte[] stepDefsBlock = stepDefsEncoder.toByteArray();
+
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tempFile = Files.createTempFile(dir, "." + path.getFileName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))){
+                long offset = HEADER_SIZE;
+                long stringsOffset = offset;
+                offset += stringsBlock.length;
+                long stepDefsOffset = offset;
+                offset += stepDefsBlock.length;
+                long[] featureOffsets = new long[featureBlocks.size()];
+                for (int i = 0; i < featureBlocks.size(); i++){
+                    featureOffsets[i] = offset;
+                    offset += featureBlocks.get(i).length;
+                }
+
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(offset);
+                out.write(stringsBlock);
+                out.write(stepDefsBlock);
+                for (byte[] block: featureBlocks){
+                    out.write(block);
+                }
+                out.writeLong(stringsOffset);
+                out.writeLong(stepDefsOffset);
+                out.writeInt(stepDefsRootId);
+                out.writeInt(featuresRootId);
+                out.writeInt(featureBlocks.size());
+                for (int i = 0; i < featureBlocks.size(); i++){
+                    out.writeLong(featureOffsets[i]);
+                    out.writeInt(featureFiles[i]);
+                    out.writeLong(featureHashes[i]);
+                }
+            }
+            try {
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex){
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Opens a snapshot file
+     * @param mapped map the file into memory instead of reading it into the heap
+     */
+    public static ProjectSnapshot open(Path path, boolean mapped) throws IOException {
+        if (!mapped){
+            return new ProjectSnapshot(ByteBuffer.wrap(Files.readAllBytes(path)));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            return new ProjectSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a snapshot file into a project with all features decoded
+     */
+    public static ArmaProject load(Path path) throws IOException {
+        return open(path, false).toProject();
+    }
+
+    public String getStepDefsRoot(){
+        return stepDefsRoot;
+    }
+
+    public String getFeaturesRoot(){
+        return featuresRoot;
+    }
+
+    public List<ArmaStepDef> getStepDefinitions(){
+        return stepDefs;
+    }
+
+    public int getFeaturesCount(){
+        return featureOffsets.length;
+    }
+
+    /**
+     * Returns the file of a feature without decoding the feature
+     */
+    public String getFeatureFile(int featureIndex){
+        return string(featureFiles[featureIndex]);
+    }
+
+    /**
+     * Returns the {@link MerkleHash} of a feature without decoding the feature
+     */
+    public long getFeatureHash(int featureIndex){
+        return featureHashes[featureIndex];
+    }
+
+    /**
+     * Returns the number of implemented steps linked to a step definition
+     */
+    public int getStepDefUsage(int stepDefIndex){
+        return stepDefUsage[stepDefIndex];
+    }
+
+    /**
+     * Decodes the feature on first access. Steps of the feature are linked to {@link #getStepDefinitions()}
+     */
+    public ArmaFeature getFeature(int featureIndex){
+        ArmaFeature feature = features.get(featureIndex);
+        if (feature == null){
+            features.compareAndSet(featureIndex, null, new Decoder(slice(featureOffsets[featureIndex])).readFeature());
+            feature = features.get(featureIndex);
+        }
+        return feature;
+    }
+
+    public List<ArmaFeature> getFeatures(){
+        return IntStream.range(0, getFeaturesCount()).parallel()
+                .mapToObj(this::getFeature)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a project of all features of the snapshot. Indexes of the project are built on demand as after a scan
+     */
+    public ArmaProject toProject(){
+        ArmaProject project = new ArmaProject(stepDefsRoot, featuresRoot);
+        project.getStepDefinitions().addAll(stepDefs);
+        project.getFeatures().addAll(getFeatures());
+        return project;
+    }
+
+    private ByteBuffer slice(long offset){
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int) offset);
+        return slice;
+    }
+
+    private String string(int id){
+        if (id == 0){
+            return null;
+        }
+        String value = strings.get(id);
+        if (value == null){
+            int start = buffer.getInt(stringsStart + 4 * (id - 1));
+            int end = buffer.getInt(stringsStart + 4 * id);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer data = slice(stringsStart + 4L * strings.length() + start);
+            data.get(bytes);
+            strings.compareAndSet(id, null, new String(bytes, StandardCharsets.UTF_8));
+            value = strings.get(id);
+        }
+        return value;
+    }
+
+    private static int stringId(Map<String, Integer> stringIds, String value){
+        return value == null ? 0 : stringIds.computeIfAbsent(value, key -> stringIds.size() + 1);
+    }
+
+    /**
+     * Reads a section written by {@link SnapshotEncoder}
+     */
+    private class Decoder {
+        private final ByteBuffer in;
+
+        private Decoder(ByteBuffer in){
+            this.in = in;
+        }
+
+        private List<ArmaStepDef> readStepDefs(int[] usage){
+            List<ArmaStepDef> result = new ArrayList<>(usage.length);
+            for (int i = 0; i < usage.length; i++){
+                usage[i] = readInt();
+                ArmaStepDef stepDef = new ArmaStepDef();
+                stepDef.setText(readString());
+                stepDef.setDescription(readString());
+                stepDef.setImplemented(readBoolean());
+                if (readBoolean()){
+                    ArmaStepDefLocation location = new ArmaStepDefLocation();
+                    location.setFile(readString());
+                    location.setMethodName(readString());
+                    location.setDeclaration(readString());
+                    location.setLine(readInt());
+                    location.setColumn(readInt());
+                    stepDef.setLocation(location);
+                }
+                result.add(stepDef);
+            }
+            return result;
+        }
+
+        private ArmaFeature readFeature(){
+            ArmaFeature feature = new ArmaFeature();
+            readNode(feature);
+            feature.setLocation(readLocation());
+            readTags(feature.getTags());
+            if (readBoolean()){
+                ArmaFeatureSource source = new ArmaFeatureSource();
+                source.setEncoding(readString());
+                source.setBom(readBoolean());
+                source.setLineSeparator(readString());
+                source.setFinalNewline(readBoolean());
+                source.setCommentsCount(readInt());
+                source.setContentHash(readLong());
+                source.setRenderedHash(readLong());
+                feature.setSource(source);
+            }
+            if (readBoolean()){
+                ArmaBackground background = new ArmaBackground();
+                readScenario(background);
+                feature.setBackground(background);
+            }
+            int count = readInt();
+            for (int i = 0; i < count; i++){
+                if (readInt() == SnapshotEncoder.OUTLINE){
+                    ArmaScenarioOutline outline = new ArmaScenarioOutline();
+                    readScenario(outline);
+                    int examplesCount = readInt();
+                    if (examplesCount >= 0){
+                        List<ArmaExamples> examples = new ArrayList<>(examplesCount);
+                        for (int j = 0; j < examplesCount; j++){
+                            examples.add(readExamples());
+                        }
+                        outline.setExamples(examples);
+                    }
+                    feature.getScenarios().add(outline);
+                } else {
+                    ArmaScenario scenario = new ArmaScenario();
+                    readScenario(scenario);
+                    feature.getScenarios().add(scenario);
+                }
+            }
+            return feature;
+        }
+
+        private void readScenario(ArmaScenario scenario){
+            readNode(scenario);
+            scenario.setLocation(readLocation());
+            readTags(scenario.getTags());
+            int count = readInt();
+            List<ArmaStep> steps = new ArrayList<>(count);
+            for (int i = 0; i < count; i++){
+                steps.add(readStep());
+            }
+            scenario.setSteps(steps);
+        }
+
+        private ArmaStep readStep(){
+            ArmaStep step = new ArmaStep();
+            step.setKeyword(readString());
+            step.setText(readString());
+            int stepDefId = readInt();
+            if (stepDefId > 0){
+                step.setStepDef(stepDefs.get(stepDefId - 1));
+            }
+            step.setLocation(readLocation());
+            int argumentType = readInt();
+            if (argumentType == SnapshotEncoder.DATA_TABLE){
+                ArmaDataTable dataTable = new ArmaDataTable();
+                dataTable.setTable(readTable());
+                step.setArgument(dataTable);
+            } else if (argumentType == SnapshotEncoder.DOC_STRING){
+                ArmaDocString docString = new ArmaDocString();
+                docString.setContentType(readString());
+                docString.setContent(readString());
+                step.setArgument(docString);
+            }
+            return step;
+        }
+
+        private ArmaExamples readExamples(){
+            ArmaExamples examples = new ArmaExamples();
+            examples.setKeyword(readString());
+            examples.setName(readString());
+            examples.setDescription(readString());
+            readTags(examples.getTags());
+            examples.setTable(readTable());
+            return examples;
+        }
+
+        private ArmaTable readTable(){
+            int columnCount = readInt();
+            int rowCount = readInt();
+            String[][] columns = new String[columnCount][rowCount];
+            ArmaTable table = new ArmaTable();
+            for (int colIndex = 0; colIndex < columnCount; colIndex++){
+                table.addColumn(readString(), "");
+                for (int rowIndex = 0; rowIndex < rowCount; rowIndex++){
+                    columns[colIndex][rowIndex] = readString();
+                }
+            }
+            List<String> row = new ArrayList<>(columnCount);
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++){
+                row.clear();
+                for (int colIndex = 0; colIndex < columnCount; colIndex++){
+                    row.add(columns[colIndex][rowIndex]);
+                }
+                table.addRow(row);
+            }
+            return table;
+        }
+
+        /**
+         * Setters of nodes normalize values, values taken from a scanned node are normalized already,
+         * so a setter is called only when a value differs from the default of a new node
+         */
+        private void readNode(ArmaNode node){
+            String keyword = readString();
+            if (!Objects.equals(keyword, node.getKeyword())){
+                node.setKeyword(keyword);
+            }
+            node.setName(readString());
+            node.setDescription(readString());
+        }
+
+        private ArmaLocation readLocation(){
+            if (!readBoolean()){
+                return null;
+            }
+            ArmaLocation location = new ArmaLocation();
+            location.setFile(readString());
+            location.setLine(readInt());
+            location.setColumn(readInt());
+            return location;
+        }
+
+        private void readTags(Set<ArmaTag> tags){
+            int count = readInt();
+            for (int i = 0; i < count; i++){
+                ArmaTag tag = new ArmaTag();
+                tag.setName(readString());
+                tags.add(tag);
+            }
+        }
+
+        private String readString(){
+            return string(readInt());
+        }
+
+        private boolean readBoolean(){
+            return readInt() != 0;
+        }
+
+        private int readInt(){
+            return (int) readLong();
+        }
+
+        private long readLong(){
+            long zigZag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                zigZag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+    }
+}
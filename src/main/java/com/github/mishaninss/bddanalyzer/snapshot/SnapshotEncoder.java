@@ -0,0 +1,234 @@
+package com.github.mishaninss.bddanalyzer.snapshot;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Encodes model nodes into a growing byte buffer. Ints are written as variable length quantities,
+ * strings as ids of a pool shared by all encoders of a snapshot, step definition links as their ids.
+ */
+class SnapshotEncoder {
+    static final int SCENARIO = 0;
+    static final int OUTLINE = 1;
+    static final int NO_ARGUMENT = 0;
+    static final int DATA_TABLE = 1;
+    static final int DOC_STRING = 2;
+
+    private final Map<String, Integer> strings;
+    private final Map<ArmaStepDef, Integer> stepDefIds;
+    private final int[] stepDefUsage;
+    private byte[] bytes = new byte[256];
+    private int size;
+
+    /**
+     * @param stepDefUsage counters of implemented steps linked to the step definitions, updated by written features
+     */
+    SnapshotEncoder(Map<String, Integer> strings, Map<ArmaStepDef, Integer> stepDefIds, int[] stepDefUsage){
+        this.strings = strings;
+        this.stepDefIds = stepDefIds;
+        this.stepDefUsage = stepDefUsage;
+    }
+
+    byte[] toByteArray(){
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * Encodes the pool of strings: count, offsets of strings relative to the end of the offsets, UTF-8 bytes
+     */
+    static byte[] encodeStrings(Map<String, Integer> strings){
+        String[] values = new String[strings.size()];
+        strings.forEach((value, id) -> values[id - 1] = value);
+        byte[][] encoded = new byte[values.length][];
+        int length = 0;
+        for (int i = 0; i < values.length; i++){
+            encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            length += encoded[i].length;
+        }
+        SnapshotEncoder encoder = new SnapshotEncoder(strings, null, null);
+        encoder.ensureCapacity(4 + 4 * (values.length + 1) + length);
+        encoder.writeFixedInt(values.length);
+        int offset = 0;
+        for (byte[] value: encoded){
+            encoder.writeFixedInt(offset);
+            offset += value.length;
+        }
+        encoder.writeFixedInt(offset);
+        for (byte[] value: encoded){
+            System.arraycopy(value, 0, encoder.bytes, encoder.size, value.length);
+            encoder.size += value.length;
+        }
+        return encoder.toByteArray();
+    }
+
+    void writeStepDefs(List<ArmaStepDef> stepDefs){
+        writeInt(stepDefs.size());
+        int stepDefId = 0;
+        for (ArmaStepDef stepDef: stepDefs){
+            writeInt(stepDefUsage[stepDefId++]);
+            writeString(stepDef.getText());
+            writeString(stepDef.getDescription());
+            writeBoolean(stepDef.isImplemented());
+            ArmaStepDefLocation location = stepDef.getLocation();
+            writeBoolean(location != null);
+            if (location != null){
+                writeString(location.getFile());
+                writeString(location.getMethodName());
+                writeString(location.getDeclaration());
+                writeInt(location.getLine());
+                writeInt(location.getColumn());
+            }
+        }
+    }
+
+    void writeFeature(ArmaFeature feature){
+        writeNode(feature);
+        writeLocation(feature.getLocation());
+        writeTags(feature.getTags());
+        ArmaFeatureSource source = feature.getSource();
+        writeBoolean(source != null);
+        if (source != null){
+            writeString(source.getEncoding());
+            writeBoolean(source.isBom());
+            writeString(source.getLineSeparator());
+            writeBoolean(source.isFinalNewline());
+            writeInt(source.getCommentsCount());
+            writeLong(source.getContentHash());
+            writeLong(source.getRenderedHash());
+        }
+        writeBoolean(feature.hasBackground());
+        if (feature.hasBackground()){
+            writeScenario(feature.getBackground());
+        }
+        List<ArmaScenario> scenarios = feature.getScenarios() == null ? Collections.emptyList() : feature.getScenarios();
+        writeInt(scenarios.size());
+        for (ArmaScenario scenario: scenarios){
+            boolean outline = scenario instanceof ArmaScenarioOutline;
+            writeInt(outline ? OUTLINE : SCENARIO);
+            writeScenario(scenario);
+            if (outline){
+                List<ArmaExamples> examples = ((ArmaScenarioOutline) scenario).getExamples();
+                writeInt(examples == null ? -1 : examples.size());
+                if (examples != null){
+                    examples.forEach(this::writeExamples);
+                }
+            }
+        }
+    }
+
+    private void writeScenario(ArmaScenario scenario){
+        writeNode(scenario);
+        writeLocation(scenario.getLocation());
+        writeTags(scenario.getTags());
+        List<ArmaStep> steps = scenario.getSteps() == null ? Collections.emptyList() : scenario.getSteps();
+        writeInt(steps.size());
+        steps.forEach(this::writeStep);
+    }
+
+    private void writeStep(ArmaStep step){
+        writeString(step.getKeyword());
+        writeString(step.getText());
+        Integer stepDefId = step.getStepDef() == null ? null : stepDefIds.get(step.getStepDef());
+        writeInt(stepDefId == null ? 0 : stepDefId + 1);
+        if (stepDefId != null && step.isImplemented()){
+            stepDefUsage[stepDefId]++;
+        }
+        writeLocation(step.getLocation());
+        Object argument = step.getArgument();
+        if (argument instanceof ArmaDataTable){
+            writeInt(DATA_TABLE);
+            writeTable(((ArmaDataTable) argument).getTable());
+        } else if (argument instanceof ArmaDocString){
+            writeInt(DOC_STRING);
+            writeString(((ArmaDocString) argument).getContentType());
+            writeString(((ArmaDocString) argument).getContent());
+        } else {
+            writeInt(NO_ARGUMENT);
+        }
+    }
+
+    private void writeExamples(ArmaExamples examples){
+        writeString(examples.getKeyword());
+        writeString(examples.getName());
+        writeString(examples.getDescription());
+        writeTags(examples.getTags());
+        writeTable(examples.getTable());
+    }
+
+    private void writeTable(ArmaTable table){
+        writeInt(table.getColumnCount());
+        writeInt(table.getRowCount());
+        for (int colIndex = 0; colIndex < table.getColumnCount(); colIndex++){
+            writeString(table.getName(colIndex));
+            for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++){
+                writeString(table.getValue(colIndex, rowIndex));
+            }
+        }
+    }
+
+    private void writeNode(ArmaNode node){
+        writeString(node.getKeyword());
+        writeString(node.getName());
+        writeString(node.getDescription());
+    }
+
+    private void writeLocation(ArmaLocation location){
+        writeBoolean(location != null);
+        if (location != null){
+            writeString(location.getFile());
+            writeInt(location.getLine());
+            writeInt(location.getColumn());
+        }
+    }
+
+    private void writeTags(Set<ArmaTag> tags){
+        writeInt(tags == null ? 0 : tags.size());
+        if (tags != null){
+            tags.forEach(tag -> writeString(tag.getName()));
+        }
+    }
+
+    private void writeString(String value){
+        if (value == null){
+            writeInt(0);
+        } else {
+            writeInt(strings.computeIfAbsent(value, key -> strings.size() + 1));
+        }
+    }
+
+    private void writeBoolean(boolean value){
+        writeInt(value ? 1 : 0);
+    }
+
+    /**
+     * Zig-zag variable length quantity, small negative values take one byte too
+     */
+    void writeInt(int value){
+        writeLong(value);
+    }
+
+    void writeLong(long value){
+        ensureCapacity(size + 10);
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0){
+            bytes[size++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        bytes[size++] = (byte) zigZag;
+    }
+
+    private void writeFixedInt(int value){
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int capacity){
+        if (capacity > bytes.length){
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.mishaninss.bddanalyzer.traversal;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+import lombok.NonNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Walks features in order feature, background, scenarios, examples, steps and calls an {@link ArmaVisitor}
+ * for every node. Nothing is collected on the way, so analyses written as visitors don't materialize lists of
+ * scenarios or steps as {@link ArmaProject#getSteps()} does.
+ * By default steps of an outline are visited once after the outline is entered and before its examples.
+ * With expanded examples every examples table is entered and steps of the outline are visited for every row,
+ * the row is available from the {@link TraversalContext}
+ */
+public class ArmaTraversal {
+    private final Collection<ArmaFeature> features;
+    private boolean expandExamples;
+
+    private ArmaTraversal(Collection<ArmaFeature> features){
+        this.features = features;
+    }
+
+    public static ArmaTraversal of(@NonNull Collection<ArmaFeature> features){
+        return new ArmaTraversal(features);
+    }
+
+    public static ArmaTraversal of(@NonNull ArmaFeature feature){
+        return new ArmaTraversal(Collections.singletonList(feature));
+    }
+
+    public ArmaTraversal expandExamples(boolean expandExamples){
+        this.expandExamples = expandExamples;
+        return this;
+    }
+
+    /**
+     * @return false if the traversal was stopped by the visitor
+     */
+    public boolean traverse(@NonNull ArmaVisitor visitor){
+        TraversalContext context = new TraversalContext();
+        for (ArmaFeature feature: features){
+            if (!traverseFeature(feature, visitor, context)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean traverseFeature(ArmaFeature feature, ArmaVisitor visitor, TraversalContext context){
+        context.setFeature(feature);
+        boolean enter = visitor.enterFeature(feature, context);
+        if (context.isStopped()){
+            return false;
+        }
+        if (enter){
+            if (feature.hasBackground() && !traverseScenario(feature.getBackground(), visitor, context)){
+                return false;
+            }
+            List<ArmaScenario> scenarios = feature.getScenarios();
+            if (scenarios != null){
+                for (ArmaScenario scenario: scenarios){
+                    if (!traverseScenario(scenario, visitor, context)){
+                        return false;
+                    }
+                }
+            }
+            visitor.leaveFeature(feature, context);
+        }
+        context.setFeature(null);
+        return !context.isStopped();
+    }
+
+    private boolean traverseScenario(ArmaScenario scenario, ArmaVisitor visitor, TraversalContext context){
+        context.setScenario(scenario);
+        boolean background = scenario instanceof ArmaBackground;
+        boolean enter = background ? visitor.enterBackground((ArmaBackground) scenario, context)
+                : visitor.enterScenario(scenario, context);
+        if (context.isStopped()){
+            return false;
+        }
+        if (enter){
+            if (scenario instanceof ArmaScenarioOutline){
+                if (!traverseOutline((ArmaScenarioOutline) scenario, visitor, context)){
+                    return false;
+                }
+            } else if (!visitSteps(scenario, visitor, context)){
+                return false;
+            }
+            if (background){
+                visitor.leaveBackground((ArmaBackground) scenario, context);
+            } else {
+                visitor.leaveScenario(scenario, context);
+            }
+        }
+        context.setScenario(null);
+        return !context.isStopped();
+    }
+
+    private boolean traverseOutline(ArmaScenarioOutline outline, ArmaVisitor visitor, TraversalContext context){
+        if (!expandExamples && !visitSteps(outline, visitor, context)){
+            return false;
+        }
+        if (!outline.hasExamples()){
+            return true;
+        }
+        for (ArmaExamples examples: outline.getExamples()){
+            context.setExamples(examples);
+            boolean enter = visitor.enterExamples(examples, context);
+            if (context.isStopped()){
+                return false;
+            }
+            if (enter){
+                if (expandExamples){
+                    for (int row = 0; row < examples.getRowCount(); row++){
+                        context.setExampleRow(row);
+                        if (!visitSteps(outline, visitor, context)){
+                            return false;
+                        }
+                    }
+                    context.setExampleRow(-1);
+                }
+                visitor.leaveExamples(examples, context);
+                if (context.isStopped()){
+                    return false;
+                }
+            }
+            context.setExamples(null);
+        }
+        return true;
+    }
+
+    private boolean visitSteps(ArmaScenario scenario, ArmaVisitor visitor, TraversalContext context){
+        List<ArmaStep> steps = scenario.getSteps();
+        if (steps == null){
+            return true;
+        }
+        int index = 0;
+        for (ArmaStep step: steps){
+            context.setStepIndex(index++);
+            visitor.visitStep(step, context);
+            if (context.isStopped()){
+                return false;
+            }
+        }
+        context.setStepIndex(-1);
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.mishaninss.bddanalyzer.traversal;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+
+/**
+ * Callbacks of {@link ArmaTraversal}. Enter callbacks return false to skip children of the node,
+ * leave callbacks are called for entered nodes only. {@link TraversalContext#stop()} stops the whole traversal
+ */
+public interface ArmaVisitor {
+
+    default boolean enterFeature(ArmaFeature feature, TraversalContext context){
+        return true;
+    }
+
+    default void leaveFeature(ArmaFeature feature, TraversalContext context){
+    }
+
+    default boolean enterBackground(ArmaBackground background, TraversalContext context){
+        return true;
+    }
+
+    default void leaveBackground(ArmaBackground background, TraversalContext context){
+    }
+
+    /**
+     * Called for scenarios and outlines
+     */
+    default boolean enterScenario(ArmaScenario scenario, TraversalContext context){
+        return true;
+    }
+
+    default void leaveScenario(ArmaScenario scenario, TraversalContext context){
+    }
+
+    default boolean enterExamples(ArmaExamples examples, TraversalContext context){
+        return true;
+    }
+
+    default void leaveExamples(ArmaExamples examples, TraversalContext context){
+    }
+
+    /**
+     * Called for steps of backgrounds and scenarios. With expanded examples steps of outlines are visited
+     * once for every row of their examples
+     */
+    default void visitStep(ArmaStep step, TraversalContext context){
+    }
+}
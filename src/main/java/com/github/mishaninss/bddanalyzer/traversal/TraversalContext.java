@@ -0,0 +1,126 @@
+package com.github.mishaninss.bddanalyzer.traversal;
+
+import com.github.mishaninss.bddanalyzer.model.*;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Position of {@link ArmaTraversal}: the current feature, background or scenario, examples and row, step.
+ * The context is changed by the traversal, it must not be kept after a callback
+ */
+public class TraversalContext {
+    private ArmaFeature feature;
+    private ArmaScenario scenario;
+    private ArmaExamples examples;
+    private int exampleRow = -1;
+    private int stepIndex = -1;
+    private boolean stopped;
+
+    public ArmaFeature getFeature(){
+        return feature;
+    }
+
+    /**
+     * @return the current background or scenario, or null
+     */
+    public ArmaScenario getScenario(){
+        return scenario;
+    }
+
+    public boolean isBackground(){
+        return scenario instanceof ArmaBackground;
+    }
+
+    /**
+     * @return the current examples of an outline, or null
+     */
+    public ArmaExamples getExamples(){
+        return examples;
+    }
+
+    /**
+     * @return index of the current row of examples when examples are expanded, or -1
+     */
+    public int getExampleRow(){
+        return exampleRow;
+    }
+
+    /**
+     * @return index of the current step in its background or scenario, or -1
+     */
+    public int getStepIndex(){
+        return stepIndex;
+    }
+
+    /**
+     * @return value of the parameter in the current row of examples, or null
+     */
+    public String getExampleValue(String paramName){
+        return examples == null || exampleRow < 0 ? null : examples.getValue(paramName, exampleRow);
+    }
+
+    /**
+     * @return text of the step with parameters replaced by values of the current row of examples
+     */
+    public String getStepText(ArmaStep step){
+        return examples == null || exampleRow < 0 ? step.getText() : ArmaStep.applyExample(step, examples, exampleRow).getText();
+    }
+
+    /**
+     * Checks tags of the feature, the current scenario and examples without collecting them
+     */
+    public boolean hasEffectiveTag(ArmaTag tag){
+        return feature != null && feature.getTags().contains(tag)
+                || scenario != null && scenario.getTags().contains(tag)
+                || examples != null && examples.getTags().contains(tag);
+    }
+
+    /**
+     * @return tags of the feature, the current scenario and examples
+     */
+    public Set<ArmaTag> getEffectiveTags(){
+        Set<ArmaTag> tags = new LinkedHashSet<>();
+        if (feature != null){
+            tags.addAll(feature.getTags());
+        }
+        if (scenario != null){
+            tags.addAll(scenario.getTags());
+        }
+        if (examples != null){
+            tags.addAll(examples.getTags());
+        }
+        return tags;
+    }
+
+    /**
+     * Stops the traversal after the current callback, leave callbacks of entered nodes are not called
+     */
+    public void stop(){
+        stopped = true;
+    }
+
+    public boolean isStopped(){
+        return stopped;
+    }
+
+    void setFeature(ArmaFeature feature){
+        this.feature = feature;
+    }
+
+    void setScenario(ArmaScenario scenario){
+        this.scenario = scenario;
+    }
+
+    void setExamples(ArmaExamples examples){
+        this.examples = examples;
+    }
+
+    void setExampleRow(int exampleRow){
+        this.exampleRow = exampleRow;
+    }
+
+    void setStepIndex(int stepIndex){
+        this.stepIndex = stepIndex;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaDocString;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class GherkinWriterTest {
+
+    @Test
+    public void sampleFeaturesRoundTrip() throws IOException {
+        Path features = TestProjects.sampleRoot().resolve("features");
+        assertRoundTrip(new String(Files.readAllBytes(features.resolve("login.feature")), StandardCharsets.UTF_8));
+        assertRoundTrip(new String(Files.readAllBytes(features.resolve("sub/search.feature")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void docStringWithSeparatorRoundTrips() throws IOException {
+        ArmaFeature feature = assertRoundTrip(docStringFeature("```", "say \"\"\"hi\"\"\"\n\"\"\"\nbye"));
+
+        assertEquals("say \"\"\"hi\"\"\"\n\"\"\"\nbye", docString(feature).getContent());
+        assertTrue(GherkinWriter.toString(feature).contains("```"));
+    }
+
+    @Test
+    public void docStringWithBothSeparatorsRoundTrips() throws IOException {
+        ArmaFeature feature = assertRoundTrip(docStringFeature("\"\"\"", "```\n\\\"\\\"\\\"\n```"));
+
+        assertEquals("```\n\"\"\"\n```", docString(feature).getContent());
+    }
+
+    @Test
+    public void docStringWithContentTypeRoundTrips() throws IOException {
+        ArmaFeature feature = assertRoundTrip(docStringFeature("```json", "{\"text\": \"\\\"\\\"\\\"\"}"));
+
+        assertEquals("json", docString(feature).getContentType());
+    }
+
+    /**
+     * Parses the source, writes the feature and parses it again
+     * @return the feature parsed from the written text
+     */
+    private static ArmaFeature assertRoundTrip(String source) throws IOException {
+        ArmaFeature parsed = parse(source);
+        String written = GherkinWriter.toString(parsed);
+        ArmaFeature reparsed = parse(written);
+
+        assertEquals(written, parsed, reparsed);
+        assertEquals(written, GherkinWriter.toString(reparsed));
+        return reparsed;
+    }
+
+    private static String docStringFeature(String openingSeparator, String content){
+        String separator = openingSeparator.substring(0, 3);
+        StringBuilder source = new StringBuilder("Feature: doc strings\n\n  Scenario: doc string\n    Given a text\n");
+        source.append("      ").append(openingSeparator).append('\n');
+        for (String line: content.split("\n", -1)){
+            source.append("      ").append(line).append('\n');
+        }
+        return source.append("      ").append(separator).append('\n').toString();
+    }
+
+    private static ArmaDocString docString(ArmaFeature feature){
+        return (ArmaDocString) feature.getScenarios().get(0).getSteps().get(0).getArgument();
+    }
+
+    private static ArmaFeature parse(String source) throws IOException {
+        return GherkinScanner.parseFeature(source.getBytes(StandardCharsets.UTF_8));
+    }
+}
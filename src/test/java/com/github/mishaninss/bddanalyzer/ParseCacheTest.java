@@ -0,0 +1,82 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParseCacheTest {
+
+    @Test
+    public void blobIdEqualsGitObjectId(){
+        assertEquals("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", ParseCache.blobId(new byte[0]));
+        assertEquals("ce013625030ba8dba906f756967f9e9ca394464a", ParseCache.blobId("hello\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void equalContentIsParsedOnce() throws IOException {
+        ParseCache cache = new ParseCache();
+        byte[] content = Files.readAllBytes(TestProjects.sampleRoot().resolve("features/login.feature"));
+        String blobId = ParseCache.blobId(content);
+
+        ArmaFeature feature = cache.getFeature(blobId, "login.feature", content);
+
+        assertNotNull(feature);
+        assertSame(feature, cache.getFeature(blobId, "copy/login.feature", content.clone()));
+        assertSame(feature, cache.getFeature(blobId));
+        assertTrue(cache.containsFeature(blobId));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void stepDefinitionsAreParsedOnce() throws IOException {
+        ParseCache cache = new ParseCache();
+        byte[] content = Files.readAllBytes(TestProjects.sampleRoot().resolve("glue/steps/Steps.java"));
+        String blobId = ParseCache.blobId(content);
+
+        List<ArmaStepDef> stepDefs = cache.getStepDefinitions(blobId, "Steps.java", content);
+
+        assertEquals(11, stepDefs.size());
+        assertSame(stepDefs, cache.getStepDefinitions(blobId, "Other.java", content));
+        assertSame(stepDefs, cache.getStepDefinitions(blobId));
+        assertTrue(cache.containsStepDefinitions(blobId));
+    }
+
+    @Test
+    public void unparsableContentIsCached(){
+        ParseCache cache = new ParseCache();
+        byte[] content = "Given a step outside of a feature\n".getBytes(StandardCharsets.UTF_8);
+        String blobId = ParseCache.blobId(content);
+
+        assertNull(cache.getFeature(blobId, "broken.feature", content));
+        assertTrue(cache.containsFeature(blobId));
+        assertNull(cache.getFeature(blobId));
+        assertTrue(cache.getStepDefinitions("unknown").isEmpty());
+        assertFalse(cache.containsStepDefinitions("unknown"));
+    }
+
+    @Test
+    public void projectsShareCachedFilesWithoutSharingFeatures(){
+        ParseCache cache = new ParseCache();
+        ArmaProject first = new ArmaProject(TestProjects.sampleRoot().resolve("glue").toString(),
+                TestProjects.sampleRoot().resolve("features").toString());
+        first.scan(cache);
+        int size = cache.size();
+        ArmaProject second = new ArmaProject(TestProjects.sampleRoot().resolve("glue").toString(),
+                TestProjects.sampleRoot().resolve("features").toString());
+        second.scan(cache);
+
+        assertEquals(3, size);
+        assertEquals(size, cache.size());
+        assertEquals(TestProjects.links(TestProjects.scanSample()), TestProjects.links(second));
+        first.getFeatures().get(0).setName("changed");
+        assertNotEquals("changed", second.getFeatures().get(0).getName());
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sample project of the test resources
+ */
+public final class TestProjects {
+
+    private TestProjects(){
+
+    }
+
+    public static Path sampleRoot(){
+        try {
+            return Paths.get(TestProjects.class.getResource("/sample").toURI());
+        } catch (URISyntaxException ex){
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static ArmaProject scanSample(){
+        ArmaProject project = new ArmaProject(sampleRoot().resolve("glue").toString(), sampleRoot().resolve("features").toString());
+        project.scan();
+        return project;
+    }
+
+    /**
+     * Indexes of step definitions linked to steps of backgrounds and scenarios in order of the features, -1 for not linked steps
+     */
+    public static List<Integer> links(ArmaProject project){
+        Map<ArmaStepDef, Integer> ids = new IdentityHashMap<>();
+        project.getStepDefinitions().forEach(stepDef -> ids.putIfAbsent(stepDef, ids.size()));
+        List<Integer> links = new ArrayList<>();
+        for (ArmaFeature feature: project.getFeatures()){
+            List<ArmaStep> steps = new ArrayList<>();
+            if (feature.hasBackground()){
+                steps.addAll(feature.getBackground().getSteps());
+            }
+            feature.getScenarios().forEach(scenario -> steps.addAll(scenario.getSteps()));
+            steps.forEach(step -> links.add(step.getStepDef() == null ? -1 : ids.getOrDefault(step.getStepDef(), -2)));
+        }
+        return links;
+    }
+}
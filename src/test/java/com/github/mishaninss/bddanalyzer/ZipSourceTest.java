@@ -0,0 +1,107 @@
+package com.github.mishaninss.bddanalyzer;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ZipSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String archive;
+
+    @Before
+    public void createArchive() throws IOException {
+        Path sample = TestProjects.sampleRoot();
+        File file = folder.newFile("project.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file.toPath()))){
+            zip.putNextEntry(new ZipEntry("project/"));
+            zip.putNextEntry(new ZipEntry("project/features/"));
+            addEntry(zip, "project/features/login.feature", sample.resolve("features/login.feature"));
+            zip.putNextEntry(new ZipEntry("project/features/sub/"));
+            addEntry(zip, "project/features/sub/search.feature", sample.resolve("features/sub/search.feature"));
+            addEntry(zip, "project/glue/steps/Steps.java", sample.resolve("glue/steps/Steps.java"));
+            addEntry(zip, "other/login.feature", sample.resolve("features/login.feature"));
+        }
+        archive = file.getPath();
+    }
+
+    @Test
+    public void directoryOfArchiveIsListed() throws IOException {
+        try (ScanSource source = ScanSource.of(archive + "!/project/features")){
+            assertTrue(source instanceof ZipSource);
+            assertTrue(source.exists());
+            assertEquals(Arrays.asList(archive + "!/project/features/login.feature", archive + "!/project/features/sub/search.feature"),
+                    source.list("feature"));
+            assertTrue(source.list("java").isEmpty());
+        }
+    }
+
+    @Test
+    public void wholeArchiveIsListed() throws IOException {
+        try (ScanSource source = ScanSource.of(archive)){
+            assertTrue(source instanceof ZipSource);
+            assertEquals(Arrays.asList(archive + "!/other/login.feature", archive + "!/project/features/login.feature",
+                    archive + "!/project/features/sub/search.feature"), source.list("feature"));
+        }
+    }
+
+    @Test
+    public void entriesAreRead() throws IOException {
+        Path sample = TestProjects.sampleRoot();
+        try (ScanSource source = ScanSource.of(archive + "!/project/glue/")){
+            for (String path: source.list("java")){
+                assertArrayEquals(Files.readAllBytes(sample.resolve("glue/steps/Steps.java")), source.read(path));
+            }
+            assertEquals(1, source.list("java").size());
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void missingEntryIsReported() throws IOException {
+        try (ScanSource source = ScanSource.of(archive + "!/project")){
+            source.read(archive + "!/project/missing.feature");
+        }
+    }
+
+    @Test
+    public void directoryIsNotArchive() throws IOException {
+        try (ScanSource source = ScanSource.of(TestProjects.sampleRoot().toString())){
+            assertTrue(source instanceof DirectorySource);
+        }
+        assertFalse(ScanSource.of(folder.getRoot().getPath() + "/missing.zip").exists());
+    }
+
+    @Test
+    public void projectIsScannedFromArchive(){
+        ArmaProject project = new ArmaProject(archive + "!/project/glue", archive + "!/project/features");
+        project.scan();
+        ArmaProject sample = TestProjects.scanSample();
+
+        assertEquals(sample.getStepDefinitions().size(), project.getStepDefinitions().size());
+        assertEquals(TestProjects.links(sample), TestProjects.links(project));
+        assertEquals(Arrays.asList(archive + "!/project/features/login.feature", archive + "!/project/features/sub/search.feature"),
+                project.getFeatures().stream().map(feature -> feature.getLocation().getFile()).collect(Collectors.toList()));
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, Path file) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(Files.readAllBytes(file));
+        zip.closeEntry();
+    }
+}
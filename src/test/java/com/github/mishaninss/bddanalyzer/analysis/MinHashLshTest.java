@@ -0,0 +1,133 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MinHashLshTest {
+
+    @Test
+    public void similarPairsBecomeCandidates(){
+        Random random = new Random(35);
+        MinHashLsh lsh = new MinHashLsh(32, 5, 42);
+        List<int[]> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++){
+            int[] base = randomSet(random, 40);
+            items.add(base);
+            items.add(mutate(random, base, 2));
+        }
+        lsh.addAll(items);
+
+        Set<Long> candidates = new HashSet<>();
+        for (int[] pair: lsh.getCandidatePairs()){
+            assertTrue(pair[0] < pair[1]);
+            assertTrue("duplicate pair " + Arrays.toString(pair), candidates.add(key(pair[0], pair[1])));
+        }
+        int similarPairs = 0;
+        for (int i = 0; i < lsh.size(); i++){
+            for (int j = i + 1; j < lsh.size(); j++){
+                if (lsh.similarity(i, j) >= 0.8){
+                    similarPairs++;
+                    assertTrue(i + " " + j, candidates.contains(key(i, j)));
+                }
+            }
+        }
+        assertEquals(100, similarPairs);
+    }
+
+    @Test
+    public void disjointItemsAreNotPaired(){
+        MinHashLsh lsh = new MinHashLsh();
+        for (int i = 0; i < 50; i++){
+            int[] item = new int[30];
+            for (int j = 0; j < item.length; j++){
+                item[j] = i * 1000 + j;
+            }
+            lsh.add(item);
+        }
+
+        assertTrue(lsh.getCandidatePairs().isEmpty());
+    }
+
+    @Test
+    public void emptyItemsAreIgnored(){
+        MinHashLsh lsh = new MinHashLsh();
+        lsh.add(new int[0]);
+        lsh.add(new int[0]);
+        lsh.add(new int[]{1, 2, 3});
+        lsh.add(new int[]{3, 2, 1, 1});
+
+        List<int[]> pairs = lsh.getCandidatePairs();
+
+        assertEquals(1, pairs.size());
+        assertArrayEquals(new int[]{2, 3}, pairs.get(0));
+        assertEquals(1.0, lsh.similarity(2, 3), 0);
+    }
+
+    @Test
+    public void largeBucketIsConnectedWithLinearPairs(){
+        MinHashLsh lsh = new MinHashLsh();
+        int count = 500;
+        for (int i = 0; i < count; i++){
+            lsh.add(new int[]{1, 2, 3, 4, 5});
+        }
+
+        List<int[]> pairs = lsh.getCandidatePairs();
+
+        assertTrue(pairs.size() < count * 8);
+        UnionFind sets = new UnionFind(count);
+        pairs.forEach(pair -> sets.union(pair[0], pair[1]));
+        for (int i = 0; i < count; i++){
+            assertEquals(0, sets.find(i));
+        }
+    }
+
+    @Test
+    public void estimatedSimilarityIsCloseToJaccard(){
+        Random random = new Random(36);
+        MinHashLsh lsh = new MinHashLsh(64, 4, 42);
+        int[] base = randomSet(random, 200);
+        lsh.add(base);
+        lsh.add(mutate(random, base, 50));
+
+        assertEquals(lsh.similarity(0, 1), lsh.estimateSimilarity(0, 1), 0.1);
+    }
+
+    @Test
+    public void jaccardOfSortedSets(){
+        assertEquals(1.0, MinHashLsh.jaccard(new int[0], new int[0]), 0);
+        assertEquals(0.0, MinHashLsh.jaccard(new int[]{1, 2}, new int[]{3}), 0);
+        assertEquals(0.5, MinHashLsh.jaccard(new int[]{1, 2, 3}, new int[]{2, 3, 4}), 0);
+    }
+
+    @Test
+    public void shortTextsGiveSingleShingle(){
+        assertEquals(0, MinHashLsh.charShingles("", 3).length);
+        assertArrayEquals(new int[]{"ab".hashCode()}, MinHashLsh.charShingles("ab", 3));
+        assertEquals(3, MinHashLsh.charShingles("abcde", 3).length);
+        assertEquals(1, MinHashLsh.sequenceShingles(new int[]{1, 2}, 3).length);
+        assertArrayEquals(MinHashLsh.sequenceShingles(new int[]{1, 2, 3}, 3),
+                new int[]{MinHashLsh.sequenceShingles(new int[]{0, 1, 2, 3}, 3)[1]});
+    }
+
+    private static long key(int first, int second){
+        return ((long) first << 32) | second;
+    }
+
+    private static int[] randomSet(Random random, int size){
+        return random.ints(size).toArray();
+    }
+
+    /**
+     * Replaces the given number of elements of the set with new random ones
+     */
+    private static int[] mutate(Random random, int[] set, int changes){
+        int[] result = set.clone();
+        for (int i = 0; i < changes; i++){
+            result[i] = random.nextInt();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import com.github.mishaninss.bddanalyzer.model.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ScenarioSimilarityAnalyzerTest {
+
+    @Test
+    public void similarScenariosOfSampleAreClustered(){
+        List<ScenarioCluster> clusters = new ScenarioSimilarityAnalyzer().analyze(TestProjects.scanSample());
+
+        assertEquals(2, clusters.size());
+        assertEquals(Arrays.asList("Valid login", "Invalid login", "Parametrized login <user>"), names(clusters.get(0).getScenarios()));
+        assertEquals(Arrays.asList("Search something", "Search other"), names(clusters.get(1).getScenarios()));
+        assertTrue(clusters.get(0).getMinSimilarity() >= 0.7);
+    }
+
+    @Test
+    public void scenariosWithSameStepDefsGetOutline(){
+        ScenarioCluster cluster = new ScenarioSimilarityAnalyzer().analyze(TestProjects.scanSample()).get(0);
+
+        assertEquals(Arrays.asList("Valid login", "Invalid login"), names(cluster.getOutlineSources()));
+        ArmaScenarioOutline outline = cluster.getSuggestedOutline();
+        ArmaExamples examples = outline.getExamples().get(0);
+        assertEquals(2, examples.getColumnCount());
+        assertEquals(2, examples.getRowCount());
+        assertEquals(5, cluster.getSavedSteps());
+        for (int row = 0; row < examples.getRowCount(); row++){
+            ArmaScenario source = cluster.getOutlineSources().get(row);
+            for (int i = 0; i < outline.getSteps().size(); i++){
+                String text = outline.getSteps().get(i).getText();
+                for (String name: examples.getTableHeader().getValues()){
+                    text = text.replace("<" + name + ">", examples.getValue(name, row));
+                }
+                assertEquals(source.getSteps().get(i).getText(), text);
+            }
+        }
+    }
+
+    @Test
+    public void scenariosWithNotImplementedStepsGetNoOutline(){
+        ScenarioCluster cluster = new ScenarioSimilarityAnalyzer().analyze(TestProjects.scanSample()).get(1);
+
+        assertNull(cluster.getSuggestedOutline());
+        assertTrue(cluster.getOutlineSources().isEmpty());
+        assertEquals(0, cluster.getSavedSteps());
+    }
+
+    @Test
+    public void higherThresholdSplitsClusters(){
+        List<ScenarioCluster> clusters = new ScenarioSimilarityAnalyzer().withThreshold(0.79).analyze(TestProjects.scanSample());
+
+        assertEquals(1, clusters.size());
+        assertFalse(names(clusters.get(0).getScenarios()).contains("Search other"));
+    }
+
+    private static List<String> names(List<ArmaScenario> scenarios){
+        return scenarios.stream().map(ArmaScenario::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.mishaninss.bddanalyzer.analysis;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class StepDefSimilarityAnalyzerTest {
+
+    @Test
+    public void nearDuplicatesOfSampleAreClustered(){
+        List<StepDefCluster> clusters = new StepDefSimilarityAnalyzer().analyze(TestProjects.scanSample());
+
+        assertEquals(1, clusters.size());
+        StepDefCluster cluster = clusters.get(0);
+        assertEquals(Arrays.asList("^I click on \\\"([^\\\"]*)\\\" button$", "^I click the \\\"([^\\\"]*)\\\" button$"),
+                cluster.getStepDefs().stream().map(ArmaStepDef::getText).collect(Collectors.toList()));
+        assertEquals(1, cluster.getPairs().size());
+        assertEquals(3, cluster.getTotalUsage());
+    }
+
+    @Test
+    public void higherThresholdDropsPairs(){
+        assertTrue(new StepDefSimilarityAnalyzer().withThreshold(0.9).analyze(TestProjects.scanSample()).isEmpty());
+    }
+
+    @Test
+    public void patternsAndStepTextsAreNormalized(){
+        assertEquals("i click on \"{}\" button",
+                StepDefSimilarityAnalyzer.normalizePattern("^I click on \\\"([^\\\"]*)\\\" button$"));
+        assertEquals("i add {} items of \"{}\" as {}",
+                StepDefSimilarityAnalyzer.normalizeStepText("I add 12  items of \"milk\" as <user>"));
+    }
+}
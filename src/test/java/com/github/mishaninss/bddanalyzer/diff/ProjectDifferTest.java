@@ -0,0 +1,144 @@
+package com.github.mishaninss.bddanalyzer.diff;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import com.github.mishaninss.bddanalyzer.model.*;
+import com.github.mishaninss.bddanalyzer.snapshot.ProjectSnapshot;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ProjectDifferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void identicalProjectsHaveEmptyDiff(){
+        ProjectDiff diff = TestProjects.scanSample().diffFrom(TestProjects.scanSample());
+
+        assertTrue(diff.toString(), diff.isEmpty());
+        assertEquals(2, diff.getUnchangedFeatures());
+    }
+
+    @Test
+    public void addedFeature(){
+        ArmaProject base = withoutSearchFeature();
+        ArmaProject head = TestProjects.scanSample();
+
+        ProjectDiff diff = head.diffFrom(base);
+
+        assertEquals(Collections.singletonList("sub/search.feature"), diff.getAddedFeatures());
+        assertEquals(1, diff.getUnchangedFeatures());
+        assertEquals(2, diff.getScenarioChanges(ScenarioChange.Type.ADDED).size());
+        assertEquals(Collections.singletonList("nothing is implemented here"),
+                diff.getNewlyUnimplementedSteps().stream().map(ArmaStep::getText).collect(Collectors.toList()));
+        assertTrue(diff.getNewlyUnusedStepDefs().isEmpty());
+    }
+
+    @Test
+    public void removedFeature(){
+        ArmaProject base = TestProjects.scanSample();
+        ArmaProject head = withoutSearchFeature();
+
+        ProjectDiff diff = head.diffFrom(base);
+
+        assertEquals(Collections.singletonList("sub/search.feature"), diff.getRemovedFeatures());
+        assertEquals(2, diff.getScenarioChanges(ScenarioChange.Type.REMOVED).size());
+        assertTrue(diff.getNewlyUnimplementedSteps().isEmpty());
+        assertEquals(Arrays.asList("search", "results"), diff.getNewlyUnusedStepDefs().stream()
+                .map(stepDef -> stepDef.getLocation().getMethodName())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void modifiedTagsAndSteps(){
+        ArmaProject base = TestProjects.scanSample();
+        ArmaProject head = TestProjects.scanSample();
+        ArmaScenario scenario = scenario(head, "Valid login");
+        scenario.addTag("@new");
+        scenario.removeTag(new ArmaTag("@fast"));
+        ArmaStep step = scenario.getSteps().get(1);
+        step.setText("I type \"alice\" into \"user\" field");
+
+        ProjectDiff diff = head.diffFrom(base);
+
+        assertEquals(Collections.singletonList("login.feature"), diff.getModifiedFeatures());
+        assertEquals(1, diff.getUnchangedFeatures());
+        assertEquals(1, diff.getScenarioChanges().size());
+        ScenarioChange change = diff.getScenarioChanges().get(0);
+        assertEquals(ScenarioChange.Type.MODIFIED, change.getType());
+        assertEquals("Valid login", change.getName());
+        assertEquals(Collections.singleton(new ArmaTag("@new")), change.getAddedTags());
+        assertEquals(Collections.singleton(new ArmaTag("@fast")), change.getRemovedTags());
+        assertEquals(Collections.singletonList(1), change.getChangedSteps());
+        assertTrue(change.getRelinkedSteps().isEmpty());
+    }
+
+    @Test
+    public void relinkedStep(){
+        ArmaProject base = TestProjects.scanSample();
+        ArmaProject head = TestProjects.scanSample();
+        ArmaStep step = scenario(head, "Invalid login").getSteps().get(3);
+        ArmaStepDef other = head.getStepDefinitions().stream()
+                .filter(stepDef -> stepDef.getText().contains("I click the"))
+                .findFirst().orElseThrow(IllegalStateException::new);
+        step.setStepDef(other);
+
+        ProjectDiff diff = head.diffFrom(base);
+
+        ScenarioChange change = diff.getScenarioChanges().get(0);
+        assertEquals("Invalid login", change.getName());
+        assertEquals(Collections.singletonList(3), change.getChangedSteps());
+        assertEquals(Collections.singletonList(step), change.getRelinkedSteps());
+    }
+
+    @Test
+    public void newlyUnimplementedStep(){
+        ArmaProject base = TestProjects.scanSample();
+        ArmaProject head = TestProjects.scanSample();
+        ArmaStep step = scenario(head, "Search something").getSteps().get(2);
+        step.setText("I look for \"cats\"");
+        step.setStepDef(null);
+
+        ProjectDiff diff = head.diffFrom(base);
+
+        assertEquals(Collections.singletonList("sub/search.feature"), diff.getModifiedFeatures());
+        assertEquals(Collections.singletonList(step), diff.getNewlyUnimplementedSteps());
+    }
+
+    @Test
+    public void snapshotsGiveTheSameDiffAsProjects() throws IOException {
+        ArmaProject base = withoutSearchFeature();
+        ArmaProject head = TestProjects.scanSample();
+        scenario(head, "Valid login").addTag("@new");
+        Path basePath = folder.getRoot().toPath().resolve("base.arma");
+        Path headPath = folder.getRoot().toPath().resolve("head.arma");
+        ProjectSnapshot.write(base, basePath);
+        ProjectSnapshot.write(head, headPath);
+
+        ProjectDiff diff = new ProjectDiffer().diff(ProjectSnapshot.open(basePath, false), ProjectSnapshot.open(headPath, false));
+
+        assertEquals(head.diffFrom(base).toString(), diff.toString());
+    }
+
+    private static ArmaProject withoutSearchFeature(){
+        ArmaProject project = TestProjects.scanSample();
+        project.getFeatures().removeIf(feature -> "Search".equals(feature.getName()));
+        project.reindex();
+        return project;
+    }
+
+    private static ArmaScenario scenario(ArmaProject project, String name){
+        return project.getScenarios().stream()
+                .filter(scenario -> name.equals(scenario.getName()))
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+}
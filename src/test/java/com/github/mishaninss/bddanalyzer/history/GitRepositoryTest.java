@@ -0,0 +1,84 @@
+package com.github.mishaninss.bddanalyzer.history;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class GitRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestRepository repository;
+
+    @Before
+    public void createRepository() throws IOException {
+        repository = new TestRepository(folder.newFolder("repo"));
+        repository.write("a.txt", "first");
+        repository.write("dir/b.txt", "second");
+        repository.commit();
+        repository.write("a.txt", "changed");
+        repository.delete("dir/b.txt");
+        repository.write("dir/c.txt", "third");
+        repository.commit();
+        repository.write("dir/c.txt", "changed third");
+        repository.commit();
+    }
+
+    @Test
+    public void commitsAreListedOldestFirst() throws IOException {
+        try (GitRepository git = new GitRepository(repository.getDirectory())){
+            List<String[]> commits = git.getCommits("HEAD", 10);
+
+            assertEquals(repository.getCommits(), commits.stream().map(commit -> commit[0]).collect(Collectors.toList()));
+            for (int i = 1; i < commits.size(); i++){
+                assertTrue(Long.parseLong(commits.get(i)[1]) >= Long.parseLong(commits.get(i - 1)[1]));
+            }
+            assertEquals(repository.getCommits().subList(1, 3),
+                    git.getCommits("HEAD", 2).stream().map(commit -> commit[0]).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void treeAndBlobsAreRead() throws IOException {
+        try (GitRepository git = new GitRepository(repository.getDirectory())){
+            Map<String, String> tree = git.getTree(repository.getCommits().get(0));
+
+            assertEquals(new HashSet<>(Arrays.asList("a.txt", "dir/b.txt")), tree.keySet());
+            assertEquals("first", new String(git.readBlob(tree.get("a.txt")), StandardCharsets.UTF_8));
+            assertEquals("second", new String(git.readBlob(tree.get("dir/b.txt")), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void changesOfEveryCommitAreComputed() throws IOException {
+        try (GitRepository git = new GitRepository(repository.getDirectory())){
+            List<String> commits = repository.getCommits();
+            Map<String, Map<String, String>> changes = git.getChanges(commits);
+
+            assertEquals(new HashSet<>(commits.subList(1, 3)), changes.keySet());
+            Map<String, String> second = changes.get(commits.get(1));
+            assertEquals(new HashSet<>(Arrays.asList("a.txt", "dir/b.txt", "dir/c.txt")), second.keySet());
+            assertNull(second.get("dir/b.txt"));
+            assertEquals(git.getTree(commits.get(1)).get("a.txt"), second.get("a.txt"));
+            Map<String, String> third = changes.get(commits.get(2));
+            assertEquals(Collections.singleton("dir/c.txt"), third.keySet());
+            assertEquals("changed third", new String(git.readBlob(third.get("dir/c.txt")), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void missingBlobIsReported() throws IOException {
+        try (GitRepository git = new GitRepository(repository.getDirectory())){
+            git.readBlob("0000000000000000000000000000000000000000");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.mishaninss.bddanalyzer.history;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HistoryScannerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestRepository repository;
+
+    @Before
+    public void createRepository() throws IOException {
+        Path sample = TestProjects.sampleRoot();
+        repository = new TestRepository(folder.newFolder("repo"));
+        repository.copy(sample.resolve("glue/steps/Steps.java"), "src/glue/Steps.java");
+        repository.copy(sample.resolve("features/login.feature"), "src/features/login.feature");
+        repository.write("README.md", "sample");
+        repository.commit();
+        repository.copy(sample.resolve("features/sub/search.feature"), "src/features/sub/search.feature");
+        repository.commit();
+        repository.write("README.md", "changed sample");
+        repository.commit();
+        String glue = new String(Files.readAllBytes(sample.resolve("glue/steps/Steps.java")), StandardCharsets.UTF_8);
+        repository.write("src/glue/Steps.java", glue.replace("@Then(\"^never used step$\")", "@Then(\"^nothing is implemented here$\")"));
+        repository.commit();
+        repository.delete("src/features/login.feature");
+        repository.commit();
+    }
+
+    @Test
+    public void statisticsOfEveryCommitAreComputed() throws IOException {
+        List<CommitStats> history = new HistoryScanner(repository.getDirectory(), "src/features", "src/glue").scan("HEAD", 10);
+
+        assertEquals(5, history.size());
+        for (int i = 0; i < history.size(); i++){
+            assertEquals(repository.getCommits().get(i), history.get(i).getCommit());
+        }
+        CommitStats first = history.get(0);
+        assertEquals(1, first.getFeatures());
+        assertEquals(3, first.getScenarios());
+        assertEquals(1, first.getScenarioOutlines());
+        assertEquals(11, first.getStepDefinitions());
+        assertEquals(2, first.getParsedFiles());
+        CommitStats second = history.get(1);
+        assertEquals(2, second.getFeatures());
+        assertEquals(first.getSteps() + 9, second.getSteps());
+        assertEquals(first.getImplementedSteps() + 8, second.getImplementedSteps());
+        assertEquals(1, second.getParsedFiles());
+        assertEquals(second, withCommit(history.get(2), second.getCommit(), second.getTime(), 1));
+        assertEquals(0, history.get(2).getParsedFiles());
+        CommitStats fourth = history.get(3);
+        assertEquals(second.getSteps(), fourth.getSteps());
+        assertEquals(second.getImplementedSteps() + 1, fourth.getImplementedSteps());
+        assertEquals(second.getNotUsedStepDefinitions() - 1, fourth.getNotUsedStepDefinitions());
+        assertEquals(1, fourth.getParsedFiles());
+        assertEquals(1, history.get(4).getFeatures());
+        assertEquals(2, history.get(4).getScenarios());
+    }
+
+    @Test
+    public void incrementalStatisticsEqualFullListing() throws IOException {
+        HistoryScanner scanner = new HistoryScanner(repository.getDirectory(), "src/features", "src/glue");
+        List<CommitStats> history = scanner.scan("HEAD", 10);
+
+        for (int i = 0; i < history.size(); i++){
+            CommitStats incremental = history.get(i);
+            CommitStats full = new HistoryScanner(repository.getDirectory(), "src/features", "src/glue")
+                    .scan(repository.getCommits().get(i), 1).get(0);
+            assertEquals(withCommit(full, incremental.getCommit(), incremental.getTime(), incremental.getParsedFiles()), incremental);
+        }
+    }
+
+    @Test
+    public void filesOutsideRootsAreIgnored() throws IOException {
+        List<CommitStats> history = new HistoryScanner(repository.getDirectory(), "src/features/sub", "src/glue").scan("HEAD", 10);
+
+        assertEquals(0, history.get(0).getFeatures());
+        assertEquals(1, history.get(1).getFeatures());
+        assertEquals(1, history.get(4).getFeatures());
+    }
+
+    /**
+     * Copy of the statistics with another commit and number of parsed files, so statistics of different commits can be compared
+     */
+    private static CommitStats withCommit(CommitStats stats, String commit, long time, int parsedFiles){
+        CommitStats copy = new CommitStats(commit, time);
+        copy.setFeatures(stats.getFeatures());
+        copy.setScenarios(stats.getScenarios());
+        copy.setScenarioOutlines(stats.getScenarioOutlines());
+        copy.setSteps(stats.getSteps());
+        copy.setImplementedSteps(stats.getImplementedSteps());
+        copy.setTests(stats.getTests());
+        copy.setStepDefinitions(stats.getStepDefinitions());
+        copy.setNotUsedStepDefinitions(stats.getNotUsedStepDefinitions());
+        copy.setParsedFiles(parsedFiles);
+        return copy;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.mishaninss.bddanalyzer.history;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assume;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Git repository in a temporary directory, tests using it are skipped if git is not installed
+ */
+class TestRepository {
+    private final File directory;
+    private final List<String> commits = new ArrayList<>();
+
+    TestRepository(File directory) throws IOException {
+        this.directory = directory;
+        try {
+            git("init", "-q");
+        } catch (IOException ex){
+            Assume.assumeNoException("git is not available", ex);
+        }
+    }
+
+    File getDirectory(){
+        return directory;
+    }
+
+    /**
+     * Ids of the commits, the oldest first
+     */
+    List<String> getCommits(){
+        return commits;
+    }
+
+    void write(String path, String content) throws IOException {
+        Path file = directory.toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void copy(Path source, String path) throws IOException {
+        write(path, new String(Files.readAllBytes(source), StandardCharsets.UTF_8));
+    }
+
+    void delete(String path) throws IOException {
+        Files.delete(directory.toPath().resolve(path));
+    }
+
+    String commit() throws IOException {
+        git("add", "-A");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "--allow-empty", "-m", "commit " + commits.size());
+        String commit = git("rev-parse", "HEAD").trim();
+        commits.add(commit);
+        return commit;
+    }
+
+    private String git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).start();
+        String output = IOUtils.toString(process.getInputStream(), "UTF-8");
+        try {
+            if (process.waitFor() != 0){
+                throw new IOException("git " + String.join(" ", args) + " failed: " + output);
+            }
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        return output;
+    }
+}
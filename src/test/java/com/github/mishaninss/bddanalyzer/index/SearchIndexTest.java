@@ -0,0 +1,200 @@
+package com.github.mishaninss.bddanalyzer.index;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexTest {
+
+    private static final String[] QUERIES = {"log", "logn", "subnit buton", "gin pa", "click", "cart", "open page"};
+
+    @Test
+    public void prefixQueryMatchesTokenStarts(){
+        SearchIndex index = index(feature("Login", "I open the login page", "I click on Submit button"));
+
+        assertEquals(Arrays.asList("SCENARIO Login", "STEP I open the login page"),
+                texts(index.search("log", SearchIndex.Mode.PREFIX, 10)));
+        assertTrue(index.search("ogin", SearchIndex.Mode.PREFIX, 10).isEmpty());
+    }
+
+    @Test
+    public void fuzzyQueryToleratesTypos(){
+        SearchIndex index = index(feature("Login", "I open the login page", "I click on Submit button"));
+
+        assertEquals(Collections.singletonList("STEP I click on Submit button"),
+                texts(index.search("subnit buton", SearchIndex.Mode.FUZZY, 10)));
+        assertTrue(texts(index.search("logn", SearchIndex.Mode.FUZZY, 10)).contains("STEP I open the login page"));
+        assertTrue(index.search("logout", SearchIndex.Mode.FUZZY, 10).isEmpty());
+    }
+
+    @Test
+    public void substringQueryCrossesTokens(){
+        SearchIndex index = index(feature("Login", "I open the login page", "I click on Submit button"));
+
+        assertEquals(Collections.singletonList("STEP I open the login page"),
+                texts(index.search("gin pa", SearchIndex.Mode.SUBSTRING, 10)));
+        assertEquals(Arrays.asList("SCENARIO Login", "STEP I open the login page"),
+                texts(index.search("g", SearchIndex.Mode.SUBSTRING, 10)));
+    }
+
+    @Test
+    public void stepDefinitionsAreSearchedWithDescriptions(){
+        SearchIndex index = new SearchIndex();
+        ArmaStepDef stepDef = new ArmaStepDef();
+        stepDef.setText("^I add \"([^\"]*)\" to the cart$");
+        stepDef.setDescription("Adds a product to the shopping basket");
+        index.setStepDefs(Collections.singletonList(stepDef));
+
+        List<SearchHit> hits = index.search("basket", SearchIndex.Mode.PREFIX, 10);
+
+        assertEquals(1, hits.size());
+        assertSame(stepDef, hits.get(0).getStepDef());
+    }
+
+    @Test
+    public void updatedFeatureReplacesItsDocuments(){
+        ArmaFeature feature = feature("Login", "I open the login page", "I click on Submit button");
+        SearchIndex index = index(feature);
+        int size = index.size();
+
+        feature.getScenarios().get(0).getSteps().remove(1);
+        index.update(feature);
+
+        assertEquals(size - 1, index.size());
+        assertTrue(index.search("submit", SearchIndex.Mode.PREFIX, 10).isEmpty());
+        assertEquals(1, index.search("login page", SearchIndex.Mode.PREFIX, 10).size());
+    }
+
+    @Test
+    public void compactionKeepsResults(){
+        Random random = new Random(34);
+        List<ArmaFeature> features = new ArrayList<>();
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < 50; i++){
+            ArmaFeature feature = randomFeature(random, i);
+            features.add(feature);
+            index.update(feature);
+        }
+        for (int i = 0; i < 50; i += 3){
+            ArmaFeature feature = features.get(i);
+            feature.getScenarios().add(randomFeature(random, i).getScenarios().get(0));
+            index.update(feature);
+        }
+        for (int i = 1; i < 50; i += 7){
+            index.remove(features.get(i));
+        }
+        Map<String, List<String>> before = searchAll(index);
+        int size = index.size();
+
+        index.compact();
+
+        assertEquals(size, index.size());
+        assertEquals(before, searchAll(index));
+        SearchIndex rebuilt = new SearchIndex();
+        for (int i = 0; i < 50; i++){
+            if (i % 7 != 1){
+                rebuilt.update(features.get(i));
+            }
+        }
+        assertEquals(size, rebuilt.size());
+        for (String query: QUERIES){
+            for (SearchIndex.Mode mode: SearchIndex.Mode.values()){
+                List<String> texts = texts(rebuilt.search(query, mode, 1000));
+                Collections.sort(texts);
+                assertEquals(query + " " + mode, before.get(query + " " + mode), texts);
+            }
+        }
+    }
+
+    @Test
+    public void boundedEditDistanceEqualsFullDistance(){
+        Random random = new Random(35);
+        for (int i = 0; i < 2000; i++){
+            String left = randomWord(random);
+            String right = randomWord(random);
+            int threshold = random.nextInt(4);
+            int distance = fullDistance(left, right);
+
+            assertEquals(left + " " + right, distance <= threshold ? distance : -1,
+                    SearchIndex.levenshteinDistance(left, right, threshold));
+        }
+    }
+
+    /**
+     * Sorted hits of every query in every mode. Scores depend on the sizes of inverted lists, which include
+     * tombstones until compaction, so only the found documents are compared
+     */
+    private static Map<String, List<String>> searchAll(SearchIndex index){
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        for (String query: QUERIES){
+            for (SearchIndex.Mode mode: SearchIndex.Mode.values()){
+                List<String> texts = texts(index.search(query, mode, 1000));
+                Collections.sort(texts);
+                results.put(query + " " + mode, texts);
+            }
+        }
+        return results;
+    }
+
+    private static List<String> texts(List<SearchHit> hits){
+        return hits.stream().map(hit -> hit.getType() + " " + hit.getText()).collect(Collectors.toList());
+    }
+
+    private static SearchIndex index(ArmaFeature feature){
+        SearchIndex index = new SearchIndex();
+        index.update(feature);
+        return index;
+    }
+
+    private static ArmaFeature feature(String scenarioName, String... stepTexts){
+        ArmaFeature feature = new ArmaFeature();
+        ArmaScenario scenario = new ArmaScenario();
+        scenario.setName(scenarioName);
+        for (String stepText: stepTexts){
+            scenario.addStep(new ArmaStep(stepText));
+        }
+        feature.getScenarios().add(scenario);
+        return feature;
+    }
+
+    private static ArmaFeature randomFeature(Random random, int number){
+        String[] verbs = {"open", "click", "add", "remove", "login", "submit"};
+        String[] nouns = {"page", "button", "cart", "product", "form", "login"};
+        String[] steps = new String[1 + random.nextInt(4)];
+        for (int i = 0; i < steps.length; i++){
+            steps[i] = "I " + verbs[random.nextInt(verbs.length)] + " the " + nouns[random.nextInt(nouns.length)] + " " + number;
+        }
+        return feature("Scenario " + number, steps);
+    }
+
+    private static String randomWord(Random random){
+        char[] chars = new char[random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++){
+            chars[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+
+    private static int fullDistance(String left, String right){
+        int[][] distances = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++){
+            for (int j = 0; j <= right.length(); j++){
+                if (i == 0 || j == 0){
+                    distances[i][j] = i + j;
+                } else {
+                    int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                    distances[i][j] = Math.min(Math.min(distances[i - 1][j], distances[i][j - 1]) + 1,
+                            distances[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return distances[left.length()][right.length()];
+    }
+}
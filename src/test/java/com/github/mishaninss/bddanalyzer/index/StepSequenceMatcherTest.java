@@ -0,0 +1,143 @@
+package com.github.mishaninss.bddanalyzer.index;
+
+import com.github.mishaninss.bddanalyzer.model.ArmaScenario;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import com.github.mishaninss.bddanalyzer.model.ArmaStepDef;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StepSequenceMatcherTest {
+
+    private static final int STEP_DEFS = 5;
+
+    private final List<ArmaStepDef> stepDefs = new ArrayList<>();
+
+    public StepSequenceMatcherTest(){
+        for (int i = 0; i < STEP_DEFS; i++){
+            ArmaStepDef stepDef = new ArmaStepDef();
+            stepDef.setText("^step " + i + "$");
+            stepDefs.add(stepDef);
+        }
+    }
+
+    @Test
+    public void countsEqualNaiveScan(){
+        Random random = new Random(33);
+        List<ArmaScenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < 300; i++){
+            scenarios.add(randomScenario(random));
+        }
+        List<List<ArmaStepDef>> sequences = new ArrayList<>();
+        for (int i = 0; i < 60; i++){
+            sequences.add(randomSequence(random, 1 + random.nextInt(4)));
+        }
+
+        int[] counts = new StepSequenceMatcher(sequences).count(scenarios);
+
+        for (int i = 0; i < sequences.size(); i++){
+            assertEquals("sequence " + i, naiveCount(scenarios, sequences.get(i)), counts[i]);
+        }
+    }
+
+    @Test
+    public void overlappingAndNestedOccurrencesAreFound(){
+        ArmaScenario scenario = scenario(0, 0, 0, 1, 0, 0);
+        List<List<ArmaStepDef>> sequences = Arrays.asList(sequence(0, 0), sequence(0, 1), sequence(0, 0, 1), sequence(1));
+
+        int[] counts = new StepSequenceMatcher(sequences).count(Collections.singletonList(scenario));
+
+        assertArrayEquals(new int[]{3, 1, 1, 1}, counts);
+    }
+
+    @Test
+    public void notImplementedStepBreaksSequence(){
+        ArmaScenario scenario = scenario(0, -1, 1, 0, 1);
+
+        int[] counts = new StepSequenceMatcher(Collections.singletonList(sequence(0, 1)))
+                .count(Collections.singletonList(scenario));
+
+        assertArrayEquals(new int[]{1}, counts);
+    }
+
+    @Test
+    public void scenarioIsLocatedOncePerOccurrence(){
+        ArmaScenario first = scenario(0, 1, 0, 1);
+        ArmaScenario second = scenario(1, 0);
+        ArmaScenario third = scenario(2, 2);
+
+        List<List<ArmaScenario>> found = new StepSequenceMatcher(Collections.singletonList(sequence(0, 1)))
+                .locate(Arrays.asList(first, second, third));
+
+        assertEquals(1, found.size());
+        assertEquals(2, found.get(0).size());
+        assertSame(first, found.get(0).get(0));
+        assertSame(first, found.get(0).get(1));
+    }
+
+    @Test
+    public void emptyAndNullSequencesNeverMatch(){
+        List<List<ArmaStepDef>> sequences = Arrays.asList(Collections.emptyList(), Arrays.asList(stepDefs.get(0), null));
+
+        int[] counts = new StepSequenceMatcher(sequences).count(Collections.singletonList(scenario(0, 0, 1)));
+
+        assertArrayEquals(new int[]{0, 0}, counts);
+    }
+
+    /**
+     * Counts occurrences the way getSequenceUsage counted them before the automaton: every window is compared
+     */
+    private static int naiveCount(List<ArmaScenario> scenarios, List<ArmaStepDef> sequence){
+        int usage = 0;
+        for (ArmaScenario scenario: scenarios){
+            List<ArmaStepDef> linked = scenario.mapStepsToStepDefinitions();
+            for (int i = 0; i + sequence.size() <= linked.size(); i++){
+                if (linked.subList(i, i + sequence.size()).equals(sequence)){
+                    usage++;
+                }
+            }
+        }
+        return usage;
+    }
+
+    private ArmaScenario randomScenario(Random random){
+        int[] ids = new int[random.nextInt(12)];
+        for (int i = 0; i < ids.length; i++){
+            ids[i] = random.nextInt(STEP_DEFS + 1) - 1;
+        }
+        return scenario(ids);
+    }
+
+    private List<ArmaStepDef> randomSequence(Random random, int length){
+        List<ArmaStepDef> sequence = new ArrayList<>();
+        for (int i = 0; i < length; i++){
+            sequence.add(stepDefs.get(random.nextInt(3)));
+        }
+        return sequence;
+    }
+
+    /**
+     * @param ids indexes of step definitions of the steps, -1 for a not implemented step
+     */
+    private ArmaScenario scenario(int... ids){
+        ArmaScenario scenario = new ArmaScenario();
+        for (int id: ids){
+            ArmaStep step = new ArmaStep(id < 0 ? "not implemented" : "step " + id);
+            if (id >= 0){
+                step.setStepDef(stepDefs.get(id));
+            }
+            scenario.addStep(step);
+        }
+        return scenario;
+    }
+
+    private List<ArmaStepDef> sequence(int... ids){
+        List<ArmaStepDef> sequence = new ArrayList<>();
+        for (int id: ids){
+            sequence.add(stepDefs.get(id));
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class InterruptibleCharSequenceTest {
+
+    private static final String CATASTROPHIC = StringUtils.repeat('a', 40) + "c";
+
+    @Test
+    public void exponentialMatchIsStoppedByReadsBudget(){
+        InterruptibleCharSequence text = new InterruptibleCharSequence(CATASTROPHIC, 100_000, 0);
+
+        try {
+            Pattern.compile("^(a+)+b$").matcher(text).matches();
+            fail("match is expected to exceed the budget");
+        } catch (MatchBudgetExceededException ex){
+            assertEquals(100_000, text.getReads() - 1);
+        }
+    }
+
+    @Test
+    public void exponentialMatchIsStoppedByTimeBudget(){
+        InterruptibleCharSequence text = new InterruptibleCharSequence(CATASTROPHIC, 0, TimeUnit.MILLISECONDS.toNanos(50));
+        long start = System.nanoTime();
+
+        try {
+            Pattern.compile("^(a+)+b$").matcher(text).matches();
+            fail("match is expected to exceed the time limit");
+        } catch (MatchBudgetExceededException ex){
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        }
+    }
+
+    @Test
+    public void safeMatchFitsBudget(){
+        InterruptibleCharSequence text = new InterruptibleCharSequence(CATASTROPHIC, 1_000, 0);
+
+        assertFalse(Pattern.compile("^a+b$").matcher(text).matches());
+        assertTrue(text.getReads() <= 1_000);
+        assertTrue(Pattern.compile("^a+c$").matcher(new InterruptibleCharSequence(CATASTROPHIC, 1_000, 0)).matches());
+    }
+
+    @Test
+    public void sequenceDelegatesToText(){
+        InterruptibleCharSequence text = new InterruptibleCharSequence("I open page", 0, 0);
+
+        assertEquals(11, text.length());
+        assertEquals("open", text.subSequence(2, 6).toString());
+        assertEquals("I open page", text.toString());
+        assertEquals('o', text.charAt(2));
+        assertEquals(1, text.getReads());
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.mishaninss.bddanalyzer.matching;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RegexRiskAnalyzerTest {
+
+    @Test
+    public void nestedQuantifiersAreExponential(){
+        assertLevel(RegexRisk.Level.EXPONENTIAL, "^(a+)+b$");
+        assertLevel(RegexRisk.Level.EXPONENTIAL, "^(\\w+\\s?)*$");
+        assertLevel(RegexRisk.Level.EXPONENTIAL, "^(\\d+)+$");
+    }
+
+    @Test
+    public void repeatedOverlappingAlternationIsExponential(){
+        assertLevel(RegexRisk.Level.EXPONENTIAL, "^(a|ab)*c$");
+        assertLevel(RegexRisk.Level.SAFE, "^(a|b)*c$");
+    }
+
+    @Test
+    public void adjacentOverlappingQuantifiersArePolynomial(){
+        assertLevel(RegexRisk.Level.POLYNOMIAL, "^a*a*a*b$");
+        assertLevel(RegexRisk.Level.POLYNOMIAL, ".*\\s*.*");
+    }
+
+    @Test
+    public void typicalStepDefinitionsAreSafe(){
+        assertLevel(RegexRisk.Level.SAFE, "^I have (\\d+) items?$");
+        assertLevel(RegexRisk.Level.SAFE, "^I open \"([^\"]*)\" page$");
+        assertLevel(RegexRisk.Level.SAFE, "^I search for \"(.*)\"$");
+    }
+
+    @Test
+    public void notBacktrackedGroupsAreSafe(){
+        assertLevel(RegexRisk.Level.SAFE, "^(a++)+b$");
+        assertLevel(RegexRisk.Level.SAFE, "^(?>a+)+b$");
+        assertLevel(RegexRisk.Level.SAFE, "^(?=a+)b$");
+    }
+
+    @Test
+    public void invalidRegexIsReportedAsNotAnalyzed(){
+        RegexRisk risk = RegexRiskAnalyzer.analyze("(");
+
+        assertTrue(risk.isSafe());
+        assertEquals(1, risk.getReasons().size());
+        assertTrue(risk.getReasons().get(0).startsWith("not analyzed"));
+    }
+
+    private static void assertLevel(RegexRisk.Level level, String regex){
+        RegexRisk risk = RegexRiskAnalyzer.analyze(regex);
+        assertEquals(risk.toString(), level, risk.getLevel());
+        assertEquals(risk.toString(), level == RegexRisk.Level.SAFE, risk.getReasons().isEmpty());
+    }
+}
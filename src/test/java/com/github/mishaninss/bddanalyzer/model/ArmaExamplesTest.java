@@ -0,0 +1,88 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ArmaExamplesTest {
+
+    @Test
+    public void bodyRowChangesAreWrittenToTable(){
+        ArmaExamples examples = examples();
+
+        examples.getTableBody().get(1).setValue(0, "guest");
+        examples.getTableBody().get(0).getCells().get(1).setValue("<page>");
+        examples.getTableBody().get(0).applyParameter("page", "home");
+
+        assertEquals("guest", examples.getValue("user", 1));
+        assertEquals("home", examples.getValue("page", 0));
+        assertEquals(Arrays.asList("admin", "home"), examples.getTableBody().get(0).getValues());
+    }
+
+    @Test
+    public void headerChangesRenameColumns(){
+        ArmaExamples examples = examples();
+
+        examples.getTableHeader().getCells().get(0).setValue("login");
+
+        assertEquals(-1, examples.getColumnIndex("user"));
+        assertEquals(0, examples.getColumnIndex("login"));
+        assertEquals("admin", examples.getValue("login", 0));
+    }
+
+    @Test
+    public void addedCellAddsColumn(){
+        ArmaExamples examples = examples();
+
+        examples.getTableHeader().addCell("role");
+        examples.getTableBody().get(0).setValue(2, "owner");
+
+        assertEquals(3, examples.getColumnCount());
+        assertEquals("owner", examples.getValue("role", 0));
+        assertEquals("", examples.getValue("role", 1));
+    }
+
+    @Test
+    public void removedCellRemovesColumn(){
+        ArmaExamples examples = examples();
+
+        examples.getTableBody().get(0).removeCell(0);
+
+        assertEquals(Arrays.asList("page"), examples.getTableHeader().getValues());
+        assertEquals(Arrays.asList("cart"), examples.getTableBody().get(1).getValues());
+    }
+
+    @Test
+    public void rowsKeepValueEquality(){
+        ArmaExamples examples = examples();
+
+        assertEquals(new ArmaTableRow("admin", "main"), examples.getTableBody().get(0));
+        assertEquals(new ArmaTableRow("user", "page"), examples.getTableHeader());
+        ArmaTableRow copy = new ArmaTableRow(examples.getTableBody().get(0));
+        examples.setValue(0, 0, "root");
+        assertEquals(new ArmaTableRow("admin", "main"), copy);
+    }
+
+    @Test
+    public void replacedAndRemovedRowsAreDetached(){
+        ArmaExamples examples = examples();
+
+        ArmaTableRow replaced = examples.getTableBody().set(0, new ArmaTableRow("root", "admin"));
+        ArmaTableRow removed = examples.getTableBody().remove(1);
+
+        assertEquals(new ArmaTableRow("admin", "main"), replaced);
+        assertEquals(new ArmaTableRow("user", "cart"), removed);
+        assertEquals(1, examples.getRowCount());
+        assertEquals("root", examples.getValue("user", 0));
+    }
+
+    private static ArmaExamples examples(){
+        ArmaExamples examples = new ArmaExamples();
+        examples.setTableHeader(new ArmaTableRow("user", "page"));
+        examples.addBodyRow(new ArmaTableRow("admin", "main"));
+        examples.addBodyRow(new ArmaTableRow("user", "cart"));
+        return examples;
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ArmaScenarioOutlineTest {
+
+    @Test
+    public void parametersUsageIsCachedWhileStepsAreNotChanged(){
+        ArmaScenarioOutline outline = outline("I open <page>");
+
+        assertSame(outline.getParametersUsageIndex(), outline.getParametersUsageIndex());
+    }
+
+    @Test
+    public void stepAddedThroughStepsListIsCounted(){
+        ArmaScenarioOutline outline = outline("I open <page>");
+        assertFalse(outline.isParameterUsed("user"));
+
+        outline.getSteps().add(new ArmaStep("I log in as <user> on <page>"));
+
+        assertTrue(outline.isParameterUsed("user"));
+        assertEquals(Integer.valueOf(2), outline.getParametersUsage().get("page"));
+    }
+
+    @Test
+    public void stepRemovedThroughStepsListIsNotCounted(){
+        ArmaScenarioOutline outline = outline("I open <page>", "I see <title>");
+        assertTrue(outline.isParameterUsed("title"));
+
+        outline.getSteps().remove(1);
+
+        assertFalse(outline.isParameterUsed("title"));
+    }
+
+    @Test
+    public void changedStepTextIsCounted(){
+        ArmaScenarioOutline outline = outline("I open <page>");
+        assertTrue(outline.isParameterUsed("page"));
+
+        outline.getSteps().get(0).setText("I open <url>");
+
+        assertFalse(outline.isParameterUsed("page"));
+        assertTrue(outline.isParameterUsed("url"));
+    }
+
+    @Test
+    public void changedDataTableIsCounted(){
+        ArmaScenarioOutline outline = outline("I fill the form");
+        ArmaDataTable dataTable = new ArmaDataTable();
+        dataTable.addRow(new ArmaTableRow("name", "<name>"));
+        outline.getSteps().get(0).setArgument(dataTable);
+        assertTrue(outline.isParameterUsed("name"));
+
+        dataTable.getTable().setValue(1, 0, "<login>");
+
+        assertFalse(outline.isParameterUsed("name"));
+        assertEquals(Collections.singletonMap("login", 1), outline.getParametersUsage());
+    }
+
+    private static ArmaScenarioOutline outline(String... stepTexts){
+        ArmaScenarioOutline outline = new ArmaScenarioOutline();
+        outline.setName("outline");
+        for (String stepText: stepTexts){
+            outline.addStep(new ArmaStep(stepText));
+        }
+        return outline;
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.mishaninss.bddanalyzer.model;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StepLinkTest {
+
+    private static final String CATASTROPHIC = StringUtils.repeat('a', 40) + "c";
+
+    @Test
+    public void parallelLinksEqualSerialLinks(){
+        ArmaProject serial = TestProjects.scanSample();
+        ArmaProject parallel = TestProjects.scanSample();
+        parallel.setLinkParallelism(4);
+        parallel.linkSteps(parallel.getStepDefMatcher()::match);
+
+        assertEquals(TestProjects.links(serial), TestProjects.links(parallel));
+        assertFalse(parallel.toString().contains("ForkJoinPool"));
+    }
+
+    @Test
+    public void closedProjectLinksInNewPool(){
+        ArmaProject serial = TestProjects.scanSample();
+        try (ArmaProject parallel = TestProjects.scanSample()){
+            parallel.setLinkParallelism(2);
+            parallel.linkSteps(parallel.getStepDefMatcher()::match);
+            parallel.close();
+            parallel.linkSteps(parallel.getStepDefMatcher()::match);
+
+            assertEquals(TestProjects.links(serial), TestProjects.links(parallel));
+        }
+    }
+
+    @Test
+    public void exponentialStepDefIsDisabledBeforeLinking(){
+        ArmaProject project = budgetProject(1);
+
+        assertTrue(project.getStepDefMatcher().isDisabled(0));
+        assertFalse(project.getStepDefMatcher().isDisabled(1));
+        assertFalse(TestProjects.links(project).contains(0));
+    }
+
+    @Test
+    public void exceededBudgetFailsOnlyTheMatchedText(){
+        ArmaProject serial = budgetProject(1);
+        ArmaProject parallel = budgetProject(4);
+
+        List<Integer> links = TestProjects.links(serial);
+        assertEquals(TestProjects.links(parallel), links);
+        for (int i = 0; i < links.size(); i++){
+            assertEquals("step " + i, i % 2 == 0 ? 2 : 1, (int) links.get(i));
+        }
+        assertEquals(links.size() / 2 + 1, serial.getMatchProblems().size());
+    }
+
+    @Test
+    public void linkSpeedupKeepsLinksOfProject(){
+        ArmaProject project = TestProjects.scanSample();
+        List<Integer> links = TestProjects.links(project);
+        ArmaStep step = project.getFeatures().get(0).getScenarios().get(0).getSteps().get(0);
+        ArmaStepDef stepDef = step.getStepDef();
+
+        String table = project.printLinkSpeedup(2);
+
+        assertTrue(table, table.contains("Different links"));
+        assertEquals(links, TestProjects.links(project));
+        assertSame(stepDef, step.getStepDef());
+    }
+
+    /**
+     * The first step definition is at risk of exponential backtracking, the second one of polynomial backtracking.
+     * Steps alternate between a text exceeding the read budget of the second step definition and a text
+     * the second step definition matches cheaply
+     */
+    private static ArmaProject budgetProject(int parallelism){
+        ArmaProject project = new ArmaProject("", "");
+        project.getStepDefinitions().addAll(Arrays.asList(stepDef("^(a+)+b$"), stepDef("^a*a*a*a*a*b$"), stepDef("^a+c$")));
+        for (int f = 0; f < 8; f++){
+            ArmaFeature feature = new ArmaFeature();
+            ArmaScenario scenario = new ArmaScenario();
+            for (int s = 0; s < 4; s++){
+                scenario.addStep(new ArmaStep(CATASTROPHIC));
+                scenario.addStep(new ArmaStep("aab"));
+            }
+            feature.getScenarios().add(scenario);
+            project.getFeatures().add(feature);
+        }
+        project.setLinkParallelism(parallelism);
+        project.linkSteps(project.getStepDefMatcher().withBudget(100_000, 0)::match);
+        return project;
+    }
+
+    private static ArmaStepDef stepDef(String text){
+        ArmaStepDef stepDef = new ArmaStepDef();
+        stepDef.setText(text);
+        return stepDef;
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DistinctCountSketchTest {
+    /**
+     * Four standard errors of a sketch with 4096 registers
+     */
+    private static final double MAX_ERROR = 4 * 1.04 / Math.sqrt(4096);
+
+    @Test
+    public void emptySketchEstimatesZero(){
+        assertEquals(0, new DistinctCountSketch().estimate());
+    }
+
+    @Test
+    public void estimatesAreWithinErrorBounds(){
+        for (int count: new int[]{10, 100, 1_000, 10_000, 100_000, 1_000_000}){
+            DistinctCountSketch sketch = new DistinctCountSketch();
+            for (int i = 0; i < count; i++){
+                sketch.add("I open \"page" + i + "\" page");
+            }
+            assertWithinBounds(count, sketch.estimate());
+        }
+    }
+
+    @Test
+    public void repeatedValuesAreCountedOnce(){
+        DistinctCountSketch sketch = new DistinctCountSketch();
+        for (int repeat = 0; repeat < 10; repeat++){
+            for (int i = 0; i < 5_000; i++){
+                sketch.add("step " + i);
+            }
+        }
+        assertWithinBounds(5_000, sketch.estimate());
+    }
+
+    @Test
+    public void mergedSketchEqualsSketchOfAllValues(){
+        DistinctCountSketch all = new DistinctCountSketch();
+        DistinctCountSketch first = new DistinctCountSketch();
+        DistinctCountSketch second = new DistinctCountSketch();
+        for (int i = 0; i < 50_000; i++){
+            String value = "step " + i;
+            all.add(value);
+            if (i < 30_000){
+                first.add(value);
+            }
+            if (i >= 20_000){
+                second.add(value);
+            }
+        }
+        first.merge(second);
+
+        assertEquals(all.estimate(), first.estimate());
+        assertWithinBounds(50_000, first.estimate());
+    }
+
+    private static void assertWithinBounds(long expected, long estimate){
+        double error = Math.abs(estimate - expected) / (double) expected;
+        assertTrue("estimate " + estimate + " of " + expected + " distinct values", error <= MAX_ERROR);
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.mishaninss.bddanalyzer.shard;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Shards are scanned in the test process, {@link ShardCoordinator#runWorkers} only starts the same scan in other JVMs
+ */
+public class ShardedScanTest {
+    private static final int SHARDS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String stepDefsRoot;
+    private String featuresRoot;
+
+    @Before
+    public void createProject() throws IOException {
+        Path sample = TestProjects.sampleRoot();
+        Path glue = folder.newFolder("glue").toPath();
+        Path features = folder.newFolder("features").toPath();
+        for (int i = 0; i < 3; i++){
+            Path dir = Files.createDirectories(glue.resolve("p" + i));
+            Files.copy(sample.resolve("glue/steps/Steps.java"), dir.resolve("Steps.java"));
+        }
+        for (int i = 0; i < 50; i++){
+            Path dir = Files.createDirectories(features.resolve("m" + i % 7).resolve("f" + i));
+            Files.copy(sample.resolve("features/login.feature"), dir.resolve("login.feature"));
+            Files.copy(sample.resolve("features/sub/search.feature"), dir.resolve("search.feature"));
+        }
+        stepDefsRoot = glue.toString();
+        featuresRoot = features.toString();
+    }
+
+    @Test
+    public void mergedShardsEqualSingleScan() throws IOException {
+        ArmaProject single = new ArmaProject(stepDefsRoot, featuresRoot);
+        single.scan();
+        Path output = folder.newFolder("shards").toPath();
+        for (int shard = 0; shard < SHARDS; shard++){
+            new ShardWorker(stepDefsRoot, featuresRoot).scan(shard, SHARDS, output);
+        }
+        ShardCoordinator coordinator = new ShardCoordinator(output);
+        try (Stream<Path> files = Files.list(output)){
+            assertEquals("no temporary files are left", 2 * SHARDS, files.count());
+        }
+
+        ShardStats stats = coordinator.mergeStats();
+        ArmaProject merged = coordinator.mergeProject();
+
+        assertEquals(100, stats.getFeatureFiles());
+        assertEquals(3, stats.getStepDefFiles());
+        assertEquals(single.getFeatures().size(), stats.getFeatures());
+        assertEquals(single.getSteps().size(), stats.getSteps());
+        assertEquals(single.countTests(), stats.getTests());
+        assertEquals(single.getStepDefinitions().size(), stats.getStepDefinitions());
+        assertEquals(single.getFeatures(), merged.getFeatures());
+        assertEquals(single.getStepDefinitions(), merged.getStepDefinitions());
+        assertEquals(TestProjects.links(single), TestProjects.links(merged));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingShardIsRejected() throws IOException {
+        Path output = folder.newFolder("shards").toPath();
+        for (int shard = 1; shard < SHARDS; shard++){
+            new ShardWorker(stepDefsRoot, featuresRoot).scan(shard, SHARDS, output);
+        }
+        new ShardCoordinator(output).mergeStats();
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.mishaninss.bddanalyzer.snapshot;
+
+import com.github.mishaninss.bddanalyzer.TestProjects;
+import com.github.mishaninss.bddanalyzer.diff.MerkleHash;
+import com.github.mishaninss.bddanalyzer.model.ArmaFeature;
+import com.github.mishaninss.bddanalyzer.model.ArmaProject;
+import com.github.mishaninss.bddanalyzer.model.ArmaStep;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProjectSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void loadedProjectEqualsScannedProject() throws IOException {
+        ArmaProject project = TestProjects.scanSample();
+        Path path = folder.getRoot().toPath().resolve("project.arma");
+        ProjectSnapshot.write(project, path);
+
+        ArmaProject loaded = ProjectSnapshot.load(path);
+
+        assertEquals(project.getStepDefsRoot(), loaded.getStepDefsRoot());
+        assertEquals(project.getFeaturesRoot(), loaded.getFeaturesRoot());
+        assertEquals(project.getStepDefinitions(), loaded.getStepDefinitions());
+        assertEquals(project.getFeatures(), loaded.getFeatures());
+        assertEquals(TestProjects.links(project), TestProjects.links(loaded));
+        assertEquals(project.getStepDefsUsage().values().toString(), loaded.getStepDefsUsage().values().toString());
+    }
+
+    @Test
+    public void featuresAreDecodedLazilyFromMappedFile() throws IOException {
+        ArmaProject project = TestProjects.scanSample();
+        Path path = folder.getRoot().toPath().resolve("project.arma");
+        ProjectSnapshot.write(project, path);
+
+        ProjectSnapshot snapshot = ProjectSnapshot.open(path, true);
+
+        assertEquals(project.getFeatures().size(), snapshot.getFeaturesCount());
+        for (int i = 0; i < snapshot.getFeaturesCount(); i++){
+            ArmaFeature feature = project.getFeatures().get(i);
+            assertEquals(feature.getLocation().getFile(), snapshot.getFeatureFile(i));
+            assertEquals(MerkleHash.of(feature), snapshot.getFeatureHash(i));
+            assertEquals(feature, snapshot.getFeature(i));
+            assertSame(snapshot.getFeature(i), snapshot.getFeature(i));
+        }
+        for (int i = 0; i < project.getStepDefinitions().size(); i++){
+            assertEquals(project.countStepDefUsage(project.getStepDefinitions().get(i)), snapshot.getStepDefUsage(i));
+        }
+    }
+
+    @Test
+    public void extremeNumbersSurviveVarintEncoding() throws IOException {
+        ArmaProject project = TestProjects.scanSample();
+        List<ArmaStep> steps = project.getSteps();
+        int[] values = {0, -1, 1, 63, 64, 127, 128, -129, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int i = 0; i < values.length; i++){
+            steps.get(i).getLocation().setLine(values[i]);
+            steps.get(i).getLocation().setColumn(values[values.length - 1 - i]);
+        }
+        Path path = folder.getRoot().toPath().resolve("project.arma");
+        ProjectSnapshot.write(project, path);
+
+        List<ArmaStep> loadedSteps = ProjectSnapshot.load(path).getSteps();
+
+        for (int i = 0; i < values.length; i++){
+            assertEquals(values[i], loadedSteps.get(i).getLocation().getLine());
+            assertEquals(values[values.length - 1 - i], loadedSteps.get(i).getLocation().getColumn());
+        }
+    }
+
+    @Test
+    public void emptyProjectRoundTrips() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("empty.arma");
+        ProjectSnapshot.write(new ArmaProject("glue", "features"), path);
+
+        ArmaProject loaded = ProjectSnapshot.load(path);
+
+        assertEquals("features", loaded.getFeaturesRoot());
+        assertTrue(loaded.getFeatures().isEmpty());
+        assertTrue(loaded.getStepDefinitions().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("other.arma");
+        Files.write(path, "Feature: not a snapshot at all".getBytes());
+        ProjectSnapshot.open(path, false);
+    }
+}
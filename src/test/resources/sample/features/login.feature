@@ -0,0 +1,49 @@
+@smoke @login
+Feature: Login
+  Users log in
+
+  Background:
+    Given I open "home" page
+    And I accept cookies
+
+  @fast
+  Scenario: Valid login
+    Given I open "login" page
+    When I type "bob" into "user" field
+    And I type "secret" into "password" field
+    And I click on "submit" button
+    Then I see "Welcome" message
+
+  Scenario: Invalid login
+    Given I open "login" page
+    When I type "bob" into "user" field
+    And I type "wrong" into "password" field
+    And I click on "submit" button
+    Then I see "Error" message
+
+  Scenario Outline: Parametrized login <user>
+    Given I open "login" page
+    When I type "<user>" into "user" field
+    And I type "<password>" into "password" field
+    And I click on "<button>" button
+    Then I see "<message>" message
+    And the table is shown:
+      | col  | val     |
+      | user | <user>  |
+
+    @a
+    Examples: first
+      | user | password | button | message | unused |
+      | bob  | secret   | submit | Welcome | x      |
+      | bob  | secret   | submit | Welcome | x      |
+      | amy  | pwd      | submit | Welcome | y      |
+
+    @a
+    Examples: second
+      | user | password | message | button |
+      | tom  | pass     | Welcome | submit |
+
+    @b
+    Examples: third
+      | user | password | button | message |
+      | eve  | 1        | submit | Hi      |
@@ -0,0 +1,18 @@
+Feature: Search
+
+  Scenario: Search something
+    Given I open "home" page
+    And I accept cookies
+    When I search for "cats"
+    Then I see "cats" results
+
+  Scenario: Search other
+    Given I open "home" page
+    And I accept cookies
+    When I search for "dogs"
+    Then I see "dogs" results
+    And nothing is implemented here
+    """
+    some doc
+      string
+    """
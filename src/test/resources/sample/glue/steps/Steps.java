@@ -0,0 +1,37 @@
+package steps;
+
+public class Steps {
+    /** Opens a page */
+    @Given("^I open \"([^\"]*)\" page$")
+    public void open(String page){}
+
+    @Given("^I accept cookies$")
+    public void cookies(){}
+
+    @When("^I type \"([^\"]*)\" into \"([^\"]*)\" field$")
+    public void type(String v, String f){}
+
+    @When("^I click on \"([^\"]*)\" button$")
+    public void click(String b){}
+
+    @When("^I click the \"([^\"]*)\" button$")
+    public void click2(String b){}
+
+    @Then("^I see \"([^\"]*)\" message$")
+    public void see(String m){}
+
+    @When(value = "^I search for \"(.*)\"$")
+    public void search(String q){}
+
+    @Then("^I see \"([^\"]*)\" results$")
+    public void results(String q){}
+
+    @Then("^the table is shown:$")
+    public void table(Object t){}
+
+    @Then("^(a+)+b$")
+    public void evil(){}
+
+    @Then("^never used step$")
+    public void unused(){}
+}